@@ -0,0 +1,317 @@
+/**
+ * @file AhoCorasick.java
+ * @brief This file contains the implementation of the Aho-Corasick multi-pattern matcher.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @class AhoCorasick
+ * @brief Finds every occurrence of many patterns in a text in a single pass.
+ *
+ * The patterns are built once into a trie with failure links, so scanning a text
+ * costs one step per character plus one step per reported match, no matter how
+ * many patterns there are. Running KMP once per pattern costs a full scan of the
+ * text for every pattern instead.
+ *
+ * Trie edges are kept in an open-addressing hash table keyed by (state, character)
+ * so that any character can be used without a table of 65536 entries per state.
+ * Each state also has a dictionary link to the nearest state on its failure chain
+ * that ends a pattern, so matches are reported without walking the whole chain.
+ */
+public class AhoCorasick {
+    private static final int NONE = -1; ///< Marks a missing state or pattern.
+
+    /**
+     * @interface MatchListener
+     * @brief Receives the matches found by search.
+     */
+    public interface MatchListener {
+        /**
+         * @brief Called for each occurrence of a pattern.
+         * @param patternIndex Index of the pattern in the list given to the constructor.
+         * @param end Position in the text right after the occurrence.
+         */
+        void onMatch(int patternIndex, int end);
+    }
+
+    private final String[] patterns; ///< Patterns in the order they were given.
+    private final boolean ignoreCase; ///< Whether matching ignores case.
+    private final long[] edgeKeys; ///< Hash table keys packed by edgeKey, or 0 when empty.
+    private final int[] edgeTargets; ///< Hash table values: target state of each edge.
+    private final int edgeMask; ///< Mask for indexing into the hash table.
+    private final int[] failure; ///< Failure link of each state.
+    private final int[] dictionaryLink; ///< Nearest state on the failure chain that ends a pattern.
+    private final int[] firstPattern; ///< First pattern ending at each state.
+    private final int[] nextPattern; ///< Next pattern ending at the same state as each pattern.
+    private int stateCount; ///< Number of states, the root is state 0.
+
+    /**
+     * @brief Builds a case-sensitive automaton.
+     * @param patterns The patterns to search for.
+     * @throws IllegalArgumentException If a pattern is empty.
+     */
+    public AhoCorasick(List<String> patterns) {
+        this(patterns, false);
+    }
+
+    /**
+     * @brief Builds an automaton for a set of patterns.
+     * @param patterns The patterns to search for; duplicates are reported separately.
+     * @param ignoreCase Whether matching ignores case.
+     * @throws IllegalArgumentException If a pattern is empty.
+     */
+    public AhoCorasick(List<String> patterns, boolean ignoreCase) {
+        this.patterns = patterns.toArray(new String[0]);
+        this.ignoreCase = ignoreCase;
+
+        int maxStates = 1;
+        for (String pattern : this.patterns) {
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Patterns must not be empty.");
+            }
+            maxStates += pattern.length();
+        }
+        int capacity = Integer.highestOneBit(Math.max(2, maxStates) * 2 - 1) << 1;
+        edgeKeys = new long[capacity];
+        edgeTargets = new int[capacity];
+        edgeMask = capacity - 1;
+        failure = new int[maxStates];
+        dictionaryLink = new int[maxStates];
+        firstPattern = new int[maxStates];
+        nextPattern = new int[this.patterns.length];
+        Arrays.fill(firstPattern, NONE);
+        stateCount = 1;
+
+        int[] edgeFrom = new int[maxStates];
+        char[] edgeChar = new char[maxStates];
+        for (int p = 0; p < this.patterns.length; p++) {
+            String pattern = this.patterns[p];
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = normalize(pattern.charAt(i));
+                int next = transition(state, c);
+                if (next == NONE) {
+                    next = stateCount++;
+                    edgeFrom[next] = state;
+                    edgeChar[next] = c;
+                    putTransition(state, c, next);
+                }
+                state = next;
+            }
+            nextPattern[p] = firstPattern[state];
+            firstPattern[state] = p;
+        }
+        // Keep the pattern order within a state ascending
+        for (int s = 0; s < stateCount; s++) {
+            firstPattern[s] = reverse(firstPattern[s]);
+        }
+
+        buildLinks(edgeFrom, edgeChar);
+    }
+
+    /**
+     * @brief Gets the number of patterns.
+     * @return The pattern count.
+     */
+    public int getPatternCount() {
+        return patterns.length;
+    }
+
+    /**
+     * @brief Gets a pattern by index.
+     * @param patternIndex The pattern index.
+     * @return The pattern as it was given.
+     */
+    public String getPattern(int patternIndex) {
+        return patterns[patternIndex];
+    }
+
+    /**
+     * @brief Gets the number of automaton states.
+     * @return The state count, including the root.
+     */
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    /**
+     * @brief Reports every occurrence of every pattern in a text, overlapping ones included.
+     * @param text The text to scan.
+     * @param listener Receives the matches in the order their ends appear in the text.
+     */
+    public void search(CharSequence text, MatchListener listener) {
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = step(state, normalize(text.charAt(i)));
+            int output = firstPattern[state] != NONE ? state : dictionaryLink[state];
+            while (output != NONE) {
+                for (int p = firstPattern[output]; p != NONE; p = nextPattern[p]) {
+                    listener.onMatch(p, i + 1);
+                }
+                output = dictionaryLink[output];
+            }
+        }
+    }
+
+    /**
+     * @brief Checks whether any pattern occurs in a text.
+     * @param text The text to scan.
+     * @return True as soon as a pattern is found.
+     */
+    public boolean containsAny(CharSequence text) {
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = step(state, normalize(text.charAt(i)));
+            if (firstPattern[state] != NONE || dictionaryLink[state] != NONE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @brief Computes the failure and dictionary links in breadth-first order.
+     * @param edgeFrom Parent state of each state.
+     * @param edgeChar Character on the edge into each state.
+     */
+    private void buildLinks(int[] edgeFrom, char[] edgeChar) {
+        // Group the states by parent so that children can be visited level by level
+        int[] childStart = new int[stateCount + 1];
+        for (int s = 1; s < stateCount; s++) {
+            childStart[edgeFrom[s] + 1]++;
+        }
+        for (int s = 0; s < stateCount; s++) {
+            childStart[s + 1] += childStart[s];
+        }
+        int[] children = new int[Math.max(0, stateCount - 1)];
+        int[] next = Arrays.copyOf(childStart, stateCount);
+        for (int s = 1; s < stateCount; s++) {
+            children[next[edgeFrom[s]]++] = s;
+        }
+
+        int[] queue = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+        failure[0] = 0;
+        dictionaryLink[0] = NONE;
+        queue[tail++] = 0;
+        while (head < tail) {
+            int state = queue[head++];
+            for (int k = childStart[state]; k < childStart[state + 1]; k++) {
+                int child = children[k];
+                if (state == 0) {
+                    failure[child] = 0;
+                } else {
+                    failure[child] = step(failure[state], edgeChar[child]);
+                }
+                int fallback = failure[child];
+                dictionaryLink[child] = firstPattern[fallback] != NONE ? fallback : dictionaryLink[fallback];
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    /**
+     * @brief Follows the goto function, falling back along failure links.
+     * @param state The current state.
+     * @param c The next (normalized) character.
+     * @return The next state.
+     */
+    private int step(int state, char c) {
+        while (true) {
+            int next = transition(state, c);
+            if (next != NONE) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = failure[state];
+        }
+    }
+
+    /**
+     * @brief Looks up a trie edge.
+     * @param state The source state.
+     * @param c The character on the edge.
+     * @return The target state, or NONE if there is no such edge.
+     */
+    private int transition(int state, char c) {
+        long key = edgeKey(state, c);
+        for (int slot = slotOf(key); ; slot = (slot + 1) & edgeMask) {
+            long stored = edgeKeys[slot];
+            if (stored == key) {
+                return edgeTargets[slot];
+            }
+            if (stored == 0) {
+                return NONE;
+            }
+        }
+    }
+
+    /**
+     * @brief Adds a trie edge; the table is sized for the worst case so it never fills up.
+     * @param state The source state.
+     * @param c The character on the edge.
+     * @param target The target state.
+     */
+    private void putTransition(int state, char c, int target) {
+        long key = edgeKey(state, c);
+        int slot = slotOf(key);
+        while (edgeKeys[slot] != 0) {
+            slot = (slot + 1) & edgeMask;
+        }
+        edgeKeys[slot] = key;
+        edgeTargets[slot] = target;
+    }
+
+    /**
+     * @brief Packs an edge into a non-zero hash table key.
+     * @param state The source state.
+     * @param c The character on the edge.
+     * @return The key.
+     */
+    private static long edgeKey(int state, char c) {
+        // The extra bit keeps the key of (0, '\0') distinct from an empty slot
+        return ((long) state << 17) | (1L << 16) | c;
+    }
+
+    /**
+     * @brief Selects the first hash table slot of a key.
+     * @param key The edge key.
+     * @return The slot index.
+     */
+    private int slotOf(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32)) & edgeMask;
+    }
+
+    /**
+     * @brief Folds the case of a character when matching ignores case.
+     * @param c The character.
+     * @return The character to match with.
+     */
+    private char normalize(char c) {
+        return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+    }
+
+    /**
+     * @brief Reverses the list of patterns that end at the same state.
+     * @param first The first pattern of the list.
+     * @return The new first pattern.
+     */
+    private int reverse(int first) {
+        int previous = NONE;
+        while (first != NONE) {
+            int following = nextPattern[first];
+            nextPattern[first] = previous;
+            previous = first;
+            first = following;
+        }
+        return previous;
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * @file BloomFilter.java
+ * @brief This file contains the implementation of the BloomFilter class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * @class BloomFilter
+ * @brief A probabilistic set of strings with no false negatives.
+ *
+ * Each string sets k bits of an m-bit array. A string whose bits are not all set was
+ * never added, so a negative answer is definite; a positive answer is wrong with a
+ * probability that depends on how full the array is. The k bit positions come from
+ * one 64-bit hash split into two 32-bit halves (h1 + i * h2, Kirsch-Mitzenmacher),
+ * so each operation hashes the string only once.
+ */
+public class BloomFilter {
+    private final long[] bits; ///< The bit array, 64 bits per word.
+    private final long bitCount; ///< Number of bits m.
+    private final int hashCount; ///< Number of bits k set per string.
+    private int insertionCount; ///< Number of add calls so far.
+
+    /**
+     * @brief Creates a filter sized for an expected number of strings and a target false positive rate.
+     *
+     * Uses m = -n ln(p) / (ln 2)^2 bits and k = (m / n) ln 2 hash functions, which
+     * minimize the false positive rate for n strings.
+     *
+     * @param expectedInsertions The number of strings the filter is sized for.
+     * @param falsePositiveRate The target false positive rate, between 0 and 1.
+     * @throws IllegalArgumentException If the arguments are out of range.
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || !(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("Invalid Bloom filter size.");
+        }
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(64, m);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.bits = new long[(int) ((bitCount + 63) >>> 6)];
+    }
+
+    /**
+     * @brief Creates a filter from stored parts.
+     * @param bits The bit array.
+     * @param bitCount Number of bits.
+     * @param hashCount Number of hash functions.
+     * @param insertionCount Number of strings added.
+     */
+    private BloomFilter(long[] bits, long bitCount, int hashCount, int insertionCount) {
+        this.bits = bits;
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.insertionCount = insertionCount;
+    }
+
+    /**
+     * @brief Adds a string.
+     * @param value The string.
+     */
+    public void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1; // Avoids h2 = 0, which would put all k bits in one place
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        insertionCount++;
+    }
+
+    /**
+     * @brief Checks whether a string may have been added.
+     * @param value The string.
+     * @return False if the string was definitely never added.
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1; // Avoids h2 = 0, which would put all k bits in one place
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @brief Gets the number of strings added.
+     * @return The insertion count, duplicates included.
+     */
+    public int getInsertionCount() {
+        return insertionCount;
+    }
+
+    /**
+     * @brief Gets the number of bits.
+     * @return m.
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * @brief Gets the number of bits set per string.
+     * @return k.
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * @brief Gets the memory used by the bit array.
+     * @return The size in bytes.
+     */
+    public long getMemoryBytes() {
+        return 8L * bits.length;
+    }
+
+    /**
+     * @brief Estimates the current false positive rate.
+     * @return (1 - e^(-kn/m))^k for the n strings added so far.
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertionCount / bitCount), hashCount);
+    }
+
+    /**
+     * @brief Writes the filter to a stream.
+     * @param out The stream.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(bitCount);
+        out.writeInt(hashCount);
+        out.writeInt(insertionCount);
+        for (long word : bits) {
+            out.writeLong(word);
+        }
+    }
+
+    /**
+     * @brief Reads a filter written by writeTo.
+     * @param in The stream.
+     * @return The filter.
+     * @throws IOException If an I/O error occurs or the data is not a valid filter.
+     */
+    public static BloomFilter readFrom(DataInputStream in) throws IOException {
+        long bitCount = in.readLong();
+        int hashCount = in.readInt();
+        int insertionCount = in.readInt();
+        if (bitCount < 64 || bitCount > (long) Integer.MAX_VALUE * 64 || hashCount < 1 || insertionCount < 0) {
+            throw new IOException("Invalid Bloom filter data.");
+        }
+        long[] bits = new long[(int) ((bitCount + 63) >>> 6)];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = in.readLong();
+        }
+        return new BloomFilter(bits, bitCount, hashCount, insertionCount);
+    }
+
+    /**
+     * @brief Hashes a string to 64 bits with FNV-1a and a final mix.
+     * @param value The string.
+     * @return The hash.
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        // Mix so that both 32-bit halves depend on every character
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
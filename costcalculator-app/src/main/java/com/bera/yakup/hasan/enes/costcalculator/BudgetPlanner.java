@@ -20,12 +20,16 @@ import java.util.Scanner;
  * with RecipeCosting, IngredientManagement, and PriceAdjustment classes.
  */
 public class BudgetPlanner {
+    private static final String[] CATEGORY_NAMES = {"Soup", "Appetizer", "Main Course", "Dessert"}; ///< Names of categories 1 to 4.
+    private static final int AFFORDABLE_PER_CATEGORY = 3; ///< Number of affordable recipes suggested per category.
+
     private Scanner scanner; ///< Scanner for user input.
     private PrintStream out; ///< PrintStream for displaying output.
     private UserAuthentication userAuth; ///< Instance of UserAuthentication for shared utilities.
     private RecipeCosting recipeCosting; ///< Instance of RecipeCosting for recipe operations.
     private IngredientManagement ingredientManagement; ///< Instance of IngredientManagement for ingredient operations.
     private PriceAdjustment priceAdjustment; ///< Instance of PriceAdjustment for price-related operations.
+    private List<Integer> mealPlan = new ArrayList<>(); ///< Recipe ids of the last planned meals.
 
     /**
      * @brief Constructor for the BudgetPlanner class.
@@ -63,23 +67,62 @@ public class BudgetPlanner {
             return 0;
         }
 
-        for (Recipe recipe : recipes) {
-            double recipeCost = 0;
-            for (int ingredientId : recipe.getIngredients()) {
-                for (Ingredient ingredient : ingredientList) {
-                    if (ingredient.getId() == ingredientId) {
-                        recipeCost += ingredient.getPrice();
-                        break;
-                    }
-                }
-            }
-            out.printf("ID: %d | Name: %s | Price: %.2f TL\n", recipes.indexOf(recipe) + 1, recipe.getName(), recipeCost);
+        // The whole listing is costed with one sparse matrix-vector product
+        long[] recipeCosts = recipeCosting.calculateAllRecipeCosts(recipes, new PriceIndex(ingredientList));
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < recipes.size(); i++) {
+            Recipe recipe = recipes.get(i);
+            long recipeCost = recipeCosts[i];
+
+            // Build the line by hand, printf dominated the cost of long listings
+            line.setLength(0);
+            line.append("ID: ").append(i + 1).append(" | Name: ").append(recipe.getName()).append(" | Price: ");
+            Money.appendTo(line, recipeCost).append(" TL\n");
+            out.print(line);
         }
         out.println();
 
         return 1;
     }
 
+    /**
+     * @brief Lists the cheapest recipes of each category that fit in the budget.
+     *
+     * Each category is one range query on the (category, cost) index, so only the
+     * suggested recipes are visited.
+     *
+     * @param recipes The recipes, in menu order.
+     * @param recipesVersion The version of the recipe file the recipes were loaded from.
+     * @param prices The price index of the current catalog.
+     * @param pricesVersion The version of the ingredient file the prices were loaded from.
+     * @param budgetMinor The budget in kuruş.
+     * @return The number of recipes listed.
+     */
+    public int listAffordableRecipes(List<Recipe> recipes, long recipesVersion, PriceIndex prices, long pricesVersion, long budgetMinor) {
+        RecipeCostIndex costIndex = recipeCosting.getCostIndex(recipes, recipesVersion, prices, pricesVersion);
+        int listed = 0;
+        StringBuilder line = new StringBuilder();
+        for (int category = 1; category <= CATEGORY_NAMES.length; category++) {
+            List<Integer> affordable = costIndex.findInCostRange(category, 0, budgetMinor, AFFORDABLE_PER_CATEGORY);
+            if (affordable.isEmpty()) {
+                continue;
+            }
+            out.println(CATEGORY_NAMES[category - 1] + ":");
+            for (int recipeId : affordable) {
+                line.setLength(0);
+                line.append("  ID: ").append(recipeId).append(" | Name: ").append(recipes.get(recipeId - 1).getName()).append(" | Price: ");
+                Money.appendTo(line, costIndex.costOf(recipeId)).append(" TL\n");
+                out.print(line);
+                listed++;
+            }
+        }
+        if (listed == 0) {
+            out.println("No recipe fits in the budget.");
+        }
+        out.println();
+        return listed;
+    }
+
     /**
      * @brief Displays the current budget.
      *
@@ -91,7 +134,7 @@ public class BudgetPlanner {
     public int viewBudget(double budget) throws IOException, InterruptedException {
         userAuth.clearScreen();
         out.println("\n=== Current Budget ===\n");
-        out.printf("Your current budget: %.2f TL\n\n", budget);
+        out.printf("Your current budget: %s TL\n\n", Money.format(Money.ofMajor(budget)));
         userAuth.enterToContinue();
         return 1;
     }
@@ -100,7 +143,8 @@ public class BudgetPlanner {
      * @brief Plans meals and updates the budget.
      *
      * Allows the user to select recipes to plan meals and calculates the total cost,
-     * updating the budget accordingly.
+     * updating the budget accordingly. All arithmetic is done in whole kuruş; the
+     * budget is only converted to and from lira at the boundaries.
      *
      * @param pathFileRecipes Path to the file containing recipes.
      * @param pathFileIngredients Path to the file containing ingredients.
@@ -119,13 +163,17 @@ public class BudgetPlanner {
             return budget; // Return unchanged budget
         }
 
-        double totalCost = 0;
+        long budgetMinor = Money.ofMajor(budget);
+        long totalCost = 0;
         List<Integer> selectedRecipeIds = new ArrayList<>();
+        PriceIndex prices = new PriceIndex(ingredientList);
 
         // Step 1: List available recipes
         userAuth.clearScreen();
         out.println("\n=== Available Recipes ===\n");
         listRecipesWithPrices(pathFileRecipes, pathFileIngredients);
+        out.println("=== Cheapest Recipes Within Budget ===\n");
+        listAffordableRecipes(recipes, CatalogVersion.of(pathFileRecipes), prices, CatalogVersion.of(pathFileIngredients), budgetMinor);
 
         // Step 2: Allow user to select recipes by ID
         out.println("\n=== Recipe Selection ===\n");
@@ -155,44 +203,131 @@ public class BudgetPlanner {
             Recipe selectedRecipe = recipes.get(recipeId - 1); // Adjusting for 0-based indexing
 
             // Calculate the cost of the selected recipe
-            double recipeCost = 0;
-            for (int ingredientId : selectedRecipe.getIngredients()) {
-                for (Ingredient ingredient : ingredientList) {
-                    if (ingredient.getId() == ingredientId) {
-                        recipeCost += ingredient.getPrice();
-                        break;
-                    }
-                }
-            }
+            long catalogVersion = CatalogVersion.of(pathFileIngredients, pathFileRecipes);
+            long recipeCost = recipeCosting.getRecipeCost(recipeId, selectedRecipe, prices, catalogVersion);
 
             // Check if the recipe can be added to the budget
-            if (recipeCost > budget) {
+            if (recipeCost > budgetMinor) {
                 out.printf("\nCannot add '%s'. Insufficient funds.\n\n", selectedRecipe.getName());
                 continue;
             }
 
             selectedRecipeIds.add(recipeId);
             totalCost += recipeCost;
-            budget -= recipeCost; // Deduct from budget
+            budgetMinor -= recipeCost; // Deduct from budget
             out.printf("\n'%s' added to meal plan.\n", selectedRecipe.getName());
-            out.printf("Current total cost: %.2f TL\n", totalCost);
-            out.printf("Remaining budget: %.2f TL\n\n", budget);
+            out.printf("Current total cost: %s TL\n", Money.format(totalCost));
+            out.printf("Remaining budget: %s TL\n\n", Money.format(budgetMinor));
+        }
+
+        if (!selectedRecipeIds.isEmpty()) {
+            mealPlan = selectedRecipeIds;
         }
 
         // Display the total cost and remaining budget
         out.println("\n=== Meal Plan Summary ===\n");
-        out.printf("Total cost of selected recipes: %.2f TL\n", totalCost);
-        out.printf("Remaining budget: %.2f TL\n\n", budget);
+        out.printf("Total cost of selected recipes: %s TL\n", Money.format(totalCost));
+        out.printf("Remaining budget: %s TL\n\n", Money.format(budgetMinor));
 
         userAuth.enterToContinue();
-        return budget; // Return updated budget
+        return Money.toMajor(budgetMinor); // Return updated budget
+    }
+
+    /**
+     * @brief Asks for a batch of what-if price changes and shows how they affect the recipes.
+     *
+     * The changes are applied as a PriceScenario over the catalog, so nothing is written
+     * to the ingredient file. The most affected recipes and the change in the cost of the
+     * last meal plan are displayed.
+     *
+     * @param pathFileRecipes Path to the file containing recipes.
+     * @param pathFileIngredients Path to the file containing ingredients.
+     * @return Returns 1 if the scenario was evaluated, 0 if there were no recipes or ingredients.
+     * @throws IOException If an I/O error occurs.
+     * @throws InterruptedException If the thread is interrupted.
+     */
+    public int runPriceScenario(String pathFileRecipes, String pathFileIngredients) throws IOException, InterruptedException {
+        List<Recipe> recipes = recipeCosting.loadRecipesFromFile(pathFileRecipes);
+        List<Ingredient> ingredientList = priceAdjustment.convertDoubleLinkToArray(pathFileIngredients);
+
+        if (recipes.isEmpty() || ingredientList.isEmpty()) {
+            out.println("\nNo recipes or ingredients found for a price scenario.\n");
+            userAuth.enterToContinue();
+            return 0;
+        }
+
+        PriceScenarioEngine engine = new PriceScenarioEngine(recipes, new PriceIndex(ingredientList));
+        PriceScenario scenario = engine.newScenario();
+
+        userAuth.clearScreen();
+        out.println("\n=== What-If Price Scenario ===\n");
+        out.println("Enter ingredient IDs and percent changes (e.g. 12 or -5). Type 'done' to finish:\n");
+
+        while (true) {
+            out.print("Ingredient ID (or 'done'): ");
+            String input = scanner.next();
+            if (input.equalsIgnoreCase("done")) {
+                break;
+            }
+
+            int ingredientId;
+            double percent;
+            try {
+                ingredientId = Integer.parseInt(input);
+                out.print("Percent change: ");
+                percent = Double.parseDouble(scanner.next());
+            } catch (NumberFormatException e) {
+                out.println("Invalid input. Please enter numbers or 'done'.\n");
+                continue;
+            }
+
+            try {
+                scenario.adjustPercent(ingredientId, percent);
+            } catch (IllegalArgumentException e) {
+                out.println(e.getMessage() + "\n");
+                continue;
+            }
+            out.printf("Ingredient %d: %s TL in this scenario.\n\n", ingredientId, Money.format(scenario.priceOf(ingredientId)));
+        }
+
+        PriceScenarioEngine.Result result = engine.evaluate(scenario);
+        out.println("\n=== Most Affected Recipes ===\n");
+        if (result.getAffectedCount() == 0) {
+            out.println("No recipe costs change in this scenario.");
+        }
+        StringBuilder line = new StringBuilder();
+        for (int index : result.mostAffected(10)) {
+            long delta = result.getDelta(index);
+            line.setLength(0);
+            line.append("ID: ").append(index + 1).append(" | Name: ").append(recipes.get(index).getName()).append(" | ");
+            Money.appendTo(line, result.getBaseCost(index)).append(" TL -> ");
+            Money.appendTo(line, result.getScenarioCost(index)).append(" TL (").append(delta > 0 ? "+" : "");
+            Money.appendTo(line, delta).append(" TL)");
+            out.println(line);
+        }
+
+        // The last meal plan may refer to recipes that were removed since
+        List<Integer> planIndexes = new ArrayList<>();
+        for (int recipeId : mealPlan) {
+            if (recipeId <= recipes.size()) {
+                planIndexes.add(recipeId - 1);
+            }
+        }
+        if (!planIndexes.isEmpty()) {
+            long planDelta = result.planDelta(planIndexes);
+            out.printf("\nChange in the cost of the last meal plan: %s%s TL\n", planDelta > 0 ? "+" : "", Money.format(planDelta));
+        }
+        out.println();
+
+        userAuth.enterToContinue();
+        return 1;
     }
 
     /**
      * @brief Displays and handles the budget planner menu.
      *
-     * Allows the user to interact with budget planning features, such as meal planning
-     * and viewing the current budget.
+     * Allows the user to interact with budget planning features, such as meal planning,
+     * viewing the current budget and what-if price scenarios.
      *
      * @param pathFileRecipes Path to the file containing recipes.
      * @param pathFileIngredients Path to the file containing ingredients.
@@ -214,7 +349,8 @@ public class BudgetPlanner {
             out.println("\n=== Budget Planner Menu ===\n");
             out.println("1. Plan Meals");
             out.println("2. View Budget");
-            out.println("3. Exit\n");
+            out.println("3. What-If Price Scenario");
+            out.println("4. Exit\n");
             out.print("Your choice: ");
 
             choice = userAuth.getInput();
@@ -232,6 +368,9 @@ public class BudgetPlanner {
                     viewBudget(budget); // Show updated budget
                     break;
                 case 3:
+                    runPriceScenario(pathFileRecipes, pathFileIngredients);
+                    break;
+                case 4:
                     return 1;
                 default:
                     out.println("\nInvalid choice. Please try again.\n");
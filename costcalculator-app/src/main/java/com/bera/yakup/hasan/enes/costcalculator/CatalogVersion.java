@@ -0,0 +1,57 @@
+/**
+ * @file CatalogVersion.java
+ * @brief This file contains the implementation of the CatalogVersion class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @class CatalogVersion
+ * @brief Derives a version stamp for the ingredient and recipe catalog files.
+ *
+ * Every in-process write to a catalog file calls bump() with the file's path, and
+ * the stamp also mixes in the size and modification time of the files themselves
+ * so that edits made by another process or by a fresh instance are noticed as
+ * well. Two equal stamps mean the derived data (such as recipe costs) can be
+ * reused. Writes are counted per file, so the stamp of the recipe file alone does
+ * not move when only prices are saved.
+ */
+public final class CatalogVersion {
+    private static final ConcurrentMap<String, AtomicLong> modificationCounts = new ConcurrentHashMap<>(); ///< In-process write counter of each file, by absolute path.
+
+    /**
+     * @brief Private constructor, this class only has static helpers.
+     */
+    private CatalogVersion() {
+    }
+
+    /**
+     * @brief Records that a catalog file has been written by this process.
+     * @param path Path of the written file.
+     */
+    public static void bump(String path) {
+        modificationCounts.computeIfAbsent(new File(path).getAbsolutePath(), key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * @brief Computes the current version stamp of the given catalog files.
+     * @param paths Paths of the files the derived data depends on.
+     * @return A stamp that changes whenever any of the files changes.
+     */
+    public static long of(String... paths) {
+        long stamp = 0;
+        for (String path : paths) {
+            File file = new File(path);
+            AtomicLong count = modificationCounts.get(file.getAbsolutePath());
+            stamp = stamp * 31 + (count == null ? 0 : count.get());
+            stamp = stamp * 31 + file.length();
+            stamp = stamp * 31 + file.lastModified();
+        }
+        return stamp;
+    }
+}
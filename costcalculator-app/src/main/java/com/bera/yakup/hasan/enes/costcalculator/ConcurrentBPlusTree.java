@@ -0,0 +1,743 @@
+/**
+ * @file ConcurrentBPlusTree.java
+ * @brief This file contains the implementation of the ConcurrentBPlusTree class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * @class ConcurrentBPlusTree
+ * @brief A B+ tree for many reader and writer threads, based on optimistic lock coupling.
+ *
+ * Every node has a StampedLock that serves as a version number. A reader takes an
+ * optimistic stamp on a node, reads it, takes a stamp on the child it chose, and
+ * then validates the parent's stamp; if a writer changed the parent in between, the
+ * operation restarts from the root. Lookups and range scans therefore write no
+ * shared memory and never block: they only restart when they raced with a writer
+ * on the same nodes.
+ *
+ * A writer descends the same way and converts its optimistic stamps to write locks
+ * only on the nodes it changes, which is usually one leaf. Internal nodes that are
+ * full are split on the way down, so splitting a node never needs more than its
+ * parent and itself locked, and locks are always taken top-down.
+ *
+ * Leaves are linked to their right siblings as in a B-link tree. A split only moves
+ * keys to a new right sibling, so a range scan that resumes after the last key it
+ * returned, following the links, never misses a key that was present for the whole
+ * scan. Range iterators are weakly consistent, like those of the java.util.concurrent
+ * maps. The values of one key are kept in an array that is copied on every change,
+ * so a reader never sees a half-updated list.
+ *
+ * Keys are only added; the structure does not support removal.
+ *
+ * @tparam K The key type.
+ * @tparam V The value type.
+ */
+public class ConcurrentBPlusTree<K extends Comparable<? super K>, V> {
+    public static final int DEFAULT_ORDER = 64; ///< Order used by the no-argument constructor.
+    private static final int MIN_ORDER = 4; ///< Smallest order that keeps both halves of an internal split non-empty.
+    private static final int YIELD_INTERVAL = 16; ///< Restarts between yields of the processor.
+    private static final int INSERTED = 0; ///< tryInsert stored the value.
+    private static final int SPLIT = 1; ///< tryInsert split a full node and must descend again.
+    private static final int RACED = 2; ///< tryInsert raced with a writer and must start over.
+
+    /**
+     * @class Node
+     * @brief Keys and the version lock shared by leaves and internal nodes.
+     */
+    private abstract static class Node {
+        final StampedLock lock = new StampedLock(); ///< Version lock; optimistic stamps act as versions.
+        final Object[] keys; ///< Sorted keys.
+        int keyCount; ///< Number of used key slots.
+
+        /**
+         * @brief Constructor for the Node class.
+         * @param capacity The number of key slots.
+         */
+        Node(int capacity) {
+            this.keys = new Object[capacity];
+        }
+    }
+
+    /**
+     * @class Leaf
+     * @brief A leaf with the value arrays of its keys and a link to its right sibling.
+     */
+    private static final class Leaf extends Node {
+        final Object[][] values; ///< values[i] holds the values of keys[i]; arrays are never modified.
+        volatile Leaf next; ///< The right sibling, or null.
+
+        /**
+         * @brief Constructor for the Leaf class.
+         * @param capacity The number of key slots.
+         */
+        Leaf(int capacity) {
+            super(capacity);
+            this.values = new Object[capacity][];
+        }
+    }
+
+    /**
+     * @class Internal
+     * @brief An internal node; children[i] holds the keys below keys[i], children[keyCount] the rest.
+     */
+    private static final class Internal extends Node {
+        final Node[] children; ///< Child nodes, one more than the keys.
+
+        /**
+         * @brief Constructor for the Internal class.
+         * @param capacity The number of key slots.
+         */
+        Internal(int capacity) {
+            super(capacity);
+            this.children = new Node[capacity + 1];
+        }
+    }
+
+    /**
+     * @class Retry
+     * @brief Signals that an optimistic read raced with a writer and must start over.
+     */
+    private static final class Retry extends RuntimeException {
+        private static final long serialVersionUID = 1L; ///< Serialization version; the instance is never serialized.
+        private static final Retry INSTANCE = new Retry(); ///< Shared instance; carries no state.
+
+        /**
+         * @brief Constructor for the Retry class, without message or stack trace.
+         */
+        private Retry() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * @class ReadPosition
+     * @brief The node an optimistic read is on and the stamp taken on it.
+     */
+    private static final class ReadPosition {
+        private Node node; ///< Node being read, or null before the first one.
+        private long stamp; ///< Optimistic stamp taken on the node.
+
+        /**
+         * @brief Moves the read to a node.
+         * @param node The node.
+         * @param stamp The optimistic stamp taken on it.
+         */
+        void moveTo(Node node, long stamp) {
+            this.node = node;
+            this.stamp = stamp;
+        }
+    }
+
+    private final int order; ///< Maximum number of children of an internal node.
+    private volatile Node root; ///< Root node, a leaf while the tree is small.
+    private final LongAdder size = new LongAdder(); ///< Number of (key, value) pairs.
+    private final LongAdder restarts = new LongAdder(); ///< Number of operations that had to start over.
+
+    /**
+     * @brief Creates an empty tree with the default order.
+     */
+    public ConcurrentBPlusTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    /**
+     * @brief Creates an empty tree.
+     * @param order The maximum number of children of an internal node, at least 4.
+     * @throws IllegalArgumentException If the order is too small.
+     */
+    public ConcurrentBPlusTree(int order) {
+        if (order < MIN_ORDER) {
+            throw new IllegalArgumentException("Concurrent B+ tree order must be at least " + MIN_ORDER + ".");
+        }
+        this.order = order;
+        this.root = new Leaf(order - 1);
+    }
+
+    /**
+     * @brief Gets the number of stored values.
+     * @return The number of (key, value) pairs; exact only while no insert is running.
+     */
+    public int size() {
+        return (int) size.sum();
+    }
+
+    /**
+     * @brief Gets how often an operation raced with a writer and started over.
+     * @return The number of restarts so far.
+     */
+    public long getRestartCount() {
+        return restarts.sum();
+    }
+
+    /**
+     * @brief Adds a value under a key; values already stored under the key are kept.
+     * @param key The key, not null.
+     * @param value The value.
+     * @throws NullPointerException If the key is null.
+     */
+    public void insert(K key, V value) {
+        if (key == null) {
+            throw new NullPointerException("B+ tree keys must not be null.");
+        }
+        int result;
+        int attempt = 0;
+        while ((result = tryInsert(key, value)) != INSERTED) {
+            if (result == RACED) {
+                restarts.increment();
+                backOff(++attempt);
+            }
+        }
+        size.increment();
+    }
+
+    /**
+     * @brief Finds the values stored under a key without taking any lock.
+     * @param key The key, not null.
+     * @return The values in insertion order, an empty list if the key is absent; the list is read-only.
+     * @throws NullPointerException If the key is null.
+     */
+    public List<V> search(K key) {
+        if (key == null) {
+            throw new NullPointerException("B+ tree keys must not be null.");
+        }
+        ReadPosition position = new ReadPosition();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Leaf leaf = (Leaf) descend(key, position);
+                Object[] values = null;
+                int index = indexOf(leaf, key);
+                if (index >= 0) {
+                    values = leaf.values[index];
+                }
+                validate(leaf, position.stamp);
+                return values == null ? Collections.emptyList() : valueList(values);
+            } catch (RuntimeException e) {
+                handleRace(e, position.node, position.stamp, attempt);
+            }
+        }
+    }
+
+    /**
+     * @brief Iterates over the pairs whose keys lie in a range, in key order.
+     *
+     * Each leaf is copied under an optimistic stamp when the iterator reaches it.
+     * Keys present for the whole iteration are returned exactly once; keys inserted
+     * meanwhile may or may not be.
+     *
+     * @param from The smallest key to include, or null for no lower bound.
+     * @param to The largest key to include, or null for no upper bound.
+     * @return An iterator over (key, value) entries; values of one key in insertion order.
+     */
+    public Iterator<Map.Entry<K, V>> range(K from, K to) {
+        return new RangeIterator(from, to);
+    }
+
+    /**
+     * @brief Collects the values of the keys in a range.
+     * @param from The smallest key to include, or null for no lower bound.
+     * @param to The largest key to include, or null for no upper bound.
+     * @return The values in key order.
+     */
+    public List<V> rangeValues(K from, K to) {
+        List<V> values = new ArrayList<>();
+        for (Iterator<Map.Entry<K, V>> it = range(from, to); it.hasNext(); ) {
+            values.add(it.next().getValue());
+        }
+        return values;
+    }
+
+    /**
+     * @class RangeIterator
+     * @brief Copies one leaf at a time and resumes after the last key it returned.
+     */
+    private final class RangeIterator implements Iterator<Map.Entry<K, V>> {
+        private final K to; ///< Largest key to return, or null.
+        private K after; ///< Keys up to and including this one were handled, or null.
+        private boolean includeAfter; ///< Whether after itself is still to be returned (the lower bound).
+        private Leaf leaf; ///< Next leaf to copy, or null when done.
+        private final List<Map.Entry<K, V>> buffer = new ArrayList<>(); ///< Entries copied from the last leaf.
+        private int position; ///< Next entry of the buffer to return.
+
+        /**
+         * @brief Constructor for the RangeIterator class.
+         * @param from The smallest key to include, or null.
+         * @param to The largest key to include, or null.
+         */
+        RangeIterator(K from, K to) {
+            this.to = to;
+            this.after = from;
+            this.includeAfter = true;
+            this.leaf = firstLeaf(from);
+            fill();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < buffer.size();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (position >= buffer.size()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = buffer.get(position++);
+            if (position == buffer.size()) {
+                fill();
+            }
+            return entry;
+        }
+
+        /**
+         * @brief Copies leaves into the buffer until it holds an entry or the range ends.
+         */
+        private void fill() {
+            buffer.clear();
+            position = 0;
+            int attempt = 0;
+            while (buffer.isEmpty() && leaf != null) {
+                long stamp = leaf.lock.tryOptimisticRead();
+                try {
+                    int count = Math.min(leaf.keyCount, leaf.keys.length);
+                    K last = after;
+                    boolean done = false;
+                    for (int i = 0; i < count && !done; i++) {
+                        K key = keyAt(leaf, i);
+                        if (after != null && (includeAfter ? key.compareTo(after) < 0 : key.compareTo(after) <= 0)) {
+                            continue;
+                        }
+                        if (to != null && key.compareTo(to) > 0) {
+                            done = true;
+                            break;
+                        }
+                        for (V value : valueList(leaf.values[i])) {
+                            buffer.add(new AbstractMap.SimpleImmutableEntry<>(key, value));
+                        }
+                        last = key;
+                    }
+                    Leaf next = leaf.next;
+                    validate(leaf, stamp);
+                    if (last != after) {
+                        after = last;
+                        includeAfter = false;
+                    }
+                    leaf = done ? null : next;
+                } catch (RuntimeException e) {
+                    handleRace(e, leaf, stamp, ++attempt);
+                    buffer.clear(); // Copy the same leaf again; keys that moved right are reached through next
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Finds the leaf a range starting at a key begins in.
+     * @param from The lower bound, or null for the leftmost leaf.
+     * @return The leaf.
+     */
+    private Leaf firstLeaf(K from) {
+        ReadPosition position = new ReadPosition();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return (Leaf) descend(from, position);
+            } catch (RuntimeException e) {
+                handleRace(e, position.node, position.stamp, attempt);
+            }
+        }
+    }
+
+    /**
+     * @brief Descends optimistically to the leaf that holds a key.
+     *
+     * Each child's stamp is taken before its parent is validated, so the child was
+     * still the right one when its version was read.
+     *
+     * @param key The key, or null for the leftmost leaf.
+     * @param position Follows the node being read; ends on the leaf, whose stamp the caller must validate.
+     * @return The leaf.
+     * @throws Retry If a node changed during the descent.
+     */
+    private Node descend(K key, ReadPosition position) {
+        Node node = root;
+        long stamp = node.lock.tryOptimisticRead();
+        position.moveTo(node, stamp);
+        if (node != root) {
+            throw Retry.INSTANCE;
+        }
+        while (node instanceof Internal) {
+            Internal internal = (Internal) node;
+            Node child = internal.children[key == null ? 0 : childIndex(internal, key)];
+            long childStamp = child.lock.tryOptimisticRead();
+            validate(internal, stamp);
+            node = child;
+            stamp = childStamp;
+            position.moveTo(node, stamp);
+        }
+        return node;
+    }
+
+    /**
+     * @brief Makes one attempt at an insert.
+     * @param key The key.
+     * @param value The value.
+     * @return INSERTED, or SPLIT or RACED if the insert must start over.
+     */
+    private int tryInsert(K key, V value) {
+        Internal parent = null;
+        long parentStamp = 0;
+        Node node = null;
+        long stamp = 0;
+        try {
+            node = root;
+            stamp = node.lock.tryOptimisticRead();
+            if (node != root) {
+                return RACED;
+            }
+            while (node instanceof Internal) {
+                Internal internal = (Internal) node;
+                if (internal.keyCount == order - 1) {
+                    // Split full nodes on the way down so the parent of any split has room
+                    return split(parent, parentStamp, internal, stamp) ? SPLIT : RACED;
+                }
+                Node child = internal.children[childIndex(internal, key)];
+                long childStamp = child.lock.tryOptimisticRead();
+                validate(internal, stamp);
+                parent = internal;
+                parentStamp = stamp;
+                node = child;
+                stamp = childStamp;
+            }
+        } catch (RuntimeException e) {
+            rethrowUnlessRace(e, node, stamp);
+            return RACED;
+        }
+
+        Leaf leaf = (Leaf) node;
+        int index;
+        int count;
+        try {
+            index = indexOf(leaf, key);
+            count = leaf.keyCount;
+            validate(leaf, stamp);
+        } catch (RuntimeException e) {
+            rethrowUnlessRace(e, node, stamp);
+            return RACED;
+        }
+        if (index < 0 && count == order - 1) {
+            return split(parent, parentStamp, leaf, stamp) ? SPLIT : RACED;
+        }
+        long write = leaf.lock.tryConvertToWriteLock(stamp);
+        if (write == 0) {
+            return RACED;
+        }
+        try {
+            if (index >= 0) {
+                Object[] old = leaf.values[index];
+                Object[] values = Arrays.copyOf(old, old.length + 1);
+                values[old.length] = value;
+                leaf.values[index] = values;
+            } else {
+                index = -index - 1;
+                System.arraycopy(leaf.keys, index, leaf.keys, index + 1, leaf.keyCount - index);
+                System.arraycopy(leaf.values, index, leaf.values, index + 1, leaf.keyCount - index);
+                leaf.keys[index] = key;
+                leaf.values[index] = new Object[]{value};
+                leaf.keyCount++;
+            }
+        } finally {
+            leaf.lock.unlockWrite(write);
+        }
+        return INSERTED;
+    }
+
+    /**
+     * @brief Splits a full node, with its parent and itself write-locked, if neither changed since they were read.
+     * @param parent The parent, or null if the node was the root.
+     * @param parentStamp The optimistic stamp of the parent.
+     * @param node The node.
+     * @param stamp The optimistic stamp of the node.
+     * @return True if the node was split, false if either node changed.
+     */
+    private boolean split(Internal parent, long parentStamp, Node node, long stamp) {
+        long parentWrite = 0;
+        if (parent != null) {
+            parentWrite = parent.lock.tryConvertToWriteLock(parentStamp);
+            if (parentWrite == 0) {
+                return false;
+            }
+        }
+        long write = node.lock.tryConvertToWriteLock(stamp);
+        try {
+            if (write == 0 || (parent == null && node != root)) {
+                return false;
+            }
+            Object separator;
+            Node right;
+            if (node instanceof Leaf) {
+                Leaf leaf = (Leaf) node;
+                Leaf sibling = new Leaf(order - 1);
+                int keep = leaf.keyCount / 2;
+                int moved = leaf.keyCount - keep;
+                System.arraycopy(leaf.keys, keep, sibling.keys, 0, moved);
+                System.arraycopy(leaf.values, keep, sibling.values, 0, moved);
+                sibling.keyCount = moved;
+                sibling.next = leaf.next;
+                leaf.keyCount = keep;
+                Arrays.fill(leaf.keys, keep, keep + moved, null);
+                Arrays.fill(leaf.values, keep, keep + moved, null);
+                leaf.next = sibling; // Published after the sibling is complete
+                separator = sibling.keys[0];
+                right = sibling;
+            } else {
+                Internal internal = (Internal) node;
+                Internal sibling = new Internal(order - 1);
+                int middle = internal.keyCount / 2;
+                int moved = internal.keyCount - middle - 1;
+                System.arraycopy(internal.keys, middle + 1, sibling.keys, 0, moved);
+                System.arraycopy(internal.children, middle + 1, sibling.children, 0, moved + 1);
+                sibling.keyCount = moved;
+                separator = internal.keys[middle];
+                int count = internal.keyCount;
+                internal.keyCount = middle;
+                Arrays.fill(internal.keys, middle, count, null);
+                Arrays.fill(internal.children, middle + 1, count + 1, null);
+                right = sibling;
+            }
+
+            if (parent == null) {
+                Internal newRoot = new Internal(order - 1);
+                newRoot.keys[0] = separator;
+                newRoot.children[0] = node;
+                newRoot.children[1] = right;
+                newRoot.keyCount = 1;
+                root = newRoot;
+            } else {
+                int child = 0;
+                while (parent.children[child] != node) {
+                    child++;
+                }
+                System.arraycopy(parent.keys, child, parent.keys, child + 1, parent.keyCount - child);
+                System.arraycopy(parent.children, child + 1, parent.children, child + 2, parent.keyCount - child);
+                parent.keys[child] = separator;
+                parent.children[child + 1] = right;
+                parent.keyCount++;
+            }
+            return true;
+        } finally {
+            if (write != 0) {
+                node.lock.unlockWrite(write);
+            }
+            if (parentWrite != 0) {
+                parent.lock.unlockWrite(parentWrite);
+            }
+        }
+    }
+
+    /**
+     * @brief Checks that a node has not been write-locked since an optimistic stamp was taken.
+     * @param node The node.
+     * @param stamp The stamp.
+     * @throws Retry If the node may have changed.
+     */
+    private static void validate(Node node, long stamp) {
+        if (!node.lock.validate(stamp)) {
+            throw Retry.INSTANCE;
+        }
+    }
+
+    /**
+     * @brief Counts a restart, or rethrows an exception that was not caused by a race.
+     *
+     * An optimistic read of a node that is being changed may see a torn state and
+     * fail, e.g. on a key slot that was just cleared. Such failures are treated as
+     * restarts; the stamps are validated right after every optimistic read, so a
+     * torn state is never returned to a caller.
+     *
+     * @param e The exception raised during an optimistic read.
+     * @param node The node that was being read, or null.
+     * @param stamp The optimistic stamp taken on the node.
+     * @param attempt Number of restarts of the operation so far, this one included.
+     */
+    private void handleRace(RuntimeException e, Node node, long stamp, int attempt) {
+        rethrowUnlessRace(e, node, stamp);
+        restarts.increment();
+        backOff(attempt);
+    }
+
+    /**
+     * @brief Waits a little before an operation starts over.
+     *
+     * Spins at first; every few restarts the thread yields instead, so that a writer
+     * that was preempted while holding a lock gets the processor back.
+     *
+     * @param attempt Number of restarts of the operation so far.
+     */
+    private static void backOff(int attempt) {
+        if (attempt % YIELD_INTERVAL == 0) {
+            Thread.yield();
+        } else {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @brief Rethrows an exception that was not caused by a torn optimistic read.
+     *
+     * A NullPointerException or ArrayIndexOutOfBoundsException only comes from a torn
+     * read if the node being read changed meanwhile; if its stamp is still valid, the
+     * exception is real, e.g. from a key's compareTo, and is rethrown.
+     *
+     * @param e The exception.
+     * @param node The node that was being read, or null.
+     * @param stamp The optimistic stamp taken on the node.
+     */
+    private static void rethrowUnlessRace(RuntimeException e, Node node, long stamp) {
+        if (e instanceof Retry) {
+            return;
+        }
+        boolean torn = e instanceof NullPointerException || e instanceof ArrayIndexOutOfBoundsException;
+        if (!torn || node == null || node.lock.validate(stamp)) {
+            throw e;
+        }
+    }
+
+    /**
+     * @brief Chooses the child of an internal node whose subtree holds a key.
+     * @param node The node.
+     * @param key The key.
+     * @return The index of the first separator greater than the key.
+     */
+    private int childIndex(Internal node, K key) {
+        int low = 0;
+        int high = Math.min(node.keyCount, node.keys.length);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (key.compareTo(keyAt(node, middle)) >= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @brief Binary searches the keys of a leaf.
+     * @param leaf The leaf.
+     * @param key The key.
+     * @return The index of the key, or -(insertion point) - 1 if it is absent.
+     */
+    private int indexOf(Leaf leaf, K key) {
+        int low = 0;
+        int high = Math.min(leaf.keyCount, leaf.keys.length) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = keyAt(leaf, middle).compareTo(key);
+            if (compared < 0) {
+                low = middle + 1;
+            } else if (compared > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * @brief Reads a key slot.
+     * @param node The node.
+     * @param index The slot.
+     * @return The key.
+     */
+    @SuppressWarnings("unchecked")
+    private K keyAt(Node node, int index) {
+        return (K) node.keys[index];
+    }
+
+    /**
+     * @brief Wraps a value array in a read-only list.
+     * @param values The array, which is never modified after it is stored.
+     * @return The list.
+     */
+    @SuppressWarnings("unchecked")
+    private List<V> valueList(Object[] values) {
+        return Collections.unmodifiableList(Arrays.asList((V[]) values));
+    }
+
+    /**
+     * @brief Checks the structure of the tree while no insert is running.
+     *
+     * Verifies key order within and across nodes, node capacity, equal depth of all
+     * leaves, the leaf chain and the size. Meant for tests.
+     *
+     * @throws IllegalStateException If an invariant is broken.
+     */
+    void checkStructure() {
+        List<Leaf> leaves = new ArrayList<>();
+        checkNode(root, null, null, 0, new int[]{-1}, leaves);
+        long values = 0;
+        for (int i = 0; i < leaves.size(); i++) {
+            Leaf leaf = leaves.get(i);
+            if (leaf.next != (i + 1 < leaves.size() ? leaves.get(i + 1) : null)) {
+                throw new IllegalStateException("Leaf chain does not follow key order.");
+            }
+            for (int k = 0; k < leaf.keyCount; k++) {
+                values += leaf.values[k].length;
+            }
+        }
+        if (values != size.sum()) {
+            throw new IllegalStateException("Size does not match the stored values.");
+        }
+    }
+
+    /**
+     * @brief Checks a subtree for checkStructure.
+     * @param node The subtree root.
+     * @param low Smallest allowed key, inclusive, or null.
+     * @param high Bound all keys must be below, or null.
+     * @param depth The level of the node, 0 for the root.
+     * @param leafDepth Depth of the first leaf found, or -1.
+     * @param leaves Collects the leaves from left to right.
+     */
+    private void checkNode(Node node, K low, K high, int depth, int[] leafDepth, List<Leaf> leaves) {
+        if (node.keyCount >= order || (node instanceof Internal && node.keyCount == 0)) {
+            throw new IllegalStateException("Node holds " + node.keyCount + " keys.");
+        }
+        for (int i = 0; i < node.keyCount; i++) {
+            K key = keyAt(node, i);
+            if ((i > 0 && keyAt(node, i - 1).compareTo(key) >= 0)
+                    || (low != null && key.compareTo(low) < 0)
+                    || (high != null && key.compareTo(high) >= 0)) {
+                throw new IllegalStateException("Keys are out of order at " + key + ".");
+            }
+        }
+        if (node instanceof Leaf) {
+            if (leafDepth[0] < 0) {
+                leafDepth[0] = depth;
+            } else if (leafDepth[0] != depth) {
+                throw new IllegalStateException("Leaves are at different depths.");
+            }
+            leaves.add((Leaf) node);
+            return;
+        }
+        Internal internal = (Internal) node;
+        for (int c = 0; c <= internal.keyCount; c++) {
+            K childLow = c == 0 ? low : keyAt(internal, c - 1);
+            K childHigh = c == internal.keyCount ? high : keyAt(internal, c);
+            checkNode(internal.children[c], childLow, childHigh, depth + 1, leafDepth, leaves);
+        }
+    }
+}
@@ -38,6 +38,9 @@ public class CostcalculatorApp {
     String pathFileRecipes = "recipes.bin"; ///< Path to the recipes file.
     String pathFileUsers = "users.bin"; ///< Path to the users file.
 
+    // Convert ingredient files written with float prices to fixed-point prices
+    new IngredientManagement(userAuthentication, inputScanner, System.out).migrateIngredientsFile(pathFileIngredients);
+
     // Start the main menu
     userAuthentication.mainMenu(pathFileUsers, pathFileIngredients, pathFileRecipes);
   }
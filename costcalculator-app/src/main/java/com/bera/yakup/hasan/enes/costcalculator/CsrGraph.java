@@ -0,0 +1,445 @@
+/**
+ * @file CsrGraph.java
+ * @brief This file contains the implementation of the CsrGraph class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @class CsrGraph
+ * @brief An immutable directed graph in compressed sparse row (CSR) form.
+ *
+ * The edges of node v are targets[offsets[v]] to targets[offsets[v + 1] - 1], so the
+ * whole graph is two int arrays: no object per node or edge, and a traversal reads
+ * each node's edges from one contiguous run. The arrays are built in two passes, one
+ * counting the edges of every node and one filling them in.
+ *
+ * A graph can be written to a cache file and memory-mapped back, so a large recipe
+ * graph is paged in by the operating system on demand instead of being rebuilt and
+ * held on the heap. The file is little-endian: a header of magic number, catalog
+ * version (two ints), node count, recipe count and edge count, then the offsets and
+ * the targets. Each array must stay below 2 GB to be mapped. A cache file is never
+ * changed in place: writeTo writes a new file next to it and moves it over the old
+ * one, so graphs still mapped from the old file keep reading it.
+ */
+public class CsrGraph {
+    private static final int MAGIC = 0x43535247; ///< "CSRG", marks a graph cache file.
+    private static final int HEADER_INTS = 6; ///< Number of ints before the offsets in a cache file.
+
+    private final int nodeCount; ///< Number of nodes.
+    private final int recipeCount; ///< Number of recipe nodes; the nodes after them are category hubs.
+    private final IntBuffer offsets; ///< Start of each node's edges in targets, nodeCount + 1 entries.
+    private final IntBuffer targets; ///< Edge targets grouped by source node.
+    private long catalogVersion; ///< Catalog version of the recipes the graph was built from.
+
+    /**
+     * @brief Creates a graph from its CSR arrays.
+     *
+     * @param offsets offsets[v] is the position of node v's first edge; offsets[nodeCount] is the edge count.
+     * @param targets The edge targets grouped by source node.
+     * @param recipeCount Number of recipe nodes, at most the node count.
+     * @throws IllegalArgumentException If the arrays do not describe a graph.
+     */
+    public CsrGraph(int[] offsets, int[] targets, int recipeCount) {
+        this(IntBuffer.wrap(offsets), IntBuffer.wrap(targets), recipeCount);
+        checkEdges();
+    }
+
+    /**
+     * @brief Creates a graph over heap or mapped buffers.
+     * @param offsets The offsets, nodeCount + 1 entries.
+     * @param targets The edge targets.
+     * @param recipeCount Number of recipe nodes.
+     * @throws IllegalArgumentException If the sizes do not fit together.
+     */
+    private CsrGraph(IntBuffer offsets, IntBuffer targets, int recipeCount) {
+        if (offsets.limit() < 1 || offsets.get(0) != 0 || offsets.get(offsets.limit() - 1) != targets.limit()) {
+            throw new IllegalArgumentException("Offsets must run from 0 to the number of targets.");
+        }
+        this.nodeCount = offsets.limit() - 1;
+        if (recipeCount < 0 || recipeCount > nodeCount) {
+            throw new IllegalArgumentException("Recipe count " + recipeCount + " exceeds the node count.");
+        }
+        this.recipeCount = recipeCount;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * @brief Checks that the offsets do not decrease and that every edge target is a node.
+     * @throws IllegalArgumentException If the arrays do not describe a graph.
+     */
+    private void checkEdges() {
+        for (int v = 0; v < nodeCount; v++) {
+            if (offsets.get(v) > offsets.get(v + 1)) {
+                throw new IllegalArgumentException("Offsets must not decrease.");
+            }
+        }
+        for (int e = 0, edgeCount = targets.limit(); e < edgeCount; e++) {
+            int target = targets.get(e);
+            if (target < 0 || target >= nodeCount) {
+                throw new IllegalArgumentException("Edge target " + target + " is not a node.");
+            }
+        }
+    }
+
+    /**
+     * @brief Builds a graph from an edge list by counting sort on the source nodes.
+     *
+     * Edges of a node keep the order they have in the list.
+     *
+     * @param nodeCount The number of nodes.
+     * @param sources Source node of each edge.
+     * @param edgeTargets Target node of each edge.
+     * @param edgeCount Number of edges used from the front of the two arrays.
+     * @return The graph, all of whose nodes are recipe nodes.
+     */
+    public static CsrGraph fromEdges(int nodeCount, int[] sources, int[] edgeTargets, int edgeCount) {
+        int[] offsets = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            offsets[sources[e] + 1]++;
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[edgeCount];
+        int[] fill = Arrays.copyOf(offsets, nodeCount);
+        for (int e = 0; e < edgeCount; e++) {
+            targets[fill[sources[e]]++] = edgeTargets[e];
+        }
+        return new CsrGraph(offsets, targets, nodeCount);
+    }
+
+    /**
+     * @brief Builds the recipe graph: an edge between recipes of the same category or with a shared ingredient.
+     *
+     * Recipes are grouped into category buckets, and the recipes sharing an ingredient
+     * with a recipe are read from the ingredient → recipes postings (the transposed
+     * recipe × ingredient matrix), so the work is proportional to the edges found. A
+     * first pass counts the edges of every recipe and a second one writes them. Edges
+     * of a node are in recipe order.
+     *
+     * A category with m recipes is a clique of m(m - 1) edges. With implicit category
+     * cliques, each category gets one extra hub node instead, after the recipe nodes,
+     * linked to and from its recipes; a path through the hub stands for the direct edge,
+     * so the strongly connected components are the same while the category edges drop
+     * to 2m. Each recipe's hub edge comes before its ingredient edges.
+     *
+     * @param recipes The recipes, in menu order.
+     * @param implicitCategoryCliques Whether to link each category through a hub node.
+     * @return The graph.
+     * @throws IllegalArgumentException If the graph has 2^31 edges or more.
+     */
+    public static CsrGraph fromRecipes(List<Recipe> recipes, boolean implicitCategoryCliques) {
+        int recipeCount = recipes.size();
+
+        // Number the categories in order of first use, then bucket the recipes by counting sort
+        Map<Integer, Integer> bucketIds = new HashMap<>();
+        int[] bucketOf = new int[recipeCount];
+        for (int i = 0; i < recipeCount; i++) {
+            int category = recipes.get(i).getCategory();
+            Integer bucket = bucketIds.get(category);
+            if (bucket == null) {
+                bucket = bucketIds.size();
+                bucketIds.put(category, bucket);
+            }
+            bucketOf[i] = bucket;
+        }
+        int bucketCount = bucketIds.size();
+        int[] bucketStart = new int[bucketCount + 1];
+        for (int i = 0; i < recipeCount; i++) {
+            bucketStart[bucketOf[i] + 1]++;
+        }
+        for (int b = 0; b < bucketCount; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        int[] members = new int[recipeCount];
+        int[] fill = Arrays.copyOf(bucketStart, bucketCount);
+        for (int i = 0; i < recipeCount; i++) {
+            members[fill[bucketOf[i]]++] = i;
+        }
+
+        SparseMatrix uses = SparseMatrix.fromRecipes(recipes);
+        SparseMatrix postings = uses.transpose();
+        int nodeCount = recipeCount + (implicitCategoryCliques ? bucketCount : 0);
+        int[] offsets = new int[nodeCount + 1];
+        int[] targets = null;
+        int[] seenBy = new int[recipeCount]; // seenBy[j] == pass * recipeCount + i + 1 once j is a neighbor of i
+        int[] neighbors = new int[16];
+
+        for (int pass = 0; pass < 2; pass++) {
+            long edgeCount = 0;
+            for (int i = 0; i < recipeCount; i++) {
+                int count = 0;
+                int bucket = bucketOf[i];
+                int stamp = pass * recipeCount + i + 1;
+                if (!implicitCategoryCliques) {
+                    for (int m = bucketStart[bucket]; m < bucketStart[bucket + 1]; m++) {
+                        if (members[m] != i) {
+                            if (count == neighbors.length) {
+                                neighbors = Arrays.copyOf(neighbors, count * 2);
+                            }
+                            neighbors[count++] = members[m];
+                        }
+                    }
+                }
+                // Same-category recipes are already linked, so only other categories are collected here
+                for (int p = uses.rowStart(i); p < uses.rowEnd(i); p++) {
+                    int ingredient = uses.columnAt(p);
+                    for (int q = postings.rowStart(ingredient); q < postings.rowEnd(ingredient); q++) {
+                        int j = postings.columnAt(q);
+                        if (bucketOf[j] != bucket && seenBy[j] != stamp) {
+                            seenBy[j] = stamp;
+                            if (count == neighbors.length) {
+                                neighbors = Arrays.copyOf(neighbors, count * 2);
+                            }
+                            neighbors[count++] = j;
+                        }
+                    }
+                }
+                int degree = count + (implicitCategoryCliques ? 1 : 0);
+                if (pass == 0) {
+                    offsets[i + 1] = degree;
+                    edgeCount += degree;
+                    continue;
+                }
+                int position = offsets[i];
+                if (implicitCategoryCliques) {
+                    targets[position++] = recipeCount + bucket;
+                }
+                Arrays.sort(neighbors, 0, count);
+                System.arraycopy(neighbors, 0, targets, position, count);
+            }
+            if (pass == 1) {
+                break;
+            }
+
+            if (implicitCategoryCliques) {
+                for (int b = 0; b < bucketCount; b++) {
+                    offsets[recipeCount + b + 1] = bucketStart[b + 1] - bucketStart[b];
+                    edgeCount += bucketStart[b + 1] - bucketStart[b];
+                }
+            }
+            if (edgeCount > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Recipe graph has " + edgeCount + " edges, too many for one CSR array.");
+            }
+            for (int v = 0; v < nodeCount; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            targets = new int[(int) edgeCount];
+            if (implicitCategoryCliques) {
+                for (int b = 0; b < bucketCount; b++) {
+                    int hub = recipeCount + b;
+                    System.arraycopy(members, bucketStart[b], targets, offsets[hub], bucketStart[b + 1] - bucketStart[b]);
+                }
+            }
+        }
+        return new CsrGraph(IntBuffer.wrap(offsets), IntBuffer.wrap(targets), recipeCount);
+    }
+
+    /**
+     * @brief Maps a graph cache file, or builds the recipe graph and writes the cache if the file is stale.
+     *
+     * The cache is reused only if it was written for the same catalog version and
+     * clique representation.
+     *
+     * @param cacheFile Path of the cache file.
+     * @param recipes The recipes, in menu order.
+     * @param implicitCategoryCliques Whether to link each category through a hub node.
+     * @param catalogVersion The catalog version the recipes belong to.
+     * @return The graph, mapped from the cache file.
+     * @throws IOException If the cache file cannot be read or written.
+     */
+    public static CsrGraph loadOrBuild(String cacheFile, List<Recipe> recipes, boolean implicitCategoryCliques,
+                                       long catalogVersion) throws IOException {
+        try {
+            CsrGraph cached = map(cacheFile);
+            boolean sameShape = cached.recipeCount == recipes.size()
+                    && (cached.nodeCount > cached.recipeCount) == implicitCategoryCliques;
+            if (cached.catalogVersion == catalogVersion && sameShape) {
+                return cached;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // Missing, damaged or from another format: rebuild below
+        }
+        CsrGraph graph = fromRecipes(recipes, implicitCategoryCliques);
+        graph.catalogVersion = catalogVersion;
+        graph.writeTo(cacheFile);
+        return map(cacheFile);
+    }
+
+    /**
+     * @brief Writes the graph to a cache file.
+     *
+     * The graph is written to a temporary file in the same directory, which is then
+     * moved over the cache file. Truncating a file that is still mapped would make
+     * reads of the mapping fault, and fails on Windows.
+     *
+     * @param cacheFile Path of the cache file, replaced if it exists.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeTo(String cacheFile) throws IOException {
+        File target = new File(cacheFile).getAbsoluteFile();
+        File temporary = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+        try {
+            try (FileOutputStream stream = new FileOutputStream(temporary);
+                 FileChannel channel = stream.getChannel()) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_INTS * 4).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putLong(catalogVersion).putInt(nodeCount).putInt(recipeCount).putInt(getEdgeCount());
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                writeInts(channel, offsets, nodeCount + 1);
+                writeInts(channel, targets, getEdgeCount());
+            }
+            try {
+                Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary.toPath());
+        }
+    }
+
+    /**
+     * @brief Memory-maps a graph cache file.
+     *
+     * The mapping stays valid after the file is closed, and after writeTo replaced
+     * it. The offsets and targets are checked once, so a damaged file is rejected
+     * here instead of failing later in a traversal.
+     *
+     * @param cacheFile Path of the cache file.
+     * @return The graph, reading its arrays from the mapped file.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If the file is not a graph cache or its edges are damaged.
+     */
+    public static CsrGraph map(String cacheFile) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(cacheFile, "r");
+             FileChannel channel = file.getChannel()) {
+            long length = channel.size();
+            if (length < HEADER_INTS * 4) {
+                throw new IllegalArgumentException(cacheFile + " is not a graph cache.");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_INTS * 4).order(ByteOrder.LITTLE_ENDIAN);
+            long version = header.getLong(4);
+            int nodes = header.getInt(12);
+            int recipes = header.getInt(16);
+            int edges = header.getInt(20);
+            long offsetsBytes = 4L * (nodes + 1);
+            if (header.getInt(0) != MAGIC || nodes < 0 || edges < 0
+                    || length != HEADER_INTS * 4 + offsetsBytes + 4L * edges) {
+                throw new IllegalArgumentException(cacheFile + " is not a graph cache.");
+            }
+            IntBuffer offsets = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_INTS * 4, offsetsBytes)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            IntBuffer targets = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_INTS * 4 + offsetsBytes, 4L * edges)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            CsrGraph graph = new CsrGraph(offsets, targets, recipes);
+            graph.checkEdges();
+            graph.catalogVersion = version;
+            return graph;
+        }
+    }
+
+    /**
+     * @brief Gets the number of nodes, category hubs included.
+     * @return The node count.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @brief Gets the number of recipe nodes; nodes from this index on are category hubs.
+     * @return The recipe count.
+     */
+    public int getRecipeCount() {
+        return recipeCount;
+    }
+
+    /**
+     * @brief Gets the number of edges.
+     * @return The edge count.
+     */
+    public int getEdgeCount() {
+        return targets.limit();
+    }
+
+    /**
+     * @brief Gets the catalog version recorded with the graph.
+     * @return The version given to loadOrBuild, or 0.
+     */
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    /**
+     * @brief Gets the position of a node's first edge.
+     * @param node The node.
+     * @return The index of the edge in the target array.
+     */
+    public int edgeStart(int node) {
+        return offsets.get(node);
+    }
+
+    /**
+     * @brief Gets the position after a node's last edge.
+     * @param node The node.
+     * @return The edgeStart of the next node.
+     */
+    public int edgeEnd(int node) {
+        return offsets.get(node + 1);
+    }
+
+    /**
+     * @brief Gets the target of an edge.
+     * @param edge The index of the edge, between edgeStart and edgeEnd of its source.
+     * @return The target node.
+     */
+    public int targetAt(int edge) {
+        return targets.get(edge);
+    }
+
+    /**
+     * @brief Writes the first ints of a buffer to a channel in little-endian order.
+     * @param channel The channel.
+     * @param values The ints.
+     * @param count Number of ints to write.
+     * @throws IOException If writing fails.
+     */
+    private static void writeInts(FileChannel channel, IntBuffer values, int count) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < count; i++) {
+            if (!chunk.hasRemaining()) {
+                chunk.flip();
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+                chunk.clear();
+            }
+            chunk.putInt(values.get(i));
+        }
+        chunk.flip();
+        while (chunk.hasRemaining()) {
+            channel.write(chunk);
+        }
+    }
+}
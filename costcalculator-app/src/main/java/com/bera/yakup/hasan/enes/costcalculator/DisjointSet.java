@@ -0,0 +1,142 @@
+/**
+ * @file DisjointSet.java
+ * @brief This file contains the implementation of the DisjointSet class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @class DisjointSet
+ * @brief A union-find structure over the elements 0 to size - 1.
+ *
+ * Each set is a tree of parent links whose root names the set. Union attaches the
+ * root of lower rank under the other, and find points every element on its path
+ * directly at the root, so any sequence of m operations takes O(m α(n)) time,
+ * which is linear in practice.
+ *
+ * Elements can be added after construction; the arrays grow by doubling.
+ */
+public class DisjointSet {
+    private int[] parent; ///< Parent of each element; a root is its own parent.
+    private byte[] rank; ///< Upper bound on the height of each root's tree.
+    private int size; ///< Number of elements; the arrays may be longer.
+    private int setCount; ///< Number of disjoint sets.
+
+    /**
+     * @brief Creates a structure where every element is in a set of its own.
+     * @param size The number of elements.
+     */
+    public DisjointSet(int size) {
+        parent = new int[size];
+        rank = new byte[size];
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+        }
+        this.size = size;
+        setCount = size;
+    }
+
+    /**
+     * @brief Adds an element in a set of its own.
+     * @return The new element, which is the previous size.
+     */
+    public int add() {
+        if (size == parent.length) {
+            parent = Arrays.copyOf(parent, Math.max(8, size * 2));
+            rank = Arrays.copyOf(rank, parent.length);
+        }
+        parent[size] = size;
+        setCount++;
+        return size++;
+    }
+
+    /**
+     * @brief Gets the number of elements.
+     * @return The element count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @brief Gets the number of disjoint sets.
+     * @return The set count.
+     */
+    public int getSetCount() {
+        return setCount;
+    }
+
+    /**
+     * @brief Finds the root of an element's set, compressing the path to it.
+     * @param element The element.
+     * @return The element that names the set.
+     */
+    public int find(int element) {
+        int root = element;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[element] != root) {
+            int next = parent[element];
+            parent[element] = root;
+            element = next;
+        }
+        return root;
+    }
+
+    /**
+     * @brief Merges the sets of two elements.
+     * @param a The first element.
+     * @param b The second element.
+     * @return True if the elements were in different sets.
+     */
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (rank[rootA] < rank[rootB]) {
+            parent[rootA] = rootB;
+        } else {
+            parent[rootB] = rootA;
+            if (rank[rootA] == rank[rootB]) {
+                rank[rootA]++;
+            }
+        }
+        setCount--;
+        return true;
+    }
+
+    /**
+     * @brief Checks whether two elements are in the same set.
+     * @param a The first element.
+     * @param b The second element.
+     * @return True if they are in the same set.
+     */
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /**
+     * @brief Lists the sets.
+     * @return One list per set with its elements in increasing order; the sets are ordered by their smallest element.
+     */
+    public List<List<Integer>> sets() {
+        int[] setIndex = new int[size]; // 1 + position of a root's list, 0 until the set is met
+        List<List<Integer>> sets = new ArrayList<>(setCount);
+        for (int i = 0; i < size; i++) {
+            int root = find(i);
+            if (setIndex[root] == 0) {
+                sets.add(new ArrayList<>());
+                setIndex[root] = sets.size();
+            }
+            sets.get(setIndex[root] - 1).add(i);
+        }
+        return sets;
+    }
+}
@@ -15,7 +15,7 @@ package com.bera.yakup.hasan.enes.costcalculator;
 public class Ingredient {
     private int id; ///< Unique ingredient ID.
     private String name; ///< Ingredient name.
-    private float price; ///< Ingredient price.
+    private long priceMinor; ///< Ingredient price in kuruş.
     private Ingredient prev; ///< Pointer to the previous ingredient in the list.
     private Ingredient next; ///< Pointer to the next ingredient in the list.
 
@@ -44,16 +44,28 @@ public class Ingredient {
     public void setName(String name) { this.name = name; }
 
     /**
-     * @brief Gets the price of the ingredient.
+     * @brief Gets the price of the ingredient in lira.
      * @return The price of the ingredient.
      */
-    public float getPrice() { return price; }
+    public float getPrice() { return (float) Money.toMajor(priceMinor); }
 
     /**
-     * @brief Sets the price of the ingredient.
+     * @brief Sets the price of the ingredient in lira, rounded to whole kuruş.
      * @param price The price to set for the ingredient.
      */
-    public void setPrice(float price) { this.price = price; }
+    public void setPrice(float price) { this.priceMinor = Money.ofMajor(price); }
+
+    /**
+     * @brief Gets the price of the ingredient in kuruş.
+     * @return The fixed-point price of the ingredient.
+     */
+    public long getPriceMinor() { return priceMinor; }
+
+    /**
+     * @brief Sets the price of the ingredient in kuruş.
+     * @param priceMinor The fixed-point price to set for the ingredient.
+     */
+    public void setPriceMinor(long priceMinor) { this.priceMinor = priceMinor; }
 
     /**
      * @brief Gets the previous ingredient in the list.
@@ -6,6 +6,9 @@
 package com.bera.yakup.hasan.enes.costcalculator;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -17,9 +20,19 @@ import java.util.*;
  * linked lists, and file handling for persistent storage.
  */
 public class IngredientManagement {
+    public static final int INGREDIENT_FILE_MAGIC = 0xC057F1C5; ///< Marks ingredient files with fixed-point prices.
+    public static final int INGREDIENT_FILE_VERSION = 2; ///< Current ingredient file format version.
+
     private Scanner scanner; ///< Scanner for user input.
     private PrintStream out; ///< Output stream for messages.
     private UserAuthentication userAuth; ///< UserAuthentication instance for shared utilities.
+    private SuffixArrayIndex nameIndex; ///< Substring index over the ingredient names, built on first use.
+    private TrigramIndex typoIndex; ///< Trigram index for typo-tolerant search, built with nameIndex.
+    private Ingredient indexedHead; ///< Head of the list the name index was built from.
+    private Ingredient[] indexedIngredients; ///< Ingredients in the order they were indexed.
+    private NameTrie nameTrie = new NameTrie(); ///< Ingredient names by prefix, kept in sync with loads and edits.
+    private ParallelCatalogSearch catalogSearch; ///< Parallel KMP search over the names, built on first use.
+    private Ingredient searchedHead; ///< Head of the list catalogSearch was built from.
 
     /**
      * @brief Constructor for IngredientManagement.
@@ -33,6 +46,18 @@ public class IngredientManagement {
         this.out = out;
     }
 
+    /**
+     * @brief Gets the prefix trie over the ingredient names.
+     *
+     * The trie mirrors the list returned by the last loadIngredientsFromFile call, or
+     * started by adding to an empty list, with every later add, rename and removal applied.
+     *
+     * @return The trie mapping ingredient names to ingredient ids.
+     */
+    public NameTrie getNameTrie() {
+        return nameTrie;
+    }
+
     /**
      * @brief Constructs a Huffman tree from frequency data.
      * @param frequencies An array of character frequencies.
@@ -208,6 +233,7 @@ public class IngredientManagement {
 
         if (head == null) {
             head = newIngredient;
+            nameTrie = new NameTrie(); // A new list starts here
         } else {
             Ingredient temp = head;
             while (temp.getNext() != null) {
@@ -216,6 +242,7 @@ public class IngredientManagement {
             temp.setNext(newIngredient);
             newIngredient.setPrev(temp);
         }
+        nameTrie.insert(newIngredient.getName(), newId);
 
         saveIngredientsToFile(head, filePath);
         return head;
@@ -229,17 +256,92 @@ public class IngredientManagement {
      * @throws IOException If an I/O error occurs.
      */
     public boolean saveIngredientsToFile(Ingredient head, String filePath) throws IOException {
-        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(filePath))) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath)))) {
+            out.writeInt(INGREDIENT_FILE_MAGIC);
+            out.writeInt(INGREDIENT_FILE_VERSION);
             Ingredient temp = head;
 
             while (temp != null) {
-                out.writeInt(temp.getId());
-                out.writeUTF(temp.getName());
-                out.writeFloat(temp.getPrice());
+                writeIngredient(out, temp);
                 temp = temp.getNext();
             }
-            return true;
         }
+        CatalogVersion.bump(filePath);
+        nameIndex = null; // Names may have changed, rebuild the indexes on the next search
+        catalogSearch = null;
+        return true;
+    }
+
+    /**
+     * @brief Saves a list of ingredients to a file.
+     *
+     * Used when the next/prev links of the ingredients cannot be trusted, e.g. after
+     * they were reused to chain hash buckets.
+     *
+     * @param ingredients The ingredients to save, in file order.
+     * @param filePath The file path for saving ingredients.
+     * @return True if the save operation is successful.
+     * @throws IOException If an I/O error occurs.
+     */
+    public boolean saveIngredientsToFile(List<Ingredient> ingredients, String filePath) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath)))) {
+            out.writeInt(INGREDIENT_FILE_MAGIC);
+            out.writeInt(INGREDIENT_FILE_VERSION);
+            for (Ingredient ingredient : ingredients) {
+                writeIngredient(out, ingredient);
+            }
+        }
+        CatalogVersion.bump(filePath);
+        nameIndex = null;
+        catalogSearch = null;
+        return true;
+    }
+
+    /**
+     * @brief Writes one ingredient record in the current file format.
+     * @param out The stream to write to.
+     * @param ingredient The ingredient to write.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void writeIngredient(DataOutputStream out, Ingredient ingredient) throws IOException {
+        out.writeInt(ingredient.getId());
+        out.writeUTF(ingredient.getName());
+        out.writeLong(ingredient.getPriceMinor());
+    }
+
+    /**
+     * @brief Checks whether an ingredient file still uses the legacy float price format.
+     * @param filePath The file path to check.
+     * @return True if the file exists, is not empty and has no format header.
+     * @throws IOException If an I/O error occurs.
+     */
+    public boolean isLegacyIngredientFile(String filePath) throws IOException {
+        File file = new File(filePath);
+        if (!file.exists() || file.length() < 4) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() != INGREDIENT_FILE_MAGIC;
+        }
+    }
+
+    /**
+     * @brief Rewrites a legacy ingredient file with fixed-point prices.
+     *
+     * Legacy files store each price as a float in lira; they are converted to whole
+     * kuruş, rounding to the nearest kuruş. Files already in the current format are
+     * left untouched.
+     *
+     * @param filePath The file path of the ingredient file.
+     * @return True if the file was migrated, false if there was nothing to do.
+     * @throws IOException If an I/O error occurs.
+     */
+    public boolean migrateIngredientsFile(String filePath) throws IOException {
+        if (!isLegacyIngredientFile(filePath)) {
+            return false;
+        }
+        saveIngredientsToFile(loadIngredientsFromFile(filePath), filePath);
+        return true;
     }
 
     /**
@@ -260,7 +362,7 @@ public class IngredientManagement {
 
         while (current != null) {
             out.println("--------------------------------------------------------------------");
-            out.printf("ID: %d, Name: %s, Price: %.2f\n", current.getId(), current.getName(), current.getPrice());
+            out.printf("ID: %d, Name: %s, Price: %s\n", current.getId(), current.getName(), Money.format(current.getPriceMinor()));
             current = current.getNext();
         }
         out.println("--------------------------------------------------------------------");
@@ -283,17 +385,17 @@ public class IngredientManagement {
         out.println("+----+----------------------+------------+----------------------+--------+");
 
         while (current != null) {
-            out.printf("| %-2d | %-20s | %-6.2f |", current.getId(), current.getName(), current.getPrice());
+            out.printf("| %-2d | %-20s | %-6s |", current.getId(), current.getName(), Money.format(current.getPriceMinor()));
 
             if (current.getNext() != null) {
-                out.printf(" %-20s | %-6.2f |\n", current.getNext().getName(), current.getNext().getPrice());
+                out.printf(" %-20s | %-6s |\n", current.getNext().getName(), Money.format(current.getNext().getPriceMinor()));
             } else {
                 out.printf(" %-20s | %-6s |\n", "-", "-");
             }
 
             if (current.getPrev() != null) {
-                out.printf("|    | %-20s | %-6s | %-20s | %-6.2f |\n", "", "", current.getPrev().getName(),
-                        current.getPrev().getPrice());
+                out.printf("|    | %-20s | %-6s | %-20s | %-6s |\n", "", "", current.getPrev().getName(),
+                        Money.format(current.getPrev().getPriceMinor()));
             }
 
             out.println("+----+----------------------+------------+----------------------+--------+");
@@ -348,13 +450,37 @@ public class IngredientManagement {
 
         Ingredient head = null;
         Ingredient tail = null;
+        NameTrie names = new NameTrie();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filePath)))) {
+            // Files without the header are legacy files whose first int is already an ingredient id
+            boolean legacy = true;
+            boolean pendingId = false;
+            int firstId = 0;
+            if (in.available() > 0) {
+                firstId = in.readInt();
+                if (firstId == INGREDIENT_FILE_MAGIC) {
+                    int version = in.readInt();
+                    if (version != INGREDIENT_FILE_VERSION) {
+                        throw new IOException("Unsupported ingredient file version: " + version);
+                    }
+                    legacy = false;
+                } else {
+                    pendingId = true;
+                }
+            }
 
-        try (DataInputStream in = new DataInputStream(new FileInputStream(filePath))) {
-            while (in.available() > 0) {
+            while (pendingId || in.available() > 0) {
                 Ingredient newIngredient = new Ingredient();
-                newIngredient.setId(in.readInt());
+                newIngredient.setId(pendingId ? firstId : in.readInt());
                 newIngredient.setName(in.readUTF());
-                newIngredient.setPrice(in.readFloat());
+                if (legacy) {
+                    newIngredient.setPrice(in.readFloat());
+                } else {
+                    newIngredient.setPriceMinor(in.readLong());
+                }
+                pendingId = false;
+                names.insert(newIngredient.getName(), newIngredient.getId());
                 newIngredient.setPrev(tail);
                 newIngredient.setNext(null);
 
@@ -366,6 +492,7 @@ public class IngredientManagement {
                 tail = newIngredient;
             }
         }
+        nameTrie = names;
         return head;
     }
     /**
@@ -404,6 +531,7 @@ public class IngredientManagement {
         if (current.getNext() != null) {
             current.getNext().setPrev(current.getPrev());
         }
+        nameTrie.remove(current.getName(), id);
 
         out.printf("Ingredient with ID %d removed successfully.\n", id);
 
@@ -461,6 +589,7 @@ public class IngredientManagement {
         }
 
         // Update the ingredient's name
+        nameTrie.rename(current.getName(), newName, id);
         current.setName(newName);
         out.println("Ingredient name updated successfully.");
 
@@ -479,94 +608,293 @@ public class IngredientManagement {
      * @return An array representing the LPS values for the pattern.
      */
     public static int[] computeLPSArray(String pattern) {
-        int m = pattern.length();
-        int[] lps = new int[m];
-        int length = 0;
-        int i = 1;
-
-        lps[0] = 0;
-
-        while (i < m) {
-            if (pattern.charAt(i) == pattern.charAt(length)) {
-                length++;
-                lps[i] = length;
-                i++;
-            } else {
-                if (length != 0) {
-                    length = lps[length - 1];
-                } else {
-                    lps[i] = 0;
-                    i++;
-                }
-            }
-        }
-        return lps;
+        return KMPAlgorithm.computeLPSArray(pattern);
     }
     /**
      * @brief Performs pattern matching in a given text using the KMP algorithm.
      *
-     * This method searches for the presence of a pattern in a given text. It uses
-     * the precomputed LPS array to efficiently find the pattern without
-     * unnecessary comparisons.
+     * This method compiles the pattern for a single search. When the same pattern
+     * is searched in many texts, compile it once with KMPMatcher instead.
      *
      * @param text The text to search within.
      * @param pattern The pattern to search for.
      * @return True if the pattern is found in the text, false otherwise.
      */
     public static boolean KMPSearch(String text, String pattern) {
-        int n = text.length();
-        int m = pattern.length();
-        int[] lps = computeLPSArray(pattern);
+        return KMPAlgorithm.KMPSearch(text, pattern);
+    }
+    /**
+     * @brief Searches for an ingredient in the linked list by its name using the KMP algorithm.
+     *
+     * The pattern is compiled once and large lists are scanned in parallel; the
+     * ingredient with the lowest id whose name contains the pattern is printed.
+     *
+     * @param head The head of the linked list.
+     * @param searchName The name of the ingredient to search for.
+     */
+    public void searchIngredientByKMP(Ingredient head, String searchName) {
+        if (head == null) {
+            out.println("No ingredients available to search.");
+            return;
+        }
 
-        int i = 0; // index for text
-        int j = 0; // index for pattern
+        Ingredient found = getCatalogSearch(head).findFirst(new KMPMatcher(searchName));
+        if (found != null) {
+            out.println("Ingredient found:");
+            out.printf("ID: %d\n", found.getId());
+            out.printf("Name: %s\n", found.getName());
+            out.printf("Price: %s\n", Money.format(found.getPriceMinor()));
+        } else {
+            out.printf("Ingredient '%s' not found in the list.\n", searchName);
+        }
+    }
+    /**
+     * @brief Finds every ingredient whose name contains a text with the parallel KMP search.
+     * @param head The head of the linked list.
+     * @param text The text to look for.
+     * @param ignoreCase Whether the search ignores case.
+     * @return The matching ingredients in id order.
+     */
+    public List<Ingredient> findIngredientsByKMP(Ingredient head, String text, boolean ignoreCase) {
+        return getCatalogSearch(head).findAll(new KMPMatcher(text, ignoreCase));
+    }
 
-        while (i < n) {
-            if (pattern.charAt(j) == text.charAt(i)) {
-                i++;
-                j++;
+    /**
+     * @brief Gets the parallel search over a list, building it unless it is current.
+     * @param head The head of the linked list.
+     * @return The search over the list's ingredients.
+     */
+    private ParallelCatalogSearch getCatalogSearch(Ingredient head) {
+        if (catalogSearch == null || searchedHead != head) {
+            catalogSearch = new ParallelCatalogSearch(head);
+            searchedHead = head;
+        }
+        return catalogSearch;
+    }
+
+    /**
+     * @brief Finds the ingredients whose names contain a text by scanning the ingredient file.
+     *
+     * The file bytes are searched record by record with a compiled KMP matcher, without
+     * decoding names or building Ingredient objects. Each name is matched on its own, so
+     * an occurrence never spans two records. Both the current and the legacy file
+     * formats are supported.
+     *
+     * @param filePath The ingredient file.
+     * @param text The text to look for.
+     * @param ignoreCase Whether ASCII letters match regardless of case.
+     * @return The ids of the matching ingredients in file order; empty if the file does not exist.
+     * @throws IOException If the file cannot be read, is truncated or has an unsupported version.
+     */
+    public int[] findIngredientIdsInFile(String filePath, String text, boolean ignoreCase) throws IOException {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            return new int[0];
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(filePath)));
+        int priceBytes = Float.BYTES;
+        if (buffer.remaining() >= 8 && buffer.getInt(0) == INGREDIENT_FILE_MAGIC) {
+            int version = buffer.getInt(4);
+            if (version != INGREDIENT_FILE_VERSION) {
+                throw new IOException("Unsupported ingredient file version: " + version);
             }
+            buffer.position(8);
+            priceBytes = Long.BYTES;
+        }
 
-            if (j == m) {
-                return true; // Pattern found
-            } else if (i < n && pattern.charAt(j) != text.charAt(i)) {
-                if (j != 0) {
-                    j = lps[j - 1];
-                } else {
-                    i++;
+        KMPMatcher matcher = new KMPMatcher(text, ignoreCase);
+        int[] ids = new int[16];
+        int count = 0;
+        while (buffer.remaining() >= Integer.BYTES + Short.BYTES) {
+            int id = buffer.getInt();
+            int nameStart = buffer.position() + Short.BYTES;
+            int nameEnd = nameStart + (buffer.getShort() & 0xFFFF);
+            if (nameEnd + priceBytes > buffer.limit()) {
+                throw new EOFException("Truncated ingredient record with ID " + id + ".");
+            }
+            if (matcher.indexOf(buffer, nameStart, nameEnd) >= 0) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
                 }
+                ids[count++] = id;
             }
+            buffer.position(nameEnd + priceBytes);
         }
-        return false;
+        return Arrays.copyOf(ids, count);
     }
+
     /**
-     * @brief Searches for an ingredient in the linked list by its name using the KMP algorithm.
+     * @brief Finds all ingredients whose names contain a text.
+     *
+     * Uses a suffix array over all ingredient names, so a query costs O(|text| log N)
+     * plus the number of matches instead of a scan of every name. The index is built
+     * on the first search and again after the list is saved or a different list is
+     * searched.
+     *
      * @param head The head of the linked list.
-     * @param searchName The name of the ingredient to search for.
+     * @param text The text to look for.
+     * @return The matching ingredients in list order.
      */
-    public void searchIngredientByKMP(Ingredient head, String searchName) {
+    public List<Ingredient> findIngredientsContaining(Ingredient head, String text) {
+        ensureNameIndexes(head);
+        int[] positions = nameIndex.find(text);
+        List<Ingredient> matches = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            matches.add(indexedIngredients[position]);
+        }
+        return matches;
+    }
+
+    /**
+     * @brief Finds ingredients whose names are close to a possibly misspelled text.
+     *
+     * Candidates come from a trigram index, so only names sharing trigrams with the
+     * text are compared, and each is checked with a bounded edit distance against the
+     * whole name and each of its words. Case is ignored.
+     *
+     * @param head The head of the linked list.
+     * @param text The text to look for.
+     * @return The close ingredients, closest first.
+     */
+    public List<Ingredient> findSimilarIngredients(Ingredient head, String text) {
+        ensureNameIndexes(head);
+        List<Ingredient> similar = new ArrayList<>();
+        for (TrigramIndex.Match match : typoIndex.search(text)) {
+            similar.add(indexedIngredients[match.getDocument()]);
+        }
+        return similar;
+    }
+
+    /**
+     * @brief Builds the name indexes unless they are current for the given list.
+     * @param head The head of the linked list.
+     */
+    private void ensureNameIndexes(Ingredient head) {
+        if (nameIndex != null && indexedHead == head) {
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (Ingredient current = head; current != null; current = current.getNext()) {
+            names.add(current.getName());
+            ingredients.add(current);
+        }
+        nameIndex = new SuffixArrayIndex(names, false);
+        typoIndex = new TrigramIndex(names);
+        indexedHead = head;
+        indexedIngredients = ingredients.toArray(new Ingredient[0]);
+    }
+
+    /**
+     * @brief Searches for ingredients by name using the suffix array index.
+     *
+     * Unlike searchIngredientByKMP, which stops at the first name that matches, every
+     * ingredient whose name contains the search text is printed. When nothing contains
+     * the text, up to five ingredients with a similar name are suggested.
+     *
+     * @param head The head of the linked list.
+     * @param searchName The text to search for.
+     */
+    public void searchIngredientByName(Ingredient head, String searchName) {
         if (head == null) {
             out.println("No ingredients available to search.");
             return;
         }
 
-        Ingredient current = head;
-        boolean found = false;
+        List<Ingredient> matches = findIngredientsContaining(head, searchName);
+        if (matches.isEmpty()) {
+            out.printf("Ingredient '%s' not found in the list.\n", searchName);
+            List<Ingredient> similar = findSimilarIngredients(head, searchName);
+            if (!similar.isEmpty()) {
+                out.println("Did you mean:");
+                for (Ingredient ingredient : similar.subList(0, Math.min(5, similar.size()))) {
+                    out.printf("ID: %d, Name: %s, Price: %s\n", ingredient.getId(), ingredient.getName(), Money.format(ingredient.getPriceMinor()));
+                }
+            }
+            return;
+        }
+        for (Ingredient ingredient : matches) {
+            out.println("Ingredient found:");
+            out.printf("ID: %d\n", ingredient.getId());
+            out.printf("Name: %s\n", ingredient.getName());
+            out.printf("Price: %s\n", Money.format(ingredient.getPriceMinor()));
+        }
+    }
 
-        while (current != null) {
-            if (KMPAlgorithm.KMPSearch(current.getName(), searchName)) {
-                out.println("Ingredient found:");
-                out.printf("ID: %d\n", current.getId());
-                out.printf("Name: %s\n", current.getName());
-                out.printf("Price: %.2f\n", current.getPrice());
-                found = true;
-                break;
+    /**
+     * @brief Finds which ingredients contain each of a set of patterns, e.g. allergens.
+     *
+     * The patterns are built into one Aho-Corasick automaton and every ingredient name
+     * is scanned once, instead of running a KMP search per pattern and per name.
+     *
+     * @param head The head of the linked list.
+     * @param patterns The patterns to look for.
+     * @param ignoreCase Whether matching ignores case.
+     * @return For each pattern, in the given order, the ingredients whose names contain it.
+     * @throws IllegalArgumentException If a pattern is empty.
+     */
+    public Map<String, List<Ingredient>> tagIngredients(Ingredient head, List<String> patterns, boolean ignoreCase) {
+        AhoCorasick matcher = new AhoCorasick(patterns, ignoreCase);
+        List<List<Ingredient>> matches = new ArrayList<>(patterns.size());
+        for (int p = 0; p < patterns.size(); p++) {
+            matches.add(new ArrayList<>());
+        }
+
+        // seenIn[p] is the number of the last ingredient that matched pattern p, so each pair is reported once
+        int[] seenIn = new int[patterns.size()];
+        int[] ingredientNumber = new int[1];
+        Ingredient[] currentIngredient = new Ingredient[1];
+        AhoCorasick.MatchListener listener = (patternIndex, end) -> {
+            if (seenIn[patternIndex] != ingredientNumber[0]) {
+                seenIn[patternIndex] = ingredientNumber[0];
+                matches.get(patternIndex).add(currentIngredient[0]);
             }
-            current = current.getNext();
+        };
+        for (Ingredient current = head; current != null; current = current.getNext()) {
+            ingredientNumber[0]++;
+            currentIngredient[0] = current;
+            matcher.search(current.getName(), listener);
         }
 
-        if (!found) {
-            out.printf("Ingredient '%s' not found in the list.\n", searchName);
+        Map<String, List<Ingredient>> tags = new LinkedHashMap<>();
+        for (int p = 0; p < patterns.size(); p++) {
+            tags.putIfAbsent(patterns.get(p), matches.get(p)); // A repeated pattern keeps its first list
+        }
+        return tags;
+    }
+
+    /**
+     * @brief Asks for comma separated patterns and prints the ingredients that contain each one.
+     * @param head The head of the linked list.
+     */
+    public void tagIngredientsMenu(Ingredient head) {
+        if (head == null) {
+            out.println("No ingredients available to tag.");
+            return;
+        }
+        out.print("Enter the patterns to tag, separated by commas: ");
+        List<String> patterns = new ArrayList<>();
+        for (String pattern : scanner.nextLine().split(",")) {
+            if (!pattern.trim().isEmpty()) {
+                patterns.add(pattern.trim());
+            }
+        }
+        if (patterns.isEmpty()) {
+            out.println("Patterns cannot be empty.");
+            return;
+        }
+
+        for (Map.Entry<String, List<Ingredient>> tag : tagIngredients(head, patterns, true).entrySet()) {
+            if (tag.getValue().isEmpty()) {
+                out.printf("Pattern '%s': no ingredients.\n", tag.getKey());
+                continue;
+            }
+            StringBuilder line = new StringBuilder();
+            for (Ingredient ingredient : tag.getValue()) {
+                line.append(line.length() == 0 ? "" : ", ").append(ingredient.getName()).append(" (ID ").append(ingredient.getId()).append(')');
+            }
+            out.printf("Pattern '%s': %s\n", tag.getKey(), line);
         }
     }
     /**
@@ -580,8 +908,9 @@ public class IngredientManagement {
         out.println("| 2. Add Ingredient                    |");
         out.println("| 3. Remove Ingredient                 |");
         out.println("| 4. Edit Ingredient                   |");
-        out.println("| 5. Search Ingredient by Name (KMP)   |");
-        out.println("| 6. Exit                              |");
+        out.println("| 5. Search Ingredient by Name         |");
+        out.println("| 6. Tag Ingredients by Patterns       |");
+        out.println("| 7. Exit                              |");
         out.println("+--------------------------------------+");
         out.print("Please enter a number to select: ");
     }
@@ -634,7 +963,7 @@ public class IngredientManagement {
                             out.println("Current Ingredient:");
                             out.printf("ID: %d\n", current.getId());
                             out.printf("Name: %s\n", current.getName());
-                            out.printf("Price: %.2f\n", current.getPrice());
+                            out.printf("Price: %s\n", Money.format(current.getPriceMinor()));
                             printIngredientViewMenu();
                             int viewChoice = userAuth.getInput();
 
@@ -763,11 +1092,17 @@ public class IngredientManagement {
                         userAuth.enterToContinue();
                         continue;
                     }
-                    searchIngredientByKMP(head, searchName);
+                    searchIngredientByName(head, searchName);
                     userAuth.enterToContinue();
                     break;
 
                 case 6:
+                    // Tag ingredients with many patterns at once
+                    tagIngredientsMenu(head);
+                    userAuth.enterToContinue();
+                    break;
+
+                case 7:
                     // Exit
                     saveIngredientsToFile(head, filePath);
                     out.println("Exiting Ingredient Management Menu.");
@@ -52,38 +52,14 @@ public class KMPAlgorithm {
     /**
      * @brief Performs pattern matching in a given text using the KMP algorithm.
      *
-     * This method searches for the presence of a pattern in a given text. It uses
-     * the precomputed LPS array to efficiently find the pattern without
-     * unnecessary comparisons.
+     * This method compiles the pattern for a single search. When the same pattern
+     * is searched in many texts, compile it once with KMPMatcher instead.
      *
      * @param text The text to search within.
      * @param pattern The pattern to search for.
      * @return True if the pattern is found in the text, false otherwise.
      */
     public static boolean KMPSearch(String text, String pattern) {
-        int n = text.length();
-        int m = pattern.length();
-        int[] lps = computeLPSArray(pattern);
-
-        int i = 0;
-        int j = 0;
-
-        while (i < n) {
-            if (pattern.charAt(j) == text.charAt(i)) {
-                i++;
-                j++;
-            }
-
-            if (j == m) {
-                return true; // Pattern found
-            } else if (i < n && pattern.charAt(j) != text.charAt(i)) {
-                if (j != 0) {
-                    j = lps[j - 1];
-                } else {
-                    i++;
-                }
-            }
-        }
-        return false;
+        return new KMPMatcher(pattern).contains(text);
     }
 }
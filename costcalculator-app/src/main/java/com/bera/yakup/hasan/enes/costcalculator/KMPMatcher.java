@@ -0,0 +1,449 @@
+/**
+ * @file KMPMatcher.java
+ * @brief This file contains the implementation of the KMPMatcher class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * @class KMPMatcher
+ * @brief A compiled KMP pattern that can be reused for any number of searches.
+ *
+ * The LPS table is computed once in the constructor, so searching N texts costs
+ * O(|pattern| + total text length) instead of recomputing the table for every text.
+ * A matcher is immutable and can be shared between threads. Streaming searches keep
+ * their position in the pattern in a Scan or ByteScan object, so a text can be fed
+ * in chunks of any size, e.g. from a Reader or from a file read into ByteBuffers.
+ *
+ * Byte searches look for the pattern encoded as by DataOutput.writeUTF, which is the
+ * encoding of the names in the ingredient file. Case-insensitive byte searches fold
+ * ASCII letters only; other characters must match exactly. The byte pattern and its
+ * table are built on the first byte search, so character searches do not pay for them.
+ */
+public class KMPMatcher {
+    private static final int READ_BUFFER_SIZE = 8192; ///< Chunk size used when reading from a Reader.
+
+    private final String pattern; ///< The pattern as it was given.
+    private final boolean ignoreCase; ///< Whether matching ignores case.
+    private final char[] chars; ///< The pattern characters, case folded if ignoreCase is set.
+    private final int[] lps; ///< Longest proper prefix that is also a suffix, for each pattern prefix.
+    private volatile ByteTable byteTable; ///< The byte pattern, built on the first byte search.
+
+    /**
+     * @class ByteTable
+     * @brief The pattern in modified UTF-8 with its LPS table.
+     */
+    private static final class ByteTable {
+        private final byte[] bytes; ///< The pattern in modified UTF-8, ASCII folded if ignoreCase is set.
+        private final int[] lps; ///< LPS table of the byte pattern.
+
+        /**
+         * @brief Constructor for the ByteTable class.
+         * @param bytes The encoded, folded pattern.
+         */
+        ByteTable(byte[] bytes) {
+            this.bytes = bytes;
+            this.lps = computeLPSArray(bytes);
+        }
+    }
+
+    /**
+     * @class Scan
+     * @brief The state of a streaming search over characters.
+     */
+    public final class Scan {
+        private int matched; ///< Number of pattern characters matched at the end of the input so far.
+        private long position; ///< Number of characters fed so far.
+        private long matchCount; ///< Number of occurrences found so far, overlapping ones included.
+        private long firstMatchEnd = -1; ///< Position right after the first occurrence, or -1.
+
+        /**
+         * @brief Feeds the next chunk of the text.
+         * @param text The chunk.
+         * @return True if an occurrence ends in this chunk.
+         */
+        public boolean feed(CharSequence text) {
+            long before = matchCount;
+            int j = matched;
+            for (int i = 0, n = text.length(); i < n; i++) {
+                j = step(j, text.charAt(i));
+                if (j == chars.length) {
+                    recordMatch(i + 1);
+                    j = lps[j - 1];
+                }
+            }
+            matched = j;
+            position += text.length();
+            return matchCount > before;
+        }
+
+        /**
+         * @brief Feeds the next chunk of the text from a character array.
+         * @param text The array.
+         * @param offset Start of the chunk in the array.
+         * @param length Length of the chunk.
+         * @return True if an occurrence ends in this chunk.
+         */
+        public boolean feed(char[] text, int offset, int length) {
+            long before = matchCount;
+            int j = matched;
+            for (int i = 0; i < length; i++) {
+                j = step(j, text[offset + i]);
+                if (j == chars.length) {
+                    recordMatch(i + 1);
+                    j = lps[j - 1];
+                }
+            }
+            matched = j;
+            position += length;
+            return matchCount > before;
+        }
+
+        /**
+         * @brief Records an occurrence.
+         * @param endInChunk Position right after the occurrence, relative to the current chunk.
+         */
+        private void recordMatch(int endInChunk) {
+            if (matchCount++ == 0) {
+                firstMatchEnd = position + endInChunk;
+            }
+        }
+
+        /**
+         * @brief Gets the number of occurrences found so far.
+         * @return The occurrence count, overlapping ones included.
+         */
+        public long getMatchCount() {
+            return matchCount;
+        }
+
+        /**
+         * @brief Gets where the first occurrence starts.
+         * @return The position in the stream, or -1 if the pattern has not been found.
+         */
+        public long getFirstMatchStart() {
+            return firstMatchEnd < 0 ? -1 : firstMatchEnd - chars.length;
+        }
+
+        /**
+         * @brief Starts the search over for a new text.
+         */
+        public void reset() {
+            matched = 0;
+            position = 0;
+            matchCount = 0;
+            firstMatchEnd = -1;
+        }
+    }
+
+    /**
+     * @class ByteScan
+     * @brief The state of a streaming search over bytes.
+     */
+    public final class ByteScan {
+        private final ByteTable table = byteTable(); ///< The byte pattern.
+        private int matched; ///< Number of pattern bytes matched at the end of the input so far.
+        private long matchCount; ///< Number of occurrences found so far, overlapping ones included.
+
+        /**
+         * @brief Feeds the remaining bytes of a buffer and moves its position to its limit.
+         * @param buffer The next chunk.
+         * @return True if an occurrence ends in this chunk.
+         */
+        public boolean feed(ByteBuffer buffer) {
+            long before = matchCount;
+            int j = matched;
+            for (int i = buffer.position(), end = buffer.limit(); i < end; i++) {
+                j = byteStep(table, j, buffer.get(i));
+                if (j == table.bytes.length) {
+                    matchCount++;
+                    j = table.lps[j - 1];
+                }
+            }
+            matched = j;
+            buffer.position(buffer.limit());
+            return matchCount > before;
+        }
+
+        /**
+         * @brief Gets the number of occurrences found so far.
+         * @return The occurrence count, overlapping ones included.
+         */
+        public long getMatchCount() {
+            return matchCount;
+        }
+
+        /**
+         * @brief Starts the search over for a new stream.
+         */
+        public void reset() {
+            matched = 0;
+            matchCount = 0;
+        }
+    }
+
+    /**
+     * @brief Compiles a case-sensitive pattern.
+     * @param pattern The pattern.
+     * @throws IllegalArgumentException If the pattern is empty.
+     */
+    public KMPMatcher(String pattern) {
+        this(pattern, false);
+    }
+
+    /**
+     * @brief Compiles a pattern.
+     * @param pattern The pattern.
+     * @param ignoreCase Whether matching ignores case.
+     * @throws IllegalArgumentException If the pattern is empty.
+     */
+    public KMPMatcher(String pattern, boolean ignoreCase) {
+        if (pattern.isEmpty()) {
+            throw new IllegalArgumentException("Pattern must not be empty.");
+        }
+        this.pattern = pattern;
+        this.ignoreCase = ignoreCase;
+
+        chars = new char[pattern.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = normalize(pattern.charAt(i));
+        }
+        lps = KMPAlgorithm.computeLPSArray(ignoreCase ? new String(chars) : pattern);
+    }
+
+    /**
+     * @brief Gets the pattern.
+     * @return The pattern as it was given.
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @brief Gets the LPS table of the pattern.
+     * @return A copy of the table, computed on the case folded pattern if matching ignores case.
+     */
+    public int[] getLPSArray() {
+        return lps.clone();
+    }
+
+    /**
+     * @brief Starts a streaming search over characters.
+     * @return A new scan positioned at the start of a text.
+     */
+    public Scan newScan() {
+        return new Scan();
+    }
+
+    /**
+     * @brief Starts a streaming search over bytes.
+     * @return A new scan positioned at the start of a stream.
+     * @throws IllegalArgumentException If the pattern is too long to encode.
+     */
+    public ByteScan newByteScan() {
+        return new ByteScan();
+    }
+
+    /**
+     * @brief Checks whether the pattern occurs in a text.
+     * @param text The text.
+     * @return True if the pattern occurs in the text.
+     */
+    public boolean contains(CharSequence text) {
+        return indexOf(text, 0) >= 0;
+    }
+
+    /**
+     * @brief Finds the first occurrence of the pattern.
+     * @param text The text.
+     * @return The start of the first occurrence, or -1 if there is none.
+     */
+    public int indexOf(CharSequence text) {
+        return indexOf(text, 0);
+    }
+
+    /**
+     * @brief Finds the first occurrence of the pattern at or after a position.
+     * @param text The text.
+     * @param from The position to start at.
+     * @return The start of the occurrence, or -1 if there is none.
+     */
+    public int indexOf(CharSequence text, int from) {
+        int j = 0;
+        for (int i = Math.max(0, from), n = text.length(); i < n; i++) {
+            j = step(j, text.charAt(i));
+            if (j == chars.length) {
+                return i + 1 - chars.length;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @brief Counts the occurrences of the pattern in a text.
+     * @param text The text.
+     * @return The number of occurrences, overlapping ones included.
+     */
+    public int countOccurrences(CharSequence text) {
+        Scan scan = newScan();
+        scan.feed(text);
+        return (int) scan.getMatchCount();
+    }
+
+    /**
+     * @brief Checks whether the pattern occurs in the characters of a reader.
+     *
+     * Reading stops at the first occurrence; the reader is not closed.
+     *
+     * @param reader The reader.
+     * @return True if the pattern occurs before the end of the input.
+     * @throws IOException If reading fails.
+     */
+    public boolean contains(Reader reader) throws IOException {
+        Scan scan = newScan();
+        char[] buffer = new char[READ_BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            if (scan.feed(buffer, 0, read)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @brief Finds the first occurrence of the byte pattern in a range of a buffer.
+     *
+     * The buffer's position and limit are not changed.
+     *
+     * @param buffer The buffer.
+     * @param from Start of the range, an absolute index.
+     * @param to End of the range, exclusive.
+     * @return The absolute index of the first occurrence, or -1 if there is none.
+     * @throws IllegalArgumentException If the pattern is too long to encode.
+     */
+    public int indexOf(ByteBuffer buffer, int from, int to) {
+        ByteTable table = byteTable();
+        int j = 0;
+        for (int i = from; i < to; i++) {
+            j = byteStep(table, j, buffer.get(i));
+            if (j == table.bytes.length) {
+                return i + 1 - table.bytes.length;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @brief Gets the byte pattern, building it on first use.
+     *
+     * Threads racing on the first call may each build a table; they are equal, and
+     * the final fields make any of them safe to share.
+     *
+     * @return The byte pattern and its LPS table.
+     * @throws IllegalArgumentException If the pattern is too long to encode.
+     */
+    private ByteTable byteTable() {
+        ByteTable table = byteTable;
+        if (table == null) {
+            byte[] bytes = modifiedUtf8(pattern);
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = normalize(bytes[i]);
+            }
+            table = new ByteTable(bytes);
+            byteTable = table;
+        }
+        return table;
+    }
+
+    /**
+     * @brief Advances the character automaton by one character.
+     * @param j Number of pattern characters matched before c.
+     * @param c The next text character.
+     * @return Number of pattern characters matched after c.
+     */
+    private int step(int j, char c) {
+        c = normalize(c);
+        while (j > 0 && chars[j] != c) {
+            j = lps[j - 1];
+        }
+        return chars[j] == c ? j + 1 : 0;
+    }
+
+    /**
+     * @brief Advances the byte automaton by one byte.
+     * @param table The byte pattern.
+     * @param j Number of pattern bytes matched before b.
+     * @param b The next byte.
+     * @return Number of pattern bytes matched after b.
+     */
+    private int byteStep(ByteTable table, int j, byte b) {
+        b = normalize(b);
+        while (j > 0 && table.bytes[j] != b) {
+            j = table.lps[j - 1];
+        }
+        return table.bytes[j] == b ? j + 1 : 0;
+    }
+
+    /**
+     * @brief Folds the case of a character when matching ignores case.
+     * @param c The character.
+     * @return The character to match with.
+     */
+    private char normalize(char c) {
+        return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+    }
+
+    /**
+     * @brief Folds an ASCII letter to lower case when matching ignores case.
+     * @param b The byte.
+     * @return The byte to match with.
+     */
+    private byte normalize(byte b) {
+        return ignoreCase && b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    /**
+     * @brief Computes the LPS table of a byte pattern.
+     * @param pattern The pattern.
+     * @return The LPS table.
+     */
+    private static int[] computeLPSArray(byte[] pattern) {
+        int[] table = new int[pattern.length];
+        int length = 0;
+        for (int i = 1; i < pattern.length; i++) {
+            while (length > 0 && pattern[i] != pattern[length]) {
+                length = table[length - 1];
+            }
+            if (pattern[i] == pattern[length]) {
+                length++;
+            }
+            table[i] = length;
+        }
+        return table;
+    }
+
+    /**
+     * @brief Encodes a string as DataOutput.writeUTF does, without the length prefix.
+     * @param text The string.
+     * @return The encoded bytes.
+     * @throws IllegalArgumentException If the encoding is longer than 65535 bytes.
+     */
+    private static byte[] modifiedUtf8(String text) {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(text.length() + 2);
+        try (DataOutputStream out = new DataOutputStream(encoded)) {
+            out.writeUTF(text);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Pattern is too long.", e);
+        }
+        byte[] withLength = encoded.toByteArray();
+        return Arrays.copyOfRange(withLength, 2, withLength.length);
+    }
+}
@@ -0,0 +1,920 @@
+/**
+ * @file LongBPlusTree.java
+ * @brief This file contains the implementation of the LongBPlusTree class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @class LongBPlusTree
+ * @brief A B+ tree of (long key, int value) pairs laid out in primitive arrays.
+ *
+ * Boxed keys in Object arrays and a list of boxed values per key would cost
+ * several objects per entry and a pointer chase per comparison. Instead each node
+ * holds a long[] of keys and an int[] of values side by side with a fixed
+ * capacity, and nodes are binary searched directly on the primitive arrays. An
+ * entry is just 12 bytes of array slots.
+ *
+ * The tree is an ordered set of pairs: pairs sort by key and then by value, and a
+ * key may appear with several values. Because equal keys can span leaves, the
+ * separators of internal nodes are whole pairs as well. Full nodes split in two,
+ * and underfull nodes borrow from or merge with a sibling, so every node but the
+ * root stays at least half full. Int keys are stored widened to long.
+ *
+ * The tree is not thread-safe.
+ */
+public class LongBPlusTree {
+    public static final int DEFAULT_ORDER = 64; ///< Order used by the no-argument constructor.
+    private static final int MIN_ORDER = 3; ///< Smallest order that keeps every split non-empty.
+
+    /**
+     * @class Node
+     * @brief Pairs shared by leaves and internal nodes.
+     */
+    private abstract static class Node {
+        final long[] keys; ///< Sorted keys; one slot more than the maximum to allow a split.
+        final int[] values; ///< Values of the pairs in a leaf, second halves of the separators otherwise.
+        int keyCount; ///< Number of used slots.
+
+        /**
+         * @brief Constructor for the Node class.
+         * @param capacity The number of slots.
+         */
+        Node(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new int[capacity];
+        }
+    }
+
+    /**
+     * @class Leaf
+     * @brief A leaf with a link to the next leaf.
+     */
+    private static final class Leaf extends Node {
+        Leaf next; ///< The leaf to the right, or null.
+
+        /**
+         * @brief Constructor for the Leaf class.
+         * @param capacity The number of slots.
+         */
+        Leaf(int capacity) {
+            super(capacity);
+        }
+    }
+
+    /**
+     * @class Internal
+     * @brief An internal node; children[i] holds the pairs below separator i, children[keyCount] the rest.
+     */
+    private static final class Internal extends Node {
+        final Node[] children; ///< Child nodes, one more than the separators.
+
+        /**
+         * @brief Constructor for the Internal class.
+         * @param capacity The number of separator slots.
+         */
+        Internal(int capacity) {
+            super(capacity);
+            this.children = new Node[capacity + 1];
+        }
+    }
+
+    /**
+     * @class Cursor
+     * @brief Walks the pairs of a key range in order without boxing them.
+     *
+     * The cursor starts before the first pair; each call to next() moves it to the
+     * following pair, whose key and value are then read with key() and value(). The
+     * tree must not be modified while a cursor is in use.
+     */
+    public static final class Cursor {
+        private final long to; ///< Largest key to visit.
+        private Leaf leaf; ///< Leaf of the next pair, or null when done.
+        private int index; ///< Position of the next pair in the leaf.
+        private long key; ///< Key of the current pair.
+        private int value; ///< Value of the current pair.
+
+        /**
+         * @brief Constructor for the Cursor class.
+         * @param leaf The leaf to start in.
+         * @param index The first position to visit, possibly past the end of the leaf.
+         * @param to The largest key to visit.
+         */
+        private Cursor(Leaf leaf, int index, long to) {
+            this.leaf = leaf;
+            this.index = index;
+            this.to = to;
+            skipExhaustedLeaves();
+        }
+
+        /**
+         * @brief Moves to the next pair.
+         * @return True if there was a next pair in the range.
+         */
+        public boolean next() {
+            if (leaf == null) {
+                return false;
+            }
+            key = leaf.keys[index];
+            value = leaf.values[index];
+            index++;
+            skipExhaustedLeaves();
+            return true;
+        }
+
+        /**
+         * @brief Gets the key of the current pair.
+         * @return The key.
+         */
+        public long key() {
+            return key;
+        }
+
+        /**
+         * @brief Gets the value of the current pair.
+         * @return The value.
+         */
+        public int value() {
+            return value;
+        }
+
+        /**
+         * @brief Moves to the next leaf when the current one is used up, and ends past the upper bound.
+         */
+        private void skipExhaustedLeaves() {
+            while (leaf != null && index >= leaf.keyCount) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            if (leaf != null && leaf.keys[index] > to) {
+                leaf = null;
+            }
+        }
+    }
+
+    private final int order; ///< Maximum number of children of an internal node.
+    private Node root; ///< Root node, a leaf while the tree is small.
+    private int size; ///< Number of pairs.
+    private int height = 1; ///< Number of levels, leaves included.
+    private long promotedKey; ///< Key of the separator pushed up by the last split, read by the parent.
+    private int promotedValue; ///< Value of the separator pushed up by the last split.
+    private boolean duplicate; ///< Set by insert when the pair was already present.
+
+    /**
+     * @brief Creates an empty tree with the default order.
+     */
+    public LongBPlusTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    /**
+     * @brief Creates an empty tree.
+     * @param order The maximum number of children of an internal node, at least 3.
+     * @throws IllegalArgumentException If the order is too small.
+     */
+    public LongBPlusTree(int order) {
+        if (order < MIN_ORDER) {
+            throw new IllegalArgumentException("B+ tree order must be at least " + MIN_ORDER + ".");
+        }
+        this.order = order;
+        this.root = new Leaf(order);
+    }
+
+    /**
+     * @brief Builds a tree with the default order from parallel key and value arrays.
+     * @param keys The keys.
+     * @param values The values; see bulkLoad(long[], int[], int).
+     * @return The tree.
+     */
+    public static LongBPlusTree bulkLoad(long[] keys, int[] values) {
+        return bulkLoad(keys, values, DEFAULT_ORDER);
+    }
+
+    /**
+     * @brief Builds a tree from parallel key and value arrays bottom-up.
+     *
+     * Pairs that are not yet in order are sorted with a merge sort on copies of the
+     * arrays, and repeated pairs are kept once. The pairs are then spread evenly over
+     * as few leaves as possible and each level of internal nodes is built over the
+     * level below.
+     *
+     * @param keys The keys.
+     * @param values values[i] is the value paired with keys[i].
+     * @param order The maximum number of children of an internal node, at least 3.
+     * @return The tree.
+     * @throws IllegalArgumentException If the arrays differ in length or the order is too small.
+     */
+    public static LongBPlusTree bulkLoad(long[] keys, int[] values, int order) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Expected " + keys.length + " values, got " + values.length + ".");
+        }
+        LongBPlusTree tree = new LongBPlusTree(order);
+        boolean inOrder = true;
+        for (int i = 1; i < keys.length && inOrder; i++) {
+            inOrder = compare(keys[i - 1], values[i - 1], keys[i], values[i]) <= 0;
+        }
+        long[] sortedKeys = keys;
+        int[] sortedValues = values;
+        if (!inOrder) {
+            sortedKeys = keys.clone();
+            sortedValues = values.clone();
+            sortPairs(sortedKeys, sortedValues);
+        }
+
+        // Count the distinct pairs; duplicates are skipped while filling the leaves
+        int count = 0;
+        for (int i = 0; i < sortedKeys.length; i++) {
+            if (i == 0 || compare(sortedKeys[i - 1], sortedValues[i - 1], sortedKeys[i], sortedValues[i]) != 0) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return tree;
+        }
+
+        int leafCount = (count + order - 2) / (order - 1);
+        List<Node> level = new ArrayList<>(leafCount);
+        long[] lowKeys = new long[leafCount];
+        int[] lowValues = new int[leafCount];
+        Leaf previous = null;
+        int source = 0;
+        for (int l = 0; l < leafCount; l++) {
+            int pairs = (int) ((long) count * (l + 1) / leafCount) - (int) ((long) count * l / leafCount);
+            Leaf leaf = new Leaf(order);
+            while (leaf.keyCount < pairs) {
+                long key = sortedKeys[source];
+                int value = sortedValues[source++];
+                Leaf last = leaf.keyCount > 0 ? leaf : previous;
+                if (last != null && compare(last.keys[last.keyCount - 1], last.values[last.keyCount - 1], key, value) == 0) {
+                    continue;
+                }
+                leaf.keys[leaf.keyCount] = key;
+                leaf.values[leaf.keyCount] = value;
+                leaf.keyCount++;
+            }
+            if (previous != null) {
+                previous.next = leaf;
+            }
+            previous = leaf;
+            level.add(leaf);
+            lowKeys[l] = leaf.keys[0];
+            lowValues[l] = leaf.values[0];
+        }
+
+        int height = 1;
+        while (level.size() > 1) {
+            int parentCount = (level.size() + order - 1) / order;
+            List<Node> parents = new ArrayList<>(parentCount);
+            long[] parentLowKeys = new long[parentCount];
+            int[] parentLowValues = new int[parentCount];
+            for (int p = 0; p < parentCount; p++) {
+                int from = (int) ((long) level.size() * p / parentCount);
+                int to = (int) ((long) level.size() * (p + 1) / parentCount);
+                Internal parent = new Internal(order);
+                for (int c = from; c < to; c++) {
+                    parent.children[c - from] = level.get(c);
+                    if (c > from) {
+                        parent.keys[c - from - 1] = lowKeys[c];
+                        parent.values[c - from - 1] = lowValues[c];
+                    }
+                }
+                parent.keyCount = to - from - 1;
+                parents.add(parent);
+                parentLowKeys[p] = lowKeys[from];
+                parentLowValues[p] = lowValues[from];
+            }
+            level = parents;
+            lowKeys = parentLowKeys;
+            lowValues = parentLowValues;
+            height++;
+        }
+
+        tree.root = level.get(0);
+        tree.size = count;
+        tree.height = height;
+        return tree;
+    }
+
+    /**
+     * @brief Gets the order of the tree.
+     * @return The maximum number of children of an internal node.
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * @brief Gets the number of stored pairs.
+     * @return The pair count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @brief Gets the height of the tree.
+     * @return The number of levels, 1 for a tree that is a single leaf.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @brief Checks whether the tree is empty.
+     * @return True if no pair is stored.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @brief Adds a pair.
+     * @param key The key.
+     * @param value The value.
+     * @return True if the pair was added, false if it was already present.
+     */
+    public boolean insert(long key, int value) {
+        duplicate = false;
+        Node sibling = insert(root, key, value);
+        if (duplicate) {
+            return false;
+        }
+        if (sibling != null) {
+            Internal newRoot = new Internal(order);
+            newRoot.keys[0] = promotedKey;
+            newRoot.values[0] = promotedValue;
+            newRoot.children[0] = root;
+            newRoot.children[1] = sibling;
+            newRoot.keyCount = 1;
+            root = newRoot;
+            height++;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * @brief Removes a pair.
+     * @param key The key.
+     * @param value The value.
+     * @return True if the pair was found.
+     */
+    public boolean remove(long key, int value) {
+        if (indexOf(findLeaf(key, value), key, value) < 0) {
+            return false;
+        }
+        remove(root, key, value);
+        if (root instanceof Internal && root.keyCount == 0) {
+            root = ((Internal) root).children[0];
+            height--;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * @brief Checks whether a pair is stored.
+     * @param key The key.
+     * @param value The value.
+     * @return True if the pair is present.
+     */
+    public boolean contains(long key, int value) {
+        return indexOf(findLeaf(key, value), key, value) >= 0;
+    }
+
+    /**
+     * @brief Opens a cursor over the pairs whose keys lie in a range.
+     *
+     * The cursor reads the leaves as it advances, so visiting only the first few
+     * pairs of a large range costs only as much as those pairs.
+     *
+     * @param from The smallest key to include.
+     * @param to The largest key to include.
+     * @return A cursor positioned before the first pair of the range.
+     */
+    public Cursor range(long from, long to) {
+        Leaf leaf = findLeaf(from, Integer.MIN_VALUE);
+        return new Cursor(leaf, lowerBound(leaf, from, Integer.MIN_VALUE), to);
+    }
+
+    /**
+     * @brief Opens a cursor over every pair.
+     * @return A cursor positioned before the first pair.
+     */
+    public Cursor cursor() {
+        return range(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @brief Collects the values of the first pairs whose keys lie in a range.
+     * @param from The smallest key to include.
+     * @param to The largest key to include.
+     * @param limit Maximum number of values to return.
+     * @return The values in pair order.
+     */
+    public int[] rangeValues(long from, long to, int limit) {
+        int[] found = new int[Math.min(limit, 16)];
+        int count = 0;
+        Cursor cursor = range(from, to);
+        while (count < limit && cursor.next()) {
+            if (count == found.length) {
+                found = Arrays.copyOf(found, (int) Math.min((long) count * 2, limit));
+            }
+            found[count++] = cursor.value();
+        }
+        return count == found.length ? found : Arrays.copyOf(found, count);
+    }
+
+    /**
+     * @brief Inserts below a node and splits it when it overflows.
+     * @param node The subtree root.
+     * @param key The key.
+     * @param value The value.
+     * @return The new right sibling if the node was split, otherwise null.
+     */
+    private Node insert(Node node, long key, int value) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int index = indexOf(leaf, key, value);
+            if (index >= 0) {
+                duplicate = true;
+                return null;
+            }
+            index = -index - 1;
+            shiftRight(leaf.keys, index, leaf.keyCount);
+            shiftRight(leaf.values, index, leaf.keyCount);
+            leaf.keys[index] = key;
+            leaf.values[index] = value;
+            leaf.keyCount++;
+            return leaf.keyCount < order ? null : splitLeaf(leaf);
+        }
+
+        Internal internal = (Internal) node;
+        int child = childIndex(internal, key, value);
+        Node sibling = insert(internal.children[child], key, value);
+        if (sibling == null) {
+            return null;
+        }
+        shiftRight(internal.keys, child, internal.keyCount);
+        shiftRight(internal.values, child, internal.keyCount);
+        shiftRight(internal.children, child + 1, internal.keyCount + 1);
+        internal.keys[child] = promotedKey;
+        internal.values[child] = promotedValue;
+        internal.children[child + 1] = sibling;
+        internal.keyCount++;
+        return internal.keyCount < order ? null : splitInternal(internal);
+    }
+
+    /**
+     * @brief Removes a pair below a node.
+     * @param node The subtree root.
+     * @param key The key.
+     * @param value The value; the pair is present in the subtree.
+     * @return True if the node is left with fewer pairs than the minimum.
+     */
+    private boolean remove(Node node, long key, int value) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int index = indexOf(leaf, key, value);
+            removeAt(leaf.keys, index, leaf.keyCount);
+            removeAt(leaf.values, index, leaf.keyCount);
+            leaf.keyCount--;
+            return leaf.keyCount < minLeafKeys();
+        }
+
+        Internal internal = (Internal) node;
+        int child = childIndex(internal, key, value);
+        // A separator equal to the removed pair may stay: it still divides the two subtrees
+        if (remove(internal.children[child], key, value)) {
+            rebalance(internal, child);
+        }
+        return internal.keyCount < minInternalKeys();
+    }
+
+    /**
+     * @brief Refills a child that fell below the minimum from a sibling, or merges it with one.
+     * @param parent The parent of the child.
+     * @param child The index of the child.
+     */
+    private void rebalance(Internal parent, int child) {
+        Node node = parent.children[child];
+        Node left = child > 0 ? parent.children[child - 1] : null;
+        Node right = child < parent.keyCount ? parent.children[child + 1] : null;
+        int minKeys = node instanceof Leaf ? minLeafKeys() : minInternalKeys();
+
+        if (left != null && left.keyCount > minKeys) {
+            borrowFromLeft(parent, child, left, node);
+        } else if (right != null && right.keyCount > minKeys) {
+            borrowFromRight(parent, child, node, right);
+        } else if (left != null) {
+            merge(parent, child - 1, left, node);
+        } else {
+            merge(parent, child, node, right);
+        }
+    }
+
+    /**
+     * @brief Moves the last pair of a left sibling to the front of a node.
+     * @param parent The parent.
+     * @param child The index of the node.
+     * @param left The left sibling.
+     * @param node The node.
+     */
+    private static void borrowFromLeft(Internal parent, int child, Node left, Node node) {
+        int last = left.keyCount - 1;
+        shiftRight(node.keys, 0, node.keyCount);
+        shiftRight(node.values, 0, node.keyCount);
+        if (node instanceof Leaf) {
+            node.keys[0] = left.keys[last];
+            node.values[0] = left.values[last];
+            parent.keys[child - 1] = node.keys[0];
+            parent.values[child - 1] = node.values[0];
+        } else {
+            Internal internal = (Internal) node;
+            Internal sibling = (Internal) left;
+            shiftRight(internal.children, 0, internal.keyCount + 1);
+            internal.keys[0] = parent.keys[child - 1];
+            internal.values[0] = parent.values[child - 1];
+            internal.children[0] = sibling.children[last + 1];
+            sibling.children[last + 1] = null;
+            parent.keys[child - 1] = sibling.keys[last];
+            parent.values[child - 1] = sibling.values[last];
+        }
+        left.keyCount--;
+        node.keyCount++;
+    }
+
+    /**
+     * @brief Moves the first pair of a right sibling to the end of a node.
+     * @param parent The parent.
+     * @param child The index of the node.
+     * @param node The node.
+     * @param right The right sibling.
+     */
+    private static void borrowFromRight(Internal parent, int child, Node node, Node right) {
+        if (node instanceof Leaf) {
+            node.keys[node.keyCount] = right.keys[0];
+            node.values[node.keyCount] = right.values[0];
+            removeAt(right.keys, 0, right.keyCount);
+            removeAt(right.values, 0, right.keyCount);
+            parent.keys[child] = right.keys[0];
+            parent.values[child] = right.values[0];
+        } else {
+            Internal internal = (Internal) node;
+            Internal sibling = (Internal) right;
+            internal.keys[internal.keyCount] = parent.keys[child];
+            internal.values[internal.keyCount] = parent.values[child];
+            internal.children[internal.keyCount + 1] = sibling.children[0];
+            parent.keys[child] = sibling.keys[0];
+            parent.values[child] = sibling.values[0];
+            removeAt(sibling.keys, 0, sibling.keyCount);
+            removeAt(sibling.values, 0, sibling.keyCount);
+            removeAt(sibling.children, 0, sibling.keyCount + 1);
+        }
+        right.keyCount--;
+        node.keyCount++;
+    }
+
+    /**
+     * @brief Appends a node to its left sibling and removes it and their separator from the parent.
+     * @param parent The parent.
+     * @param separator The index of the separator between the two nodes.
+     * @param left The left node, which is kept.
+     * @param right The right node, which is removed.
+     */
+    private static void merge(Internal parent, int separator, Node left, Node right) {
+        if (left instanceof Leaf) {
+            System.arraycopy(right.keys, 0, left.keys, left.keyCount, right.keyCount);
+            System.arraycopy(right.values, 0, left.values, left.keyCount, right.keyCount);
+            left.keyCount += right.keyCount;
+            ((Leaf) left).next = ((Leaf) right).next;
+        } else {
+            Internal internal = (Internal) left;
+            Internal sibling = (Internal) right;
+            // The separator comes down between the pairs of the two nodes
+            internal.keys[internal.keyCount] = parent.keys[separator];
+            internal.values[internal.keyCount] = parent.values[separator];
+            System.arraycopy(sibling.keys, 0, internal.keys, internal.keyCount + 1, sibling.keyCount);
+            System.arraycopy(sibling.values, 0, internal.values, internal.keyCount + 1, sibling.keyCount);
+            System.arraycopy(sibling.children, 0, internal.children, internal.keyCount + 1, sibling.keyCount + 1);
+            internal.keyCount += sibling.keyCount + 1;
+        }
+        removeAt(parent.keys, separator, parent.keyCount);
+        removeAt(parent.values, separator, parent.keyCount);
+        removeAt(parent.children, separator + 1, parent.keyCount + 1);
+        parent.keyCount--;
+    }
+
+    /**
+     * @brief Gets the fewest pairs a leaf other than the root may hold.
+     * @return Half the maximum, rounded up.
+     */
+    private int minLeafKeys() {
+        return order / 2;
+    }
+
+    /**
+     * @brief Gets the fewest separators an internal node other than the root may hold.
+     * @return One less than half the maximum number of children, rounded up.
+     */
+    private int minInternalKeys() {
+        return (order + 1) / 2 - 1;
+    }
+
+    /**
+     * @brief Checks the structure of the tree.
+     *
+     * Verifies pair order within and across nodes, minimum and maximum fill, equal
+     * depth of all leaves, the leaf chain and the size. Meant for tests.
+     *
+     * @throws IllegalStateException If an invariant is broken.
+     */
+    void checkStructure() {
+        List<Leaf> leaves = new ArrayList<>();
+        checkNode(root, null, 0, null, 0, 1, leaves);
+        Node node = root;
+        while (node instanceof Internal) {
+            node = ((Internal) node).children[0];
+        }
+        Leaf expected = (Leaf) node;
+        int pairs = 0;
+        for (Leaf leaf : leaves) {
+            if (leaf != expected) {
+                throw new IllegalStateException("Leaf chain does not follow key order.");
+            }
+            pairs += leaf.keyCount;
+            expected = leaf.next;
+        }
+        if (expected != null || pairs != size) {
+            throw new IllegalStateException("Leaf chain or size is inconsistent.");
+        }
+    }
+
+    /**
+     * @brief Checks a subtree for checkStructure.
+     * @param node The subtree root.
+     * @param low Node holding the smallest allowed pair, inclusive, or null.
+     * @param lowSlot Slot of the smallest allowed pair in low.
+     * @param high Node holding the pair all pairs must be below, or null.
+     * @param highSlot Slot of that pair in high.
+     * @param depth The level of the node, 1 for the root.
+     * @param leaves Collects the leaves from left to right.
+     */
+    private void checkNode(Node node, Node low, int lowSlot, Node high, int highSlot, int depth, List<Leaf> leaves) {
+        boolean isRoot = node == root;
+        int minKeys = node instanceof Leaf ? minLeafKeys() : minInternalKeys();
+        if (node.keyCount >= order || (!isRoot && node.keyCount < minKeys)
+                || (node instanceof Internal && node.keyCount == 0)) {
+            throw new IllegalStateException("Node holds " + node.keyCount + " pairs.");
+        }
+        for (int i = 0; i < node.keyCount; i++) {
+            if ((i > 0 && compare(node.keys[i - 1], node.values[i - 1], node.keys[i], node.values[i]) >= 0)
+                    || (low != null && compare(node.keys[i], node.values[i], low.keys[lowSlot], low.values[lowSlot]) < 0)
+                    || (high != null && compare(node.keys[i], node.values[i], high.keys[highSlot], high.values[highSlot]) >= 0)) {
+                throw new IllegalStateException("Pairs are out of order at key " + node.keys[i] + ".");
+            }
+        }
+        if (node instanceof Leaf) {
+            if (depth != height) {
+                throw new IllegalStateException("Leaf at depth " + depth + " in a tree of height " + height + ".");
+            }
+            leaves.add((Leaf) node);
+            return;
+        }
+        Internal internal = (Internal) node;
+        for (int c = 0; c <= internal.keyCount; c++) {
+            Node childLow = c == 0 ? low : internal;
+            Node childHigh = c == internal.keyCount ? high : internal;
+            checkNode(internal.children[c], childLow, c == 0 ? lowSlot : c - 1, childHigh,
+                    c == internal.keyCount ? highSlot : c, depth + 1, leaves);
+        }
+    }
+
+    /**
+     * @brief Moves the upper half of a full leaf into a new leaf.
+     * @param leaf The leaf.
+     * @return The new leaf.
+     */
+    private Leaf splitLeaf(Leaf leaf) {
+        Leaf right = new Leaf(order);
+        int keep = leaf.keyCount / 2;
+        int moved = leaf.keyCount - keep;
+        System.arraycopy(leaf.keys, keep, right.keys, 0, moved);
+        System.arraycopy(leaf.values, keep, right.values, 0, moved);
+        leaf.keyCount = keep;
+        right.keyCount = moved;
+        right.next = leaf.next;
+        leaf.next = right;
+        promotedKey = right.keys[0];
+        promotedValue = right.values[0];
+        return right;
+    }
+
+    /**
+     * @brief Moves the upper half of a full internal node into a new node.
+     *
+     * The middle separator is not kept in either half; it moves up to the parent.
+     *
+     * @param node The node.
+     * @return The new node.
+     */
+    private Internal splitInternal(Internal node) {
+        Internal right = new Internal(order);
+        int middle = node.keyCount / 2;
+        int moved = node.keyCount - middle - 1;
+        System.arraycopy(node.keys, middle + 1, right.keys, 0, moved);
+        System.arraycopy(node.values, middle + 1, right.values, 0, moved);
+        System.arraycopy(node.children, middle + 1, right.children, 0, moved + 1);
+        right.keyCount = moved;
+        promotedKey = node.keys[middle];
+        promotedValue = node.values[middle];
+        Arrays.fill(node.children, middle + 1, node.keyCount + 1, null);
+        node.keyCount = middle;
+        return right;
+    }
+
+    /**
+     * @brief Descends to the leaf that holds a pair or would hold it.
+     * @param key The key.
+     * @param value The value.
+     * @return The leaf.
+     */
+    private Leaf findLeaf(long key, int value) {
+        Node node = root;
+        while (node instanceof Internal) {
+            Internal internal = (Internal) node;
+            node = internal.children[childIndex(internal, key, value)];
+        }
+        return (Leaf) node;
+    }
+
+    /**
+     * @brief Chooses the child of an internal node whose subtree holds a pair.
+     * @param node The node.
+     * @param key The key.
+     * @param value The value.
+     * @return The index of the first separator greater than the pair.
+     */
+    private static int childIndex(Internal node, long key, int value) {
+        int low = 0;
+        int high = node.keyCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(key, value, node.keys[middle], node.values[middle]) >= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @brief Binary searches the pairs of a leaf.
+     * @param leaf The leaf.
+     * @param key The key.
+     * @param value The value.
+     * @return The index of the pair, or -(insertion point) - 1 if it is absent.
+     */
+    private static int indexOf(Leaf leaf, long key, int value) {
+        int index = lowerBound(leaf, key, value);
+        return index < leaf.keyCount && leaf.keys[index] == key && leaf.values[index] == value ? index : -index - 1;
+    }
+
+    /**
+     * @brief Finds the first pair of a leaf that is not smaller than a pair.
+     * @param leaf The leaf.
+     * @param key The key.
+     * @param value The value.
+     * @return The position, leaf.keyCount if every pair is smaller.
+     */
+    private static int lowerBound(Leaf leaf, long key, int value) {
+        int low = 0;
+        int high = leaf.keyCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(leaf.keys[middle], leaf.values[middle], key, value) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @brief Compares two pairs by key and then by value.
+     * @return A negative number, zero or a positive number as the first pair is smaller, equal or larger.
+     */
+    private static int compare(long key1, int value1, long key2, int value2) {
+        int byKey = Long.compare(key1, key2);
+        return byKey != 0 ? byKey : Integer.compare(value1, value2);
+    }
+
+    /**
+     * @brief Sorts parallel key and value arrays by pair with a bottom-up merge sort.
+     * @param keys The keys.
+     * @param values The values.
+     */
+    private static void sortPairs(long[] keys, int[] values) {
+        int n = keys.length;
+        long[] keyBuffer = new long[n];
+        int[] valueBuffer = new int[n];
+        long[] fromKeys = keys;
+        int[] fromValues = values;
+        long[] toKeys = keyBuffer;
+        int[] toValues = valueBuffer;
+        for (int width = 1; width < n; width *= 2) {
+            for (int start = 0; start < n; start += 2 * width) {
+                int middle = Math.min(start + width, n);
+                int end = Math.min(start + 2 * width, n);
+                int i = start;
+                int j = middle;
+                for (int k = start; k < end; k++) {
+                    if (j >= end || (i < middle && compare(fromKeys[i], fromValues[i], fromKeys[j], fromValues[j]) <= 0)) {
+                        toKeys[k] = fromKeys[i];
+                        toValues[k] = fromValues[i++];
+                    } else {
+                        toKeys[k] = fromKeys[j];
+                        toValues[k] = fromValues[j++];
+                    }
+                }
+            }
+            long[] swapKeys = fromKeys;
+            fromKeys = toKeys;
+            toKeys = swapKeys;
+            int[] swapValues = fromValues;
+            fromValues = toValues;
+            toValues = swapValues;
+        }
+        if (fromKeys != keys) {
+            System.arraycopy(fromKeys, 0, keys, 0, n);
+            System.arraycopy(fromValues, 0, values, 0, n);
+        }
+    }
+
+    /**
+     * @brief Opens a slot by moving the used tail of an array one place right.
+     * @param array The array.
+     * @param from The slot to open.
+     * @param used The number of used slots.
+     */
+    private static void shiftRight(long[] array, int from, int used) {
+        System.arraycopy(array, from, array, from + 1, used - from);
+    }
+
+    /**
+     * @brief Opens a slot by moving the used tail of an array one place right.
+     * @param array The array.
+     * @param from The slot to open.
+     * @param used The number of used slots.
+     */
+    private static void shiftRight(int[] array, int from, int used) {
+        System.arraycopy(array, from, array, from + 1, used - from);
+    }
+
+    /**
+     * @brief Opens a slot by moving the used tail of an array one place right.
+     * @param array The array.
+     * @param from The slot to open.
+     * @param used The number of used slots.
+     */
+    private static void shiftRight(Object[] array, int from, int used) {
+        System.arraycopy(array, from, array, from + 1, used - from);
+    }
+
+    /**
+     * @brief Closes a slot by moving the used tail of an array one place left.
+     * @param array The array.
+     * @param index The slot to close.
+     * @param used The number of used slots before the removal.
+     */
+    private static void removeAt(long[] array, int index, int used) {
+        System.arraycopy(array, index + 1, array, index, used - index - 1);
+    }
+
+    /**
+     * @brief Closes a slot by moving the used tail of an array one place left.
+     * @param array The array.
+     * @param index The slot to close.
+     * @param used The number of used slots before the removal.
+     */
+    private static void removeAt(int[] array, int index, int used) {
+        System.arraycopy(array, index + 1, array, index, used - index - 1);
+    }
+
+    /**
+     * @brief Closes a slot by moving the used tail of an array one place left and clearing the last one.
+     * @param array The array.
+     * @param index The slot to close.
+     * @param used The number of used slots before the removal.
+     */
+    private static void removeAt(Object[] array, int index, int used) {
+        System.arraycopy(array, index + 1, array, index, used - index - 1);
+        array[used - 1] = null;
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * @file Money.java
+ * @brief This file contains the implementation of the Money class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+/**
+ * @class Money
+ * @brief Helpers for fixed-point money amounts stored as long minor units (kuruş).
+ *
+ * Prices and costs are kept as whole kuruş so that sums over many ingredients are
+ * exact. Conversion to and from decimal lira only happens when reading user input,
+ * reading legacy files and displaying amounts.
+ */
+public final class Money {
+    public static final int MINOR_PER_MAJOR = 100; ///< Number of kuruş in one lira.
+
+    /**
+     * @brief Private constructor, this class only has static helpers.
+     */
+    private Money() {
+    }
+
+    /**
+     * @brief Converts a decimal lira amount to kuruş, rounding half away from zero.
+     * @param amount The amount in lira.
+     * @return The amount in kuruş.
+     */
+    public static long ofMajor(double amount) {
+        double minor = amount * MINOR_PER_MAJOR;
+        return minor < 0 ? -Math.round(-minor) : Math.round(minor);
+    }
+
+    /**
+     * @brief Converts a kuruş amount to decimal lira.
+     * @param minor The amount in kuruş.
+     * @return The amount in lira.
+     */
+    public static double toMajor(long minor) {
+        return (double) minor / MINOR_PER_MAJOR;
+    }
+
+    /**
+     * @brief Formats a kuruş amount as lira with two decimals, e.g. 1250 as "12.50".
+     * @param minor The amount in kuruş.
+     * @return The formatted amount.
+     */
+    public static String format(long minor) {
+        return appendTo(new StringBuilder(24), minor).toString();
+    }
+
+    /**
+     * @brief Appends a kuruş amount as lira with two decimals without any boxing or Formatter use.
+     * @param builder The builder to append to.
+     * @param minor The amount in kuruş.
+     * @return The same builder.
+     */
+    public static StringBuilder appendTo(StringBuilder builder, long minor) {
+        if (minor < 0) {
+            builder.append('-');
+        }
+        long major = Math.abs(minor / MINOR_PER_MAJOR);
+        int fraction = (int) Math.abs(minor % MINOR_PER_MAJOR);
+        builder.append(major).append('.');
+        if (fraction < 10) {
+            builder.append('0');
+        }
+        return builder.append(fraction);
+    }
+}
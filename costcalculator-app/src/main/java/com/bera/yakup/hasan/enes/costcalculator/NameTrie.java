@@ -0,0 +1,364 @@
+/**
+ * @file NameTrie.java
+ * @brief This file contains the implementation of the NameTrie class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @class NameTrie
+ * @brief A compact (radix) trie over names that returns the completions of a prefix.
+ *
+ * Each edge is labeled with a whole run of characters, so a node either ends a name or
+ * has at least two children. Walking a prefix costs O(|prefix|) binary searches over
+ * the children, and collecting k completions visits fewer than 2k nodes below it,
+ * because every node without a name branches. Children are kept sorted, so the
+ * completions come out in alphabetical order without sorting.
+ *
+ * Names are compared case-insensitively, and several ids may share the same name.
+ */
+public class NameTrie {
+    private static final Node[] NO_CHILDREN = new Node[0]; ///< Shared child array of leaves.
+
+    /**
+     * @class Completion
+     * @brief A name that starts with the requested prefix.
+     */
+    public static final class Completion {
+        private final String name; ///< The name as it was inserted.
+        private final int id; ///< The id stored with the name.
+
+        /**
+         * @brief Constructor for the Completion class.
+         * @param name The name.
+         * @param id The id.
+         */
+        Completion(String name, int id) {
+            this.name = name;
+            this.id = id;
+        }
+
+        /**
+         * @brief Gets the completed name.
+         * @return The name as it was inserted.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @brief Gets the id stored with the name.
+         * @return The id.
+         */
+        public int getId() {
+            return id;
+        }
+    }
+
+    /**
+     * @class Node
+     * @brief A trie node with the label of the edge that leads to it.
+     */
+    private static final class Node {
+        private String label; ///< Case folded characters on the edge from the parent.
+        private Node[] children = NO_CHILDREN; ///< Children sorted by the first label character.
+        private int childCount; ///< Number of used entries in children.
+        private int[] ids; ///< Ids of the names ending here, or null.
+        private String[] names; ///< Names ending here, parallel to ids.
+        private int valueCount; ///< Number of names ending here.
+
+        /**
+         * @brief Constructor for the Node class.
+         * @param label The edge label.
+         */
+        private Node(String label) {
+            this.label = label;
+        }
+
+        /**
+         * @brief Finds a child by the first character of its label.
+         * @param c The character.
+         * @return The child index, or -(insertion point) - 1 if there is none.
+         */
+        private int findChild(char c) {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char first = children[middle].label.charAt(0);
+                if (first < c) {
+                    low = middle + 1;
+                } else if (first > c) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        /**
+         * @brief Inserts a child at a position.
+         * @param index The position that keeps the children sorted.
+         * @param child The child.
+         */
+        private void insertChild(int index, Node child) {
+            if (childCount == children.length) {
+                children = Arrays.copyOf(children, Math.max(2, childCount * 2));
+            }
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            children[index] = child;
+            childCount++;
+        }
+
+        /**
+         * @brief Removes the child at a position.
+         * @param index The position.
+         */
+        private void removeChild(int index) {
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            children[--childCount] = null;
+        }
+
+        /**
+         * @brief Stores a name ending at this node, replacing the name of an existing id.
+         * @param id The id.
+         * @param name The name as given.
+         * @return True if the id was not stored here yet.
+         */
+        private boolean addValue(int id, String name) {
+            for (int i = 0; i < valueCount; i++) {
+                if (ids[i] == id) {
+                    names[i] = name;
+                    return false;
+                }
+            }
+            if (ids == null) {
+                ids = new int[1];
+                names = new String[1];
+            } else if (valueCount == ids.length) {
+                ids = Arrays.copyOf(ids, valueCount * 2);
+                names = Arrays.copyOf(names, valueCount * 2);
+            }
+            ids[valueCount] = id;
+            names[valueCount++] = name;
+            return true;
+        }
+
+        /**
+         * @brief Removes the name with an id from this node.
+         * @param id The id.
+         * @return True if it was found.
+         */
+        private boolean removeValue(int id) {
+            for (int i = 0; i < valueCount; i++) {
+                if (ids[i] == id) {
+                    valueCount--;
+                    System.arraycopy(ids, i + 1, ids, i, valueCount - i);
+                    System.arraycopy(names, i + 1, names, i, valueCount - i);
+                    names[valueCount] = null;
+                    if (valueCount == 0) {
+                        ids = null;
+                        names = null;
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final Node root = new Node(""); ///< Root node with an empty label.
+    private int size; ///< Number of stored (name, id) pairs.
+    private int nodeCount = 1; ///< Number of nodes, the root included.
+
+    /**
+     * @brief Gets the number of stored names.
+     * @return The number of (name, id) pairs.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @brief Gets the number of trie nodes.
+     * @return The node count, the root included.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @brief Adds a name, or renames the entry if the same name already has the id.
+     * @param name The name.
+     * @param id The id to return with completions, e.g. an ingredient id.
+     */
+    public void insert(String name, int id) {
+        String key = fold(name);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.findChild(key.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(i));
+                node.insertChild(-index - 1, leaf);
+                nodeCount++;
+                node = leaf;
+                break;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge where the name leaves it
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.insertChild(0, child);
+                node.children[index] = middle;
+                nodeCount++;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        if (node.addValue(id, name)) {
+            size++;
+        }
+    }
+
+    /**
+     * @brief Removes a name stored with an id and merges the nodes it no longer needs.
+     * @param name The name.
+     * @param id The id it was inserted with.
+     * @return True if the pair was found.
+     */
+    public boolean remove(String name, int id) {
+        if (remove(root, fold(name), 0, id)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @brief Renames an entry.
+     * @param oldName The current name.
+     * @param newName The new name.
+     * @param id The id of the entry.
+     */
+    public void rename(String oldName, String newName, int id) {
+        remove(oldName, id);
+        insert(newName, id);
+    }
+
+    /**
+     * @brief Finds the names that start with a prefix.
+     * @param prefix The prefix, compared case-insensitively; an empty prefix matches every name.
+     * @param limit The maximum number of completions.
+     * @return Up to limit completions in alphabetical order; equal names by insertion order.
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        List<Completion> completions = new ArrayList<>();
+        if (limit <= 0) {
+            return completions;
+        }
+        String key = fold(prefix);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.findChild(key.charAt(i));
+            if (index < 0) {
+                return completions;
+            }
+            node = node.children[index];
+            int common = commonPrefix(node.label, key, i);
+            if (common < node.label.length() && i + common < key.length()) {
+                return completions; // The prefix leaves the edge
+            }
+            i += common;
+        }
+        collect(node, limit, completions);
+        return completions;
+    }
+
+    /**
+     * @brief Adds the names of a subtree in alphabetical order until the limit is reached.
+     * @param node The subtree root.
+     * @param limit The maximum number of completions.
+     * @param completions The list to add to.
+     */
+    private static void collect(Node node, int limit, List<Completion> completions) {
+        for (int v = 0; v < node.valueCount && completions.size() < limit; v++) {
+            completions.add(new Completion(node.names[v], node.ids[v]));
+        }
+        for (int c = 0; c < node.childCount && completions.size() < limit; c++) {
+            collect(node.children[c], limit, completions);
+        }
+    }
+
+    /**
+     * @brief Removes a pair below a node, merging a child that is left with one child and no name.
+     * @param node The node.
+     * @param key The folded name.
+     * @param i Number of key characters matched down to the node.
+     * @param id The id.
+     * @return True if the pair was found.
+     */
+    private boolean remove(Node node, String key, int i, int id) {
+        if (i == key.length()) {
+            return node.removeValue(id);
+        }
+        int index = node.findChild(key.charAt(i));
+        if (index < 0) {
+            return false;
+        }
+        Node child = node.children[index];
+        if (!key.startsWith(child.label, i) || !remove(child, key, i + child.label.length(), id)) {
+            return false;
+        }
+        if (child.valueCount == 0) {
+            if (child.childCount == 0) {
+                node.removeChild(index);
+                nodeCount--;
+            } else if (child.childCount == 1) {
+                Node grandchild = child.children[0];
+                grandchild.label = child.label + grandchild.label;
+                node.children[index] = grandchild;
+                nodeCount--;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @brief Counts the characters an edge label shares with a key from a position.
+     * @param label The edge label.
+     * @param key The key.
+     * @param from The key position the label starts at.
+     * @return The length of the common prefix.
+     */
+    private static int commonPrefix(String label, String key, int from) {
+        int length = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @brief Folds the case of a name.
+     * @param name The name.
+     * @return The case folded name.
+     */
+    private static String fold(String name) {
+        char[] folded = new char[name.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return new String(folded);
+    }
+}
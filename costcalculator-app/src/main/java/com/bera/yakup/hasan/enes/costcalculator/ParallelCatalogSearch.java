@@ -0,0 +1,166 @@
+/**
+ * @file ParallelCatalogSearch.java
+ * @brief This file contains the implementation of the ParallelCatalogSearch class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @class ParallelCatalogSearch
+ * @brief Searches the ingredient names with a compiled KMP matcher on several threads.
+ *
+ * The ingredients are copied into an array in list order, which is ascending id
+ * order because new ingredients always get the next id. The array is cut into
+ * contiguous partitions, a few per worker thread, and each partition is scanned by
+ * one fork/join task with the shared, immutable matcher.
+ *
+ * A full search collects the matches of each partition separately and joins them in
+ * partition order, so the result is in id order without sorting. A first-match
+ * search keeps the lowest matching position found so far in an atomic integer: a
+ * task stops as soon as it reaches that position, and partitions that start after it
+ * are skipped, so the work after the first match is bounded by the partitions that
+ * were already running.
+ */
+public class ParallelCatalogSearch {
+    private static final int PARALLEL_THRESHOLD = 1 << 12; ///< Minimum number of names worth splitting across threads.
+    private static final int NONE = Integer.MAX_VALUE; ///< Marks that no match has been found.
+
+    private final Ingredient[] ingredients; ///< Ingredients in list order.
+    private final String[] names; ///< Ingredient names, read once so that workers do not touch the list.
+
+    /**
+     * @brief Builds a search over the ingredients of a linked list.
+     * @param head The head of the linked list.
+     */
+    public ParallelCatalogSearch(Ingredient head) {
+        List<Ingredient> list = new ArrayList<>();
+        for (Ingredient current = head; current != null; current = current.getNext()) {
+            list.add(current);
+        }
+        ingredients = list.toArray(new Ingredient[0]);
+        names = new String[ingredients.length];
+        for (int i = 0; i < ingredients.length; i++) {
+            names[i] = ingredients[i].getName();
+        }
+    }
+
+    /**
+     * @brief Gets the number of searchable ingredients.
+     * @return The ingredient count.
+     */
+    public int size() {
+        return ingredients.length;
+    }
+
+    /**
+     * @brief Finds the first ingredient whose name contains the pattern, on the common pool.
+     * @param matcher The compiled pattern.
+     * @return The matching ingredient with the lowest id, or null if there is none.
+     */
+    public Ingredient findFirst(KMPMatcher matcher) {
+        return findFirst(matcher, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @brief Finds the first ingredient whose name contains the pattern.
+     * @param matcher The compiled pattern.
+     * @param pool The pool to run the partitions on.
+     * @return The matching ingredient with the lowest id, or null if there is none.
+     */
+    public Ingredient findFirst(KMPMatcher matcher, ForkJoinPool pool) {
+        AtomicInteger first = new AtomicInteger(NONE);
+        forEachPartition(pool, (partition, from, to) -> {
+            for (int i = from; i < to && i < first.get(); i++) {
+                if (matcher.contains(names[i])) {
+                    lowerTo(first, i);
+                    return;
+                }
+            }
+        });
+        int position = first.get();
+        return position == NONE ? null : ingredients[position];
+    }
+
+    /**
+     * @brief Finds every ingredient whose name contains the pattern, on the common pool.
+     * @param matcher The compiled pattern.
+     * @return The matching ingredients in id order.
+     */
+    public List<Ingredient> findAll(KMPMatcher matcher) {
+        return findAll(matcher, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @brief Finds every ingredient whose name contains the pattern.
+     * @param matcher The compiled pattern.
+     * @param pool The pool to run the partitions on.
+     * @return The matching ingredients in id order.
+     */
+    public List<Ingredient> findAll(KMPMatcher matcher, ForkJoinPool pool) {
+        int[][] matches = new int[partitionCount(pool)][];
+        forEachPartition(pool, (partition, from, to) -> {
+            int[] found = new int[8];
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (matcher.contains(names[i])) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = i;
+                }
+            }
+            matches[partition] = Arrays.copyOf(found, count);
+        });
+
+        // Partitions are contiguous and in order, so joining them keeps id order
+        List<Ingredient> result = new ArrayList<>();
+        for (int[] partition : matches) {
+            if (partition != null) {
+                for (int position : partition) {
+                    result.add(ingredients[position]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @brief Gets the number of partitions used on a pool.
+     * @param pool The pool.
+     * @return 1 if the search runs on the calling thread, otherwise a few partitions per thread.
+     */
+    private int partitionCount(ForkJoinPool pool) {
+        int threads = pool.getParallelism();
+        if (threads == 1 || ingredients.length < PARALLEL_THRESHOLD) {
+            return 1;
+        }
+        return Math.min(ingredients.length, threads * Partitions.PER_THREAD);
+    }
+
+    /**
+     * @brief Runs a kernel on every partition, in parallel when the catalog is large enough.
+     * @param pool The pool to run the partitions on.
+     * @param kernel The work to do on each partition.
+     */
+    private void forEachPartition(ForkJoinPool pool, Partitions.Kernel kernel) {
+        Partitions.run(pool, Partitions.evenBounds(ingredients.length, partitionCount(pool)), kernel);
+    }
+
+    /**
+     * @brief Lowers an atomic position to a value if the value is smaller.
+     * @param position The atomic position.
+     * @param value The candidate.
+     */
+    private static void lowerTo(AtomicInteger position, int value) {
+        int current = position.get();
+        while (value < current && !position.compareAndSet(current, value)) {
+            current = position.get();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * @file ParallelComponents.java
+ * @brief This file contains the implementation of the ParallelComponents class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * @class ParallelComponents
+ * @brief Finds the connected components of a symmetric graph on several threads.
+ *
+ * The recipe graph links recipes both ways, so its strongly connected components are
+ * its connected components, and no depth-first order is needed to find them. The
+ * nodes are cut into contiguous partitions, a few per worker thread, and each
+ * fork/join task unites every node of its partition with its smaller neighbors in a
+ * shared, lock-free union-find.
+ *
+ * A root is only ever linked under a smaller root, with a compare-and-set that fails
+ * if another thread linked it first, so the trees stay acyclic and every set ends up
+ * rooted at its smallest node whatever the thread schedule. This is the fixed point
+ * of minimum-label propagation, reached in one pass over the edges instead of one
+ * round per step of the graph's diameter. Finds halve their path as they go; a
+ * halving step only moves a pointer to an ancestor, which is safe under races.
+ */
+public class ParallelComponents {
+    private static final int PARALLEL_THRESHOLD = 1 << 14; ///< Minimum number of nodes worth splitting across threads.
+
+    /**
+     * @brief Utility class; not instantiable.
+     */
+    private ParallelComponents() {
+    }
+
+    /**
+     * @brief Finds the components of a symmetric graph on the common pool.
+     * @param graph The graph; every edge must have its reverse edge.
+     * @return The components, see find(CsrGraph, ForkJoinPool).
+     */
+    public static int[][] find(CsrGraph graph) {
+        return find(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @brief Finds the components of a symmetric graph.
+     *
+     * For such a graph these are the strongly connected components Tarjan's algorithm
+     * finds, in a fixed order: components by their smallest recipe, each with its
+     * recipes in increasing order. Category hubs are left out, as in
+     * RecipeGraph.stronglyConnectedComponents.
+     *
+     * @param graph The graph; every edge must have its reverse edge.
+     * @param pool The pool to run the partitions on.
+     * @return One array of recipe node indexes per component.
+     */
+    public static int[][] find(CsrGraph graph, ForkJoinPool pool) {
+        int nodeCount = graph.getNodeCount();
+        AtomicIntegerArray parent = new AtomicIntegerArray(nodeCount);
+        forEachPartition(pool, nodeCount, (partition, from, to) -> {
+            for (int v = from; v < to; v++) {
+                parent.lazySet(v, v);
+            }
+        });
+        forEachPartition(pool, nodeCount, (partition, from, to) -> {
+            for (int v = from; v < to; v++) {
+                for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                    int w = graph.targetAt(e);
+                    // The reverse edge unites the pair when w is the larger node
+                    if (w < v) {
+                        union(parent, v, w);
+                    }
+                }
+            }
+        });
+        int recipeCount = graph.getRecipeCount();
+        int[] root = new int[recipeCount];
+        forEachPartition(pool, recipeCount, (partition, from, to) -> {
+            for (int v = from; v < to; v++) {
+                root[v] = findRoot(parent, v);
+            }
+        });
+        return group(root, recipeCount);
+    }
+
+    /**
+     * @brief Groups nodes by the root of their set.
+     *
+     * One scan in node order meets the sets in order of their smallest node.
+     *
+     * @param root The root of each node, any label below labelCount.
+     * @param labelCount Bound on the roots.
+     * @return The sets in order of their smallest node, each in increasing order.
+     */
+    static int[][] group(int[] root, int labelCount) {
+        int[] setIndex = new int[labelCount]; // 1 + position of a root's set, 0 until the set is met
+        int[] sizes = new int[root.length];
+        int setCount = 0;
+        for (int v = 0; v < root.length; v++) {
+            if (setIndex[root[v]] == 0) {
+                setIndex[root[v]] = ++setCount;
+            }
+            sizes[setIndex[root[v]] - 1]++;
+        }
+        int[][] sets = new int[setCount][];
+        for (int s = 0; s < setCount; s++) {
+            sets[s] = new int[sizes[s]];
+        }
+        Arrays.fill(sizes, 0, setCount, 0);
+        for (int v = 0; v < root.length; v++) {
+            int s = setIndex[root[v]] - 1;
+            sets[s][sizes[s]++] = v;
+        }
+        return sets;
+    }
+
+    /**
+     * @brief Finds the root of a node's set, halving the path to it.
+     * @param parent The shared parent links.
+     * @param node The node.
+     * @return The smallest node of the set, once all unions are done.
+     */
+    private static int findRoot(AtomicIntegerArray parent, int node) {
+        int p = parent.get(node);
+        while (p != node) {
+            int grandparent = parent.get(p);
+            if (grandparent != p) {
+                parent.compareAndSet(node, p, grandparent);
+            }
+            node = grandparent;
+            p = parent.get(node);
+        }
+        return node;
+    }
+
+    /**
+     * @brief Merges the sets of two nodes, linking the larger root under the smaller one.
+     * @param parent The shared parent links.
+     * @param a The first node.
+     * @param b The second node.
+     */
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            int rootA = findRoot(parent, a);
+            int rootB = findRoot(parent, b);
+            if (rootA == rootB) {
+                return;
+            }
+            int high = Math.max(rootA, rootB);
+            int low = Math.min(rootA, rootB);
+            // Fails if another thread linked high meanwhile; then look for the new roots
+            if (parent.compareAndSet(high, high, low)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @brief Runs a kernel on every partition of the nodes, in parallel when there are enough of them.
+     * @param pool The pool to run the partitions on.
+     * @param nodeCount The number of nodes.
+     * @param kernel The work to do on each partition.
+     */
+    private static void forEachPartition(ForkJoinPool pool, int nodeCount, Partitions.Kernel kernel) {
+        int threads = pool.getParallelism();
+        int parts = threads == 1 || nodeCount < PARALLEL_THRESHOLD ? 1 : threads * Partitions.PER_THREAD;
+        Partitions.run(pool, Partitions.evenBounds(nodeCount, parts), kernel);
+    }
+}
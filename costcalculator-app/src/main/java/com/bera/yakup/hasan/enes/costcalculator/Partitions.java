@@ -0,0 +1,111 @@
+/**
+ * @file Partitions.java
+ * @brief This file contains the implementation of the Partitions class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @class Partitions
+ * @brief Runs work on contiguous partitions of a range with fork/join.
+ *
+ * The parallel kernels cut their input into a few partitions per worker thread, so
+ * that a slow partition does not hold up the others, and run them with tasks that
+ * split the range of partitions in halves. Each caller decides when its input is
+ * large enough to be worth splitting and where the boundaries go.
+ */
+final class Partitions {
+    static final int PER_THREAD = 4; ///< Partitions per worker thread, for load balancing.
+
+    /**
+     * @interface Kernel
+     * @brief Work done on one partition.
+     */
+    interface Kernel {
+        /**
+         * @brief Processes one partition.
+         * @param partition The partition number.
+         * @param from First position of the partition.
+         * @param to Position after the last one of the partition.
+         */
+        void run(int partition, int from, int to);
+    }
+
+    /**
+     * @brief Utility class; not instantiable.
+     */
+    private Partitions() {
+    }
+
+    /**
+     * @brief Cuts a range into partitions of equal length.
+     * @param length The length of the range.
+     * @param parts The number of partitions, at least 1.
+     * @return Partition boundaries; partition i covers bounds[i] to bounds[i + 1] - 1.
+     */
+    static int[] evenBounds(int length, int parts) {
+        int[] bounds = new int[parts + 1];
+        for (int p = 0; p <= parts; p++) {
+            bounds[p] = (int) ((long) length * p / parts);
+        }
+        return bounds;
+    }
+
+    /**
+     * @brief Runs a kernel on every partition, on the calling thread if there is only one.
+     * @param pool The pool to run the partitions on.
+     * @param bounds Partition boundaries, at least two.
+     * @param kernel The work to do on each partition.
+     */
+    static void run(ForkJoinPool pool, int[] bounds, Kernel kernel) {
+        if (bounds.length == 2) {
+            kernel.run(0, bounds[0], bounds[1]);
+            return;
+        }
+        pool.invoke(new Task(bounds, 0, bounds.length - 1, kernel));
+    }
+
+    /**
+     * @class Task
+     * @brief Fork/join task that splits a range of partitions in halves.
+     */
+    private static final class Task extends RecursiveAction {
+        private static final long serialVersionUID = 1L; ///< Serialization version; tasks are never serialized.
+
+        private final int[] bounds; ///< Partition boundaries.
+        private final int from; ///< First partition of the task.
+        private final int to; ///< Partition after the last one of the task.
+        private final transient Kernel kernel; ///< Kernel to run on each partition.
+
+        /**
+         * @brief Constructor for the Task class.
+         * @param bounds Partition boundaries.
+         * @param from First partition of the task.
+         * @param to Partition after the last one of the task.
+         * @param kernel Kernel to run on each partition.
+         */
+        Task(int[] bounds, int from, int to, Kernel kernel) {
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+            this.kernel = kernel;
+        }
+
+        /**
+         * @brief Runs one partition directly or forks the two halves.
+         */
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                kernel.run(from, bounds[from], bounds[to]);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Task(bounds, from, middle, kernel),
+                    new Task(bounds, middle, to, kernel));
+        }
+    }
+}
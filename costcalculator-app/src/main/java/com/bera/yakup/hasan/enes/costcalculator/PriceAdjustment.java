@@ -5,8 +5,6 @@
 
 package com.bera.yakup.hasan.enes.costcalculator;
 
-import java.io.DataOutputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
@@ -43,6 +41,14 @@ public class PriceAdjustment {
         this.out = out;
     }
 
+    /**
+     * @brief Gets the IngredientManagement instance used to load ingredients.
+     * @return The IngredientManagement instance.
+     */
+    public IngredientManagement getIngredientManagement() {
+        return ingredientManagement;
+    }
+
 
     /**
      * @param pathFileIngredients Path to the ingredient file.
@@ -65,7 +71,7 @@ public class PriceAdjustment {
             out.println("+--------------------------------------+\n" +
                     "| Ingredient ID: " + ingredient.getId() + "\n" +
                     "| Name         : " + ingredient.getName() + "\n" +
-                    "| Price        : $" + String.format("%.2f", ingredient.getPrice()) + "\n" +
+                    "| Price        : $" + Money.format(ingredient.getPriceMinor()) + "\n" +
                     "+--------------------------------------+\n");
         }
 
@@ -140,12 +146,12 @@ public class PriceAdjustment {
         int right = 2 * i + 2;
 
         // If left child is larger than root
-        if (left < n && ingredients.get(left).getPrice() > ingredients.get(largest).getPrice()) {
+        if (left < n && ingredients.get(left).getPriceMinor() > ingredients.get(largest).getPriceMinor()) {
             largest = left;
         }
 
         // If right child is larger than largest so far
-        if (right < n && ingredients.get(right).getPrice() > ingredients.get(largest).getPrice()) {
+        if (right < n && ingredients.get(right).getPriceMinor() > ingredients.get(largest).getPriceMinor()) {
             largest = right;
         }
 
@@ -432,16 +438,10 @@ public class PriceAdjustment {
             float newPrice = scanner.nextFloat();
 
             // Update the price of the ingredient
-            ingredient.setPrice(newPrice);
+            ingredient.setPriceMinor(Money.ofMajor(newPrice));
 
             // Save the updated ingredients to file
-            try (DataOutputStream writer = new DataOutputStream(new FileOutputStream(pathFileIngredients))) {
-                for (Ingredient ing : ingredients) {
-                    writer.writeInt(ing.getId());
-                    writer.writeUTF(ing.getName());
-                    writer.writeFloat(ing.getPrice());
-                }
-            }
+            ingredientManagement.saveIngredientsToFile(ingredients, pathFileIngredients);
 
             out.println("The ingredient was successfully updated");
             userAuth.enterToContinue();
@@ -479,19 +479,13 @@ public class PriceAdjustment {
         // Find the ingredient and reset the price
         for (Ingredient ingredient : ingredients) {
             if (ingredient.getId() == ingredientId) {
-                ingredient.setPrice(0.0f);
+                ingredient.setPriceMinor(0);
                 break;
             }
         }
 
         // Save the updated ingredients to file
-        try (DataOutputStream writer = new DataOutputStream(new FileOutputStream(pathFileIngredients))) {
-            for (Ingredient ingredient : ingredients) {
-                writer.writeInt(ingredient.getId());
-                writer.writeUTF(ingredient.getName());
-                writer.writeFloat(ingredient.getPrice());
-            }
-        }
+        ingredientManagement.saveIngredientsToFile(ingredients, pathFileIngredients);
 
         out.println("The ingredient price was successfully reset");
         userAuth.enterToContinue();
@@ -0,0 +1,126 @@
+/**
+ * @file PriceIndex.java
+ * @brief This file contains the implementation of the PriceIndex class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @class PriceIndex
+ * @brief Maps ingredient ids to fixed-point prices for fast recipe costing.
+ *
+ * Ingredient ids are normally small and dense, so prices are kept in a long array
+ * indexed directly by id. If the ids are too sparse for that, the index falls back to
+ * sorted id and price arrays searched with binary search. Summing a recipe does not
+ * allocate and is exact because prices are whole kuruş.
+ */
+public class PriceIndex {
+    private static final long MISSING = Long.MIN_VALUE; ///< Marks ids without an ingredient in the dense table.
+
+    private final long[] pricesById; ///< Dense table of prices indexed by id, or null when sparse.
+    private final int[] sortedIds; ///< Sorted ingredient ids for the sparse layout.
+    private final long[] sortedPrices; ///< Prices matching sortedIds for the sparse layout.
+    private final int size; ///< Number of ingredients in the index.
+
+    /**
+     * @brief Builds a price index from a list of ingredients.
+     * @param ingredients The ingredients to index.
+     */
+    public PriceIndex(List<Ingredient> ingredients) {
+        int maxId = -1;
+        boolean negativeId = false;
+        for (Ingredient ingredient : ingredients) {
+            maxId = Math.max(maxId, ingredient.getId());
+            negativeId |= ingredient.getId() < 0;
+        }
+        this.size = ingredients.size();
+
+        if (!negativeId && maxId < 4L * ingredients.size() + 1024) {
+            pricesById = new long[maxId + 1];
+            Arrays.fill(pricesById, MISSING);
+            for (Ingredient ingredient : ingredients) {
+                if (pricesById[ingredient.getId()] == MISSING) {
+                    pricesById[ingredient.getId()] = ingredient.getPriceMinor();
+                }
+            }
+            sortedIds = null;
+            sortedPrices = null;
+        } else {
+            pricesById = null;
+            Ingredient[] byId = ingredients.toArray(new Ingredient[0]);
+            Arrays.sort(byId, (a, b) -> Integer.compare(a.getId(), b.getId()));
+            sortedIds = new int[byId.length];
+            sortedPrices = new long[byId.length];
+            for (int i = 0; i < byId.length; i++) {
+                sortedIds[i] = byId[i].getId();
+                sortedPrices[i] = byId[i].getPriceMinor();
+            }
+        }
+    }
+
+    /**
+     * @brief Checks whether an ingredient id is present.
+     * @param ingredientId The ingredient id.
+     * @return True if the index holds a price for the id.
+     */
+    public boolean contains(int ingredientId) {
+        if (pricesById != null) {
+            return ingredientId >= 0 && ingredientId < pricesById.length && pricesById[ingredientId] != MISSING;
+        }
+        return Arrays.binarySearch(sortedIds, ingredientId) >= 0;
+    }
+
+    /**
+     * @brief Gets the price of an ingredient.
+     * @param ingredientId The ingredient id.
+     * @return The price in kuruş, or 0 if the ingredient is not present.
+     */
+    public long priceOf(int ingredientId) {
+        if (pricesById != null) {
+            if (ingredientId < 0 || ingredientId >= pricesById.length) {
+                return 0;
+            }
+            long price = pricesById[ingredientId];
+            return price == MISSING ? 0 : price;
+        }
+        int position = Arrays.binarySearch(sortedIds, ingredientId);
+        return position >= 0 ? sortedPrices[position] : 0;
+    }
+
+    /**
+     * @brief Sums the prices of a list of ingredient ids. Unknown ids are ignored.
+     * @param ingredientIds The ingredient ids, e.g. of a recipe.
+     * @return The exact total in kuruş.
+     */
+    public long costOf(List<Integer> ingredientIds) {
+        long total = 0;
+        for (int i = 0, n = ingredientIds.size(); i < n; i++) {
+            total += priceOf(ingredientIds.get(i));
+        }
+        return total;
+    }
+
+    /**
+     * @brief Builds a price vector over the columns of a quantity matrix, for SparseMatrix.multiply.
+     * @param quantities The recipes × ingredients matrix from SparseMatrix.fromRecipes.
+     * @return The price of each column's ingredient in kuruş, 0 for ids without an ingredient.
+     */
+    public long[] toVector(SparseMatrix quantities) {
+        long[] vector = new long[quantities.getColumnCount()];
+        for (int column = 0; column < vector.length; column++) {
+            vector[column] = priceOf(quantities.getColumnId(column));
+        }
+        return vector;
+    }
+
+    /**
+     * @brief Gets the number of indexed ingredients.
+     * @return The number of ingredients.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * @file PriceScenario.java
+ * @brief This file contains the implementation of the PriceScenario class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @class PriceScenario
+ * @brief A batch of what-if price overrides layered over the catalog prices.
+ *
+ * The scenario never changes the catalog or the ingredient file. It keeps only the
+ * overridden prices, and every other ingredient reads through to the shared base
+ * price index, so many scenarios can be built over the same catalog cheaply.
+ * Percentage changes apply to the scenario price, so two changes to the same
+ * ingredient compound.
+ */
+public class PriceScenario {
+    private final PriceIndex base; ///< Catalog prices the scenario is layered over.
+    private final Map<Integer, Long> overrides; ///< Overridden prices in kuruş by ingredient id.
+
+    /**
+     * @brief Constructor for an empty scenario.
+     * @param base The catalog prices.
+     */
+    public PriceScenario(PriceIndex base) {
+        this.base = base;
+        this.overrides = new HashMap<>();
+    }
+
+    /**
+     * @brief Sets the price of an ingredient in this scenario.
+     * @param ingredientId The ingredient id.
+     * @param priceMinor The new price in kuruş.
+     * @return This scenario.
+     * @throws IllegalArgumentException If the ingredient is not in the catalog or the price is negative.
+     */
+    public PriceScenario setPrice(int ingredientId, long priceMinor) {
+        if (!base.contains(ingredientId)) {
+            throw new IllegalArgumentException("Ingredient " + ingredientId + " is not in the catalog.");
+        }
+        if (priceMinor < 0) {
+            throw new IllegalArgumentException("Price must not be negative.");
+        }
+        if (priceMinor == base.priceOf(ingredientId)) {
+            overrides.remove(ingredientId);
+        } else {
+            overrides.put(ingredientId, priceMinor);
+        }
+        return this;
+    }
+
+    /**
+     * @brief Changes the price of an ingredient by a percentage, e.g. 12 for +12% or -5 for -5%.
+     * @param ingredientId The ingredient id.
+     * @param percent The change in percent.
+     * @return This scenario.
+     * @throws IllegalArgumentException If the ingredient is not in the catalog or the price would become negative.
+     */
+    public PriceScenario adjustPercent(int ingredientId, double percent) {
+        return setPrice(ingredientId, Math.round(priceOf(ingredientId) * (1.0 + percent / 100.0)));
+    }
+
+    /**
+     * @brief Changes the prices of a group of ingredients by the same percentage.
+     * @param ingredientIds The ingredient ids, e.g. all dairy products.
+     * @param percent The change in percent.
+     * @return This scenario.
+     * @throws IllegalArgumentException If an ingredient is not in the catalog or a price would become negative.
+     */
+    public PriceScenario adjustPercent(Collection<Integer> ingredientIds, double percent) {
+        for (int ingredientId : ingredientIds) {
+            adjustPercent(ingredientId, percent);
+        }
+        return this;
+    }
+
+    /**
+     * @brief Gets the price of an ingredient in this scenario.
+     * @param ingredientId The ingredient id.
+     * @return The overridden price, or the catalog price if it is not overridden.
+     */
+    public long priceOf(int ingredientId) {
+        Long price = overrides.get(ingredientId);
+        return price != null ? price : base.priceOf(ingredientId);
+    }
+
+    /**
+     * @brief Gets the ids of the ingredients whose price differs from the catalog.
+     * @return The changed ingredient ids, in no particular order.
+     */
+    public int[] changedIngredientIds() {
+        int[] ids = new int[overrides.size()];
+        int i = 0;
+        for (int id : overrides.keySet()) {
+            ids[i++] = id;
+        }
+        return ids;
+    }
+
+    /**
+     * @brief Gets the catalog prices the scenario is layered over.
+     * @return The base price index.
+     */
+    public PriceIndex getBase() {
+        return base;
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * @file PriceScenarioEngine.java
+ * @brief This file contains the implementation of the PriceScenarioEngine class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @class PriceScenarioEngine
+ * @brief Evaluates what-if price scenarios against every recipe of the catalog.
+ *
+ * The engine builds the recipes × ingredients quantity matrix once, together with
+ * its transpose, and costs all recipes at catalog prices with one SpMV. A scenario
+ * is then evaluated by walking only the transposed rows (the recipes using each
+ * changed ingredient), so the cost is proportional to how widely the changed
+ * ingredients are used rather than to the size of the catalog.
+ */
+public class PriceScenarioEngine {
+    private final SparseMatrix ingredientsByRecipe; ///< Recipes × ingredients quantities.
+    private final SparseMatrix recipesByIngredient; ///< Transpose: ingredients × recipes quantities.
+    private final PriceIndex prices; ///< Catalog prices.
+    private final long[] baseCosts; ///< Cost of each recipe at catalog prices, in kuruş.
+
+    /**
+     * @class Result
+     * @brief Cost changes of every recipe under one scenario.
+     *
+     * Recipes are referred to by their 0-based position in the recipe list, which is
+     * one less than the recipe id shown in the menus.
+     */
+    public static final class Result {
+        private final long[] baseCosts; ///< Cost of each recipe at catalog prices.
+        private final long[] deltas; ///< Cost change of each recipe under the scenario.
+        private final int[] affected; ///< Recipes with a non-zero change, most affected first.
+
+        /**
+         * @brief Constructor for the Result class.
+         * @param baseCosts Cost of each recipe at catalog prices.
+         * @param deltas Cost change of each recipe.
+         * @param affected Recipes with a non-zero change, most affected first.
+         */
+        private Result(long[] baseCosts, long[] deltas, int[] affected) {
+            this.baseCosts = baseCosts;
+            this.deltas = deltas;
+            this.affected = affected;
+        }
+
+        /**
+         * @brief Gets the cost of a recipe at catalog prices.
+         * @param recipeIndex The 0-based recipe index.
+         * @return The cost in kuruş.
+         */
+        public long getBaseCost(int recipeIndex) {
+            return baseCosts[recipeIndex];
+        }
+
+        /**
+         * @brief Gets the cost change of a recipe.
+         * @param recipeIndex The 0-based recipe index.
+         * @return The change in kuruş, negative if the recipe gets cheaper.
+         */
+        public long getDelta(int recipeIndex) {
+            return deltas[recipeIndex];
+        }
+
+        /**
+         * @brief Gets the cost of a recipe under the scenario.
+         * @param recipeIndex The 0-based recipe index.
+         * @return The cost in kuruş.
+         */
+        public long getScenarioCost(int recipeIndex) {
+            return baseCosts[recipeIndex] + deltas[recipeIndex];
+        }
+
+        /**
+         * @brief Gets the number of recipes whose cost changes.
+         * @return The affected recipe count.
+         */
+        public int getAffectedCount() {
+            return affected.length;
+        }
+
+        /**
+         * @brief Ranks the recipes by the size of their cost change.
+         * @param limit Maximum number of recipes to return.
+         * @return 0-based recipe indexes, largest absolute change first, ties by index.
+         */
+        public int[] mostAffected(int limit) {
+            return Arrays.copyOf(affected, Math.max(0, Math.min(limit, affected.length)));
+        }
+
+        /**
+         * @brief Gets the cost change of a meal plan.
+         * @param recipeIndexes 0-based indexes of the planned recipes; a recipe may appear more than once.
+         * @return The change in kuruş.
+         */
+        public long planDelta(List<Integer> recipeIndexes) {
+            long total = 0;
+            for (int i = 0, n = recipeIndexes.size(); i < n; i++) {
+                total += deltas[recipeIndexes.get(i)];
+            }
+            return total;
+        }
+    }
+
+    /**
+     * @brief Constructor for the PriceScenarioEngine class.
+     * @param recipes The recipes, in menu order.
+     * @param prices The catalog prices.
+     */
+    public PriceScenarioEngine(List<Recipe> recipes, PriceIndex prices) {
+        this.ingredientsByRecipe = SparseMatrix.fromRecipes(recipes);
+        this.recipesByIngredient = ingredientsByRecipe.transpose();
+        this.prices = prices;
+        this.baseCosts = ingredientsByRecipe.multiply(prices.toVector(ingredientsByRecipe));
+    }
+
+    /**
+     * @brief Starts a new empty scenario over the catalog prices.
+     * @return The scenario.
+     */
+    public PriceScenario newScenario() {
+        return new PriceScenario(prices);
+    }
+
+    /**
+     * @brief Gets the number of recipes.
+     * @return The recipe count.
+     */
+    public int getRecipeCount() {
+        return baseCosts.length;
+    }
+
+    /**
+     * @brief Computes the cost change of every recipe under a scenario.
+     *
+     * For each changed ingredient the price difference is multiplied into the
+     * recipes that use it, read from the transposed matrix. Recipes that do not use
+     * any changed ingredient are never visited.
+     *
+     * @param scenario The scenario to evaluate.
+     * @return The per-recipe changes and the ranking of affected recipes.
+     */
+    public Result evaluate(PriceScenario scenario) {
+        long[] deltas = new long[baseCosts.length];
+        int[] touched = new int[baseCosts.length];
+        int touchedCount = 0;
+        boolean[] seen = new boolean[baseCosts.length];
+
+        for (int ingredientId : scenario.changedIngredientIds()) {
+            int column = ingredientsByRecipe.columnOf(ingredientId);
+            if (column < 0) {
+                continue; // No recipe uses the ingredient, and negative ids never enter the matrix
+            }
+            long change = scenario.priceOf(ingredientId) - prices.priceOf(ingredientId);
+            for (int k = recipesByIngredient.rowStart(column); k < recipesByIngredient.rowEnd(column); k++) {
+                int recipe = recipesByIngredient.columnAt(k);
+                deltas[recipe] += Math.round(recipesByIngredient.valueAt(k) * change);
+                if (!seen[recipe]) {
+                    seen[recipe] = true;
+                    touched[touchedCount++] = recipe;
+                }
+            }
+        }
+
+        // Rank the recipes that actually changed, largest absolute change first
+        Integer[] ranked = new Integer[touchedCount];
+        int affectedCount = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            if (deltas[touched[i]] != 0) {
+                ranked[affectedCount++] = touched[i];
+            }
+        }
+        Arrays.sort(ranked, 0, affectedCount, (a, b) -> {
+            int byChange = Long.compare(Math.abs(deltas[b]), Math.abs(deltas[a]));
+            return byChange != 0 ? byChange : Integer.compare(a, b);
+        });
+        int[] affected = new int[affectedCount];
+        for (int i = 0; i < affectedCount; i++) {
+            affected[i] = ranked[i];
+        }
+
+        return new Result(baseCosts, deltas, affected);
+    }
+}
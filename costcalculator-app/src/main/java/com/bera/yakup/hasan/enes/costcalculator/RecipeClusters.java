@@ -0,0 +1,250 @@
+/**
+ * @file RecipeClusters.java
+ * @brief This file contains the implementation of the RecipeClusters class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @class RecipeClusters
+ * @brief Keeps the components of the recipe graph up to date as recipes are created and edited.
+ *
+ * Two recipes are linked when they share a category or an ingredient. Instead of the
+ * pairwise edges, each recipe is linked to one hub per category and per ingredient
+ * it uses, so a recipe's incident edges are just its category and its ingredient
+ * ids, and the recipes linked to a hub are that category's or ingredient's postings.
+ * The components of this graph, without the hubs, are the strongly connected
+ * components of RecipeGraph.
+ *
+ * Recipes and hubs are elements of a growable DisjointSet. A new recipe, or a new
+ * category or ingredient of an edited one, only unites the recipe with the hubs of
+ * its new links, in near-constant time. A union-find cannot split a set, so a
+ * removed link only marks the clusters stale; the next query rebuilds them from the
+ * links of all recipes with ParallelComponents, in time linear in the links.
+ */
+public class RecipeClusters {
+    private DisjointSet sets; ///< Sets of recipe and hub elements.
+    private int[] recipeElement; ///< Element of each recipe in sets.
+    private int[] categories; ///< Category of each recipe.
+    private int[][] ingredients; ///< Distinct non-negative ingredient ids of each recipe, in increasing order.
+    private int recipeCount; ///< Number of recipes.
+    private Map<Integer, Integer> categoryHubs; ///< Element of each category's hub.
+    private Map<Integer, Integer> ingredientHubs; ///< Element of each ingredient's hub.
+    private boolean stale; ///< Whether a link was removed since the sets were built.
+    private int rebuildCount; ///< Number of times the sets were rebuilt after a removal.
+
+    /**
+     * @brief Builds the clusters of a recipe list.
+     * @param recipes The recipes, in menu order.
+     */
+    public RecipeClusters(List<Recipe> recipes) {
+        recipeCount = recipes.size();
+        categories = new int[Math.max(8, recipeCount)];
+        ingredients = new int[categories.length][];
+        for (int i = 0; i < recipeCount; i++) {
+            categories[i] = recipes.get(i).getCategory();
+            ingredients[i] = distinctIngredients(recipes.get(i));
+        }
+        rebuild();
+    }
+
+    /**
+     * @brief Brings one recipe up to date after it was created or edited.
+     *
+     * Only the recipe's changed links are touched. New links unite it with their hubs;
+     * a removed link makes the next query rebuild the clusters.
+     *
+     * @param index The recipe's index in the list; the recipe count for a new recipe.
+     * @param recipe The recipe as it is now.
+     * @throws IndexOutOfBoundsException If the index is past the recipe count.
+     */
+    public void update(int index, Recipe recipe) {
+        if (index < 0 || index > recipeCount) {
+            throw new IndexOutOfBoundsException("Recipe index " + index + " is not in 0.." + recipeCount + ".");
+        }
+        int[] newIngredients = distinctIngredients(recipe);
+        if (index == recipeCount) {
+            if (recipeCount == categories.length) {
+                categories = Arrays.copyOf(categories, recipeCount * 2);
+                ingredients = Arrays.copyOf(ingredients, recipeCount * 2);
+                recipeElement = Arrays.copyOf(recipeElement, recipeCount * 2);
+            }
+            recipeCount++;
+            categories[index] = recipe.getCategory();
+            ingredients[index] = newIngredients;
+            if (!stale) {
+                recipeElement[index] = sets.add();
+                link(index, categoryHubs, recipe.getCategory());
+                for (int ingredient : newIngredients) {
+                    link(index, ingredientHubs, ingredient);
+                }
+            }
+            return;
+        }
+
+        int[] oldIngredients = ingredients[index];
+        if (categories[index] != recipe.getCategory()) {
+            stale = true;
+        }
+        // Both lists are sorted, so one merge finds the added and removed ingredients
+        int o = 0;
+        for (int ingredient : newIngredients) {
+            while (o < oldIngredients.length && oldIngredients[o] < ingredient) {
+                stale = true;
+                o++;
+            }
+            if (o < oldIngredients.length && oldIngredients[o] == ingredient) {
+                o++;
+            } else if (!stale) {
+                link(index, ingredientHubs, ingredient);
+            }
+        }
+        if (o < oldIngredients.length) {
+            stale = true;
+        }
+        categories[index] = recipe.getCategory();
+        ingredients[index] = newIngredients;
+    }
+
+    /**
+     * @brief Gets the number of recipes.
+     * @return The recipe count.
+     */
+    public int size() {
+        return recipeCount;
+    }
+
+    /**
+     * @brief Checks whether two recipes are in the same cluster.
+     * @param a The index of the first recipe.
+     * @param b The index of the second recipe.
+     * @return True if a chain of shared categories and ingredients links them.
+     */
+    public boolean sameCluster(int a, int b) {
+        refresh();
+        return sets.connected(recipeElement[a], recipeElement[b]);
+    }
+
+    /**
+     * @brief Lists the clusters.
+     * @return One array of recipe indexes per cluster, ordered as ParallelComponents.find orders them.
+     */
+    public int[][] components() {
+        refresh();
+        int[] root = new int[recipeCount];
+        for (int i = 0; i < recipeCount; i++) {
+            root[i] = sets.find(recipeElement[i]);
+        }
+        return ParallelComponents.group(root, sets.size());
+    }
+
+    /**
+     * @brief Gets the number of rebuilds caused by removed links.
+     * @return The rebuild count.
+     */
+    int getRebuildCount() {
+        return rebuildCount;
+    }
+
+    /**
+     * @brief Rebuilds the sets if a link was removed since they were built.
+     */
+    private void refresh() {
+        if (stale) {
+            rebuild();
+            rebuildCount++;
+        }
+    }
+
+    /**
+     * @brief Builds the sets from the links of all recipes.
+     *
+     * Recipes are elements 0 to recipeCount - 1 and the hubs follow them. The hub
+     * graph is symmetric, so its components are found with ParallelComponents and
+     * each one is then united in the new sets.
+     */
+    private void rebuild() {
+        categoryHubs = new HashMap<>();
+        ingredientHubs = new HashMap<>();
+        int linkCount = 0;
+        for (int i = 0; i < recipeCount; i++) {
+            hub(categoryHubs, categories[i]);
+            for (int ingredient : ingredients[i]) {
+                hub(ingredientHubs, ingredient);
+            }
+            linkCount += 1 + ingredients[i].length;
+        }
+
+        int nodeCount = recipeCount + categoryHubs.size() + ingredientHubs.size();
+        int[] sources = new int[2 * linkCount];
+        int[] targets = new int[2 * linkCount];
+        int edgeCount = 0;
+        for (int i = 0; i < recipeCount; i++) {
+            int category = categoryHubs.get(categories[i]);
+            sources[edgeCount] = i;
+            targets[edgeCount++] = category;
+            sources[edgeCount] = category;
+            targets[edgeCount++] = i;
+            for (int ingredient : ingredients[i]) {
+                int hub = ingredientHubs.get(ingredient);
+                sources[edgeCount] = i;
+                targets[edgeCount++] = hub;
+                sources[edgeCount] = hub;
+                targets[edgeCount++] = i;
+            }
+        }
+        // Every hub has a recipe before it, so each component starts with a recipe
+        int[][] components = ParallelComponents.find(CsrGraph.fromEdges(nodeCount, sources, targets, edgeCount));
+        sets = new DisjointSet(nodeCount);
+        for (int[] component : components) {
+            for (int element : component) {
+                sets.union(component[0], element);
+            }
+        }
+        recipeElement = new int[categories.length];
+        for (int i = 0; i < recipeCount; i++) {
+            recipeElement[i] = i;
+        }
+        stale = false;
+    }
+
+    /**
+     * @brief Unites a recipe with the hub of one of its links, creating the hub if needed.
+     * @param index The recipe index.
+     * @param hubs The hubs of the link's kind.
+     * @param key The category or ingredient id.
+     */
+    private void link(int index, Map<Integer, Integer> hubs, int key) {
+        Integer hub = hubs.get(key);
+        if (hub == null) {
+            hub = sets.add();
+            hubs.put(key, hub);
+        }
+        sets.union(recipeElement[index], hub);
+    }
+
+    /**
+     * @brief Numbers a hub during a rebuild, after the recipes and the hubs already numbered.
+     * @param hubs The hubs of one kind.
+     * @param key The category or ingredient id.
+     */
+    private void hub(Map<Integer, Integer> hubs, int key) {
+        if (!hubs.containsKey(key)) {
+            hubs.put(key, recipeCount + categoryHubs.size() + ingredientHubs.size());
+        }
+    }
+
+    /**
+     * @brief Gets the distinct non-negative ingredient ids of a recipe; the recipe graph ignores negative ids.
+     * @param recipe The recipe.
+     * @return The ids in increasing order.
+     */
+    private static int[] distinctIngredients(Recipe recipe) {
+        return recipe.getIngredients().stream().mapToInt(Integer::intValue).filter(id -> id >= 0).sorted().distinct().toArray();
+    }
+}
@@ -0,0 +1,409 @@
+/**
+ * @file RecipeCostCache.java
+ * @brief This file contains the implementation of the RecipeCostCache class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+
+/**
+ * @class RecipeCostCache
+ * @brief A bounded cache of recipe costs (in kuruş) using the W-TinyLFU eviction policy.
+ *
+ * Entries are keyed by (recipe id, catalog version). New entries enter a small LRU
+ * window; when the window overflows its oldest entry competes with the oldest entry
+ * of the main segmented LRU, and only the one that was requested more often (as
+ * estimated by a count-min sketch) is kept. This keeps frequently viewed recipes
+ * cached while one-off lookups are evicted quickly.
+ *
+ * The sketch counts requests per recipe id, so the popularity of a recipe survives
+ * catalog changes even though its cached cost does not.
+ */
+public class RecipeCostCache {
+    public static final int DEFAULT_MAXIMUM_SIZE = 256; ///< Default number of cached recipe costs.
+
+    private static final int WINDOW = 0; ///< Node is in the admission window.
+    private static final int PROBATION = 1; ///< Node is in the probation part of the main segment.
+    private static final int PROTECTED = 2; ///< Node is in the protected part of the main segment.
+
+    private final int maximumSize; ///< Maximum number of cached entries.
+    private final int windowMaximum; ///< Maximum number of entries in the window.
+    private final int protectedMaximum; ///< Maximum number of entries in the protected segment.
+    private final Map<Integer, Node> data; ///< Cached entries by recipe id.
+    private final Node window; ///< Sentinel of the window LRU list.
+    private final Node probation; ///< Sentinel of the probation LRU list.
+    private final Node protectedSegment; ///< Sentinel of the protected LRU list.
+    private final FrequencySketch sketch; ///< Popularity estimates used for admission.
+    private int windowSize; ///< Current number of entries in the window.
+    private int probationSize; ///< Current number of entries in probation.
+    private int protectedSize; ///< Current number of entries in the protected segment.
+    private long catalogVersion; ///< Catalog version the cached entries belong to.
+    private boolean hasVersion; ///< Whether catalogVersion has been set.
+    private long hitCount; ///< Number of lookups answered from the cache.
+    private long missCount; ///< Number of lookups that had to compute the cost.
+    private long evictionCount; ///< Number of entries removed to respect the size bound.
+
+    /**
+     * @class Node
+     * @brief A cached recipe cost linked into one of the LRU lists.
+     */
+    private static final class Node {
+        int recipeId; ///< Recipe id of the entry.
+        long cost; ///< Cached cost of the recipe in kuruş.
+        int segment; ///< Segment the node currently belongs to.
+        Node prev; ///< Previous node in the list.
+        Node next; ///< Next node in the list.
+    }
+
+    /**
+     * @brief Constructor for a cache with the default maximum size.
+     */
+    public RecipeCostCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @brief Constructor for the RecipeCostCache class.
+     * @param maximumSize Maximum number of recipe costs to keep.
+     */
+    public RecipeCostCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (maximumSize - windowMaximum) * 4 / 5;
+        this.data = new HashMap<>();
+        this.window = sentinel();
+        this.probation = sentinel();
+        this.protectedSegment = sentinel();
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * @brief Returns the cost of a recipe, computing and caching it on a miss.
+     *
+     * A lookup for a different catalog version than the cached one drops all cached
+     * costs first, because they can never be valid again.
+     *
+     * @param recipeId The id of the recipe.
+     * @param version The current catalog version.
+     * @param loader Computes the cost of the recipe when it is not cached.
+     * @return The cost of the recipe in kuruş.
+     */
+    public long getOrCompute(int recipeId, long version, IntToLongFunction loader) {
+        if (!hasVersion || version != catalogVersion) {
+            invalidateAll();
+            catalogVersion = version;
+            hasVersion = true;
+        }
+        sketch.increment(recipeId);
+
+        Node node = data.get(recipeId);
+        if (node != null) {
+            hitCount++;
+            onHit(node);
+            return node.cost;
+        }
+
+        missCount++;
+        long cost = loader.applyAsLong(recipeId);
+        node = new Node();
+        node.recipeId = recipeId;
+        node.cost = cost;
+        node.segment = WINDOW;
+        data.put(recipeId, node);
+        addFirst(window, node);
+        windowSize++;
+        evict();
+        return cost;
+    }
+
+    /**
+     * @brief Removes every cached cost. Counters and popularity are kept.
+     */
+    public void invalidateAll() {
+        data.clear();
+        clearList(window);
+        clearList(probation);
+        clearList(protectedSegment);
+        windowSize = 0;
+        probationSize = 0;
+        protectedSize = 0;
+    }
+
+    /**
+     * @brief Gets the number of cached recipe costs.
+     * @return The number of entries.
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * @brief Gets the maximum number of cached recipe costs.
+     * @return The maximum size.
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @brief Gets the number of lookups answered from the cache.
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @brief Gets the number of lookups that computed the cost.
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @brief Gets the number of entries evicted to respect the size bound.
+     * @return The eviction count.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @brief Gets the ratio of hits to all lookups.
+     * @return The hit rate, or 0 if there were no lookups.
+     */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * @brief Moves an entry according to its segment after a hit.
+     * @param node The entry that was hit.
+     */
+    private void onHit(Node node) {
+        if (node.segment == PROBATION) {
+            unlink(node);
+            probationSize--;
+            node.segment = PROTECTED;
+            addFirst(protectedSegment, node);
+            protectedSize++;
+
+            // Demote the least recently used protected entries that no longer fit
+            while (protectedSize > protectedMaximum) {
+                Node demoted = protectedSegment.prev;
+                unlink(demoted);
+                protectedSize--;
+                demoted.segment = PROBATION;
+                addFirst(probation, demoted);
+                probationSize++;
+            }
+        } else {
+            unlink(node);
+            addFirst(node.segment == WINDOW ? window : protectedSegment, node);
+        }
+    }
+
+    /**
+     * @brief Moves overflowing window entries to the main segment and applies admission.
+     */
+    private void evict() {
+        while (windowSize > windowMaximum) {
+            Node candidate = window.prev;
+            unlink(candidate);
+            windowSize--;
+            candidate.segment = PROBATION;
+            addFirst(probation, candidate);
+            probationSize++;
+
+            if (data.size() <= maximumSize) {
+                continue;
+            }
+
+            Node victim = null;
+            if (probationSize > 1) {
+                victim = probation.prev;
+            } else if (protectedSize > 0) {
+                victim = protectedSegment.prev;
+            }
+
+            if (victim != null && sketch.frequency(candidate.recipeId) > sketch.frequency(victim.recipeId)) {
+                remove(victim);
+            } else {
+                remove(candidate);
+            }
+        }
+    }
+
+    /**
+     * @brief Evicts an entry from the cache.
+     * @param node The entry to evict.
+     */
+    private void remove(Node node) {
+        unlink(node);
+        if (node.segment == WINDOW) {
+            windowSize--;
+        } else if (node.segment == PROBATION) {
+            probationSize--;
+        } else {
+            protectedSize--;
+        }
+        data.remove(node.recipeId);
+        evictionCount++;
+    }
+
+    /**
+     * @brief Creates an empty circular list sentinel.
+     * @return The sentinel node.
+     */
+    private static Node sentinel() {
+        Node node = new Node();
+        node.prev = node;
+        node.next = node;
+        return node;
+    }
+
+    /**
+     * @brief Empties a circular list.
+     * @param head The sentinel of the list.
+     */
+    private static void clearList(Node head) {
+        head.prev = head;
+        head.next = head;
+    }
+
+    /**
+     * @brief Inserts a node right after the sentinel (most recently used position).
+     * @param head The sentinel of the list.
+     * @param node The node to insert.
+     */
+    private static void addFirst(Node head, Node node) {
+        node.prev = head;
+        node.next = head.next;
+        head.next.prev = node;
+        head.next = node;
+    }
+
+    /**
+     * @brief Removes a node from the list it belongs to.
+     * @param node The node to remove.
+     */
+    private static void unlink(Node node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    /**
+     * @class FrequencySketch
+     * @brief A count-min sketch of 4-bit counters that ages by halving.
+     *
+     * Each 64-bit word holds sixteen counters. A key uses one counter in each of four
+     * words, and the four counters live in different nibble groups so the rows do not
+     * collide with each other. After a sample of increments all counters are halved so
+     * that old popularity fades.
+     */
+    static final class FrequencySketch {
+        private static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        }; ///< Per-row hash seeds.
+        private static final long RESET_MASK = 0x7777777777777777L; ///< Clears the bit shifted in from the next counter.
+
+        private final long[] table; ///< Packed 4-bit counters.
+        private final int tableMask; ///< Mask for indexing into the table.
+        private final int sampleSize; ///< Number of increments between agings.
+        private int size; ///< Increments since the last aging.
+
+        /**
+         * @brief Constructor for the FrequencySketch class.
+         * @param maximumSize Maximum size of the cache that uses the sketch.
+         */
+        FrequencySketch(int maximumSize) {
+            int length = Integer.highestOneBit(Math.max(16, maximumSize) - 1) << 1;
+            this.table = new long[length];
+            this.tableMask = length - 1;
+            this.sampleSize = 10 * length;
+        }
+
+        /**
+         * @brief Estimates how often a key was seen.
+         * @param key The key to look up.
+         * @return The estimated frequency, at most 15.
+         */
+        int frequency(int key) {
+            int hash = spread(key);
+            int start = (hash & 3) << 2;
+            int frequency = 15;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        /**
+         * @brief Records one occurrence of a key.
+         * @param key The key to record.
+         */
+        void increment(int key) {
+            int hash = spread(key);
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int offset = (start + i) << 2;
+                long mask = 0xfL << offset;
+                if ((table[index] & mask) != mask) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++size == sampleSize) {
+                reset();
+            }
+        }
+
+        /**
+         * @brief Halves every counter.
+         */
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            size /= 2;
+        }
+
+        /**
+         * @brief Selects the word used by a key in the given row.
+         * @param hash The spread hash of the key.
+         * @param row The row index (0-3).
+         * @return The index into the table.
+         */
+        private int indexOf(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+
+        /**
+         * @brief Applies a supplemental hash to spread sequential ids.
+         * @param key The key to hash.
+         * @return The spread hash.
+         */
+        private static int spread(int key) {
+            int h = key * 0x9e3779b9;
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            return h ^ (h >>> 13);
+        }
+    }
+}
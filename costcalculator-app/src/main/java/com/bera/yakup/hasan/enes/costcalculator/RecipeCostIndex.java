@@ -0,0 +1,233 @@
+/**
+ * @file RecipeCostIndex.java
+ * @brief This file contains the implementation of the RecipeCostIndex class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @class RecipeCostIndex
+ * @brief A secondary index of recipes ordered by (category, cost).
+ *
+ * The category and the cost in kuruş are packed into one long key, category in the
+ * high bits, so all recipes of a category are adjacent in a B+ tree and ordered by
+ * cost within it, ties by recipe id. "Desserts under 50 TL" is then one descent to the first dessert
+ * and a walk along the leaves, and the k cheapest recipes of a category are the
+ * first k entries of that walk, both in O(log n + k).
+ *
+ * The index remembers the category and cost it filed each recipe under. When the
+ * catalog changes, refresh() compares the new costs with the remembered ones and
+ * only moves the recipes whose key changed.
+ */
+public class RecipeCostIndex {
+    public static final int MAX_CATEGORY = (1 << 15) - 1; ///< Largest category that fits in the key.
+    public static final long MAX_COST = (1L << 48) - 1; ///< Largest cost in kuruş that fits in the key.
+
+    private static final int COST_BITS = 48; ///< Number of low key bits holding the cost.
+
+    private final LongBPlusTree tree; ///< (packed (category, cost) key, 1-based recipe id) pairs.
+    private int[] categories; ///< Category each recipe is filed under, by recipe id - 1.
+    private long[] costs; ///< Cost each recipe is filed under in kuruş, by recipe id - 1.
+    private int count; ///< Number of indexed recipes.
+
+    /**
+     * @brief Bulk loads the index for a recipe list.
+     *
+     * @param recipes The recipes, in menu order.
+     * @param recipeCosts The cost of each recipe in kuruş, in the same order.
+     * @throws IllegalArgumentException If the lengths differ or a category or cost does not fit in a key.
+     */
+    public RecipeCostIndex(List<Recipe> recipes, long[] recipeCosts) {
+        if (recipes.size() != recipeCosts.length) {
+            throw new IllegalArgumentException("Expected " + recipes.size() + " costs, got " + recipeCosts.length + ".");
+        }
+        count = recipes.size();
+        categories = new int[Math.max(count, 8)];
+        costs = new long[categories.length];
+        long[] keys = new long[count];
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            categories[i] = recipes.get(i).getCategory();
+            costs[i] = recipeCosts[i];
+            keys[i] = key(categories[i], costs[i]);
+            ids[i] = i + 1;
+        }
+        tree = LongBPlusTree.bulkLoad(keys, ids);
+    }
+
+    /**
+     * @brief Packs a category and a cost into one key that sorts by category, then by cost.
+     *
+     * @param category The recipe category.
+     * @param cost The cost in kuruş.
+     * @return The packed key.
+     * @throws IllegalArgumentException If the category or the cost is negative or too large.
+     */
+    public static long key(int category, long cost) {
+        if (category < 0 || category > MAX_CATEGORY) {
+            throw new IllegalArgumentException("Category " + category + " cannot be indexed.");
+        }
+        if (cost < 0 || cost > MAX_COST) {
+            throw new IllegalArgumentException("Cost " + cost + " cannot be indexed.");
+        }
+        return ((long) category << COST_BITS) | cost;
+    }
+
+    /**
+     * @brief Gets the number of indexed recipes.
+     * @return The number of recipes.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @brief Gets the cost a recipe is indexed with.
+     *
+     * @param recipeId The 1-based recipe id.
+     * @return The indexed cost in kuruş.
+     * @throws IndexOutOfBoundsException If the recipe is not indexed.
+     */
+    public long costOf(int recipeId) {
+        checkId(recipeId);
+        return costs[recipeId - 1];
+    }
+
+    /**
+     * @brief Files a recipe under its current category and cost, moving it if it was indexed before.
+     *
+     * A recipe id one past the last indexed recipe adds a new recipe.
+     *
+     * @param recipeId The 1-based recipe id.
+     * @param category The current category of the recipe.
+     * @param cost The current cost of the recipe in kuruş.
+     * @return True if the index changed, false if the recipe was already filed under that key.
+     * @throws IndexOutOfBoundsException If the id is neither indexed nor the next free id.
+     */
+    public boolean update(int recipeId, int category, long cost) {
+        long newKey = key(category, cost);
+        if (recipeId == count + 1) {
+            if (count == categories.length) {
+                categories = Arrays.copyOf(categories, count * 2);
+                costs = Arrays.copyOf(costs, count * 2);
+            }
+            count++;
+        } else {
+            checkId(recipeId);
+            int index = recipeId - 1;
+            if (categories[index] == category && costs[index] == cost) {
+                return false;
+            }
+            tree.remove(key(categories[index], costs[index]), recipeId);
+        }
+        categories[recipeId - 1] = category;
+        costs[recipeId - 1] = cost;
+        tree.insert(newKey, recipeId);
+        return true;
+    }
+
+    /**
+     * @brief Brings the index in line with a changed recipe list or price catalog.
+     *
+     * Only recipes whose category or cost changed are moved; recipes beyond the end
+     * of the new list are dropped and new ones are added.
+     *
+     * @param recipes The recipes, in menu order.
+     * @param recipeCosts The cost of each recipe in kuruş, in the same order.
+     * @return The number of recipes that were added, moved or dropped.
+     * @throws IllegalArgumentException If the lengths differ or a category or cost does not fit in a key.
+     */
+    public int refresh(List<Recipe> recipes, long[] recipeCosts) {
+        if (recipes.size() != recipeCosts.length) {
+            throw new IllegalArgumentException("Expected " + recipes.size() + " costs, got " + recipeCosts.length + ".");
+        }
+        int changed = 0;
+        while (count > recipes.size()) {
+            tree.remove(key(categories[count - 1], costs[count - 1]), count);
+            count--;
+            changed++;
+        }
+        for (int i = 0; i < recipes.size(); i++) {
+            if (update(i + 1, recipes.get(i).getCategory(), recipeCosts[i])) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @brief Finds the recipes of a category whose cost lies in a range, cheapest first.
+     *
+     * @param category The recipe category.
+     * @param minCost Lowest cost in kuruş, inclusive.
+     * @param maxCost Highest cost in kuruş, inclusive.
+     * @param limit Maximum number of recipes to return.
+     * @return The 1-based ids of the matching recipes, ordered by cost and then by id.
+     */
+    public List<Integer> findInCostRange(int category, long minCost, long maxCost, int limit) {
+        List<Integer> found = new ArrayList<>();
+        if (category < 0 || category > MAX_CATEGORY || maxCost < 0 || minCost > maxCost || minCost > MAX_COST) {
+            return found;
+        }
+        long from = key(category, Math.max(minCost, 0));
+        long to = key(category, Math.min(maxCost, MAX_COST));
+        LongBPlusTree.Cursor cursor = tree.range(from, to);
+        while (found.size() < limit && cursor.next()) {
+            found.add(cursor.value());
+        }
+        return found;
+    }
+
+    /**
+     * @brief Finds all recipes of a category whose cost lies in a range, cheapest first.
+     *
+     * @param category The recipe category.
+     * @param minCost Lowest cost in kuruş, inclusive.
+     * @param maxCost Highest cost in kuruş, inclusive.
+     * @return The 1-based ids of the matching recipes, ordered by cost and then by id.
+     */
+    public List<Integer> findInCostRange(int category, long minCost, long maxCost) {
+        return findInCostRange(category, minCost, maxCost, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @brief Finds the k cheapest recipes of a category.
+     *
+     * @param category The recipe category.
+     * @param k Maximum number of recipes to return.
+     * @return The 1-based ids of the cheapest recipes, ordered by cost and then by id.
+     */
+    public List<Integer> cheapest(int category, int k) {
+        return findInCostRange(category, 0, MAX_COST, k);
+    }
+
+    /**
+     * @brief Checks the tree structure and that every recipe is filed under its remembered key.
+     * @throws IllegalStateException If the index is inconsistent.
+     */
+    void checkStructure() {
+        tree.checkStructure();
+        if (tree.size() != count) {
+            throw new IllegalStateException("Index holds " + tree.size() + " entries for " + count + " recipes.");
+        }
+        for (int i = 0; i < count; i++) {
+            if (!tree.contains(key(categories[i], costs[i]), i + 1)) {
+                throw new IllegalStateException("Recipe " + (i + 1) + " is not filed under its key.");
+            }
+        }
+    }
+
+    /**
+     * @brief Throws if a recipe id is not indexed.
+     * @param recipeId The 1-based recipe id.
+     */
+    private void checkId(int recipeId) {
+        if (recipeId < 1 || recipeId > count) {
+            throw new IndexOutOfBoundsException("Recipe " + recipeId + " is not indexed.");
+        }
+    }
+}
@@ -15,11 +15,26 @@ import java.util.*;
  * such as UserAuthentication and PriceAdjustment to streamline recipe management.
  */
 public class RecipeCosting {
+    private static final int FULL_LIST_LIMIT = 20; ///< Longer lists are looked up by prefix instead of printed.
+    private static final int COMPLETION_LIMIT = 10; ///< Number of names shown for a prefix lookup.
 
     private Scanner scanner; ///< Scanner for user input.
     private PrintStream out; ///< PrintStream for displaying output.
     private UserAuthentication userAuth; ///< Instance of UserAuthentication for shared utilities.
     private PriceAdjustment priceAdjustment; ///< Instance of PriceAdjustment for ingredient operations.
+    private RecipeCostCache costCache; ///< Cache of recipe costs shared by the costing and budget menus.
+    private NameTrie recipeTrie; ///< Recipe names by prefix, mapped to 1-based recipe ids.
+    private List<Recipe> trieRecipes; ///< The recipe list recipeTrie was built from.
+    private LongBPlusTree categoryIndex; ///< (category, 1-based recipe id) pairs.
+    private List<Recipe> indexedRecipes; ///< The recipe list categoryIndex was built from.
+    private RecipeCostIndex costIndex; ///< Recipes by (category, cost).
+    private long costRecipesVersion; ///< Recipe file version costIndex was last brought up to date with.
+    private long costPricesVersion; ///< Ingredient file version costIndex was last brought up to date with.
+    private long[] costPrices; ///< Price vector over the columns of costUses the indexed costs were calculated with.
+    private SparseMatrix costUses; ///< Recipes × ingredients quantities of the indexed recipes.
+    private SparseMatrix costPostings; ///< Transpose of costUses: the recipes using each ingredient, or null after a recipe changed.
+    private RecipeClusters recipeClusters; ///< Components of the recipe graph.
+    private List<Recipe> clusteredRecipes; ///< The recipe list recipeClusters was built from.
     /**
      * @brief Constructor for the RecipeCosting class.
      *
@@ -33,6 +48,255 @@ public class RecipeCosting {
         this.scanner = scanner;
         this.out = out;
         this.priceAdjustment = priceAdjustment;
+        this.costCache = new RecipeCostCache();
+    }
+
+    /**
+     * @brief Gets the recipe cost cache.
+     * @return The RecipeCostCache used by this instance.
+     */
+    public RecipeCostCache getCostCache() {
+        return costCache;
+    }
+
+    /**
+     * @brief Gets the total cost of a recipe, using the recipe cost cache.
+     *
+     * The cost is the exact sum of the fixed-point prices of the recipe's ingredients.
+     * Ingredients that are missing from the price index are ignored.
+     *
+     * @param recipeId The 1-based id of the recipe as shown in the menus.
+     * @param recipe The recipe to cost.
+     * @param prices The price index of the current catalog.
+     * @param catalogVersion The catalog version the price index belongs to.
+     * @return The total cost of the recipe in kuruş.
+     */
+    public long getRecipeCost(int recipeId, Recipe recipe, PriceIndex prices, long catalogVersion) {
+        return costCache.getOrCompute(recipeId, catalogVersion, id -> prices.costOf(recipe.getIngredients()));
+    }
+
+    /**
+     * @brief Calculates the cost of every recipe with one sparse matrix-vector product.
+     *
+     * The recipes × ingredients quantity matrix is multiplied with the price vector
+     * over its columns. Ingredients that are missing from the price index cost 0.
+     *
+     * @param recipes The recipes, in menu order.
+     * @param prices The price index of the current catalog.
+     * @return The cost of each recipe in kuruş, in the same order as the recipes.
+     */
+    public long[] calculateAllRecipeCosts(List<Recipe> recipes, PriceIndex prices) {
+        SparseMatrix quantities = SparseMatrix.fromRecipes(recipes);
+        return quantities.multiply(prices.toVector(quantities));
+    }
+
+    /**
+     * @brief Gets the (category, cost) index of the catalog, bringing it up to date if the catalog changed.
+     *
+     * One version covers both files, so any change recalculates all costs; see
+     * getCostIndex(List, long, PriceIndex, long).
+     *
+     * @param recipes The recipes of the catalog, in menu order.
+     * @param prices The price index of the current catalog.
+     * @param catalogVersion The catalog version the recipes and prices belong to.
+     * @return The index of the recipes by category and cost.
+     */
+    public RecipeCostIndex getCostIndex(List<Recipe> recipes, PriceIndex prices, long catalogVersion) {
+        return getCostIndex(recipes, catalogVersion, prices, catalogVersion);
+    }
+
+    /**
+     * @brief Gets the (category, cost) index of the catalog, bringing it up to date with what changed.
+     *
+     * The index is bulk loaded on the first call, or when the recipe file changed
+     * behind createRecipe and editRecipe; then all costs are recalculated with one
+     * sparse matrix-vector product and only the recipes whose cost or category changed
+     * are moved in the index. When only prices changed, the old and new price vectors
+     * are compared and only the recipes in the changed ingredients' columns are
+     * recosted, found through the transposed quantity matrix.
+     *
+     * @param recipes The recipes of the catalog, in menu order.
+     * @param recipesVersion The version of the recipe file, see CatalogVersion.of.
+     * @param prices The price index of the current catalog.
+     * @param pricesVersion The version of the ingredient file.
+     * @return The index of the recipes by category and cost.
+     */
+    public RecipeCostIndex getCostIndex(List<Recipe> recipes, long recipesVersion, PriceIndex prices, long pricesVersion) {
+        if (costIndex == null || costRecipesVersion != recipesVersion) {
+            costUses = SparseMatrix.fromRecipes(recipes);
+            costPostings = costUses.transpose();
+            costPrices = prices.toVector(costUses);
+            long[] costs = costUses.multiply(costPrices);
+            if (costIndex == null) {
+                costIndex = new RecipeCostIndex(recipes, costs);
+            } else {
+                costIndex.refresh(recipes, costs);
+            }
+        } else if (costPricesVersion != pricesVersion) {
+            recostChangedPrices(recipes, prices);
+        }
+        costRecipesVersion = recipesVersion;
+        costPricesVersion = pricesVersion;
+        return costIndex;
+    }
+
+    /**
+     * @brief Recosts the indexed recipes that use an ingredient whose price changed.
+     *
+     * The quantity matrix is rebuilt first if a recipe was created or edited since it
+     * was built, and the old prices are carried over to its columns by ingredient id.
+     * A recipe is recosted once however many of its ingredients changed.
+     *
+     * @param recipes The recipes of the catalog, in menu order; the ones the index holds.
+     * @param prices The price index of the current catalog.
+     * @return The number of recipes recosted.
+     */
+    int recostChangedPrices(List<Recipe> recipes, PriceIndex prices) {
+        if (costPostings == null) {
+            SparseMatrix oldUses = costUses;
+            costUses = SparseMatrix.fromRecipes(recipes);
+            costPostings = costUses.transpose();
+            long[] oldPrices = new long[costUses.getColumnCount()];
+            for (int column = 0; column < oldPrices.length; column++) {
+                int oldColumn = oldUses.columnOf(costUses.getColumnId(column));
+                oldPrices[column] = oldColumn >= 0 ? costPrices[oldColumn] : -1; // A new ingredient always counts as changed
+            }
+            costPrices = oldPrices;
+        }
+        long[] newPrices = prices.toVector(costUses);
+        boolean[] affected = new boolean[recipes.size()];
+        int recosted = 0;
+        for (int column = 0; column < newPrices.length; column++) {
+            if (newPrices[column] == costPrices[column]) {
+                continue;
+            }
+            for (int k = costPostings.rowStart(column); k < costPostings.rowEnd(column); k++) {
+                int recipe = costPostings.columnAt(k);
+                if (!affected[recipe]) {
+                    affected[recipe] = true;
+                    costIndex.update(recipe + 1, recipes.get(recipe).getCategory(), rowCost(recipe, newPrices));
+                    recosted++;
+                }
+            }
+        }
+        costPrices = newPrices;
+        return recosted;
+    }
+
+    /**
+     * @brief Costs one recipe from its row of the quantity matrix, rounding each entry as SparseMatrix.multiply does.
+     * @param recipe The 0-based recipe index.
+     * @param prices Price vector over the columns of the quantity matrix.
+     * @return The cost in kuruş.
+     */
+    private long rowCost(int recipe, long[] prices) {
+        long cost = 0;
+        for (int k = costUses.rowStart(recipe); k < costUses.rowEnd(recipe); k++) {
+            cost += Math.round(costUses.valueAt(k) * prices[costUses.columnAt(k)]);
+        }
+        return cost;
+    }
+
+    /**
+     * @brief Files a created or edited recipe in the cost index, if the index is in step with the recipe file.
+     *
+     * Must be called before the recipes are saved; finishCostIndexUpdate then records
+     * the new recipe file version. The recipe is costed at the current prices, and the
+     * quantity matrix is marked stale so that the next price change rebuilds it.
+     *
+     * @param recipeId The 1-based recipe id; one past the last indexed recipe for a new one.
+     * @param recipe The recipe as it is now.
+     * @param pathFileIngredients Path to the file containing ingredients.
+     * @param pathFileRecipes Path to the file containing recipes.
+     * @return True if the index was updated, false if it is missing or out of step and is rebuilt on its next use.
+     * @throws IOException If the ingredients cannot be read.
+     */
+    private boolean updateCostIndex(int recipeId, Recipe recipe, String pathFileIngredients, String pathFileRecipes) throws IOException {
+        if (costIndex == null || costRecipesVersion != CatalogVersion.of(pathFileRecipes)) {
+            return false;
+        }
+        PriceIndex prices = new PriceIndex(priceAdjustment.convertDoubleLinkToArray(pathFileIngredients));
+        costIndex.update(recipeId, recipe.getCategory(), prices.costOf(recipe.getIngredients()));
+        costPostings = null;
+        return true;
+    }
+
+    /**
+     * @brief Records the recipe file version after a save, if updateCostIndex kept the index in step.
+     * @param updated The result of updateCostIndex.
+     * @param pathFileRecipes Path to the file containing recipes.
+     */
+    private void finishCostIndexUpdate(boolean updated, String pathFileRecipes) {
+        if (updated) {
+            costRecipesVersion = CatalogVersion.of(pathFileRecipes);
+        }
+    }
+
+    /**
+     * @brief Gets the prefix trie over the names of a recipe list.
+     *
+     * The trie is built on the first call for a list and then kept in sync by
+     * createRecipe and editRecipe.
+     *
+     * @param recipes The recipes, in menu order.
+     * @return The trie mapping recipe names to 1-based recipe ids.
+     */
+    public NameTrie getRecipeTrie(List<Recipe> recipes) {
+        if (recipeTrie == null || trieRecipes != recipes) {
+            recipeTrie = new NameTrie();
+            for (int i = 0; i < recipes.size(); i++) {
+                recipeTrie.insert(recipes.get(i).getName(), i + 1);
+            }
+            trieRecipes = recipes;
+        }
+        return recipeTrie;
+    }
+
+    /**
+     * @brief Prints the names that start with a prefix, with their ids.
+     * @param trie The trie to look the prefix up in.
+     * @param prefix The prefix typed by the user.
+     */
+    private void printCompletions(NameTrie trie, String prefix) {
+        List<NameTrie.Completion> completions = trie.complete(prefix, COMPLETION_LIMIT);
+        if (completions.isEmpty()) {
+            out.println("No names start with '" + prefix + "'.");
+            return;
+        }
+        for (NameTrie.Completion completion : completions) {
+            out.printf("ID: %d | Name: %s%n", completion.getId(), completion.getName());
+        }
+    }
+
+    /**
+     * @brief Reads an id, answering '?prefix' lookups until a non-lookup line is entered.
+     * @param trie The trie to look prefixes up in.
+     * @return The entered number, or -2 if the input is not a number.
+     */
+    private int readIdWithLookup(NameTrie trie) {
+        while (true) {
+            String input = scanner.nextLine().trim();
+            if (input.startsWith("?")) {
+                printCompletions(trie, input.substring(1).trim());
+                continue;
+            }
+            return input.matches("-?\\d+") ? Integer.parseInt(input) : -2;
+        }
+    }
+
+    /**
+     * @brief Prints the ingredients a recipe can use, or how to look them up if there are many.
+     * @param ingredients The available ingredients.
+     */
+    private void printAvailableIngredients(List<Ingredient> ingredients) {
+        if (ingredients.size() > FULL_LIST_LIMIT) {
+            out.printf("%d ingredients available. Type ?<name prefix> to look up ingredient IDs.%n", ingredients.size());
+            return;
+        }
+        out.println("Available Ingredients:");
+        for (Ingredient ingredient : ingredients) {
+            out.printf("ID: %d | Name: %s | Price: %s TL%n", ingredient.getId(), ingredient.getName(), Money.format(ingredient.getPriceMinor()));
+        }
     }
     /**
      * @brief Creates a new recipe.
@@ -69,10 +333,8 @@ public class RecipeCosting {
             return;
         }
 
-        out.println("Available Ingredients:");
-        for (Ingredient ingredient : ingredients) {
-            out.printf("ID: %d | Name: %s | Price: %.2f TL%n", ingredient.getId(), ingredient.getName(), ingredient.getPrice());
-        }
+        printAvailableIngredients(ingredients);
+        NameTrie ingredientNames = priceAdjustment.getIngredientManagement().getNameTrie();
 
         out.println("Enter the ingredient ID to add to the recipe. Type 'done' when finished:");
         List<Integer> selectedIngredients = new ArrayList<>();
@@ -82,6 +344,10 @@ public class RecipeCosting {
             if (input.equalsIgnoreCase("done")) {
                 break;
             }
+            if (input.startsWith("?")) {
+                printCompletions(ingredientNames, input.substring(1).trim());
+                continue;
+            }
             try {
                 int ingredientId = Integer.parseInt(input);
                 boolean exists = ingredients.stream().anyMatch(ingredient -> ingredient.getId() == ingredientId);
@@ -103,9 +369,17 @@ public class RecipeCosting {
 
         Recipe newRecipe = new Recipe(recipeName, categoryChoice);
         newRecipe.setIngredients(selectedIngredients);
+        NameTrie recipeNames = getRecipeTrie(recipes);
+        LongBPlusTree categories = getCategoryIndex(recipes);
+        RecipeClusters clusters = getRecipeClusters(recipes);
         recipes.add(newRecipe);
+        recipeNames.insert(recipeName, recipes.size());
+        categories.insert(categoryChoice, recipes.size());
+        clusters.update(recipes.size() - 1, newRecipe);
+        boolean costIndexed = updateCostIndex(recipes.size(), newRecipe, pathFileIngredients, pathFileRecipes);
 
         saveRecipesToFile(pathFileRecipes, recipes);
+        finishCostIndexUpdate(costIndexed, pathFileRecipes);
         out.println("Recipe created successfully!");
         userAuth.enterToContinue();
     }
@@ -129,13 +403,18 @@ public class RecipeCosting {
             return;
         }
 
-        out.println("Available Recipes:");
-        for (int i = 0; i < recipes.size(); i++) {
-            out.printf("%d) %s%n", i + 1, recipes.get(i).getName());
+        if (recipes.size() > FULL_LIST_LIMIT) {
+            out.printf("%d recipes available. Type ?<name prefix> to look up recipe IDs.%n", recipes.size());
+        } else {
+            out.println("Available Recipes:");
+            for (int i = 0; i < recipes.size(); i++) {
+                out.printf("%d) %s%n", i + 1, recipes.get(i).getName());
+            }
         }
 
+        NameTrie recipeNames = getRecipeTrie(recipes);
         out.println("Enter the ID of the recipe you want to edit: ");
-        int recipeId = userAuth.getInput();
+        int recipeId = readIdWithLookup(recipeNames);
 
         if (recipeId < 1 || recipeId > recipes.size()) {
             userAuth.handleInputError();
@@ -156,6 +435,7 @@ public class RecipeCosting {
                 userAuth.clearScreen();
                 out.println("Enter new name: ");
                 String newName = scanner.nextLine();
+                recipeNames.rename(selectedRecipe.getName(), newName, recipeId);
                 selectedRecipe.setName(newName);
                 break;
             case 2:
@@ -168,6 +448,11 @@ public class RecipeCosting {
                     userAuth.enterToContinue();
                     return;
                 }
+                if (newCategory != selectedRecipe.getCategory()) {
+                    LongBPlusTree categories = getCategoryIndex(recipes);
+                    categories.remove(selectedRecipe.getCategory(), recipeId);
+                    categories.insert(newCategory, recipeId);
+                }
                 selectedRecipe.setCategory(newCategory);
                 break;
             case 3:
@@ -198,8 +483,13 @@ public class RecipeCosting {
 
                 if (ingredientChoice == 1) {
                     userAuth.clearScreen();
-                    System.out.println("Available Ingredients:");
-                    priceAdjustment.printIngredientsToConsole(pathFileIngredients);
+                    if (ingredientList.size() > FULL_LIST_LIMIT) {
+                        printAvailableIngredients(ingredientList);
+                    } else {
+                        System.out.println("Available Ingredients:");
+                        priceAdjustment.printIngredientsToConsole(pathFileIngredients);
+                    }
+                    NameTrie ingredientNames = priceAdjustment.getIngredientManagement().getNameTrie();
 
                     System.out.println("Enter the ingredient ID to add to the recipe. Type 'done' when finished:");
                     while (true) {
@@ -208,6 +498,10 @@ public class RecipeCosting {
                         if (input.equalsIgnoreCase("done")) {
                             break;
                         }
+                        if (input.startsWith("?")) {
+                            printCompletions(ingredientNames, input.substring(1).trim());
+                            continue;
+                        }
                         try {
                             int ingredientId = Integer.parseInt(input);
 
@@ -267,15 +561,18 @@ public class RecipeCosting {
                 break;
         }
 
+        getRecipeClusters(recipes).update(recipeId - 1, selectedRecipe);
+        boolean costIndexed = updateCostIndex(recipeId, selectedRecipe, pathFileIngredients, pathFileRecipes);
         saveRecipesToFile(pathFileRecipes, recipes);
+        finishCostIndexUpdate(costIndexed, pathFileRecipes);
         System.out.println("Recipe updated successfully!");
     }
     /**
      * @brief Calculates the total cost of a specific recipe.
      *
-     * The method uses a sparse matrix to store ingredient prices, calculates the total cost
-     * of the recipe by summing the prices of its ingredients, and prints the sparse matrix
-     * representation for debugging purposes.
+     * The method prints the quantity and cost of each distinct ingredient using the
+     * recipe's row of the sparse quantity matrix, and takes the total cost of the
+     * recipe from the recipe cost cache.
      *
      * @param recipes The list of existing recipes.
      * @param pathFileIngredients Path to the file containing ingredients.
@@ -313,32 +610,30 @@ public class RecipeCosting {
 
         Recipe selectedRecipe = recipes.get(recipeId - 1);
 
-        // Sparse matrix to store ingredients and their prices
-        SparseMatrix sparseMatrix = new SparseMatrix();
         List<Ingredient> ingredients = priceAdjustment.convertDoubleLinkToArray(pathFileIngredients); // Load ingredients
+        long catalogVersion = CatalogVersion.of(pathFileIngredients, pathFileRecipes);
+        PriceIndex prices = new PriceIndex(ingredients);
+        Map<Integer, String> namesById = new HashMap<>();
+        for (Ingredient ingredient : ingredients) {
+            namesById.putIfAbsent(ingredient.getId(), ingredient.getName());
+        }
 
-        double totalCost = 0.0;
-
-        // Populate the sparse matrix with ingredient prices
-        for (int ingredientId : selectedRecipe.getIngredients()) {
-            Optional<Ingredient> ingredient = ingredients.stream()
-                    .filter(ing -> ing.getId() == ingredientId)
-                    .findFirst();
-
-            if (ingredient.isPresent()) {
-                Ingredient ing = ingredient.get();
-                sparseMatrix.insert(selectedRecipe.getIngredients().indexOf(ingredientId), ing.getId(), ing.getPrice());
-                totalCost += ing.getPrice();
-            } else {
+        // Quantity row of the selected recipe, one entry per distinct ingredient
+        SparseMatrix row = SparseMatrix.fromRecipes(Collections.singletonList(selectedRecipe));
+        out.println("Ingredient breakdown:");
+        for (int k = row.rowStart(0); k < row.rowEnd(0); k++) {
+            int ingredientId = row.getColumnId(row.columnAt(k));
+            if (!prices.contains(ingredientId)) {
                 out.printf("Warning: Ingredient ID %d not found.%n", ingredientId);
+                continue;
             }
+            long lineCost = Math.round(row.valueAt(k) * prices.priceOf(ingredientId));
+            out.printf("ID: %d | Name: %s | Quantity: %.0f | Cost: %s TL%n",
+                    ingredientId, namesById.get(ingredientId), row.valueAt(k), Money.format(lineCost));
         }
 
-        // Print sparse matrix for debugging purposes
-        out.println("Sparse Matrix Representation of Recipe Ingredients:");
-        sparseMatrix.printMatrix();
-
-        out.printf("The total cost of the recipe '%s' is: %.2f TL%n", selectedRecipe.getName(), totalCost);
+        long totalCost = getRecipeCost(recipeId, selectedRecipe, prices, catalogVersion);
+        out.printf("The total cost of the recipe '%s' is: %s TL%n", selectedRecipe.getName(), Money.format(totalCost));
         userAuth.enterToContinue(); // Wait for user to continue
     }
 
@@ -347,12 +642,12 @@ public class RecipeCosting {
      * @param pathFileRecipes File path to save the recipes.
      * @param recipes         List of recipes to be saved.
      * @throws IOException If an I/O error occurs during file writing.
-     * @brief Saves all recipes to a file.
+     * @brief Saves all recipes to a file, replacing its contents.
      */
     public void saveRecipesToFile(String pathFileRecipes, List<Recipe> recipes) throws IOException {
         File file = new File(pathFileRecipes);
 
-        try (DataOutputStream writer = new DataOutputStream(new FileOutputStream(file, true))) {
+        try (DataOutputStream writer = new DataOutputStream(new FileOutputStream(file))) {
             // Write each Recipe object to the file
             for (Recipe recipe : recipes) {
                 writer.writeUTF(recipe.getName());
@@ -364,6 +659,7 @@ public class RecipeCosting {
                 }
             }
         }
+        CatalogVersion.bump(pathFileRecipes);
     }
     /**
      * @brief Traverses the recipes using Breadth-First Search (BFS) to analyze ingredient usage.
@@ -512,17 +808,56 @@ public class RecipeCosting {
 
         return recipes;
     }
+    /**
+     * @brief Gets the category index of a recipe list, bulk loading it if it was built for another list.
+     *
+     * Creating and editing recipes update the index in place, so it is only built
+     * once per loaded recipe list. Recipes are stored by id, so the index holds no
+     * boxed keys or references to the recipes.
+     *
+     * @param recipes The recipes, in menu order.
+     * @return A B+ tree of (category, 1-based recipe id) pairs.
+     */
+    public LongBPlusTree getCategoryIndex(List<Recipe> recipes) {
+        if (categoryIndex == null || indexedRecipes != recipes) {
+            long[] keys = new long[recipes.size()];
+            int[] ids = new int[recipes.size()];
+            for (int i = 0; i < recipes.size(); i++) {
+                keys[i] = recipes.get(i).getCategory();
+                ids[i] = i + 1;
+            }
+            categoryIndex = LongBPlusTree.bulkLoad(keys, ids);
+            indexedRecipes = recipes;
+        }
+        return categoryIndex;
+    }
+    /**
+     * @brief Gets the recipe graph components of a recipe list, building them if they were built for another list.
+     *
+     * Creating and editing recipes update the components with the recipe's changed
+     * links only, so they are only built once per loaded recipe list.
+     *
+     * @param recipes The recipes, in menu order.
+     * @return The components of the recipe graph.
+     */
+    public RecipeClusters getRecipeClusters(List<Recipe> recipes) {
+        if (recipeClusters == null || clusteredRecipes != recipes) {
+            recipeClusters = new RecipeClusters(recipes);
+            clusteredRecipes = recipes;
+        }
+        return recipeClusters;
+    }
     /**
      * @brief Searches for recipes by category using a B+ tree.
      *
      * Prompts the user to input a category and searches the B+ tree for recipes in the
      * specified category.
      *
-     * @param bPlusTree The B+ tree containing recipes indexed by category.
+     * @param recipes The list of existing recipes.
      * @throws IOException If an I/O error occurs.
      * @throws InterruptedException If the thread is interrupted.
      */
-    private void searchRecipeByCategory(BPlusTree bPlusTree) throws IOException, InterruptedException {
+    private void searchRecipeByCategory(List<Recipe> recipes) throws IOException, InterruptedException {
         out.println("Enter category to search (1: Soup, 2: Appetizer, 3: Main Course, 4: Dessert): ");
         int category = userAuth.getInput();
 
@@ -533,30 +868,34 @@ public class RecipeCosting {
         }
 
         out.println("Recipes in selected category:");
-        bPlusTree.search(category);
+        int[] found = getCategoryIndex(recipes).rangeValues(category, category, Integer.MAX_VALUE);
+        if (found.length == 0) {
+            out.println("Recipe not found");
+        }
+        for (int recipeId : found) {
+            out.println("Recipe found: " + recipes.get(recipeId - 1).getName());
+        }
 
         userAuth.enterToContinue();
     }
     /**
      * @brief Analyzes the recipes for Strongly Connected Components (SCC).
      *
-     * Constructs a recipe graph, resets its state, and uses Tarjan's algorithm to find and
-     * display SCCs within the recipe graph.
+     * The recipe graph links recipes both ways, so its SCCs are its connected components.
+     * These are kept up to date by createRecipe and editRecipe and displayed here, listed
+     * by their lowest recipe ID.
      *
      * @param recipes The list of existing recipes.
      * @throws IOException If an I/O error occurs.
      * @throws InterruptedException If the thread is interrupted.
      */
     private void analyzeSCC(List<Recipe> recipes) throws IOException, InterruptedException {
-        RecipeGraph recipeGraph = RecipeGraph.buildGraphFromRecipes(recipes, scanner);
-
-        // Reset graph state before running SCC
-        recipeGraph.resetGraphState();
+        int[][] components = getRecipeClusters(recipes).components();
 
         out.println("+--------------------------------------+\n"
                 + "|   STRONGLY CONNECTED COMPONENTS      |\n"
                 + "+--------------------------------------+\n");
-        recipeGraph.tarjanSCC(recipes);
+        RecipeGraph.printComponents(components, recipes, out);
         userAuth.enterToContinue();
     }
     /**
@@ -564,7 +903,7 @@ public class RecipeCosting {
      *
      * The method provides a menu for users to manage recipes, calculate costs, search by category,
      * analyze ingredient usage, and analyze Strongly Connected Components (SCC) in the recipe graph.
-     * It dynamically updates the B+ tree and recipe graph based on user actions.
+     * It keeps the B+ tree and the recipe graph components up to date with user actions.
      *
      * @param pathFileIngredients Path to the file containing ingredients.
      * @param pathFileRecipes Path to the file containing recipes.
@@ -575,12 +914,8 @@ public class RecipeCosting {
     public boolean recipeCostingMenu(String pathFileIngredients, String pathFileRecipes) throws IOException, InterruptedException {
         userAuth.clearScreen();
         List<Recipe> recipes = loadRecipesFromFile(pathFileRecipes);
-        BPlusTree bPlusTree = new BPlusTree();
-        RecipeGraph recipeGraph = RecipeGraph.buildGraphFromRecipes(recipes, scanner);
+        getCategoryIndex(recipes); // Built once here; create and edit keep it up to date
 
-        for (Recipe recipe : recipes) {
-            bPlusTree.insert(recipe.getCategory(), recipe);
-        }
         while (true) {
             userAuth.clearScreen();
             out.println("+--------------------------------------+\n"
@@ -606,23 +941,15 @@ public class RecipeCosting {
             switch (choice) {
                 case 1:
                     createRecipe(recipes, pathFileIngredients, pathFileRecipes);
-                    bPlusTree = new BPlusTree();
-                    for (Recipe recipe : recipes) {
-                        bPlusTree.insert(recipe.getCategory(), recipe);
-                    }
                     break;
                 case 2:
                     editRecipe(recipes, pathFileIngredients, pathFileRecipes);
-                    bPlusTree = new BPlusTree();
-                    for (Recipe recipe : recipes) {
-                        bPlusTree.insert(recipe.getCategory(), recipe);
-                    }
                     break;
                 case 3:
                     calculateRecipeCost(recipes, pathFileIngredients, pathFileRecipes);
                     break;
                 case 4:
-                    searchRecipeByCategory(bPlusTree);
+                    searchRecipeByCategory(recipes);
                     break;
                 case 5:
                     analyzeIngredientUsage(recipes);
@@ -5,9 +5,13 @@
 
 package com.bera.yakup.hasan.enes.costcalculator;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -17,16 +21,25 @@ import java.util.Scanner;
  * The RecipeGraph class provides functionality to represent recipes as nodes in a graph,
  * where edges represent relationships between recipes based on shared categories or ingredients.
  * It supports operations such as adding edges, finding strongly connected components (SCCs)
- * using Tarjan's algorithm, and resetting the graph state.
+ * using Tarjan's algorithm, and resetting the graph state. Tarjan's algorithm runs with
+ * explicit stacks, so long chains of recipes do not overflow the thread stack.
+ *
+ * The edges are kept in a CsrGraph. Edges added with addEdge are collected in two int
+ * arrays and merged into it before the next traversal.
  */
 public class RecipeGraph {
-    private List<List<Integer>> adjList; ///< Adjacency list representing the graph.
+    private CsrGraph edges; ///< Compacted edges in compressed sparse row form.
+    private int nodeCount; ///< Number of nodes.
+    private int[] pendingSources = new int[16]; ///< Sources of the edges added since the last compaction.
+    private int[] pendingTargets = new int[16]; ///< Targets of the edges added since the last compaction.
+    private int pendingCount; ///< Number of edges added since the last compaction.
     private boolean[] visited; ///< Tracks visited nodes during graph traversal.
     private int[] discoveryTime; ///< Stores discovery times of nodes for Tarjan's algorithm.
     private int[] lowLink; ///< Stores low-link values of nodes for SCC detection.
-    private boolean[] inStack; ///< Indicates if a node is currently in the recursion stack.
-    private List<Integer> stack; ///< Stack used in Tarjan's algorithm.
+    private boolean[] inStack; ///< Indicates if a node is currently on the component stack.
+    private int[] stack; ///< Component stack used in Tarjan's algorithm.
     private int time; ///< Global time counter for discovery times.
+    private int recipeCount; ///< Number of recipe nodes; the nodes after them are category hubs.
     private Scanner scanner; ///< Scanner for user input.
 
     /**
@@ -35,25 +48,24 @@ public class RecipeGraph {
      * @param nodeCount The number of nodes (recipes) in the graph.
      * @param scanner A Scanner object for user input.
      *
-     * Initializes the adjacency list and other data structures required for graph operations.
+     * Initializes an empty graph and other data structures required for graph operations.
      */
     public RecipeGraph(int nodeCount, Scanner scanner) {
-        adjList = new ArrayList<>();
-        visited = new boolean[nodeCount];
-        discoveryTime = new int[nodeCount];
-        lowLink = new int[nodeCount];
-        inStack = new boolean[nodeCount];
-        stack = new ArrayList<>();
-        time = 0;
-        this.scanner = scanner;
+        this(new CsrGraph(new int[nodeCount + 1], new int[0], nodeCount), scanner);
+    }
 
-        for (int i = 0; i < nodeCount; i++) {
-            adjList.add(new ArrayList<>());
-            visited[i] = false;
-            discoveryTime[i] = -1;
-            lowLink[i] = -1;
-            inStack[i] = false;
-        }
+    /**
+     * @brief Constructor for a RecipeGraph over prebuilt edges.
+     *
+     * @param edges The edges, possibly mapped from a cache file.
+     * @param scanner A Scanner object for user input.
+     */
+    public RecipeGraph(CsrGraph edges, Scanner scanner) {
+        this.edges = edges;
+        this.nodeCount = edges.getNodeCount();
+        this.recipeCount = edges.getRecipeCount();
+        this.scanner = scanner;
+        resetGraphState();
     }
 
     /**
@@ -61,9 +73,56 @@ public class RecipeGraph {
      *
      * @param src The source node.
      * @param dest The destination node.
+     * @throws IndexOutOfBoundsException If either node is not in the graph.
      */
     public void addEdge(int src, int dest) {
-        adjList.get(src).add(dest);
+        if (src < 0 || src >= nodeCount || dest < 0 || dest >= nodeCount) {
+            throw new IndexOutOfBoundsException("Edge " + src + " -> " + dest + " is outside a graph of " + nodeCount + " nodes.");
+        }
+        if (pendingCount == pendingSources.length) {
+            pendingSources = Arrays.copyOf(pendingSources, pendingCount * 2);
+            pendingTargets = Arrays.copyOf(pendingTargets, pendingCount * 2);
+        }
+        pendingSources[pendingCount] = src;
+        pendingTargets[pendingCount] = dest;
+        pendingCount++;
+    }
+
+    /**
+     * @brief Gets the edges in compressed sparse row form, merging in the edges added since the last call.
+     *
+     * The added edges of a node follow its earlier edges, in the order they were added.
+     *
+     * @return The edges.
+     */
+    public CsrGraph toCsr() {
+        if (pendingCount == 0) {
+            return edges;
+        }
+        int[] offsets = new int[nodeCount + 1];
+        for (int v = 0; v < nodeCount; v++) {
+            offsets[v + 1] = edges.edgeEnd(v) - edges.edgeStart(v);
+        }
+        for (int e = 0; e < pendingCount; e++) {
+            offsets[pendingSources[e] + 1]++;
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[offsets[nodeCount]];
+        int[] fill = new int[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            fill[v] = offsets[v];
+            for (int e = edges.edgeStart(v); e < edges.edgeEnd(v); e++) {
+                targets[fill[v]++] = edges.targetAt(e);
+            }
+        }
+        for (int e = 0; e < pendingCount; e++) {
+            targets[fill[pendingSources[e]]++] = pendingTargets[e];
+        }
+        edges = new CsrGraph(offsets, targets, recipeCount);
+        pendingCount = 0;
+        return edges;
     }
 
     /**
@@ -74,92 +133,224 @@ public class RecipeGraph {
      * @param recipes The list of recipes corresponding to the graph nodes.
      */
     public void tarjanSCC(List<Recipe> recipes) {
-        for (int i = 0; i < adjList.size(); i++) {
-            if (discoveryTime[i] == -1) {
-                tarjanSCCUtil(i, recipes);
+        printComponents(stronglyConnectedComponents(), recipes, System.out);
+    }
+
+    /**
+     * @brief Finds the strongly connected components with Tarjan's algorithm.
+     *
+     * The depth-first search keeps its path in an int array together with the next
+     * edge to follow from each node, instead of recursing, so its memory use does
+     * not depend on the thread stack and graphs with millions of nodes in one chain
+     * are fine. Components come out in the order the recursive algorithm completes
+     * them, with their nodes in the order they are popped from the component stack.
+     * Category hub nodes are left out.
+     *
+     * @return The components, each an array of 0-based recipe indexes.
+     */
+    public int[][] stronglyConnectedComponents() {
+        resetGraphState();
+        CsrGraph graph = toCsr();
+        int[] path = new int[nodeCount]; // Nodes on the current depth-first path
+        int[] nextEdge = new int[nodeCount]; // Position of the next edge to follow from each node
+        int stackSize = 0;
+        List<int[]> components = new ArrayList<>();
+
+        for (int start = 0; start < nodeCount; start++) {
+            if (discoveryTime[start] != -1) {
+                continue;
+            }
+            int depth = 0;
+            path[depth++] = start;
+            nextEdge[start] = graph.edgeStart(start);
+            discoveryTime[start] = lowLink[start] = time++;
+            stack[stackSize++] = start;
+            inStack[start] = true;
+
+            while (depth > 0) {
+                int node = path[depth - 1];
+                if (nextEdge[node] < graph.edgeEnd(node)) {
+                    int neighbor = graph.targetAt(nextEdge[node]++);
+                    if (discoveryTime[neighbor] == -1) {
+                        // Descend, as the recursive call would
+                        path[depth++] = neighbor;
+                        nextEdge[neighbor] = graph.edgeStart(neighbor);
+                        discoveryTime[neighbor] = lowLink[neighbor] = time++;
+                        stack[stackSize++] = neighbor;
+                        inStack[neighbor] = true;
+                    } else if (inStack[neighbor]) {
+                        lowLink[node] = Math.min(lowLink[node], discoveryTime[neighbor]);
+                    }
+                    continue;
+                }
+
+                // All edges of the node are done; return to its parent
+                depth--;
+                if (lowLink[node] == discoveryTime[node]) {
+                    int size = stackSize;
+                    int recipes = 0;
+                    do {
+                        size--;
+                        inStack[stack[size]] = false;
+                        if (stack[size] < recipeCount) {
+                            recipes++;
+                        }
+                    } while (stack[size] != node);
+                    int[] component = new int[recipes];
+                    int filled = 0;
+                    for (int k = stackSize - 1; k >= size; k--) {
+                        if (stack[k] < recipeCount) {
+                            component[filled++] = stack[k];
+                        }
+                    }
+                    stackSize = size;
+                    if (recipes > 0) {
+                        components.add(component);
+                    }
+                }
+                if (depth > 0) {
+                    int parent = path[depth - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
             }
         }
+        return components.toArray(new int[0][]);
     }
 
     /**
-     * @brief Recursive utility function for Tarjan's algorithm.
+     * @brief Prints strongly connected components of recipes.
      *
-     * @param node The current node being processed.
+     * @param components The components, each an array of 0-based recipe indexes.
      * @param recipes The list of recipes corresponding to the graph nodes.
+     * @param out PrintStream for displaying output.
      */
-    private void tarjanSCCUtil(int node, List<Recipe> recipes) {
-        discoveryTime[node] = lowLink[node] = time++;
-        stack.add(node);
-        inStack[node] = true;
-
-        for (int neighbor : adjList.get(node)) {
-            if (discoveryTime[neighbor] == -1) {
-                tarjanSCCUtil(neighbor, recipes);
-                lowLink[node] = Math.min(lowLink[node], lowLink[neighbor]);
-            } else if (inStack[neighbor]) {
-                lowLink[node] = Math.min(lowLink[node], discoveryTime[neighbor]);
+    public static void printComponents(int[][] components, List<Recipe> recipes, PrintStream out) {
+        for (int[] component : components) {
+            out.println("Recipes in this SCC:");
+            for (int index : component) {
+                Recipe recipe = recipes.get(index);
+                out.printf("- Recipe %d: %s (Category: %d, Ingredients: %s)%n",
+                        index + 1, recipe.getName(), recipe.getCategory(), recipe.getIngredients());
             }
-        }
-
-        if (lowLink[node] == discoveryTime[node]) {
-            System.out.println("Recipes in this SCC:");
-            int sccNode;
-            do {
-                sccNode = stack.remove(stack.size() - 1);
-                inStack[sccNode] = false;
-                Recipe recipe = recipes.get(sccNode);
-                System.out.printf("- Recipe %d: %s (Category: %d, Ingredients: %s)%n",
-                        sccNode + 1, recipe.getName(), recipe.getCategory(), recipe.getIngredients());
-            } while (sccNode != node);
-            System.out.println();
+            out.println();
         }
     }
 
     /**
      * @brief Builds a RecipeGraph from a list of recipes based on shared categories or ingredients.
      *
+     * Every same-category edge is added explicitly; see
+     * buildGraphFromRecipes(List, Scanner, boolean).
+     *
      * @param recipes The list of recipes to build the graph from.
      * @param scanner A Scanner object for user input.
      * @return A RecipeGraph object representing the relationships between recipes.
      */
     public static RecipeGraph buildGraphFromRecipes(List<Recipe> recipes, Scanner scanner) {
-        int recipeCount = recipes.size();
-        RecipeGraph graph = new RecipeGraph(recipeCount, scanner);
-
-        for (int i = 0; i < recipeCount; i++) {
-            for (int j = 0; j < recipeCount; j++) {
-                if (i != j) {
-                    Recipe recipeI = recipes.get(i);
-                    Recipe recipeJ = recipes.get(j);
-
-                    if (recipeI.getCategory() == recipeJ.getCategory()) {
-                        graph.addEdge(i, j);
-                    } else {
-                        for (int ingredient : recipeI.getIngredients()) {
-                            if (recipeJ.getIngredients().contains(ingredient)) {
-                                graph.addEdge(i, j);
-                                break;
-                            }
-                        }
-                    }
+        return buildGraphFromRecipes(recipes, scanner, false);
+    }
+
+    /**
+     * @brief Builds a RecipeGraph from a list of recipes based on shared categories or ingredients.
+     *
+     * The edges are built in linear time from category buckets and ingredient postings
+     * by CsrGraph.fromRecipes; see there for the implicit category cliques.
+     *
+     * @param recipes The list of recipes to build the graph from.
+     * @param scanner A Scanner object for user input.
+     * @param implicitCategoryCliques Whether to link each category through a hub node.
+     * @return A RecipeGraph object representing the relationships between recipes.
+     */
+    public static RecipeGraph buildGraphFromRecipes(List<Recipe> recipes, Scanner scanner, boolean implicitCategoryCliques) {
+        return new RecipeGraph(CsrGraph.fromRecipes(recipes, implicitCategoryCliques), scanner);
+    }
+
+    /**
+     * @brief Groups recipes into clusters linked by shared categories or ingredients.
+     *
+     * The edges of buildGraphFromRecipes are symmetric, so its strongly connected
+     * components are plain connected components. They are found here without any
+     * edge list: every recipe is united with the first recipe of its category and
+     * with the first recipe that used each of its ingredients, in a disjoint set.
+     * This takes near-linear time in the total number of ingredient uses. Negative
+     * ingredient ids are skipped, as in the graph.
+     *
+     * @param recipes The recipes, in menu order.
+     * @return The clusters as lists of 0-based recipe indexes in increasing order,
+     *         ordered by their first recipe.
+     */
+    public static List<List<Integer>> clusterRecipes(List<Recipe> recipes) {
+        DisjointSet clusters = new DisjointSet(recipes.size());
+        Map<Integer, Integer> firstInCategory = new HashMap<>();
+        Map<Integer, Integer> firstWithIngredient = new HashMap<>();
+        for (int i = 0; i < recipes.size(); i++) {
+            Recipe recipe = recipes.get(i);
+            Integer first = firstInCategory.putIfAbsent(recipe.getCategory(), i);
+            if (first != null) {
+                clusters.union(first, i);
+            }
+            for (int ingredient : recipe.getIngredients()) {
+                if (ingredient < 0) {
+                    continue;
+                }
+                first = firstWithIngredient.putIfAbsent(ingredient, i);
+                if (first != null) {
+                    clusters.union(first, i);
                 }
             }
         }
-        return graph;
+        return clusters.sets();
+    }
+
+    /**
+     * @brief Gets the number of nodes, category hubs included.
+     * @return The node count.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @brief Gets the number of recipe nodes; nodes from this index on are category hubs.
+     * @return The recipe count.
+     */
+    public int getRecipeCount() {
+        return recipeCount;
+    }
+
+    /**
+     * @brief Gets the number of directed edges.
+     * @return The edge count.
+     */
+    public long getEdgeCount() {
+        return (long) edges.getEdgeCount() + pendingCount;
+    }
+
+    /**
+     * @brief Gets the out-neighbors of a node.
+     * @param node The node.
+     * @return The destinations of the node's edges, in the order they were added; the list is read-only.
+     */
+    public List<Integer> getNeighbors(int node) {
+        CsrGraph graph = toCsr();
+        List<Integer> neighbors = new ArrayList<>(graph.edgeEnd(node) - graph.edgeStart(node));
+        for (int e = graph.edgeStart(node); e < graph.edgeEnd(node); e++) {
+            neighbors.add(graph.targetAt(e));
+        }
+        return Collections.unmodifiableList(neighbors);
     }
 
     /**
      * @brief Resets the state of the graph for reuse.
      *
-     * Clears the stack and reinitializes discovery and low-link values for all nodes.
+     * Empties the stack and reinitializes discovery and low-link values for all nodes.
      */
     public void resetGraphState() {
-        int nodeCount = adjList.size();
         visited = new boolean[nodeCount];
         discoveryTime = new int[nodeCount];
         lowLink = new int[nodeCount];
         inStack = new boolean[nodeCount];
-        stack.clear();
+        stack = new int[nodeCount];
         time = 0;
 
         // Reinitialize discovery and low-link values
@@ -0,0 +1,169 @@
+/**
+ * @file ScenarioMatrix.java
+ * @brief This file contains the implementation of the ScenarioMatrix class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+/**
+ * @class ScenarioMatrix
+ * @brief A dense matrix with one column per price scenario, stored in cache-sized column panels.
+ *
+ * Rows are ingredients (or recipes, for results) and columns are scenarios, e.g. a
+ * thousand forecast price vectors. The columns are split into panels of blockWidth
+ * scenarios, and each panel is stored row-major in its own contiguous part of the
+ * array. A sparse × dense product can then work on one panel at a time, reading
+ * short contiguous rows that stay in cache while all sparse rows are processed.
+ */
+public class ScenarioMatrix {
+    public static final int DEFAULT_BLOCK_WIDTH = 64; ///< Default number of scenarios per panel (512 bytes per row).
+
+    private final int rowCount; ///< Number of rows.
+    private final int columnCount; ///< Number of scenarios.
+    private final int blockWidth; ///< Number of scenarios per panel.
+    private final double[] data; ///< Panels stored one after another, each row-major.
+
+    /**
+     * @brief Constructor for a zero matrix with the default block width.
+     * @param rowCount Number of rows.
+     * @param columnCount Number of scenarios.
+     */
+    public ScenarioMatrix(int rowCount, int columnCount) {
+        this(rowCount, columnCount, DEFAULT_BLOCK_WIDTH);
+    }
+
+    /**
+     * @brief Constructor for a zero matrix.
+     * @param rowCount Number of rows.
+     * @param columnCount Number of scenarios.
+     * @param blockWidth Number of scenarios per panel.
+     * @throws IllegalArgumentException If a dimension is negative or the block width is not positive.
+     */
+    public ScenarioMatrix(int rowCount, int columnCount, int blockWidth) {
+        if (rowCount < 0 || columnCount < 0) {
+            throw new IllegalArgumentException("Matrix dimensions must not be negative.");
+        }
+        if (blockWidth < 1) {
+            throw new IllegalArgumentException("Block width must be positive.");
+        }
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.blockWidth = blockWidth;
+        this.data = new double[Math.multiplyExact(rowCount, columnCount)];
+    }
+
+    /**
+     * @brief Gets the number of rows.
+     * @return The row count.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @brief Gets the number of scenarios.
+     * @return The column count.
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * @brief Gets the number of scenarios per panel.
+     * @return The block width.
+     */
+    public int getBlockWidth() {
+        return blockWidth;
+    }
+
+    /**
+     * @brief Gets the number of column panels.
+     * @return The panel count.
+     */
+    public int getPanelCount() {
+        return (columnCount + blockWidth - 1) / blockWidth;
+    }
+
+    /**
+     * @brief Gets the value of a cell.
+     * @param row The row index.
+     * @param column The scenario index.
+     * @return The value.
+     */
+    public double get(int row, int column) {
+        return data[indexOf(row, column)];
+    }
+
+    /**
+     * @brief Sets the value of a cell.
+     * @param row The row index.
+     * @param column The scenario index.
+     * @param value The value to set.
+     */
+    public void set(int row, int column, double value) {
+        data[indexOf(row, column)] = value;
+    }
+
+    /**
+     * @brief Copies one scenario out of the matrix.
+     * @param column The scenario index.
+     * @return The values of the scenario, one per row.
+     */
+    public double[] getColumn(int column) {
+        double[] values = new double[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            values[r] = get(r, column);
+        }
+        return values;
+    }
+
+    /**
+     * @brief Gets the backing array, used by the SparseMatrix kernels.
+     * @return The panel data.
+     */
+    double[] data() {
+        return data;
+    }
+
+    /**
+     * @brief Gets the first scenario of a panel.
+     * @param panel The panel index.
+     * @return The scenario index.
+     */
+    int panelStart(int panel) {
+        return panel * blockWidth;
+    }
+
+    /**
+     * @brief Gets the number of scenarios in a panel; only the last one can be narrower.
+     * @param panel The panel index.
+     * @return The panel width.
+     */
+    int panelWidth(int panel) {
+        return Math.min(blockWidth, columnCount - panel * blockWidth);
+    }
+
+    /**
+     * @brief Gets the position of a panel in the backing array.
+     * @param panel The panel index.
+     * @return The offset of the panel's first row.
+     */
+    int panelOffset(int panel) {
+        return panel * blockWidth * rowCount;
+    }
+
+    /**
+     * @brief Gets the position of a cell in the backing array.
+     * @param row The row index.
+     * @param column The scenario index.
+     * @return The array index.
+     * @throws IndexOutOfBoundsException If the cell is outside the matrix.
+     */
+    private int indexOf(int row, int column) {
+        if (row < 0 || row >= rowCount || column < 0 || column >= columnCount) {
+            throw new IndexOutOfBoundsException("Cell (" + row + ", " + column + ") is outside the matrix.");
+        }
+        int panel = column / blockWidth;
+        return panelOffset(panel) + row * panelWidth(panel) + (column - panel * blockWidth);
+    }
+}
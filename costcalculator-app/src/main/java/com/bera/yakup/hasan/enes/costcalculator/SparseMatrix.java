@@ -1,90 +1,614 @@
 /**
  * @file SparseMatrix.java
- * @brief This file contains the implementation of the SparseMatrix and SparseMatrixNode classes.
+ * @brief This file contains the implementation of the SparseMatrix class.
  */
 
 package com.bera.yakup.hasan.enes.costcalculator;
 
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 /**
- * @class SparseMatrixNode
- * @brief Represents a node in the sparse matrix linked list.
+ * @class SparseMatrix
+ * @brief An immutable sparse matrix in compressed sparse row (CSR) form.
+ *
+ * The matrix is used for recipes × ingredients: row r is the r-th recipe, column c
+ * is the ingredient with id c and the value is how many times the recipe uses the
+ * ingredient. Multiplying the matrix with a price vector indexed by ingredient id
+ * gives the cost of every recipe in one pass over the non-zero entries. If the
+ * ingredient ids are too sparse for one column per id, the columns are only the
+ * ids the recipes use, in ascending order; getColumnId and columnOf map between
+ * columns and ids in both layouts.
  *
- * Each SparseMatrixNode object stores the row index, column index, value,
- * and a reference to the next node in the sparse matrix.
+ * The non-zero entries of row r are stored at positions rowPointers[r] to
+ * rowPointers[r + 1] - 1 of columnIndices and values, ordered by column. The
+ * transpose of a matrix is its compressed sparse column (CSC) form, which gives
+ * the recipes that use a given ingredient.
  */
-class SparseMatrixNode {
-    int row; ///< Row index.
-    int col; ///< Column index.
-    double value; ///< Value stored in the node.
-    SparseMatrixNode next; ///< Pointer to the next node.
+public class SparseMatrix {
+    private static final int PARALLEL_THRESHOLD = 1 << 14; ///< Minimum amount of work worth splitting across threads.
+
+    private final int rowCount; ///< Number of rows.
+    private final int columnCount; ///< Number of columns.
+    private final int[] rowPointers; ///< Start of each row in columnIndices and values, plus the end.
+    private final int[] columnIndices; ///< Column index of each non-zero entry.
+    private final double[] values; ///< Value of each non-zero entry.
+    private final int[] columnIds; ///< Sorted ingredient id of each column, or null when column c is id c.
 
     /**
-     * @brief Constructor for a SparseMatrixNode.
-     * @param row Row index of the node.
-     * @param col Column index of the node.
-     * @param value Value to be stored in the node.
+     * @class Builder
+     * @brief Collects entries in any order and builds a SparseMatrix from them.
+     *
+     * Entries added more than once for the same cell are summed.
      */
-    public SparseMatrixNode(int row, int col, double value) {
-        this.row = row;
-        this.col = col;
-        this.value = value;
-        this.next = null;
+    public static final class Builder {
+        private final int rowCount; ///< Number of rows of the matrix being built.
+        private final int columnCount; ///< Number of columns of the matrix being built.
+        private int[] rows = new int[16]; ///< Row index of each added entry.
+        private int[] columns = new int[16]; ///< Column index of each added entry.
+        private double[] entries = new double[16]; ///< Value of each added entry.
+        private int size; ///< Number of added entries.
+
+        /**
+         * @brief Constructor for the Builder class.
+         * @param rowCount Number of rows.
+         * @param columnCount Number of columns.
+         * @throws IllegalArgumentException If a dimension is negative.
+         */
+        public Builder(int rowCount, int columnCount) {
+            if (rowCount < 0 || columnCount < 0) {
+                throw new IllegalArgumentException("Matrix dimensions must not be negative.");
+            }
+            this.rowCount = rowCount;
+            this.columnCount = columnCount;
+        }
+
+        /**
+         * @brief Adds a value to a cell.
+         * @param row Row index of the cell.
+         * @param column Column index of the cell.
+         * @param value Value to add.
+         * @return This builder.
+         * @throws IndexOutOfBoundsException If the cell is outside the matrix.
+         */
+        public Builder add(int row, int column, double value) {
+            if (row < 0 || row >= rowCount || column < 0 || column >= columnCount) {
+                throw new IndexOutOfBoundsException("Cell (" + row + ", " + column + ") is outside the matrix.");
+            }
+            if (size == rows.length) {
+                int capacity = size * 2;
+                rows = Arrays.copyOf(rows, capacity);
+                columns = Arrays.copyOf(columns, capacity);
+                entries = Arrays.copyOf(entries, capacity);
+            }
+            rows[size] = row;
+            columns[size] = column;
+            entries[size] = value;
+            size++;
+            return this;
+        }
+
+        /**
+         * @brief Builds the matrix.
+         *
+         * Entries are bucketed by row with a counting sort, each row is sorted by column
+         * and duplicate cells are merged. Cells that sum to zero are dropped.
+         *
+         * @return The CSR matrix.
+         */
+        public SparseMatrix build() {
+            int[] pointers = new int[rowCount + 1];
+            for (int i = 0; i < size; i++) {
+                pointers[rows[i] + 1]++;
+            }
+            for (int r = 0; r < rowCount; r++) {
+                pointers[r + 1] += pointers[r];
+            }
+
+            int[] next = Arrays.copyOf(pointers, rowCount);
+            int[] sortedColumns = new int[size];
+            double[] sortedValues = new double[size];
+            for (int i = 0; i < size; i++) {
+                int position = next[rows[i]]++;
+                sortedColumns[position] = columns[i];
+                sortedValues[position] = entries[i];
+            }
+
+            // Sort each row by column, then merge duplicates in place
+            int[] compactPointers = new int[rowCount + 1];
+            int written = 0;
+            for (int r = 0; r < rowCount; r++) {
+                int start = pointers[r];
+                int end = pointers[r + 1];
+                sortRow(sortedColumns, sortedValues, start, end);
+                for (int k = start; k < end; k++) {
+                    if (written > compactPointers[r] && sortedColumns[written - 1] == sortedColumns[k]) {
+                        sortedValues[written - 1] += sortedValues[k];
+                    } else {
+                        sortedColumns[written] = sortedColumns[k];
+                        sortedValues[written] = sortedValues[k];
+                        written++;
+                    }
+                }
+                // Drop cells that cancelled out
+                int kept = compactPointers[r];
+                for (int k = compactPointers[r]; k < written; k++) {
+                    if (sortedValues[k] != 0.0) {
+                        sortedColumns[kept] = sortedColumns[k];
+                        sortedValues[kept] = sortedValues[k];
+                        kept++;
+                    }
+                }
+                written = kept;
+                compactPointers[r + 1] = written;
+            }
+
+            return new SparseMatrix(rowCount, columnCount, compactPointers,
+                    Arrays.copyOf(sortedColumns, written), Arrays.copyOf(sortedValues, written), null);
+        }
+
+        /**
+         * @brief Sorts a range of entries by column with insertion sort, rows are short.
+         * @param columns Column indices.
+         * @param values Values moved together with their columns.
+         * @param start First position of the range.
+         * @param end Position after the range.
+         */
+        private static void sortRow(int[] columns, double[] values, int start, int end) {
+            for (int i = start + 1; i < end; i++) {
+                int column = columns[i];
+                double value = values[i];
+                int j = i - 1;
+                while (j >= start && columns[j] > column) {
+                    columns[j + 1] = columns[j];
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                columns[j + 1] = column;
+                values[j + 1] = value;
+            }
+        }
     }
-}
 
-/**
- * @class SparseMatrix
- * @brief Implements a sparse matrix using a linked list.
- *
- * The SparseMatrix class manages a sparse matrix where non-zero values
- * are stored in a linked list of SparseMatrixNode objects.
- */
-public class SparseMatrix {
-    private SparseMatrixNode head; ///< Head of the linked list representing the sparse matrix.
+    /**
+     * @brief Constructor used by the builder and the matrix operations.
+     * @param rowCount Number of rows.
+     * @param columnCount Number of columns.
+     * @param rowPointers Row pointers of length rowCount + 1.
+     * @param columnIndices Column index of each entry, sorted within each row.
+     * @param values Value of each entry.
+     * @param columnIds Ingredient id of each column, or null when column c is id c.
+     */
+    private SparseMatrix(int rowCount, int columnCount, int[] rowPointers, int[] columnIndices, double[] values,
+                         int[] columnIds) {
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+        this.columnIds = columnIds;
+    }
+
+    /**
+     * @brief Builds the recipes × ingredients quantity matrix.
+     *
+     * Row i belongs to the i-th recipe and column c to the ingredient with id c. A
+     * recipe that lists an ingredient several times gets that many as its quantity.
+     * Negative ingredient ids are skipped. When the largest id is far above the
+     * number of entries, as PriceIndex decides for its own layout, the columns are
+     * compacted to the distinct ids so that one huge id does not size every price
+     * vector and transpose.
+     *
+     * @param recipes The recipes, in menu order.
+     * @return The quantity matrix.
+     */
+    public static SparseMatrix fromRecipes(List<Recipe> recipes) {
+        int maxId = -1;
+        int entryCount = 0;
+        for (Recipe recipe : recipes) {
+            for (int ingredientId : recipe.getIngredients()) {
+                if (ingredientId >= 0) {
+                    maxId = Math.max(maxId, ingredientId);
+                    entryCount++;
+                }
+            }
+        }
+
+        int[] ids = null;
+        int columns = maxId + 1;
+        if (maxId >= 4L * entryCount + 1024) {
+            ids = new int[entryCount];
+            int next = 0;
+            for (Recipe recipe : recipes) {
+                for (int ingredientId : recipe.getIngredients()) {
+                    if (ingredientId >= 0) {
+                        ids[next++] = ingredientId;
+                    }
+                }
+            }
+            Arrays.sort(ids);
+            columns = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (i == 0 || ids[i] != ids[i - 1]) {
+                    ids[columns++] = ids[i];
+                }
+            }
+            ids = Arrays.copyOf(ids, columns);
+        }
+
+        Builder builder = new Builder(recipes.size(), columns);
+        for (int r = 0; r < recipes.size(); r++) {
+            for (int ingredientId : recipes.get(r).getIngredients()) {
+                if (ingredientId >= 0) {
+                    builder.add(r, ids == null ? ingredientId : Arrays.binarySearch(ids, ingredientId), 1.0);
+                }
+            }
+        }
+        SparseMatrix matrix = builder.build();
+        return new SparseMatrix(matrix.rowCount, columns, matrix.rowPointers, matrix.columnIndices, matrix.values, ids);
+    }
+
+    /**
+     * @brief Gets the number of rows.
+     * @return The row count.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @brief Gets the number of columns.
+     * @return The column count.
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * @brief Gets the ingredient id of a column.
+     * @param column The column index.
+     * @return The ingredient id; the column itself unless fromRecipes compacted the columns.
+     */
+    public int getColumnId(int column) {
+        return columnIds == null ? column : columnIds[column];
+    }
+
+    /**
+     * @brief Finds the column of an ingredient id.
+     * @param ingredientId The ingredient id.
+     * @return The column index, or -1 if no column belongs to the id.
+     */
+    public int columnOf(int ingredientId) {
+        if (columnIds == null) {
+            return ingredientId >= 0 && ingredientId < columnCount ? ingredientId : -1;
+        }
+        int column = Arrays.binarySearch(columnIds, ingredientId);
+        return column >= 0 ? column : -1;
+    }
+
+    /**
+     * @brief Gets the number of stored non-zero entries.
+     * @return The non-zero count.
+     */
+    public int getNonZeroCount() {
+        return values.length;
+    }
+
+    /**
+     * @brief Gets the position of the first entry of a row.
+     * @param row The row index.
+     * @return The position to pass to columnAt and valueAt.
+     */
+    public int rowStart(int row) {
+        return rowPointers[row];
+    }
+
+    /**
+     * @brief Gets the position after the last entry of a row.
+     * @param row The row index.
+     * @return The end position of the row.
+     */
+    public int rowEnd(int row) {
+        return rowPointers[row + 1];
+    }
 
     /**
-     * @brief Constructor for the SparseMatrix class.
-     * Initializes an empty sparse matrix.
+     * @brief Gets the column of a stored entry.
+     * @param position Position of the entry, between rowStart and rowEnd of its row.
+     * @return The column index.
      */
-    public SparseMatrix() {
-        this.head = null;
+    public int columnAt(int position) {
+        return columnIndices[position];
     }
 
     /**
-     * @brief Inserts a new node into the sparse matrix.
+     * @brief Gets the value of a stored entry.
+     * @param position Position of the entry, between rowStart and rowEnd of its row.
+     * @return The value.
+     */
+    public double valueAt(int position) {
+        return values[position];
+    }
+
+    /**
+     * @brief Gets the value of a cell.
+     * @param row The row index.
+     * @param column The column index.
+     * @return The value, or 0 if the cell is not stored.
+     */
+    public double get(int row, int column) {
+        int position = Arrays.binarySearch(columnIndices, rowPointers[row], rowPointers[row + 1], column);
+        return position >= 0 ? values[position] : 0.0;
+    }
+
+    /**
+     * @brief Returns the transpose of the matrix.
      *
-     * Adds a new non-zero value to the sparse matrix at the specified row and column.
+     * The transpose in CSR form is the original matrix in CSC form. It is built with
+     * a counting sort over the columns, so rows of the result stay sorted without any
+     * comparisons.
      *
-     * @param row Row index for the new node.
-     * @param col Column index for the new node.
-     * @param value Value to be stored in the new node.
+     * @return The transposed matrix.
      */
-    public void insert(int row, int col, double value) {
-        SparseMatrixNode newNode = new SparseMatrixNode(row, col, value);
-        newNode.next = head;
-        head = newNode;
+    public SparseMatrix transpose() {
+        int[] pointers = new int[columnCount + 1];
+        for (int column : columnIndices) {
+            pointers[column + 1]++;
+        }
+        for (int c = 0; c < columnCount; c++) {
+            pointers[c + 1] += pointers[c];
+        }
+
+        int[] next = Arrays.copyOf(pointers, columnCount);
+        int[] rowsOfEntries = new int[values.length];
+        double[] transposedValues = new double[values.length];
+        for (int r = 0; r < rowCount; r++) {
+            for (int k = rowPointers[r]; k < rowPointers[r + 1]; k++) {
+                int position = next[columnIndices[k]]++;
+                rowsOfEntries[position] = r;
+                transposedValues[position] = values[k];
+            }
+        }
+        return new SparseMatrix(columnCount, rowCount, pointers, rowsOfEntries, transposedValues, null);
     }
 
     /**
-     * @brief Clears the sparse matrix.
+     * @brief Returns a matrix made of a range of rows.
+     * @param fromRow First row to include.
+     * @param toRow Row after the last one to include.
+     * @return The rows as a new matrix with the same number of columns.
+     * @throws IndexOutOfBoundsException If the range is not inside the matrix.
+     */
+    public SparseMatrix rowSlice(int fromRow, int toRow) {
+        if (fromRow < 0 || toRow > rowCount || fromRow > toRow) {
+            throw new IndexOutOfBoundsException("Invalid row range " + fromRow + " to " + toRow + ".");
+        }
+        int offset = rowPointers[fromRow];
+        int[] pointers = new int[toRow - fromRow + 1];
+        for (int r = fromRow; r <= toRow; r++) {
+            pointers[r - fromRow] = rowPointers[r] - offset;
+        }
+        int end = rowPointers[toRow];
+        return new SparseMatrix(toRow - fromRow, columnCount, pointers,
+                Arrays.copyOfRange(columnIndices, offset, end), Arrays.copyOfRange(values, offset, end), columnIds);
+    }
+
+    /**
+     * @brief Multiplies the matrix with a vector.
+     * @param vector Vector with one value per column.
+     * @return The product, with one value per row.
+     * @throws IllegalArgumentException If the vector is shorter than the column count.
+     */
+    public double[] multiply(double[] vector) {
+        checkVector(vector.length);
+        double[] result = new double[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            double sum = 0.0;
+            for (int k = rowPointers[r]; k < rowPointers[r + 1]; k++) {
+                sum += values[k] * vector[columnIndices[k]];
+            }
+            result[r] = sum;
+        }
+        return result;
+    }
+
+    /**
+     * @brief Multiplies the matrix with a fixed-point vector, such as prices in kuruş.
      *
-     * Frees the memory used by the sparse matrix by setting the head to null.
+     * Each product is rounded to a whole minor unit before it is added, so with whole
+     * quantities the result is exact.
+     *
+     * @param vector Vector with one value per column.
+     * @return The product, with one value per row.
+     * @throws IllegalArgumentException If the vector is shorter than the column count.
+     */
+    public long[] multiply(long[] vector) {
+        checkVector(vector.length);
+        long[] result = new long[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            long sum = 0;
+            for (int k = rowPointers[r]; k < rowPointers[r + 1]; k++) {
+                sum += Math.round(values[k] * vector[columnIndices[k]]);
+            }
+            result[r] = sum;
+        }
+        return result;
+    }
+
+    /**
+     * @brief Multiplies the matrix with a vector using the common fork/join pool.
+     * @param vector Vector with one value per column.
+     * @return The product, with one value per row.
+     * @throws IllegalArgumentException If the vector is shorter than the column count.
      */
-    public void clear() {
-        head = null; ///< Let the garbage collector handle memory cleanup.
+    public double[] multiplyParallel(double[] vector) {
+        return multiplyParallel(vector, ForkJoinPool.commonPool());
     }
 
     /**
-     * @brief Prints the contents of the sparse matrix.
+     * @brief Multiplies the matrix with a vector, splitting the rows across a pool.
      *
-     * Iterates through the linked list and prints the row, column, and value
-     * of each node in the sparse matrix.
-     */
-    public void printMatrix() {
-        SparseMatrixNode current = head;
-        while (current != null) {
-            System.out.printf("Row: %d, Col: %d, Value: %.2f%n", current.row, current.col, current.value);
-            current = current.next;
+     * The rows are cut into partitions holding about the same number of non-zero
+     * entries, and every partition writes only its own part of the result, so no
+     * synchronization is needed.
+     *
+     * @param vector Vector with one value per column.
+     * @param pool The pool to run on.
+     * @return The product, with one value per row.
+     * @throws IllegalArgumentException If the vector is shorter than the column count.
+     */
+    public double[] multiplyParallel(double[] vector, ForkJoinPool pool) {
+        checkVector(vector.length);
+        double[] result = new double[rowCount];
+        forEachRowPartition(pool, values.length, (partition, fromRow, toRow) -> {
+            for (int r = fromRow; r < toRow; r++) {
+                double sum = 0.0;
+                for (int k = rowPointers[r]; k < rowPointers[r + 1]; k++) {
+                    sum += values[k] * vector[columnIndices[k]];
+                }
+                result[r] = sum;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @brief Multiplies the matrix with a fixed-point vector, splitting the rows across a pool.
+     * @param vector Vector with one value per column.
+     * @param pool The pool to run on.
+     * @return The product, with one value per row, equal to multiply(long[]).
+     * @throws IllegalArgumentException If the vector is shorter than the column count.
+     */
+    public long[] multiplyParallel(long[] vector, ForkJoinPool pool) {
+        checkVector(vector.length);
+        long[] result = new long[rowCount];
+        forEachRowPartition(pool, values.length, (partition, fromRow, toRow) -> {
+            for (int r = fromRow; r < toRow; r++) {
+                long sum = 0;
+                for (int k = rowPointers[r]; k < rowPointers[r + 1]; k++) {
+                    sum += Math.round(values[k] * vector[columnIndices[k]]);
+                }
+                result[r] = sum;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @brief Multiplies the matrix with a dense matrix of scenarios using the common fork/join pool.
+     * @param scenarios Dense matrix with one row per column of this matrix.
+     * @return The product, one row per row of this matrix and one column per scenario.
+     * @throws IllegalArgumentException If the scenario matrix has too few rows.
+     */
+    public ScenarioMatrix multiply(ScenarioMatrix scenarios) {
+        return multiply(scenarios, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @brief Multiplies the matrix with a dense matrix of scenarios (SpMM).
+     *
+     * Every row partition walks the scenario panels one at a time. Within a panel, a
+     * non-zero entry (r, c) adds a short contiguous row of the panel to a short
+     * contiguous row of the result, and the panel is reused by all rows of the
+     * partition while it is still in cache. The result uses the same block width.
+     *
+     * @param scenarios Dense matrix with one row per column of this matrix.
+     * @param pool The pool to run on.
+     * @return The product, one row per row of this matrix and one column per scenario.
+     * @throws IllegalArgumentException If the scenario matrix has too few rows.
+     */
+    public ScenarioMatrix multiply(ScenarioMatrix scenarios, ForkJoinPool pool) {
+        checkVector(scenarios.getRowCount());
+        ScenarioMatrix result = new ScenarioMatrix(rowCount, scenarios.getColumnCount(), scenarios.getBlockWidth());
+        double[] input = scenarios.data();
+        double[] output = result.data();
+        int panels = scenarios.getPanelCount();
+        long work = (long) values.length * scenarios.getColumnCount();
+
+        forEachRowPartition(pool, work, (partition, fromRow, toRow) -> {
+            for (int panel = 0; panel < panels; panel++) {
+                int width = scenarios.panelWidth(panel);
+                int inputOffset = scenarios.panelOffset(panel);
+                int outputOffset = result.panelOffset(panel);
+                for (int r = fromRow; r < toRow; r++) {
+                    int target = outputOffset + r * width;
+                    for (int k = rowPointers[r]; k < rowPointers[r + 1]; k++) {
+                        double value = values[k];
+                        int source = inputOffset + columnIndices[k] * width;
+                        for (int j = 0; j < width; j++) {
+                            output[target + j] += value * input[source + j];
+                        }
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @brief Prints the non-zero entries of the matrix, one per line.
+     * @param out The stream to print to.
+     */
+    public void printMatrix(PrintStream out) {
+        for (int r = 0; r < rowCount; r++) {
+            for (int k = rowPointers[r]; k < rowPointers[r + 1]; k++) {
+                out.printf("Row: %d, Col: %d, Value: %.2f%n", r, columnIndices[k], values[k]);
+            }
+        }
+    }
+
+    /**
+     * @brief Splits the rows into partitions of similar non-zero count.
+     * @param parts Wanted number of partitions.
+     * @return Partition boundaries; partition i covers rows bounds[i] to bounds[i + 1] - 1.
+     */
+    int[] partitionRows(int parts) {
+        parts = Math.max(1, Math.min(parts, rowCount));
+        int[] bounds = new int[parts + 1];
+        for (int i = 1; i < parts; i++) {
+            // First row whose entries start at or after the i-th share of the non-zeros
+            long share = (long) values.length * i / parts;
+            int low = bounds[i - 1];
+            int high = rowCount;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (rowPointers[middle] < share) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            bounds[i] = low;
+        }
+        bounds[parts] = rowCount;
+        return bounds;
+    }
+
+    /**
+     * @brief Runs a kernel over all rows, in parallel when there is enough work.
+     * @param pool The pool to run on.
+     * @param work Estimated number of multiply-adds.
+     * @param kernel The kernel to run on each row range.
+     */
+    private void forEachRowPartition(ForkJoinPool pool, long work, Partitions.Kernel kernel) {
+        int threads = pool.getParallelism();
+        if (threads == 1 || work < PARALLEL_THRESHOLD || rowCount < 2) {
+            kernel.run(0, 0, rowCount);
+            return;
+        }
+        Partitions.run(pool, partitionRows(threads * Partitions.PER_THREAD), kernel);
+    }
+
+    /**
+     * @brief Checks that a vector can be multiplied with the matrix.
+     * @param length Length of the vector.
+     * @throws IllegalArgumentException If the vector is too short.
+     */
+    private void checkVector(int length) {
+        if (length < columnCount) {
+            throw new IllegalArgumentException("Vector length " + length + " is less than the column count " + columnCount + ".");
         }
     }
 }
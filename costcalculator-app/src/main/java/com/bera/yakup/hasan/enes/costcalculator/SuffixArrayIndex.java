@@ -0,0 +1,305 @@
+/**
+ * @file SuffixArrayIndex.java
+ * @brief This file contains the implementation of the SuffixArrayIndex class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @class SuffixArrayIndex
+ * @brief A substring index over a list of names, built on a suffix array with LCP.
+ *
+ * All names are joined into one corpus, each followed by a separator character, and
+ * the suffixes of the corpus are sorted. The suffixes that start with a query are one
+ * contiguous range of the suffix array: its start is found by binary search in
+ * O(|S| log N) and the range is extended with the LCP array, one step per match.
+ *
+ * Everything is stored in primitive arrays: the corpus characters, the suffix array,
+ * the LCP array and the name each corpus position belongs to.
+ */
+public class SuffixArrayIndex {
+    private static final char SEPARATOR = '\0'; ///< Ends every name in the corpus.
+
+    private final boolean ignoreCase; ///< Whether the corpus and queries are case folded.
+    private final int documentCount; ///< Number of indexed names.
+    private final char[] text; ///< Corpus of all names, each followed by the separator.
+    private final int[] suffixArray; ///< Start positions of the corpus suffixes in sorted order.
+    private final int[] lcp; ///< lcp[i] is the common prefix length of suffixes i - 1 and i.
+    private final int[] documentOf; ///< Name index of each corpus position.
+
+    /**
+     * @brief Builds the index.
+     * @param documents The names to index; results refer to their positions in this list.
+     * @param ignoreCase Whether searches ignore case.
+     */
+    public SuffixArrayIndex(List<String> documents, boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        this.documentCount = documents.size();
+
+        int length = 0;
+        for (String document : documents) {
+            length += document.length() + 1;
+        }
+        text = new char[length];
+        documentOf = new int[length];
+        int position = 0;
+        for (int d = 0; d < documents.size(); d++) {
+            String document = documents.get(d);
+            for (int i = 0; i < document.length(); i++) {
+                text[position] = normalize(document.charAt(i));
+                documentOf[position++] = d;
+            }
+            text[position] = SEPARATOR;
+            documentOf[position++] = d;
+        }
+
+        suffixArray = buildSuffixArray(text);
+        lcp = buildLcp(text, suffixArray);
+    }
+
+    /**
+     * @brief Gets the number of indexed names.
+     * @return The name count.
+     */
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    /**
+     * @brief Estimates the memory used by the index arrays.
+     * @return The size in bytes, without object headers.
+     */
+    public long getMemoryBytes() {
+        return 2L * text.length + 4L * suffixArray.length + 4L * lcp.length + 4L * documentOf.length;
+    }
+
+    /**
+     * @brief Finds the names that contain a substring.
+     * @param query The substring to look for.
+     * @return Indexes of the matching names in ascending order, each at most once.
+     */
+    public int[] find(String query) {
+        int start = lowerBound(query);
+        int end = rangeEnd(start, query);
+        int[] documents = new int[end - start];
+        for (int i = start; i < end; i++) {
+            documents[i - start] = documentOf[suffixArray[i]];
+        }
+        Arrays.sort(documents);
+
+        int distinct = 0;
+        for (int i = 0; i < documents.length; i++) {
+            if (distinct == 0 || documents[distinct - 1] != documents[i]) {
+                documents[distinct++] = documents[i];
+            }
+        }
+        return Arrays.copyOf(documents, distinct);
+    }
+
+    /**
+     * @brief Counts the occurrences of a substring over all names.
+     * @param query The substring to count.
+     * @return The number of occurrences.
+     */
+    public int countOccurrences(String query) {
+        int start = lowerBound(query);
+        return rangeEnd(start, query) - start;
+    }
+
+    /**
+     * @brief Finds the first suffix that is not smaller than the query.
+     * @param query The query.
+     * @return The position in the suffix array.
+     */
+    private int lowerBound(String query) {
+        int low = 0;
+        int high = suffixArray.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareSuffix(suffixArray[middle], query) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @brief Finds the end of the range of suffixes that start with the query.
+     *
+     * The suffix at start either starts with the query or no suffix does. The following
+     * suffixes share the query as a prefix as long as their LCP with the previous suffix
+     * is at least the query length.
+     *
+     * @param start Result of lowerBound for the query.
+     * @param query The query.
+     * @return The position after the last matching suffix.
+     */
+    private int rangeEnd(int start, String query) {
+        if (query.isEmpty() || start == suffixArray.length || !startsWith(suffixArray[start], query)) {
+            return start;
+        }
+        int end = start + 1;
+        while (end < suffixArray.length && lcp[end] >= query.length()) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * @brief Compares a corpus suffix with a query, looking only at the first |query| characters.
+     * @param suffix Start of the suffix in the corpus.
+     * @param query The query.
+     * @return Negative, zero or positive as the suffix prefix is smaller, equal or larger.
+     */
+    private int compareSuffix(int suffix, String query) {
+        int length = Math.min(query.length(), text.length - suffix);
+        for (int i = 0; i < length; i++) {
+            int difference = text[suffix + i] - normalize(query.charAt(i));
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length == query.length() ? 0 : -1;
+    }
+
+    /**
+     * @brief Checks whether a corpus suffix starts with a query.
+     * @param suffix Start of the suffix in the corpus.
+     * @param query The query.
+     * @return True if the suffix starts with the query.
+     */
+    private boolean startsWith(int suffix, String query) {
+        // A separator in the query could match across two names, so it never matches
+        return query.indexOf(SEPARATOR) < 0 && compareSuffix(suffix, query) == 0;
+    }
+
+    /**
+     * @brief Folds the case of a character when searches ignore case.
+     * @param c The character.
+     * @return The character as stored in the corpus.
+     */
+    private char normalize(char c) {
+        return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+    }
+
+    /**
+     * @brief Sorts the suffixes of a text by prefix doubling with radix sorting.
+     *
+     * After the round for k, the rank of a suffix is the rank of its first 2k characters.
+     * Each round sorts by the pair (rank[i], rank[i + k]) with one counting sort, because
+     * ordering the suffixes by their second half only needs the previous order shifted
+     * by k. It stops as soon as all ranks are distinct, which takes O(log n) rounds.
+     *
+     * @param text The text.
+     * @return The suffix array.
+     */
+    static int[] buildSuffixArray(char[] text) {
+        int n = text.length;
+        int[] suffixArray = new int[n];
+        int[] rank = new int[n];
+        int[] buffer = new int[n];
+        if (n == 0) {
+            return suffixArray;
+        }
+
+        // Initial order and ranks by the first character
+        int[] count = new int[Character.MAX_VALUE + 2];
+        for (char c : text) {
+            count[c + 1]++;
+        }
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            count[c + 1] += count[c];
+        }
+        for (int i = 0; i < n; i++) {
+            suffixArray[count[text[i]]++] = i;
+        }
+        int classes = 1;
+        rank[suffixArray[0]] = 0;
+        for (int i = 1; i < n; i++) {
+            if (text[suffixArray[i]] != text[suffixArray[i - 1]]) {
+                classes++;
+            }
+            rank[suffixArray[i]] = classes - 1;
+        }
+
+        count = new int[n];
+        for (int k = 1; classes < n; k <<= 1) {
+            // Order by second key: suffixes without a second half first, then shifted order
+            int p = 0;
+            for (int i = n - k; i < n; i++) {
+                buffer[p++] = i;
+            }
+            for (int i = 0; i < n; i++) {
+                if (suffixArray[i] >= k) {
+                    buffer[p++] = suffixArray[i] - k;
+                }
+            }
+
+            // Stable counting sort by first key
+            Arrays.fill(count, 0, classes, 0);
+            for (int i = 0; i < n; i++) {
+                count[rank[i]]++;
+            }
+            for (int c = 1; c < classes; c++) {
+                count[c] += count[c - 1];
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                suffixArray[--count[rank[buffer[i]]]] = buffer[i];
+            }
+
+            // New ranks for the first 2k characters
+            buffer[suffixArray[0]] = 0;
+            classes = 1;
+            for (int i = 1; i < n; i++) {
+                int current = suffixArray[i];
+                int previous = suffixArray[i - 1];
+                int currentSecond = current + k < n ? rank[current + k] : -1;
+                int previousSecond = previous + k < n ? rank[previous + k] : -1;
+                if (rank[current] != rank[previous] || currentSecond != previousSecond) {
+                    classes++;
+                }
+                buffer[current] = classes - 1;
+            }
+            int[] swap = rank;
+            rank = buffer;
+            buffer = swap;
+        }
+        return suffixArray;
+    }
+
+    /**
+     * @brief Computes the LCP array with Kasai's algorithm in O(n).
+     * @param text The text.
+     * @param suffixArray The suffix array of the text.
+     * @return lcp[i] is the longest common prefix of suffixes i - 1 and i, lcp[0] is 0.
+     */
+    static int[] buildLcp(char[] text, int[] suffixArray) {
+        int n = text.length;
+        int[] lcp = new int[n];
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            rank[suffixArray[i]] = i;
+        }
+        int h = 0;
+        for (int i = 0; i < n; i++) {
+            if (rank[i] > 0) {
+                int j = suffixArray[rank[i] - 1];
+                while (i + h < n && j + h < n && text[i + h] == text[j + h]) {
+                    h++;
+                }
+                lcp[rank[i]] = h;
+                if (h > 0) {
+                    h--;
+                }
+            } else {
+                h = 0;
+            }
+        }
+        return lcp;
+    }
+}
@@ -0,0 +1,380 @@
+/**
+ * @file TrigramIndex.java
+ * @brief This file contains the implementation of the TrigramIndex class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @class TrigramIndex
+ * @brief A trigram inverted index for typo-tolerant search over a list of names.
+ *
+ * Every word of every name is padded ("$$milk$") and cut into trigrams. Each distinct
+ * trigram gets an id through an open-addressing hash table, and the names containing
+ * it are stored as one slice of a shared int array of postings, in ascending order.
+ *
+ * A search counts, for every name that shares a trigram with the query, how many
+ * distinct query trigrams it contains. k edits can destroy at most 3k trigrams, so
+ * only names with at least (query trigrams - 3k) of them can be within distance k.
+ * Those candidates are checked with a banded Levenshtein distance that gives up as
+ * soon as the distance is known to exceed k. Names sharing no trigram with the query
+ * are never looked at.
+ *
+ * Searching reuses scratch arrays, so an index must not be searched from several
+ * threads at once.
+ */
+public class TrigramIndex {
+    private static final char PAD = '$'; ///< Pads the start and end of every word.
+    private static final long EMPTY = -1L; ///< Marks an empty slot in the trigram table.
+
+    /**
+     * @class Match
+     * @brief A name found by a fuzzy search.
+     */
+    public static final class Match {
+        private final int document; ///< Index of the name in the indexed list.
+        private final int distance; ///< Edit distance to the closest word or to the whole name.
+
+        /**
+         * @brief Constructor for the Match class.
+         * @param document Index of the name.
+         * @param distance Edit distance to the query.
+         */
+        Match(int document, int distance) {
+            this.document = document;
+            this.distance = distance;
+        }
+
+        /**
+         * @brief Gets the index of the matching name.
+         * @return The position of the name in the list given to the index.
+         */
+        public int getDocument() {
+            return document;
+        }
+
+        /**
+         * @brief Gets the edit distance between the query and the name.
+         * @return The distance, 0 for an exact word or name match.
+         */
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    private final String[] documents; ///< Indexed names, case folded.
+    private final long[] gramKeys; ///< Hash table of trigrams, EMPTY for free slots.
+    private final int[] gramIds; ///< Trigram id stored with each key.
+    private final int gramMask; ///< Mask for indexing into the hash table.
+    private final int[] postingStart; ///< Start of each trigram's postings, plus the end.
+    private final int[] postings; ///< Name indexes of all trigrams, ascending per trigram.
+    private final int[] overlap; ///< Scratch: shared trigram count per name.
+    private final int[] touched; ///< Scratch: names with a non-zero overlap.
+
+    /**
+     * @brief Builds the index.
+     * @param names The names to index; matches refer to their positions in this list.
+     */
+    public TrigramIndex(List<String> names) {
+        documents = new String[names.size()];
+        int gramCount = 0;
+        for (int d = 0; d < documents.length; d++) {
+            documents[d] = normalize(names.get(d));
+            gramCount += documents[d].length() * 3 + 3;
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(2, gramCount) * 2 - 1) << 1;
+        gramKeys = new long[capacity];
+        gramIds = new int[capacity];
+        gramMask = capacity - 1;
+        Arrays.fill(gramKeys, EMPTY);
+
+        // First pass: assign trigram ids and count the names of each trigram
+        int[] counts = new int[16];
+        int[] lastDocument = new int[16];
+        int distinct = 0;
+        for (int d = 0; d < documents.length; d++) {
+            for (long gram : trigrams(documents[d])) {
+                int slot = findSlot(gram);
+                if (gramKeys[slot] == EMPTY) {
+                    gramKeys[slot] = gram;
+                    gramIds[slot] = distinct;
+                    if (distinct == counts.length) {
+                        counts = Arrays.copyOf(counts, distinct * 2);
+                        lastDocument = Arrays.copyOf(lastDocument, distinct * 2);
+                    }
+                    lastDocument[distinct] = -1;
+                    distinct++;
+                }
+                int id = gramIds[slot];
+                if (lastDocument[id] != d) {
+                    lastDocument[id] = d;
+                    counts[id]++;
+                }
+            }
+        }
+
+        // Second pass: fill the postings, names arrive in ascending order
+        postingStart = new int[distinct + 1];
+        for (int id = 0; id < distinct; id++) {
+            postingStart[id + 1] = postingStart[id] + counts[id];
+        }
+        postings = new int[postingStart[distinct]];
+        int[] next = Arrays.copyOf(postingStart, distinct);
+        Arrays.fill(lastDocument, 0, distinct, -1);
+        for (int d = 0; d < documents.length; d++) {
+            for (long gram : trigrams(documents[d])) {
+                int id = gramIds[findSlot(gram)];
+                if (lastDocument[id] != d) {
+                    lastDocument[id] = d;
+                    postings[next[id]++] = d;
+                }
+            }
+        }
+
+        overlap = new int[documents.length];
+        touched = new int[documents.length];
+    }
+
+    /**
+     * @brief Gets the number of indexed names.
+     * @return The name count.
+     */
+    public int getDocumentCount() {
+        return documents.length;
+    }
+
+    /**
+     * @brief Gets the number of distinct trigrams.
+     * @return The trigram count.
+     */
+    public int getTrigramCount() {
+        return postingStart.length - 1;
+    }
+
+    /**
+     * @brief Finds names within an edit distance that depends on the query length.
+     *
+     * Queries up to 4 characters allow one edit, longer ones allow two.
+     *
+     * @param query The possibly misspelled text.
+     * @return The matches, closest first.
+     */
+    public List<Match> search(String query) {
+        return search(query, query.length() <= 4 ? 1 : 2);
+    }
+
+    /**
+     * @brief Finds names whose closest word, or the whole name, is within an edit distance of the query.
+     * @param query The possibly misspelled text.
+     * @param maxDistance The largest edit distance to accept.
+     * @return The matches ordered by distance, then by position in the list.
+     */
+    public List<Match> search(String query, int maxDistance) {
+        String normalized = normalize(query).trim();
+        List<Match> matches = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return matches;
+        }
+
+        long[] queryGrams = distinct(trigrams(normalized));
+        int touchedCount = 0;
+        for (long gram : queryGrams) {
+            int slot = findSlot(gram);
+            if (gramKeys[slot] == EMPTY) {
+                continue;
+            }
+            int id = gramIds[slot];
+            for (int k = postingStart[id]; k < postingStart[id + 1]; k++) {
+                int document = postings[k];
+                if (overlap[document]++ == 0) {
+                    touched[touchedCount++] = document;
+                }
+            }
+        }
+
+        // Count filter from the q-gram lemma, always asking for at least one shared trigram
+        int required = Math.max(1, queryGrams.length - 3 * maxDistance);
+        for (int i = 0; i < touchedCount; i++) {
+            int document = touched[i];
+            if (overlap[document] >= required) {
+                int distance = distanceToName(normalized, documents[document], maxDistance);
+                if (distance <= maxDistance) {
+                    matches.add(new Match(document, distance));
+                }
+            }
+            overlap[document] = 0;
+        }
+
+        matches.sort((a, b) -> a.distance != b.distance
+                ? Integer.compare(a.distance, b.distance)
+                : Integer.compare(a.document, b.document));
+        return matches;
+    }
+
+    /**
+     * @brief Computes the Levenshtein distance if it is at most a bound.
+     *
+     * Only the cells within maxDistance of the diagonal can lead to a distance within
+     * the bound, so each row is computed on that band only, in O(maxDistance) time, and
+     * the computation stops once a whole band exceeds the bound.
+     *
+     * @param a The first string.
+     * @param b The second string.
+     * @param maxDistance The bound.
+     * @return The distance, or maxDistance + 1 if it is larger than the bound.
+     */
+    public static int boundedLevenshtein(CharSequence a, CharSequence b, int maxDistance) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int over = maxDistance + 1;
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= maxDistance ? j : over;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(m, i + maxDistance);
+            current[0] = i <= maxDistance ? i : over;
+            if (from > 1) {
+                current[from - 1] = over;
+            }
+            int rowMinimum = current[0];
+            char c = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = c == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(value, over);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (to < m) {
+                current[to + 1] = over;
+            }
+            if (rowMinimum > maxDistance) {
+                return over;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[m], over);
+    }
+
+    /**
+     * @brief Computes the distance from a query to a name and to each of its words.
+     * @param query The case folded query.
+     * @param name The case folded name.
+     * @param maxDistance The bound.
+     * @return The smallest distance, or maxDistance + 1 if all exceed the bound.
+     */
+    private static int distanceToName(String query, String name, int maxDistance) {
+        int best = boundedLevenshtein(query, name, maxDistance);
+        int start = 0;
+        while (best > 0 && start < name.length()) {
+            int end = name.indexOf(' ', start);
+            if (end < 0) {
+                end = name.length();
+            }
+            if (end > start) {
+                best = Math.min(best, boundedLevenshtein(query, name.subSequence(start, end), maxDistance));
+            }
+            start = end + 1;
+        }
+        return best;
+    }
+
+    /**
+     * @brief Cuts a text into padded trigrams, word by word.
+     * @param text The case folded text.
+     * @return The trigrams packed as three 16-bit characters, with repeats.
+     */
+    private static long[] trigrams(String text) {
+        long[] grams = new long[text.length() * 3 + 3];
+        int count = 0;
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf(' ', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            if (end > start) {
+                // Padded word: two pads before, one after
+                int length = end - start + 3;
+                for (int i = 0; i + 3 <= length; i++) {
+                    long gram = 0;
+                    for (int j = i; j < i + 3; j++) {
+                        int position = start + j - 2;
+                        char c = position < start || position >= end ? PAD : text.charAt(position);
+                        gram = (gram << 16) | c;
+                    }
+                    grams[count++] = gram;
+                }
+            }
+            start = end + 1;
+        }
+        return Arrays.copyOf(grams, count);
+    }
+
+    /**
+     * @brief Removes repeated trigrams.
+     * @param grams The trigrams.
+     * @return The distinct trigrams in ascending order.
+     */
+    private static long[] distinct(long[] grams) {
+        long[] sorted = grams.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (count == 0 || sorted[count - 1] != sorted[i]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    /**
+     * @brief Finds the slot of a trigram, or the empty slot where it would go.
+     * @param gram The packed trigram.
+     * @return The slot index.
+     */
+    private int findSlot(long gram) {
+        long h = gram * 0x9e3779b97f4a7c15L;
+        int slot = (int) (h ^ (h >>> 32)) & gramMask;
+        while (gramKeys[slot] != EMPTY && gramKeys[slot] != gram) {
+            slot = (slot + 1) & gramMask;
+        }
+        return slot;
+    }
+
+    /**
+     * @brief Case folds a name and turns every whitespace run into a single space.
+     * @param text The text.
+     * @return The normalized text.
+     */
+    private static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = normalized.length() > 0;
+                continue;
+            }
+            if (space) {
+                normalized.append(' ');
+                space = false;
+            }
+            normalized.append(Character.toLowerCase(Character.toUpperCase(c)));
+        }
+        return normalized.toString();
+    }
+}
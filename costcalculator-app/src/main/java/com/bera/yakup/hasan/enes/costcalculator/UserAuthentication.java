@@ -24,6 +24,7 @@ public class UserAuthentication {
     private BudgetPlanner budgetPlanner; ///< Manages budget planning functionalities.
     private PriceAdjustment priceAdjustment; ///< Adjusts ingredient prices.
     private XORNode head; // Add this as a class field
+    private UserEmailIndex emailIndex; ///< Bloom filter over the user emails, opened on first use.
 
     /**
      * @brief Constructor for UserAuthentication.
@@ -163,16 +164,42 @@ public class UserAuthentication {
     }
 
     /**
-     * @brief Generates a new unique user ID.
-     * @param users List of existing users.
-     * @return A new unique user ID.
+     * @brief Opens the email filter of a users file, reusing the open one if it belongs to the same file.
+     * @param pathFileUsers The path to the users file.
+     * @return The email index, possibly out of date.
      */
-    public int getNewUserId(List<User> users) {
-        return users.size() + 1;
+    private UserEmailIndex openEmailIndex(String pathFileUsers) {
+        if (emailIndex == null || !emailIndex.belongsTo(pathFileUsers)) {
+            emailIndex = new UserEmailIndex(pathFileUsers);
+        }
+        return emailIndex;
+    }
+
+    /**
+     * @brief Gets an up-to-date email filter for a users file.
+     *
+     * The persisted filter is used as long as the users file has not changed since it
+     * was written; otherwise the users are loaded once and the filter is rebuilt.
+     *
+     * @param pathFileUsers The path to the users file.
+     * @return The email index.
+     * @throws IOException If the users file cannot be read or the filter cannot be saved.
+     */
+    public UserEmailIndex getEmailIndex(String pathFileUsers) throws IOException {
+        UserEmailIndex index = openEmailIndex(pathFileUsers);
+        if (!index.isCurrent()) {
+            index.rebuild(loadUsers(pathFileUsers));
+        }
+        return index;
     }
 
     /**
      * @brief Registers a new user and saves the data to a file.
+     *
+     * The users file is only scanned for a duplicate email when the email filter
+     * reports that the email may already be registered. The new id comes from the
+     * record count kept with the filter.
+     *
      * @param user The user to register.
      * @param pathFileUser The file path to save the user data.
      * @return True if registration is successful, false otherwise.
@@ -180,15 +207,17 @@ public class UserAuthentication {
      * @throws InterruptedException If interrupted during processing.
      */
     public boolean registerUser(User user, String pathFileUser) throws IOException, InterruptedException {
-        List<User> users = loadUsers(pathFileUser);
-        for (User existingUser : users) {
-            if (existingUser.getEmail().equals(user.getEmail())) {
-                out.println("User already exists.");
-                enterToContinue();
-                return false;
+        UserEmailIndex index = getEmailIndex(pathFileUser);
+        if (index.mightContain(user.getEmail())) {
+            for (User existingUser : loadUsers(pathFileUser)) {
+                if (existingUser.getEmail().equals(user.getEmail())) {
+                    out.println("User already exists.");
+                    enterToContinue();
+                    return false;
+                }
             }
         }
-        user.setId(getNewUserId(users));
+        user.setId(index.getUserCount() + 1);
         try (DataOutputStream writer = new DataOutputStream(new FileOutputStream(new File(pathFileUser), true))) {
             writer.writeInt(user.getId());
             writer.writeUTF(user.getName());
@@ -196,6 +225,7 @@ public class UserAuthentication {
             writer.writeUTF(user.getEmail());
             writer.writeUTF(user.getPassword());
         }
+        index.recordRegistration(user.getEmail());
         out.println("User registered successfully");
         enterToContinue();
         return true;
@@ -224,6 +254,9 @@ public class UserAuthentication {
 
     /**
      * @brief Attempts to log in a user with the provided credentials.
+     *
+     * Emails the email filter has never seen fail without reading the users file.
+     *
      * @param loginUser The user attempting to log in.
      * @param pathFileUsers The file path to read the user data from.
      * @return True if login is successful, false otherwise.
@@ -231,12 +264,13 @@ public class UserAuthentication {
      * @throws InterruptedException If interrupted during processing.
      */
     public boolean loginUser(User loginUser, String pathFileUsers) throws IOException, InterruptedException {
-        List<User> users = loadUsers(pathFileUsers);
-        for (User user : users) {
-            if (user.getEmail().equals(loginUser.getEmail()) && user.getPassword().equals(loginUser.getPassword())) {
-                out.println("Login successful.");
-                enterToContinue();
-                return true;
+        if (getEmailIndex(pathFileUsers).mightContain(loginUser.getEmail())) {
+            for (User user : loadUsers(pathFileUsers)) {
+                if (user.getEmail().equals(loginUser.getEmail()) && user.getPassword().equals(loginUser.getPassword())) {
+                    out.println("Login successful.");
+                    enterToContinue();
+                    return true;
+                }
             }
         }
         out.println("Incorrect email or password.");
@@ -271,11 +305,21 @@ public class UserAuthentication {
     public int printRecipesToConsole(String pathFileIngredients, String pathFileRecipes) throws IOException {
         if (new File(pathFileRecipes).exists()) {
             try (DataInputStream fileReader = new DataInputStream(new FileInputStream(pathFileRecipes))) {
-                Ingredient ingredients = ingredientManagement.loadIngredientsFromFile(pathFileIngredients);
+                List<Ingredient> ingredients = new ArrayList<>();
+                Map<Integer, String> namesById = new HashMap<>();
+                Ingredient current = ingredientManagement.loadIngredientsFromFile(pathFileIngredients);
+                while (current != null) {
+                    ingredients.add(current);
+                    namesById.putIfAbsent(current.getId(), current.getName());
+                    current = current.getNext();
+                }
+                long catalogVersion = CatalogVersion.of(pathFileIngredients, pathFileRecipes);
+                PriceIndex prices = new PriceIndex(ingredients);
                 out.println("\nAvailable Recipes:");
                 int id = 1;
 
                 while (fileReader.available() > 0) {
+                    int recipeId = id;
                     String recipeName = fileReader.readUTF();
                     out.println(id++ + ") " + recipeName);
 
@@ -300,22 +344,19 @@ public class UserAuthentication {
 
                     int ingredientCount = fileReader.readInt();
                     out.print("   Ingredients: ");
+                    Recipe recipe = new Recipe(recipeName, category);
                     for (int i = 0; i < ingredientCount; i++) {
                         int ingredientId = fileReader.readInt();
-                        Ingredient current = ingredients;
-                        Ingredient ingredient = null;
-                        while (current != null) {
-                            if (current.getId() == ingredientId) {
-                                ingredient = current;
-                                break;
-                            }
-                            current = current.getNext();
-                        }
-                        if (ingredient != null) {
-                            out.print(ingredient.getName() + ", ");
+                        recipe.addIngredient(ingredientId);
+                        String name = namesById.get(ingredientId);
+                        if (name != null) {
+                            out.print(name + ", ");
                         }
                     }
                     out.println();
+
+                    long cost = recipeCosting.getRecipeCost(recipeId, recipe, prices, catalogVersion);
+                    out.printf("   Cost: %s TL%n", Money.format(cost));
                 }
             }
         } else {
@@ -511,6 +552,9 @@ public class UserAuthentication {
             out.println("Name: " + current.getUser().getName() + " " + current.getUser().getSurname());
             out.println("Email: " + current.getUser().getEmail());
             out.println("+---------------------------------------+");
+            if (emailIndex != null && emailIndex.isCurrent()) {
+                out.println(emailIndex.describe());
+            }
             out.println("1. Next");
             out.println("2. Previous");
             out.println("3. Exit");
@@ -0,0 +1,167 @@
+/**
+ * @file UserEmailIndex.java
+ * @brief This file contains the implementation of the UserEmailIndex class.
+ */
+
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.io.*;
+import java.util.List;
+
+/**
+ * @class UserEmailIndex
+ * @brief A persisted Bloom filter over the emails of a users file, plus its record count.
+ *
+ * The filter is stored next to the users file (users.bin.bloom) together with the
+ * size and modification time the users file had when the filter was last updated.
+ * If either differs, e.g. because the users file was replaced, the filter is out of
+ * date and must be rebuilt from the users file before it is used again. The filter
+ * is also rebuilt, twice as large, once more users were added than it was sized for.
+ */
+public class UserEmailIndex {
+    public static final String FILE_SUFFIX = ".bloom"; ///< Appended to the users file path.
+    private static final int FILE_MAGIC = 0xB100F117; ///< Marks email filter files.
+    private static final int FILE_VERSION = 1; ///< Current email filter file format version.
+    private static final int MIN_CAPACITY = 1024; ///< Smallest number of users a filter is sized for.
+    private static final double FALSE_POSITIVE_RATE = 0.01; ///< Target false positive rate at capacity.
+
+    private final File usersFile; ///< The users file.
+    private final File filterFile; ///< The file the filter is persisted to.
+    private BloomFilter filter; ///< Filter over the emails, or null before the first build.
+    private int capacity; ///< Number of users the filter is sized for.
+    private int userCount; ///< Number of records in the users file.
+    private long syncedLength; ///< Size of the users file when the filter was last updated.
+    private long syncedModified; ///< Modification time of the users file when the filter was last updated.
+
+    /**
+     * @brief Opens the index of a users file, reading the persisted filter if there is one.
+     * @param pathFileUsers The users file path.
+     */
+    public UserEmailIndex(String pathFileUsers) {
+        this.usersFile = new File(pathFileUsers);
+        this.filterFile = new File(pathFileUsers + FILE_SUFFIX);
+        if (filterFile.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filterFile)))) {
+                if (in.readInt() == FILE_MAGIC && in.readInt() == FILE_VERSION) {
+                    long length = in.readLong();
+                    long modified = in.readLong();
+                    int count = in.readInt();
+                    int size = in.readInt();
+                    filter = BloomFilter.readFrom(in);
+                    syncedLength = length;
+                    syncedModified = modified;
+                    userCount = count;
+                    capacity = size;
+                }
+            } catch (IOException e) {
+                filter = null; // A damaged filter file is rebuilt like a missing one
+            }
+        }
+    }
+
+    /**
+     * @brief Checks whether the index belongs to a users file.
+     * @param pathFileUsers The users file path.
+     * @return True if the index was opened for that path.
+     */
+    public boolean belongsTo(String pathFileUsers) {
+        return usersFile.getPath().equals(new File(pathFileUsers).getPath());
+    }
+
+    /**
+     * @brief Checks whether the filter can be used without a rebuild.
+     * @return True if the filter matches the users file on disk and is not over capacity.
+     */
+    public boolean isCurrent() {
+        return filter != null
+                && userCount <= capacity
+                && usersFile.length() == syncedLength
+                && usersFile.lastModified() == syncedModified;
+    }
+
+    /**
+     * @brief Rebuilds the filter from all users in the users file and persists it.
+     * @param users The users loaded from the users file.
+     * @throws IOException If the filter file cannot be written.
+     */
+    public void rebuild(List<User> users) throws IOException {
+        capacity = Math.max(MIN_CAPACITY, users.size() * 2);
+        filter = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+        for (User user : users) {
+            filter.add(user.getEmail());
+        }
+        userCount = users.size();
+        save();
+    }
+
+    /**
+     * @brief Records a user that was just appended to the users file, and persists the filter.
+     * @param email The email of the new user.
+     * @throws IOException If the filter file cannot be written.
+     */
+    public void recordRegistration(String email) throws IOException {
+        filter.add(email);
+        userCount++;
+        save();
+    }
+
+    /**
+     * @brief Checks whether a user with an email may exist.
+     * @param email The email.
+     * @return False if no user has the email; true means the users file must be checked.
+     */
+    public boolean mightContain(String email) {
+        return filter.mightContain(email);
+    }
+
+    /**
+     * @brief Gets the number of users in the users file.
+     * @return The record count.
+     */
+    public int getUserCount() {
+        return userCount;
+    }
+
+    /**
+     * @brief Estimates the false positive rate of the filter.
+     * @return The probability that an unknown email still needs a file scan.
+     */
+    public double getFalsePositiveRate() {
+        return filter.expectedFalsePositiveRate();
+    }
+
+    /**
+     * @brief Gets the memory used by the filter.
+     * @return The size of the bit array in bytes.
+     */
+    public long getMemoryBytes() {
+        return filter.getMemoryBytes();
+    }
+
+    /**
+     * @brief Describes the filter for the console.
+     * @return A one-line summary of the user count, memory use and false positive rate.
+     */
+    public String describe() {
+        return String.format("Email filter: %d users, %d bytes, %.4f%% expected false positive rate",
+                userCount, getMemoryBytes(), getFalsePositiveRate() * 100);
+    }
+
+    /**
+     * @brief Writes the filter and the current state of the users file to the filter file.
+     * @throws IOException If the file cannot be written.
+     */
+    private void save() throws IOException {
+        syncedLength = usersFile.length();
+        syncedModified = usersFile.lastModified();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filterFile)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeLong(syncedLength);
+            out.writeLong(syncedModified);
+            out.writeInt(userCount);
+            out.writeInt(capacity);
+            filter.writeTo(out);
+        }
+    }
+}
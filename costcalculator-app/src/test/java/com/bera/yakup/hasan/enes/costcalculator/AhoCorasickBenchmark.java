@@ -0,0 +1,99 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @class AhoCorasickBenchmark
+ * @brief Compares tagging a catalog with one Aho-Corasick pass against one KMP search per pattern.
+ *
+ * Run with: java -cp target/classes:target/test-classes
+ * com.bera.yakup.hasan.enes.costcalculator.AhoCorasickBenchmark [names] [patterns]
+ *
+ * Both approaches must agree on the number of (pattern, ingredient) matches; the
+ * best of several timed runs after a warm-up is reported for each.
+ */
+public class AhoCorasickBenchmark {
+    private static final String[] WORDS = {
+            "tomato", "milk", "butter", "peanut", "olive", "oil", "wheat", "flour", "egg", "sugar",
+            "salt", "pepper", "soy", "sauce", "almond", "cheese", "cream", "yogurt", "honey", "garlic"
+    };
+    private static final int WARMUP_RUNS = 5;
+    private static final int TIMED_RUNS = 10;
+
+    public static void main(String[] args) {
+        int nameCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int patternCount = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+
+        Random random = new Random(42);
+        List<String> names = new ArrayList<>(nameCount);
+        for (int i = 0; i < nameCount; i++) {
+            StringBuilder name = new StringBuilder();
+            int words = 1 + random.nextInt(4);
+            for (int w = 0; w < words; w++) {
+                name.append(w == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            names.add(name.toString());
+        }
+        List<String> patterns = new ArrayList<>(patternCount);
+        for (int p = 0; p < patternCount; p++) {
+            String word = WORDS[p % WORDS.length];
+            // Past the word list, use shorter prefixes so every pattern is different
+            patterns.add(p < WORDS.length ? word : word.substring(0, Math.max(2, word.length() - 1 - p / WORDS.length)) + p);
+        }
+
+        AhoCorasick matcher = new AhoCorasick(patterns);
+        long[] kmpMatches = new long[1];
+        long[] acMatches = new long[1];
+        double kmp = bestSeconds(() -> {
+            long count = 0;
+            for (String name : names) {
+                for (String pattern : patterns) {
+                    if (KMPAlgorithm.KMPSearch(name, pattern)) {
+                        count++;
+                    }
+                }
+            }
+            kmpMatches[0] = count;
+        });
+        double ac = bestSeconds(() -> {
+            long[] count = new long[1];
+            int[] seenIn = new int[patterns.size()];
+            int[] nameNumber = new int[1];
+            AhoCorasick.MatchListener listener = (patternIndex, end) -> {
+                if (seenIn[patternIndex] != nameNumber[0]) {
+                    seenIn[patternIndex] = nameNumber[0];
+                    count[0]++;
+                }
+            };
+            for (String name : names) {
+                nameNumber[0]++;
+                matcher.search(name, listener);
+            }
+            acMatches[0] = count[0];
+        });
+
+        if (kmpMatches[0] != acMatches[0]) {
+            throw new IllegalStateException("Match counts differ: KMP " + kmpMatches[0] + ", Aho-Corasick " + acMatches[0]);
+        }
+        System.out.printf("%d names, %d patterns, %d automaton states, %d matches%n",
+                nameCount, patternCount, matcher.getStateCount(), acMatches[0]);
+        System.out.println("method,seconds,names_per_second,speedup");
+        System.out.printf("repeated-kmp,%.6f,%.0f,1.00%n", kmp, nameCount / kmp);
+        System.out.printf("aho-corasick,%.6f,%.0f,%.2f%n", ac, nameCount / ac, kmp / ac);
+    }
+
+    private static double bestSeconds(Runnable task) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e9;
+    }
+}
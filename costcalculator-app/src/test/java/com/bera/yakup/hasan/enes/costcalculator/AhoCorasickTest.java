@@ -0,0 +1,63 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AhoCorasickTest {
+
+    private static List<String> matches(AhoCorasick matcher, String text) {
+        List<String> found = new ArrayList<>();
+        matcher.search(text, (patternIndex, end) -> found.add(matcher.getPattern(patternIndex) + "@" + end));
+        return found;
+    }
+
+    @Test
+    public void testReportsOverlappingMatches() {
+        AhoCorasick matcher = new AhoCorasick(Arrays.asList("he", "she", "his", "hers"));
+
+        assertEquals(Arrays.asList("she@4", "he@4", "hers@6"), matches(matcher, "ushers"));
+        assertEquals(Arrays.asList("his@3"), matches(matcher, "his"));
+    }
+
+    @Test
+    public void testPatternInsidePattern() {
+        AhoCorasick matcher = new AhoCorasick(Arrays.asList("abcd", "bc", "c"));
+
+        assertEquals(Arrays.asList("bc@3", "c@3", "bc@6", "c@6"), matches(matcher, "abcabc"));
+        assertEquals(Arrays.asList("bc@3", "c@3", "abcd@4"), matches(matcher, "abcd"));
+    }
+
+    @Test
+    public void testIgnoreCaseAndDuplicates() {
+        AhoCorasick matcher = new AhoCorasick(Arrays.asList("Milk", "milk", "ÇİLEK"), true);
+
+        assertEquals(Arrays.asList("Milk@10", "milk@10"), matches(matcher, "Whole MILK"));
+        assertTrue(matcher.containsAny("taze çilek"));
+        assertFalse(matcher.containsAny("Tomato"));
+    }
+
+    @Test
+    public void testAgreesWithKmp() {
+        List<String> patterns = Arrays.asList("ana", "nan", "a", "bab", "anan");
+        AhoCorasick matcher = new AhoCorasick(patterns);
+        String[] texts = {"banana", "ananas", "babanana", "xyz", ""};
+
+        for (String text : texts) {
+            boolean[] found = new boolean[patterns.size()];
+            matcher.search(text, (patternIndex, end) -> found[patternIndex] = true);
+            for (int p = 0; p < patterns.size(); p++) {
+                assertEquals(text + "/" + patterns.get(p), text.contains(patterns.get(p)), found[p]);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyPattern() {
+        new AhoCorasick(Arrays.asList("milk", ""));
+    }
+}
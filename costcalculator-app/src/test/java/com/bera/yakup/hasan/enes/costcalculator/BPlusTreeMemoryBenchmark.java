@@ -0,0 +1,111 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * @class BPlusTreeMemoryBenchmark
+ * @brief Compares the heap footprint and lookup speed of LongBPlusTree and a boxed TreeMap.
+ *
+ * Run with: java -Xmx4g -cp target/classes:target/test-classes
+ * com.bera.yakup.hasan.enes.costcalculator.BPlusTreeMemoryBenchmark [entries] [lookups]
+ *
+ * Both trees are built over the same distinct random long keys. The B+ tree is
+ * built once by inserting the entries one by one and once by bulk loading them.
+ * The retained heap of each tree is measured as the growth of the used heap after
+ * full garbage collections, and a batch of random point lookups is timed on the
+ * inserted trees.
+ *
+ * With 10M entries the TreeMap retains about 80 bytes per entry and the
+ * primitive tree 13.5 (bulk loaded) to 19.5 (inserted) bytes per entry.
+ */
+public class BPlusTreeMemoryBenchmark {
+    private static Object retained; ///< Keeps the measured tree reachable while the heap is sampled.
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        Random random = new Random(42);
+        long[] keys = new long[count];
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = random.nextLong() >>> 1;
+            values[i] = i;
+        }
+        long[] probes = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            probes[i] = keys[random.nextInt(count)];
+        }
+
+        System.out.printf("%-28s %12s %14s %14s%n", "tree", "entries", "bytes/entry", "ns/lookup");
+
+        long before = usedHeap();
+        TreeMap<Long, Integer> boxed = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            boxed.put(keys[i], values[i]);
+        }
+        report("TreeMap put", count, footprint(boxed, before), timeBoxedLookups(boxed, probes));
+        boxed = null;
+
+        before = usedHeap();
+        LongBPlusTree primitive = new LongBPlusTree();
+        for (int i = 0; i < count; i++) {
+            primitive.insert(keys[i], values[i]);
+        }
+        report("LongBPlusTree insert", count, footprint(primitive, before), timePrimitiveLookups(primitive, probes));
+        primitive = null;
+
+        before = usedHeap();
+        LongBPlusTree primitiveLoaded = LongBPlusTree.bulkLoad(keys, values);
+        report("LongBPlusTree bulk load", count, footprint(primitiveLoaded, before), Double.NaN);
+    }
+
+    private static void report(String name, int count, long bytes, double nsPerLookup) {
+        String lookup = Double.isNaN(nsPerLookup) ? "-" : String.format("%.1f", nsPerLookup);
+        System.out.printf("%-28s %12d %14.1f %14s%n", name, count, (double) bytes / count, lookup);
+    }
+
+    private static long footprint(Object tree, long before) {
+        retained = tree;
+        long bytes = usedHeap() - before;
+        retained = null;
+        return bytes;
+    }
+
+    private static double timeBoxedLookups(TreeMap<Long, Integer> tree, long[] probes) {
+        long found = 0;
+        long start = System.nanoTime();
+        for (long probe : probes) {
+            found += tree.containsKey(probe) ? 1 : 0;
+        }
+        double ns = (double) (System.nanoTime() - start) / probes.length;
+        check(found, probes.length);
+        return ns;
+    }
+
+    private static double timePrimitiveLookups(LongBPlusTree tree, long[] probes) {
+        long found = 0;
+        long start = System.nanoTime();
+        for (long probe : probes) {
+            found += tree.rangeValues(probe, probe, 1).length;
+        }
+        double ns = (double) (System.nanoTime() - start) / probes.length;
+        check(found, probes.length);
+        return ns;
+    }
+
+    private static void check(long found, int expected) {
+        if (found != expected) {
+            throw new IllegalStateException("Expected " + expected + " hits, found " + found + ".");
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,47 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.io.*;
+
+import static org.junit.Assert.*;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testNoFalseNegativesAndFalsePositiveRateNearTarget() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@example.com"));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain("other" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.002);
+        assertTrue("false positives: " + falsePositives, falsePositives < 2000);
+        assertEquals(7, filter.getHashCount());
+        assertTrue(filter.getMemoryBytes() < 10000 * 10 / 8 + 8);
+    }
+
+    @Test
+    public void testWriteAndReadRoundTrip() throws IOException {
+        BloomFilter filter = new BloomFilter(100, 0.05);
+        filter.add("john.doe@example.com");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.writeTo(new DataOutputStream(bytes));
+        BloomFilter copy = BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertTrue(copy.mightContain("john.doe@example.com"));
+        assertFalse(copy.mightContain("jane.doe@example.com"));
+        assertEquals(filter.getBitCount(), copy.getBitCount());
+        assertEquals(1, copy.getInsertionCount());
+    }
+}
@@ -6,6 +6,7 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Scanner;
@@ -73,7 +74,7 @@ public class BudgetPlannerTest {
     }
     @Test
     public void exitBudgetPlannerMenuTest() throws IOException, InterruptedException {
-        BudgetPlanner budgetPlanner = simulateUserInput("100\n3\n");
+        BudgetPlanner budgetPlanner = simulateUserInput("100\n4\n");
         int result = budgetPlanner.budgetPlannerMenu(recipeCostingTestFile, ingredientTestFile);
         Assert.assertEquals(result,1);
     }
@@ -177,12 +178,13 @@ public class BudgetPlannerTest {
 
         String output = outContent.toString();
         Assert.assertTrue(output.contains("Tomato Soup"));
+        Assert.assertTrue(output.contains("  ID: 1 | Name: Tomato Soup | Price: 2.50 TL"));
         Assert.assertTrue(output.contains("Remaining budget: 497.50"));
     }
 
     @Test
     public void budgetPlannerMenuTest() throws IOException, InterruptedException {
-        BudgetPlanner budgetPlanner = simulateUserInput("500\n3\n");
+        BudgetPlanner budgetPlanner = simulateUserInput("500\n4\n");
         int result = budgetPlanner.budgetPlannerMenu(recipeCostingTestFile, ingredientTestFile);
         Assert.assertEquals(1, result);
 
@@ -192,7 +194,7 @@ public class BudgetPlannerTest {
     }
     @Test
     public void invalidChoiceTest() throws IOException, InterruptedException {
-        BudgetPlanner budgetPlanner = simulateUserInput("500\n5\n\n3\n");
+        BudgetPlanner budgetPlanner = simulateUserInput("500\n5\n\n4\n");
         int result = budgetPlanner.budgetPlannerMenu(recipeCostingTestFile, ingredientTestFile);
         Assert.assertEquals(1, result);
 
@@ -203,7 +205,7 @@ public class BudgetPlannerTest {
 
     @Test
     public void invalidInputTest() throws IOException, InterruptedException {
-        BudgetPlanner budgetPlanner = simulateUserInput("500\nabc\n\n3\n");
+        BudgetPlanner budgetPlanner = simulateUserInput("500\nabc\n\n4\n");
         int result = budgetPlanner.budgetPlannerMenu(recipeCostingTestFile, ingredientTestFile);
         Assert.assertEquals(1, result);
 
@@ -240,11 +242,87 @@ public class BudgetPlannerTest {
             }
         }
 
-        BudgetPlanner budgetPlanner = simulateUserInput("500\n1\nabc\ndone\n2\n\n3\n");
+        BudgetPlanner budgetPlanner = simulateUserInput("500\n1\nabc\ndone\n2\n\n4\n");
         int result = budgetPlanner.budgetPlannerMenu(recipeCostingTestFile, ingredientTestFile);
         Assert.assertEquals(1, result);
     }
     @Test
+    public void priceScenarioMenuTest() throws IOException, InterruptedException {
+        List<Recipe> recipes = new ArrayList<>();
+        Recipe recipe1 = new Recipe("Tomato Soup", 1);
+        recipe1.setIngredients(Arrays.asList(1, 1));
+        recipes.add(recipe1);
+        Recipe recipe2 = new Recipe("Bread", 2);
+        recipe2.setIngredients(Collections.singletonList(2));
+        recipes.add(recipe2);
+
+        RecipeCosting recipeCosting = new RecipeCosting(null, null, null, System.out);
+        recipeCosting.saveRecipesToFile(recipeCostingTestFile, recipes);
+
+        try (DataOutputStream writer = new DataOutputStream(new FileOutputStream(ingredientTestFile))) {
+            writer.writeInt(1);
+            writer.writeUTF("Tomato");
+            writer.writeFloat(2.5f);
+            writer.writeInt(2);
+            writer.writeUTF("Flour");
+            writer.writeFloat(1.0f);
+        }
+        long sizeBefore = new File(ingredientTestFile).length();
+
+        BudgetPlanner budgetPlanner = simulateUserInput("500\n3\n1\n12\n9\n5\ndone\n4\n");
+        int result = budgetPlanner.budgetPlannerMenu(recipeCostingTestFile, ingredientTestFile);
+        Assert.assertEquals(1, result);
+
+        String output = outContent.toString();
+        Assert.assertTrue(output.contains("Ingredient 1: 2.80 TL in this scenario."));
+        Assert.assertTrue(output.contains("Ingredient 9 is not in the catalog."));
+        Assert.assertTrue(output.contains("ID: 1 | Name: Tomato Soup | 5.00 TL -> 5.60 TL (+0.60 TL)"));
+        Assert.assertFalse(output.contains("Name: Bread"));
+        Assert.assertEquals(sizeBefore, new File(ingredientTestFile).length());
+    }
+    @Test
+    public void listAffordableRecipesAfterCreateRecipeTest() throws IOException, InterruptedException {
+        List<Recipe> recipes = new ArrayList<>();
+        Recipe recipe1 = new Recipe("Tomato Soup", 1);
+        recipe1.setIngredients(Collections.singletonList(1));
+        recipes.add(recipe1);
+        Recipe recipe2 = new Recipe("Bread", 2);
+        recipe2.setIngredients(Collections.singletonList(2));
+        recipes.add(recipe2);
+        try (DataOutputStream writer = new DataOutputStream(new FileOutputStream(ingredientTestFile))) {
+            writer.writeInt(1);
+            writer.writeUTF("Tomato");
+            writer.writeFloat(2.5f);
+            writer.writeInt(2);
+            writer.writeUTF("Flour");
+            writer.writeFloat(1.0f);
+        }
+
+        // The planner and the costing menu share one RecipeCosting, as in UserAuthentication
+        Scanner scanner = new Scanner("Pasta\n3\n2\n2\ndone\n\n");
+        UserAuthentication userAuthentication = new UserAuthentication(scanner, System.out);
+        IngredientManagement ingredientManagement = new IngredientManagement(userAuthentication, scanner, System.out);
+        PriceAdjustment priceAdjustment = new PriceAdjustment(userAuthentication, ingredientManagement, scanner, System.out);
+        RecipeCosting recipeCosting = new RecipeCosting(userAuthentication, priceAdjustment, scanner, System.out);
+        BudgetPlanner budgetPlanner = new BudgetPlanner(userAuthentication, recipeCosting, ingredientManagement, priceAdjustment, scanner, System.out);
+        recipeCosting.saveRecipesToFile(recipeCostingTestFile, recipes);
+        PriceIndex prices = new PriceIndex(priceAdjustment.convertDoubleLinkToArray(ingredientTestFile));
+
+        List<Recipe> menuRecipes = recipeCosting.loadRecipesFromFile(recipeCostingTestFile);
+        budgetPlanner.listAffordableRecipes(menuRecipes, CatalogVersion.of(recipeCostingTestFile),
+                prices, CatalogVersion.of(ingredientTestFile), 100000);
+        recipeCosting.createRecipe(menuRecipes, ingredientTestFile, recipeCostingTestFile);
+
+        List<Recipe> reloaded = recipeCosting.loadRecipesFromFile(recipeCostingTestFile);
+        Assert.assertEquals(3, reloaded.size());
+        outContent.reset();
+        Assert.assertEquals(3, budgetPlanner.listAffordableRecipes(reloaded, CatalogVersion.of(recipeCostingTestFile),
+                prices, CatalogVersion.of(ingredientTestFile), 100000));
+        String output = outContent.toString();
+        Assert.assertTrue(output.contains("ID: 3 | Name: Pasta | Price: 2.00 TL"));
+        Assert.assertTrue(output.contains("ID: 1 | Name: Tomato Soup | Price: 2.50 TL"));
+    }
+    @Test
     public void planMealsNoRecipesTest() throws IOException, InterruptedException {
         // Write empty recipes file
         RecipeCosting recipeCosting = new RecipeCosting(null, null, null, System.out);
@@ -297,5 +375,6 @@ public class BudgetPlannerTest {
 
         String output = outContent.toString();
         Assert.assertTrue(output.contains("Cannot add 'Luxury Dish'. Insufficient funds."));
+        Assert.assertTrue(output.contains("No recipe fits in the budget."));
     }
 }
@@ -0,0 +1,173 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * @class ConcurrentBPlusTreeBenchmark
+ * @brief Measures the throughput of mixed lookups and inserts on several threads.
+ *
+ * Run with: java -cp target/classes:target/test-classes
+ * com.bera.yakup.hasan.enes.costcalculator.ConcurrentBPlusTreeBenchmark [preloaded] [opsPerThread] [maxThreads]
+ *
+ * The ConcurrentBPlusTree is compared with a LongBPlusTree guarded by one read-write
+ * lock, for read shares of 50%, 90% and 99% and for 1, 2, 4, ... threads up to
+ * maxThreads. Every run starts from a fresh tree with the same preloaded keys, and
+ * the best of several timed runs after a warm-up is reported.
+ */
+public class ConcurrentBPlusTreeBenchmark {
+    private static final int[] READ_PERCENTS = {50, 90, 99};
+    private static final int WARMUP_RUNS = 2;
+    private static final int TIMED_RUNS = 5;
+
+    /**
+     * @interface Index
+     * @brief The operations the benchmark runs against either tree.
+     */
+    private interface Index {
+        void insert(int key);
+
+        int lookup(int key);
+
+        long restarts();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int preloaded = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        int maxThreads = Math.min(64, args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors());
+
+        System.out.printf("%d preloaded keys, %d operations per thread%n", preloaded, opsPerThread);
+        System.out.println("structure,threads,read_percent,seconds,ops_per_second,restarts");
+        for (int readPercent : READ_PERCENTS) {
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                long[] restarts = new long[1];
+                double olc = bestSeconds(threads, readPercent, preloaded, opsPerThread, restarts, () -> {
+                    ConcurrentBPlusTree<Integer, Integer> tree = new ConcurrentBPlusTree<>();
+                    return new Index() {
+                        @Override
+                        public void insert(int key) {
+                            tree.insert(key, key);
+                        }
+
+                        @Override
+                        public int lookup(int key) {
+                            return tree.search(key).size();
+                        }
+
+                        @Override
+                        public long restarts() {
+                            return tree.getRestartCount();
+                        }
+                    };
+                });
+                report("concurrent-olc", threads, readPercent, olc, threads * opsPerThread, restarts[0]);
+
+                double locked = bestSeconds(threads, readPercent, preloaded, opsPerThread, restarts, () -> {
+                    LongBPlusTree tree = new LongBPlusTree();
+                    ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+                    return new Index() {
+                        @Override
+                        public void insert(int key) {
+                            lock.writeLock().lock();
+                            try {
+                                tree.insert(key, key);
+                            } finally {
+                                lock.writeLock().unlock();
+                            }
+                        }
+
+                        @Override
+                        public int lookup(int key) {
+                            lock.readLock().lock();
+                            try {
+                                return tree.rangeValues(key, key, Integer.MAX_VALUE).length;
+                            } finally {
+                                lock.readLock().unlock();
+                            }
+                        }
+
+                        @Override
+                        public long restarts() {
+                            return 0;
+                        }
+                    };
+                });
+                report("rwlock-bplustree", threads, readPercent, locked, threads * opsPerThread, restarts[0]);
+            }
+        }
+    }
+
+    /**
+     * @interface IndexFactory
+     * @brief Creates an empty index for one run.
+     */
+    private interface IndexFactory {
+        Index create();
+    }
+
+    private static void report(String structure, int threads, int readPercent, double seconds, long ops, long restarts) {
+        System.out.printf("%s,%d,%d,%.6f,%.0f,%d%n", structure, threads, readPercent, seconds, ops / seconds, restarts);
+    }
+
+    /**
+     * @brief Times runs on fresh indexes and reports the restarts of the best timed run.
+     */
+    private static double bestSeconds(int threads, int readPercent, int preloaded, int opsPerThread,
+                                      long[] restarts, IndexFactory factory) throws InterruptedException {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < WARMUP_RUNS + TIMED_RUNS; run++) {
+            Index index = factory.create();
+            for (int key = 0; key < preloaded; key++) {
+                index.insert(2 * key);
+            }
+            long before = index.restarts();
+            long elapsed = runThreads(index, threads, readPercent, preloaded, opsPerThread, run);
+            if (run >= WARMUP_RUNS && elapsed < best) {
+                best = elapsed;
+                restarts[0] = index.restarts() - before;
+            }
+        }
+        return best / 1e9;
+    }
+
+    private static long runThreads(Index index, int threads, int readPercent, int preloaded, int opsPerThread,
+                                   int run) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        long[] sink = new long[threads];
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(new Thread(() -> {
+                Random random = new Random(31L * run + thread);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long found = 0;
+                for (int i = 0; i < opsPerThread; i++) {
+                    if (random.nextInt(100) < readPercent) {
+                        found += index.lookup(2 * random.nextInt(preloaded));
+                    } else {
+                        index.insert(2 * random.nextInt(preloaded) + 1); // New odd keys between the preloaded ones
+                    }
+                }
+                sink[thread] = found;
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - begin;
+    }
+}
@@ -0,0 +1,188 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentBPlusTreeTest {
+
+    @Test
+    public void testSingleThreadMatchesTreeMap() {
+        Random random = new Random(5);
+        for (int order : new int[]{4, 5, 16}) {
+            ConcurrentBPlusTree<Integer, Integer> tree = new ConcurrentBPlusTree<>(order);
+            TreeMap<Integer, List<Integer>> oracle = new TreeMap<>();
+            for (int i = 0; i < 5000; i++) {
+                int key = random.nextInt(1000);
+                tree.insert(key, i);
+                oracle.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+            tree.checkStructure();
+
+            for (int key = -1; key <= 1000; key++) {
+                assertEquals(oracle.getOrDefault(key, Collections.emptyList()), tree.search(key));
+            }
+            List<Integer> expected = new ArrayList<>();
+            for (List<Integer> values : oracle.subMap(250, true, 600, true).values()) {
+                expected.addAll(values);
+            }
+            assertEquals(expected, tree.rangeValues(250, 600));
+            assertEquals(5000, tree.size());
+            assertEquals(0, tree.getRestartCount());
+        }
+    }
+
+    @Test
+    public void testReadersSeeEveryExistingKeyDuringConcurrentInserts() throws InterruptedException {
+        ConcurrentBPlusTree<Integer, Integer> tree = new ConcurrentBPlusTree<>(8);
+        int preloaded = 2000;
+        for (int key = 0; key < 2 * preloaded; key += 2) {
+            tree.insert(key, key);
+        }
+
+        int writers = 3;
+        int perWriter = 4000;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                List<Integer> keys = new ArrayList<>();
+                for (int i = 0; i < perWriter; i++) {
+                    keys.add(2 * preloaded + writer + writers * i); // Disjoint new keys per writer
+                    keys.add(2 * (i % preloaded) + 1); // Odd keys shared between writers
+                }
+                Collections.shuffle(keys, new Random(writer));
+                for (int key : keys) {
+                    tree.insert(key, key);
+                }
+            }));
+        }
+        for (int r = 0; r < 2; r++) {
+            int reader = r;
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                Random random = new Random(100 + reader);
+                while (writing.get()) {
+                    int key = 2 * random.nextInt(preloaded);
+                    if (!tree.search(key).contains(key)) {
+                        errors.add("Missing preloaded key " + key);
+                    }
+                    int from = 2 * random.nextInt(preloaded - 50);
+                    int previous = Integer.MIN_VALUE;
+                    int even = 0;
+                    for (Iterator<Map.Entry<Integer, Integer>> it = tree.range(from, from + 98); it.hasNext(); ) {
+                        int found = it.next().getKey();
+                        if (found < previous || found < from || found > from + 98) {
+                            errors.add("Range scan out of order at " + found);
+                        }
+                        if (found % 2 == 0 && found != previous) {
+                            even++;
+                        }
+                        previous = found;
+                    }
+                    if (even != 50) {
+                        errors.add("Range scan from " + from + " saw " + even + " preloaded keys");
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (int w = 0; w < writers; w++) {
+            threads.get(w).join();
+        }
+        writing.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(errors.toString(), errors.isEmpty());
+        tree.checkStructure();
+        assertEquals(preloaded + 2 * writers * perWriter, tree.size());
+        for (int w = 0; w < writers; w++) {
+            for (int i = 0; i < perWriter; i++) {
+                int key = 2 * preloaded + w + writers * i;
+                assertEquals(Collections.singletonList(key), tree.search(key));
+            }
+        }
+        assertEquals(writers * perWriter / preloaded, tree.search(1).size());
+    }
+
+    @Test(timeout = 10000, expected = NullPointerException.class)
+    public void testSearchRejectsNullKey() {
+        ConcurrentBPlusTree<Integer, Integer> tree = new ConcurrentBPlusTree<>(4);
+        for (int i = 0; i < 20; i++) {
+            tree.insert(i, i);
+        }
+        tree.search(null);
+    }
+
+    @Test(timeout = 10000)
+    public void testExceptionFromCompareToIsNotRetried() {
+        ConcurrentBPlusTree<BrokenKey, Integer> tree = new ConcurrentBPlusTree<>(4);
+        for (int i = 0; i < 20; i++) {
+            tree.insert(new BrokenKey(i), i);
+        }
+        try {
+            tree.search(new BrokenKey(-1));
+            fail("Expected the comparison to fail.");
+        } catch (ArrayIndexOutOfBoundsException expected) {
+            assertEquals(0, tree.getRestartCount());
+        }
+        try {
+            tree.insert(new BrokenKey(-1), 0);
+            fail("Expected the comparison to fail.");
+        } catch (ArrayIndexOutOfBoundsException expected) {
+            assertEquals(20, tree.size());
+        }
+    }
+
+    /**
+     * @brief A key whose comparisons fail when either side is negative.
+     */
+    private static final class BrokenKey implements Comparable<BrokenKey> {
+        private final int value;
+
+        BrokenKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(BrokenKey other) {
+            if (value < 0 || other.value < 0) {
+                throw new ArrayIndexOutOfBoundsException(Math.min(value, other.value));
+            }
+            return Integer.compare(value, other.value);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsOrderBelowFour() {
+        new ConcurrentBPlusTree<Integer, Integer>(3);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
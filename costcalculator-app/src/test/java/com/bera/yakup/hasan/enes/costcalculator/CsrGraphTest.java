@@ -0,0 +1,199 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+import static org.junit.Assert.*;
+
+public class CsrGraphTest {
+
+    private File cacheFile;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheFile = File.createTempFile("recipe-graph", ".csr");
+        cacheFile.deleteOnExit();
+    }
+
+    @After
+    public void tearDown() {
+        cacheFile.delete();
+    }
+
+    private static List<Recipe> recipes(Random random, int count) {
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Recipe recipe = new Recipe("Recipe " + i, 1 + random.nextInt(4));
+            List<Integer> used = new ArrayList<>();
+            for (int k = random.nextInt(4); k > 0; k--) {
+                used.add(1 + random.nextInt(50));
+            }
+            recipe.setIngredients(used);
+            recipes.add(recipe);
+        }
+        return recipes;
+    }
+
+    private static int[] neighbors(CsrGraph graph, int node) {
+        int[] neighbors = new int[graph.edgeEnd(node) - graph.edgeStart(node)];
+        for (int e = graph.edgeStart(node); e < graph.edgeEnd(node); e++) {
+            neighbors[e - graph.edgeStart(node)] = graph.targetAt(e);
+        }
+        return neighbors;
+    }
+
+    private static void assertSameGraph(CsrGraph expected, CsrGraph actual) {
+        assertEquals(expected.getNodeCount(), actual.getNodeCount());
+        assertEquals(expected.getRecipeCount(), actual.getRecipeCount());
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+        for (int v = 0; v < expected.getNodeCount(); v++) {
+            assertArrayEquals("node " + v, neighbors(expected, v), neighbors(actual, v));
+        }
+    }
+
+    @Test
+    public void testFromEdgesKeepsEdgeOrderPerNode() {
+        int[] sources = {2, 0, 2, 0, 3, 99};
+        int[] targets = {1, 3, 0, 1, 3, 99};
+        CsrGraph graph = CsrGraph.fromEdges(4, sources, targets, 5);
+
+        assertEquals(4, graph.getNodeCount());
+        assertEquals(5, graph.getEdgeCount());
+        assertArrayEquals(new int[]{3, 1}, neighbors(graph, 0));
+        assertArrayEquals(new int[0], neighbors(graph, 1));
+        assertArrayEquals(new int[]{1, 0}, neighbors(graph, 2));
+        assertArrayEquals(new int[]{3}, neighbors(graph, 3));
+    }
+
+    @Test
+    public void testFromRecipesLinksCategoriesThroughHubs() {
+        List<Recipe> recipes = new ArrayList<>();
+        recipes.add(new Recipe("Soup", 1));
+        recipes.add(new Recipe("Cake", 4));
+        recipes.add(new Recipe("Stew", 1));
+        recipes.get(1).setIngredients(Arrays.asList(7, -1));
+        recipes.get(2).setIngredients(Arrays.asList(7));
+
+        CsrGraph explicit = CsrGraph.fromRecipes(recipes, false);
+        assertEquals(3, explicit.getNodeCount());
+        assertArrayEquals(new int[]{2}, neighbors(explicit, 0));
+        assertArrayEquals(new int[]{2}, neighbors(explicit, 1));
+        assertArrayEquals(new int[]{0, 1}, neighbors(explicit, 2));
+
+        CsrGraph implicit = CsrGraph.fromRecipes(recipes, true);
+        assertEquals(5, implicit.getNodeCount());
+        assertEquals(3, implicit.getRecipeCount());
+        assertArrayEquals(new int[]{3}, neighbors(implicit, 0));
+        assertArrayEquals(new int[]{4, 2}, neighbors(implicit, 1));
+        assertArrayEquals(new int[]{3, 1}, neighbors(implicit, 2));
+        assertArrayEquals(new int[]{0, 2}, neighbors(implicit, 3));
+        assertArrayEquals(new int[]{1}, neighbors(implicit, 4));
+    }
+
+    @Test
+    public void testMappedCacheMatchesHeapGraph() throws IOException {
+        for (boolean implicit : new boolean[]{false, true}) {
+            CsrGraph built = CsrGraph.fromRecipes(recipes(new Random(5), 3000), implicit);
+            built.writeTo(cacheFile.getPath());
+            assertSameGraph(built, CsrGraph.map(cacheFile.getPath()));
+        }
+    }
+
+    @Test
+    public void testLoadOrBuildReusesCacheOfSameVersion() throws IOException {
+        List<Recipe> recipes = recipes(new Random(9), 500);
+        CsrGraph first = CsrGraph.loadOrBuild(cacheFile.getPath(), recipes, true, 41L);
+        assertEquals(41L, first.getCatalogVersion());
+        assertSameGraph(CsrGraph.fromRecipes(recipes, true), first);
+
+        // Same version: the stale recipes passed in must not be used
+        List<Recipe> changed = recipes(new Random(10), 500);
+        assertSameGraph(first, CsrGraph.loadOrBuild(cacheFile.getPath(), changed, true, 41L));
+
+        CsrGraph rebuilt = CsrGraph.loadOrBuild(cacheFile.getPath(), changed, true, 42L);
+        assertEquals(42L, rebuilt.getCatalogVersion());
+        assertSameGraph(CsrGraph.fromRecipes(changed, true), rebuilt);
+
+        // The clique representation is part of the cache key
+        assertSameGraph(CsrGraph.fromRecipes(changed, false), CsrGraph.loadOrBuild(cacheFile.getPath(), changed, false, 42L));
+    }
+
+    @Test
+    public void testLoadOrBuildReplacesDamagedCache() throws IOException {
+        try (FileWriter writer = new FileWriter(cacheFile)) {
+            writer.write("not a graph");
+        }
+        List<Recipe> recipes = recipes(new Random(3), 100);
+        assertSameGraph(CsrGraph.fromRecipes(recipes, false), CsrGraph.loadOrBuild(cacheFile.getPath(), recipes, false, 1L));
+    }
+
+    @Test
+    public void testOldMappingSurvivesRebuild() throws IOException {
+        List<Recipe> recipes = recipes(new Random(12), 400);
+        CsrGraph old = CsrGraph.loadOrBuild(cacheFile.getPath(), recipes, true, 1L);
+        CsrGraph expected = CsrGraph.fromRecipes(recipes, true);
+
+        List<Recipe> changed = recipes(new Random(13), 900);
+        CsrGraph rebuilt = CsrGraph.loadOrBuild(cacheFile.getPath(), changed, true, 2L);
+        assertSameGraph(CsrGraph.fromRecipes(changed, true), rebuilt);
+        assertSameGraph(expected, old);
+        File[] leftovers = cacheFile.getAbsoluteFile().getParentFile().listFiles(
+                (dir, name) -> name.startsWith(cacheFile.getName()) && name.endsWith(".tmp"));
+        assertEquals(0, leftovers.length);
+    }
+
+    @Test
+    public void testLoadOrBuildReplacesCacheWithDamagedEdges() throws IOException {
+        List<Recipe> recipes = recipes(new Random(14), 200);
+        CsrGraph.fromRecipes(recipes, false).writeTo(cacheFile.getPath());
+        try (RandomAccessFile file = new RandomAccessFile(cacheFile, "rw")) {
+            file.seek(file.length() - 4);
+            file.write(new byte[]{(byte) 0xff, (byte) 0xff, 0, 0}); // Last target past the nodes
+        }
+        try {
+            CsrGraph.map(cacheFile.getPath());
+            fail("Expected the damaged target to be rejected.");
+        } catch (IllegalArgumentException expected) {
+            // Rejected when mapped, not during a traversal
+        }
+        assertSameGraph(CsrGraph.fromRecipes(recipes, false), CsrGraph.loadOrBuild(cacheFile.getPath(), recipes, false, 0L));
+    }
+
+    @Test
+    public void testRecipeGraphMergesAddedEdgesAfterExistingOnes() {
+        RecipeGraph graph = new RecipeGraph(CsrGraph.fromEdges(3, new int[]{0, 1}, new int[]{1, 2}, 2), new Scanner(""));
+        graph.addEdge(0, 2);
+        graph.addEdge(2, 0);
+        graph.addEdge(0, 0);
+
+        assertEquals(5, graph.getEdgeCount());
+        assertEquals(Arrays.asList(1, 2, 0), graph.getNeighbors(0));
+        assertEquals(Arrays.asList(0), graph.getNeighbors(2));
+        assertArrayEquals(new int[]{1, 2, 0}, neighbors(graph.toCsr(), 0));
+        assertEquals(1, graph.stronglyConnectedComponents().length);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRecipeGraphRejectsEdgeOutsideGraph() {
+        new RecipeGraph(2, new Scanner("")).addEdge(0, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsDecreasingOffsets() {
+        new CsrGraph(new int[]{0, 2, 1, 2}, new int[]{0, 1}, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsTargetOutsideGraph() {
+        new CsrGraph(new int[]{0, 1, 1}, new int[]{2}, 2);
+    }
+}
@@ -0,0 +1,111 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DisjointSetTest {
+
+    @Test
+    public void testUnionMergesSetsOnce() {
+        DisjointSet set = new DisjointSet(6);
+        assertEquals(6, set.getSetCount());
+        assertTrue(set.union(0, 1));
+        assertTrue(set.union(3, 4));
+        assertTrue(set.union(1, 4));
+        assertFalse(set.union(0, 3));
+
+        assertEquals(3, set.getSetCount());
+        assertTrue(set.connected(0, 4));
+        assertFalse(set.connected(2, 5));
+        assertEquals(Arrays.asList(Arrays.asList(0, 1, 3, 4), Arrays.asList(2), Arrays.asList(5)), set.sets());
+    }
+
+    @Test
+    public void testAddedElementsStartAlone() {
+        DisjointSet set = new DisjointSet(0);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, set.add());
+            if (i % 2 == 1) {
+                set.union(i - 1, i);
+            }
+        }
+        assertEquals(20, set.size());
+        assertEquals(10, set.getSetCount());
+        assertTrue(set.connected(18, 19));
+        assertFalse(set.connected(17, 18));
+        assertEquals(Arrays.asList(18, 19), set.sets().get(9));
+    }
+
+    @Test
+    public void testLongChainStaysShallow() {
+        int n = 1_000_000;
+        DisjointSet set = new DisjointSet(n);
+        for (int i = 1; i < n; i++) {
+            set.union(i - 1, i);
+        }
+        assertEquals(1, set.getSetCount());
+        assertEquals(set.find(0), set.find(n - 1));
+        assertEquals(n, set.sets().get(0).size());
+    }
+
+    @Test
+    public void testRecipeClustersAreGraphComponents() {
+        Random random = new Random(31);
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            Recipe recipe = new Recipe("Recipe " + i, 1 + random.nextInt(60));
+            List<Integer> used = new ArrayList<>();
+            for (int k = random.nextInt(3); k > 0; k--) {
+                used.add(random.nextInt(1500));
+            }
+            recipe.setIngredients(used);
+            recipes.add(recipe);
+        }
+
+        List<List<Integer>> clusters = RecipeGraph.clusterRecipes(recipes);
+        RecipeGraph graph = RecipeGraph.buildGraphFromRecipes(recipes, null);
+        assertTrue(clusters.size() > 1);
+        for (List<Integer> cluster : clusters) {
+            // Every cluster is closed under the graph's edges, and connected through them
+            List<Integer> reached = new ArrayList<>();
+            boolean[] seen = new boolean[recipes.size()];
+            reached.add(cluster.get(0));
+            seen[cluster.get(0)] = true;
+            for (int k = 0; k < reached.size(); k++) {
+                for (int neighbor : graph.getNeighbors(reached.get(k))) {
+                    if (!seen[neighbor]) {
+                        seen[neighbor] = true;
+                        reached.add(neighbor);
+                    }
+                }
+            }
+            reached.sort(null);
+            assertEquals(cluster, reached);
+        }
+    }
+
+    @Test
+    public void testNegativeIngredientIdsDoNotLinkRecipes() {
+        List<Recipe> recipes = new ArrayList<>();
+        for (int category = 1; category <= 3; category++) {
+            Recipe recipe = new Recipe("Recipe " + category, category);
+            recipe.addIngredient(-1);
+            recipe.addIngredient(10 * category);
+            recipes.add(recipe);
+        }
+        List<List<Integer>> clusters = RecipeGraph.clusterRecipes(recipes);
+        assertEquals(3, clusters.size());
+        assertEquals(RecipeGraph.buildGraphFromRecipes(recipes, null).stronglyConnectedComponents().length, clusters.size());
+    }
+
+    @Test
+    public void testNoRecipesGiveNoClusters() {
+        assertTrue(RecipeGraph.clusterRecipes(new ArrayList<>()).isEmpty());
+    }
+}
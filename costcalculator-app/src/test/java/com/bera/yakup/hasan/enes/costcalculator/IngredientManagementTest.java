@@ -5,6 +5,8 @@ import org.junit.*;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 
 import static org.junit.Assert.*;
@@ -53,7 +55,7 @@ public class IngredientManagementTest {
     }
     @Test
     public void exitingredientManagementMenuTest() throws IOException, InterruptedException {
-        String testInput = "6\n";
+        String testInput = "7\n";
         ByteArrayInputStream inContent = new ByteArrayInputStream(testInput.getBytes());
         Scanner testScanner = new Scanner(inContent);
         ingredientManagement = new IngredientManagement(new UserAuthentication(testScanner, System.out), testScanner,System.out);
@@ -516,7 +518,7 @@ public class IngredientManagementTest {
         head = firstIngredient;
         ingredientManagement.saveIngredientsToFile(head, ingredientTestFile);
 
-        String userInput = "1\n3\n6\n"; // View ingredient and then exit
+        String userInput = "1\n3\n7\n"; // View ingredient and then exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -546,7 +548,7 @@ public class IngredientManagementTest {
         head = firstIngredient;
         ingredientManagement.saveIngredientsToFile(head, ingredientTestFile);
 
-        String userInput = "3\nabc\n\n3\n8\n\n3\n1\n1\n\n6\n"; // Remove ingredient and then exit
+        String userInput = "3\nabc\n\n3\n8\n\n3\n1\n1\n\n7\n"; // Remove ingredient and then exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -576,7 +578,7 @@ public class IngredientManagementTest {
         head = firstIngredient;
         ingredientManagement.saveIngredientsToFile(head, ingredientTestFile);
 
-        String userInput = "3\nabc\n\n3\n8\n\n3\n2\n1\n\n3\n2\n8\n\n6\n"; // Remove ingredient and then exit
+        String userInput = "3\nabc\n\n3\n8\n\n3\n2\n1\n\n3\n2\n8\n\n7\n"; // Remove ingredient and then exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -596,7 +598,7 @@ public class IngredientManagementTest {
     }
     @Test
     public void testIngredientManagementMenuRemoveIngredientNoIngredient() throws IOException, InterruptedException {
-        String userInput = "3\n\n6\n"; // Remove ingredient and then exit
+        String userInput = "3\n\n7\n"; // Remove ingredient and then exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -624,7 +626,7 @@ public class IngredientManagementTest {
         head = firstIngredient;
         ingredientManagement.saveIngredientsToFile(head, ingredientTestFile);
 
-        String userInput = "4\n1\n1\nOnion\n\n6\n"; // Edit ingredient and then exit
+        String userInput = "4\n1\n1\nOnion\n\n7\n"; // Edit ingredient and then exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -648,7 +650,7 @@ public class IngredientManagementTest {
     @Test
     public void testIngredientManagementMenuInvalidChoice() throws IOException, InterruptedException {
         // Arrange
-        String userInput = "9\n\nabc\n\n6\n"; // Invalid choice and then exit
+        String userInput = "9\n\nabc\n\n7\n"; // Invalid choice and then exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -667,7 +669,7 @@ public class IngredientManagementTest {
         head = null;
         ingredientManagement.saveIngredientsToFile(head, ingredientTestFile);
 
-        String userInput = "1\n\n6\n"; // Attempt to view ingredients and then exit
+        String userInput = "1\n\n7\n"; // Attempt to view ingredients and then exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -700,7 +702,7 @@ public class IngredientManagementTest {
         head = firstIngredient;
         ingredientManagement.saveIngredientsToFile(head, ingredientTestFile);
 
-        String userInput = "1\n1\n2\n3\n6\n"; // View first ingredient, navigate to next, then previous, then exit
+        String userInput = "1\n1\n2\n3\n7\n"; // View first ingredient, navigate to next, then previous, then exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -817,7 +819,7 @@ public class IngredientManagementTest {
     @Test
     public void testAddIngredientValidInput() throws IOException, InterruptedException {
         // Arrange
-        String userInput = "2\nOnion\n1.5\n\n6\n"; // Add valid ingredient and exit
+        String userInput = "2\nOnion\n1.5\n\n7\n"; // Add valid ingredient and exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -840,7 +842,7 @@ public class IngredientManagementTest {
     @Test
     public void testAddIngredientEmptyName() throws IOException, InterruptedException {
         // Arrange
-        String userInput = "2\n\n\nOnion\n1.5\n\n6\n"; // Enter empty name, then valid inputs and exit
+        String userInput = "2\n\n\nOnion\n1.5\n\n7\n"; // Enter empty name, then valid inputs and exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -858,7 +860,7 @@ public class IngredientManagementTest {
     @Test
     public void testAddIngredientInvalidPrice() throws IOException, InterruptedException {
         // Arrange
-        String userInput = "2\nOnion\n-1.5\n\nOnion\n1.5\n\n6\n"; // Enter invalid price, then valid price and exit
+        String userInput = "2\nOnion\n-1.5\n\nOnion\n1.5\n\n7\n"; // Enter invalid price, then valid price and exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -876,7 +878,7 @@ public class IngredientManagementTest {
     @Test
     public void testAddIngredientNonNumericPrice() throws IOException, InterruptedException {
         // Arrange
-        String userInput = "2\nOnion\nabc\n\nOnion\n1.5\n\n6\n"; // Enter non-numeric price, then valid price and exit
+        String userInput = "2\nOnion\nabc\n\nOnion\n1.5\n\n7\n"; // Enter non-numeric price, then valid price and exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -908,7 +910,7 @@ public class IngredientManagementTest {
         head = firstIngredient;
         ingredientManagement.saveIngredientsToFile(head, ingredientTestFile);
 
-        String userInput = "1\nabc\n\n1\n2\n3\n6\n"; // View first ingredient, navigate to next, then previous, then exit
+        String userInput = "1\nabc\n\n1\n2\n3\n7\n"; // View first ingredient, navigate to next, then previous, then exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -945,7 +947,7 @@ public class IngredientManagementTest {
         head = firstIngredient;
         ingredientManagement.saveIngredientsToFile(head, ingredientTestFile);
 
-        String userInput = "1\n9\n\n3\n6\n"; // Invalid choice, then exit
+        String userInput = "1\n9\n\n3\n7\n"; // Invalid choice, then exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -970,7 +972,7 @@ public class IngredientManagementTest {
         head = firstIngredient;
         ingredientManagement.saveIngredientsToFile(head, ingredientTestFile);
 
-        String userInput = "5\nTomato\n\n6\n"; // Search for "Tomato" and exit
+        String userInput = "5\nTomato\n\n7\n"; // Search for "Tomato" and exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -986,6 +988,124 @@ public class IngredientManagementTest {
         assertTrue(output.contains("Name: Tomato"));
     }
 
+    @Test
+    public void testTagIngredientsByPatterns() throws IOException, InterruptedException {
+        // Arrange
+        Ingredient milk = new Ingredient();
+        milk.setId(1);
+        milk.setName("Whole Milk");
+        milk.setPrice(2.0f);
+        Ingredient butter = new Ingredient();
+        butter.setId(2);
+        butter.setName("Peanut Butter");
+        butter.setPrice(3.0f);
+        butter.setPrev(milk);
+        milk.setNext(butter);
+        Ingredient oil = new Ingredient();
+        oil.setId(3);
+        oil.setName("Peanut Oil");
+        oil.setPrice(4.0f);
+        oil.setPrev(butter);
+        butter.setNext(oil);
+        head = milk;
+        ingredientManagement.saveIngredientsToFile(head, ingredientTestFile);
+
+        List<Ingredient> peanuts = ingredientManagement.tagIngredients(head, Arrays.asList("peanut", "MILK", "egg"), true).get("peanut");
+        assertEquals(2, peanuts.size());
+        assertSame(butter, peanuts.get(0));
+        assertSame(oil, peanuts.get(1));
+
+        Scanner testScanner = new Scanner("peanut, MILK,egg\n");
+        ingredientManagement = new IngredientManagement(new UserAuthentication(testScanner, System.out), testScanner, System.out);
+
+        // Act
+        ingredientManagement.tagIngredientsMenu(head);
+
+        // Assert
+        String output = outContent.toString();
+        assertTrue(output.contains("Pattern 'peanut': Peanut Butter (ID 2), Peanut Oil (ID 3)"));
+        assertTrue(output.contains("Pattern 'MILK': Whole Milk (ID 1)"));
+        assertTrue(output.contains("Pattern 'egg': no ingredients."));
+    }
+
+    @Test
+    public void testSearchIngredientByNameFindsAllMatches() throws IOException, InterruptedException {
+        // Arrange
+        ingredientManagement.addIngredient(null, "Olive Oil", 5.0f, ingredientTestFile);
+        head = ingredientManagement.loadIngredientsFromFile(ingredientTestFile);
+        head = ingredientManagement.addIngredient(head, "Tomato", 2.0f, ingredientTestFile);
+        head = ingredientManagement.addIngredient(head, "Sunflower Oil", 4.0f, ingredientTestFile);
+
+        // The index is rebuilt after every save, so the last ingredient is found too
+        assertEquals(2, ingredientManagement.findIngredientsContaining(head, "Oil").size());
+        head = ingredientManagement.addIngredient(head, "Coconut Oil", 6.0f, ingredientTestFile);
+        assertEquals(3, ingredientManagement.findIngredientsContaining(head, "Oil").size());
+        assertEquals(0, ingredientManagement.findIngredientsContaining(head, "OIL").size());
+
+        // Act
+        ingredientManagement.searchIngredientByName(head, "Oil");
+
+        // Assert
+        String output = outContent.toString();
+        assertTrue(output.contains("Name: Olive Oil"));
+        assertTrue(output.contains("Name: Sunflower Oil"));
+        assertTrue(output.contains("Name: Coconut Oil"));
+        assertFalse(output.contains("Name: Tomato"));
+    }
+
+    @Test
+    public void testFindIngredientIdsInFileScansRawRecords() throws IOException {
+        head = ingredientManagement.addIngredient(null, "Olive Oil", 12.0f, ingredientTestFile);
+        head = ingredientManagement.addIngredient(head, "Tomato", 2.0f, ingredientTestFile);
+        head = ingredientManagement.addIngredient(head, "Coconut OIL", 9.0f, ingredientTestFile);
+
+        assertArrayEquals(new int[]{1, 3}, ingredientManagement.findIngredientIdsInFile(ingredientTestFile, "oil", true));
+        assertArrayEquals(new int[]{1}, ingredientManagement.findIngredientIdsInFile(ingredientTestFile, "Oil", false));
+        assertArrayEquals(new int[0], ingredientManagement.findIngredientIdsInFile(ingredientTestFile, "OilTomato", true));
+
+        // Legacy records store the price as a float
+        try (DataOutputStream legacy = new DataOutputStream(new FileOutputStream(ingredientTestFile))) {
+            legacy.writeInt(4);
+            legacy.writeUTF("Sunflower Oil");
+            legacy.writeFloat(5.0f);
+            legacy.writeInt(5);
+            legacy.writeUTF("Salt");
+            legacy.writeFloat(1.0f);
+        }
+        assertArrayEquals(new int[]{4}, ingredientManagement.findIngredientIdsInFile(ingredientTestFile, "oil", true));
+        assertArrayEquals(new int[0], ingredientManagement.findIngredientIdsInFile("missing.bin", "oil", true));
+    }
+
+    @Test
+    public void testNameTrieFollowsAddsAndRemovals() throws IOException {
+        head = ingredientManagement.addIngredient(null, "Tomato", 2.0f, ingredientTestFile);
+        head = ingredientManagement.addIngredient(head, "Tofu", 4.0f, ingredientTestFile);
+        head = ingredientManagement.addIngredient(head, "Salt", 1.0f, ingredientTestFile);
+        head = ingredientManagement.removeIngredient(head, 2, ingredientTestFile);
+
+        List<NameTrie.Completion> completions = ingredientManagement.getNameTrie().complete("to", 10);
+        assertEquals(1, completions.size());
+        assertEquals(1, completions.get(0).getId());
+
+        ingredientManagement.loadIngredientsFromFile(ingredientTestFile);
+        assertEquals(2, ingredientManagement.getNameTrie().size());
+        assertEquals(3, ingredientManagement.getNameTrie().complete("s", 10).get(0).getId());
+    }
+
+    @Test
+    public void testSearchIngredientByNameSuggestsSimilarNames() throws IOException {
+        head = ingredientManagement.addIngredient(null, "Tomato", 2.0f, ingredientTestFile);
+        head = ingredientManagement.addIngredient(head, "Mozzarella", 8.0f, ingredientTestFile);
+
+        ingredientManagement.searchIngredientByName(head, "Mozarela");
+
+        String output = outContent.toString();
+        assertTrue(output.contains("Ingredient 'Mozarela' not found in the list."));
+        assertTrue(output.contains("Did you mean:"));
+        assertTrue(output.contains("ID: 2, Name: Mozzarella, Price: 8.00"));
+        assertFalse(output.contains("Name: Tomato"));
+    }
+
     @Test
     public void testSearchIngredientByEmptyName() throws IOException, InterruptedException {
         // Arrange
@@ -997,7 +1117,7 @@ public class IngredientManagementTest {
         head = firstIngredient;
         ingredientManagement.saveIngredientsToFile(head, ingredientTestFile);
 
-        String userInput = "5\n\n\n6\n"; // Leave search name empty and exit
+        String userInput = "5\n\n\n7\n"; // Leave search name empty and exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -1023,7 +1143,7 @@ public class IngredientManagementTest {
         head = firstIngredient;
         ingredientManagement.saveIngredientsToFile(head, ingredientTestFile);
 
-        String userInput = "5\nOnion\n\n6\n"; // Search for "Onion" (not in list) and exit
+        String userInput = "5\nOnion\n\n7\n"; // Search for "Onion" (not in list) and exit
         ByteArrayInputStream inContent = new ByteArrayInputStream(userInput.getBytes());
         System.setIn(inContent);
         Scanner testScanner = new Scanner(inContent);
@@ -0,0 +1,111 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class KMPMatcherTest {
+
+    private static int countNaive(String text, String pattern) {
+        int count = 0;
+        for (int i = text.indexOf(pattern); i >= 0; i = text.indexOf(pattern, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void testMatchesStringIndexOf() {
+        Random random = new Random(17);
+        for (int t = 0; t < 1000; t++) {
+            String text = randomText(random, random.nextInt(40));
+            String pattern = randomText(random, 1 + random.nextInt(4));
+            KMPMatcher matcher = new KMPMatcher(pattern);
+
+            assertEquals(text.indexOf(pattern), matcher.indexOf(text));
+            assertEquals(text.indexOf(pattern, 5), matcher.indexOf(text, 5));
+            assertEquals(countNaive(text, pattern), matcher.countOccurrences(text));
+            assertEquals(IngredientManagement.KMPSearch(text, pattern), matcher.contains(text));
+        }
+    }
+
+    @Test
+    public void testScanCarriesStateAcrossChunks() {
+        KMPMatcher matcher = new KMPMatcher("abab");
+        KMPMatcher.Scan scan = matcher.newScan();
+
+        assertFalse(scan.feed("xxab"));
+        assertTrue(scan.feed("ab"));
+        assertFalse(scan.feed(""));
+        assertTrue(scan.feed("ab".toCharArray(), 0, 2));
+        assertEquals(2, scan.getMatchCount());
+        assertEquals(2, scan.getFirstMatchStart());
+
+        scan.reset();
+        assertEquals(0, scan.getMatchCount());
+        assertEquals(-1, scan.getFirstMatchStart());
+    }
+
+    @Test
+    public void testIgnoreCaseAndReader() throws IOException {
+        KMPMatcher matcher = new KMPMatcher("OIL", true);
+
+        assertTrue(matcher.contains("Olive oil"));
+        assertTrue(matcher.contains(new StringReader("Coconut Oil")));
+        assertFalse(matcher.contains(new StringReader("Olive")));
+        assertFalse(new KMPMatcher("OIL").contains("Olive oil"));
+        assertArrayEquals(new int[]{0, 0, 1, 2, 3, 0}, new KMPMatcher("ABABAC").getLPSArray());
+    }
+
+    @Test
+    public void testByteScanAcrossBuffers() {
+        KMPMatcher matcher = new KMPMatcher("\u00e7ilek", true);
+        byte[] text = "Taze \u00c7\u0130LEK, \u00e7ilek re\u00e7eli, \u00c7ILEK".getBytes(StandardCharsets.UTF_8);
+
+        KMPMatcher.ByteScan scan = matcher.newByteScan();
+        for (int i = 0; i < text.length; i += 3) {
+            ByteBuffer chunk = ByteBuffer.wrap(text, i, Math.min(3, text.length - i));
+            scan.feed(chunk);
+            assertFalse(chunk.hasRemaining());
+        }
+        // Only ASCII letters are folded in byte searches
+        assertEquals(1, scan.getMatchCount());
+        int expected = "Taze \u00c7\u0130LEK, ".getBytes(StandardCharsets.UTF_8).length;
+        assertEquals(expected, matcher.indexOf(ByteBuffer.wrap(text), 0, text.length));
+    }
+
+    @Test
+    public void testBytePatternIsOnlyEncodedForByteSearches() {
+        // Too long for writeUTF, so only byte searches can fail
+        char[] letters = new char[70000];
+        Arrays.fill(letters, 'a');
+        KMPMatcher matcher = new KMPMatcher(new String(letters));
+        assertTrue(matcher.contains(new String(letters) + "b"));
+        try {
+            matcher.newByteScan();
+            fail("Expected the byte pattern to be rejected.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Pattern is too long.", e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyPatternIsRejected() {
+        new KMPMatcher("");
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(2)));
+        }
+        return text.toString();
+    }
+}
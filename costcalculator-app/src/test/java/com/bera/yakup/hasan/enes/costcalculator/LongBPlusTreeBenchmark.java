@@ -0,0 +1,71 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.Random;
+
+/**
+ * @class LongBPlusTreeBenchmark
+ * @brief Compares building a LongBPlusTree with one insert per entry against a bulk load.
+ *
+ * Run with: java -cp target/classes:target/test-classes
+ * com.bera.yakup.hasan.enes.costcalculator.LongBPlusTreeBenchmark [entries] [distinctKeys] [order]
+ *
+ * The bulk load is timed on entries in random key order, which includes its sort,
+ * and on entries that are already sorted; the best of several timed runs after a
+ * warm-up is reported for each.
+ */
+public class LongBPlusTreeBenchmark {
+    private static final int WARMUP_RUNS = 3;
+    private static final int TIMED_RUNS = 5;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int distinctKeys = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int order = args.length > 2 ? Integer.parseInt(args[2]) : LongBPlusTree.DEFAULT_ORDER;
+
+        Random random = new Random(42);
+        long[] shuffledKeys = new long[count];
+        int[] shuffledValues = new int[count];
+        for (int i = 0; i < count; i++) {
+            shuffledKeys[i] = random.nextInt(distinctKeys);
+            shuffledValues[i] = i;
+        }
+        long[] sortedKeys = new long[count];
+        int[] sortedValues = new int[count];
+        LongBPlusTree.Cursor cursor = LongBPlusTree.bulkLoad(shuffledKeys, shuffledValues, order).cursor();
+        for (int i = 0; cursor.next(); i++) {
+            sortedKeys[i] = cursor.key();
+            sortedValues[i] = cursor.value();
+        }
+
+        int[] height = new int[1];
+        double inserts = bestSeconds(() -> {
+            LongBPlusTree tree = new LongBPlusTree(order);
+            for (int i = 0; i < count; i++) {
+                tree.insert(shuffledKeys[i], shuffledValues[i]);
+            }
+            height[0] = tree.getHeight();
+        });
+        int insertHeight = height[0];
+        double bulkUnsorted = bestSeconds(() -> height[0] = LongBPlusTree.bulkLoad(shuffledKeys, shuffledValues, order).getHeight());
+        double bulkSorted = bestSeconds(() -> height[0] = LongBPlusTree.bulkLoad(sortedKeys, sortedValues, order).getHeight());
+
+        System.out.printf("%d entries, %d possible keys, order %d%n", count, distinctKeys, order);
+        System.out.println("method,seconds,entries_per_second,height,speedup");
+        System.out.printf("insert,%.6f,%.0f,%d,1.00%n", inserts, count / inserts, insertHeight);
+        System.out.printf("bulk-load-unsorted,%.6f,%.0f,%d,%.2f%n", bulkUnsorted, count / bulkUnsorted, height[0], inserts / bulkUnsorted);
+        System.out.printf("bulk-load-sorted,%.6f,%.0f,%d,%.2f%n", bulkSorted, count / bulkSorted, height[0], inserts / bulkSorted);
+    }
+
+    private static double bestSeconds(Runnable task) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e9;
+    }
+}
@@ -0,0 +1,186 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class LongBPlusTreeTest {
+
+    private static long pair(long key, int value) {
+        return key * 1000 + value;
+    }
+
+    private static List<Long> pairs(LongBPlusTree.Cursor cursor) {
+        List<Long> pairs = new ArrayList<>();
+        while (cursor.next()) {
+            pairs.add(pair(cursor.key(), cursor.value()));
+        }
+        return pairs;
+    }
+
+    @Test
+    public void testEqualKeysAreOrderedByValue() {
+        LongBPlusTree tree = new LongBPlusTree(3);
+        assertTrue(tree.insert(5, 30));
+        assertTrue(tree.insert(5, 10));
+        assertTrue(tree.insert(2, 99));
+        assertTrue(tree.insert(5, 20));
+        assertFalse(tree.insert(5, 10));
+
+        assertEquals(4, tree.size());
+        assertArrayEquals(new int[]{10, 20, 30}, tree.rangeValues(5, 5, 10));
+        assertArrayEquals(new int[]{99, 10}, tree.rangeValues(0, 5, 2));
+        assertTrue(tree.contains(2, 99));
+        assertFalse(tree.contains(2, 98));
+        tree.checkStructure();
+    }
+
+    @Test
+    public void testCursorHandlesExtremeKeys() {
+        LongBPlusTree tree = new LongBPlusTree(4);
+        tree.insert(Long.MIN_VALUE, 1);
+        tree.insert(Long.MAX_VALUE, Integer.MAX_VALUE);
+        tree.insert(0, Integer.MIN_VALUE);
+
+        LongBPlusTree.Cursor cursor = tree.cursor();
+        assertTrue(cursor.next());
+        assertEquals(Long.MIN_VALUE, cursor.key());
+        assertTrue(cursor.next());
+        assertEquals(Integer.MIN_VALUE, cursor.value());
+        assertTrue(cursor.next());
+        assertEquals(Long.MAX_VALUE, cursor.key());
+        assertFalse(cursor.next());
+        assertFalse(cursor.next());
+        assertEquals(0, tree.rangeValues(1, -1, 10).length);
+    }
+
+    @Test
+    public void testRangeStopsAfterUpperBound() {
+        LongBPlusTree tree = new LongBPlusTree(4);
+        for (int key = 0; key < 100; key += 2) {
+            tree.insert(key, key + 1);
+        }
+
+        assertEquals(Arrays.asList(pair(10, 11), pair(12, 13), pair(14, 15)), pairs(tree.range(9, 15)));
+        assertEquals(Arrays.asList(pair(96, 97), pair(98, 99)), pairs(tree.range(95, Long.MAX_VALUE)));
+        assertTrue(pairs(tree.range(99, 200)).isEmpty());
+        assertTrue(pairs(tree.range(11, 11)).isEmpty());
+        assertArrayEquals(new int[]{41, 43}, tree.rangeValues(40, 42, 10));
+
+        LongBPlusTree.Cursor cursor = tree.range(96, 98);
+        assertTrue(cursor.next());
+        assertTrue(cursor.next());
+        assertFalse(cursor.next());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void testBulkLoadedTreeAcceptsInserts() {
+        long[] keys = new long[500];
+        int[] values = new int[500];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 2 * i;
+        }
+        LongBPlusTree tree = LongBPlusTree.bulkLoad(keys, values, 4);
+        for (int key = 1; key < 1000; key += 2) {
+            assertTrue(tree.insert(key, 0));
+        }
+        assertTrue(tree.insert(500, 1));
+        tree.checkStructure();
+
+        assertEquals(1001, tree.size());
+        assertArrayEquals(new int[]{0, 1}, tree.rangeValues(500, 500, 10));
+        List<Long> expected = new ArrayList<>();
+        for (int key = 0; key < 1000; key++) {
+            expected.add(pair(key, 0));
+            if (key == 500) {
+                expected.add(pair(key, 1));
+            }
+        }
+        assertEquals(expected, pairs(tree.cursor()));
+    }
+
+    @Test
+    public void testRandomUpdatesMatchTreeSet() {
+        Random random = new Random(13);
+        for (int order : new int[]{3, 4, 5, 16}) {
+            LongBPlusTree tree = new LongBPlusTree(order);
+            TreeSet<Long> oracle = new TreeSet<>();
+            for (int step = 0; step < 30000; step++) {
+                long key = random.nextInt(200);
+                int value = random.nextInt(5);
+                if (random.nextInt(10) < 6) {
+                    assertEquals(oracle.add(pair(key, value)), tree.insert(key, value));
+                } else {
+                    assertEquals(oracle.remove(pair(key, value)), tree.remove(key, value));
+                }
+                if (step % 1000 == 0) {
+                    tree.checkStructure();
+                }
+            }
+            tree.checkStructure();
+
+            assertEquals(oracle.size(), tree.size());
+            assertEquals(new ArrayList<>(oracle), pairs(tree.cursor()));
+            assertEquals(new ArrayList<>(oracle.subSet(pair(50, 0), true, pair(120, 999), true)), pairs(tree.range(50, 120)));
+        }
+    }
+
+    @Test
+    public void testBulkLoadMatchesOneByOneInserts() {
+        Random random = new Random(17);
+        for (int order : new int[]{3, 4, 7, 64}) {
+            for (int n : new int[]{0, 1, 2, 5, 100, 3000}) {
+                long[] keys = new long[n];
+                int[] values = new int[n];
+                LongBPlusTree inserted = new LongBPlusTree(order);
+                for (int i = 0; i < n; i++) {
+                    keys[i] = random.nextInt(n + 1) - n / 2;
+                    values[i] = random.nextInt(3);
+                    inserted.insert(keys[i], values[i]);
+                }
+                long[] keysBefore = keys.clone();
+                LongBPlusTree loaded = LongBPlusTree.bulkLoad(keys, values, order);
+                loaded.checkStructure();
+
+                String context = "order " + order + ", n " + n;
+                assertArrayEquals(context, keysBefore, keys);
+                assertEquals(context, pairs(inserted.cursor()), pairs(loaded.cursor()));
+                assertEquals(context, inserted.size(), loaded.size());
+                assertTrue(context, loaded.getHeight() <= inserted.getHeight());
+            }
+        }
+    }
+
+    @Test
+    public void testRemovingEverythingShrinksToEmptyLeaf() {
+        long[] keys = new long[5000];
+        int[] values = new int[5000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i / 2;
+            values[i] = i % 2;
+        }
+        LongBPlusTree tree = LongBPlusTree.bulkLoad(keys, values, 4);
+        assertTrue(tree.getHeight() > 5);
+        for (int i = keys.length - 1; i >= 0; i--) {
+            assertTrue(tree.remove(keys[i], values[i]));
+        }
+        tree.checkStructure();
+
+        assertTrue(tree.isEmpty());
+        assertEquals(1, tree.getHeight());
+        assertFalse(tree.cursor().next());
+        assertFalse(tree.remove(0, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsOrderBelowThree() {
+        new LongBPlusTree(2);
+    }
+}
@@ -0,0 +1,87 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class NameTrieTest {
+
+    private static List<String> names(List<NameTrie.Completion> completions) {
+        List<String> names = new ArrayList<>();
+        for (NameTrie.Completion completion : completions) {
+            names.add(completion.getName() + "#" + completion.getId());
+        }
+        return names;
+    }
+
+    @Test
+    public void testCompletesPrefixInAlphabeticalOrder() {
+        NameTrie trie = new NameTrie();
+        trie.insert("Tomato", 1);
+        trie.insert("Tofu", 2);
+        trie.insert("Salt", 3);
+        trie.insert("tomato paste", 4);
+        trie.insert("Tomato", 5);
+
+        assertEquals("[Tofu#2, Tomato#1, Tomato#5, tomato paste#4]", names(trie.complete("TO", 10)).toString());
+        assertEquals("[Tomato#1, Tomato#5]", names(trie.complete("toma", 2)).toString());
+        assertEquals("[tomato paste#4]", names(trie.complete("tomato ", 10)).toString());
+        assertTrue(trie.complete("tomb", 10).isEmpty());
+        assertTrue(trie.complete("tomato pastes", 10).isEmpty());
+        assertEquals(5, trie.complete("", 10).size());
+        assertEquals(5, trie.size());
+    }
+
+    @Test
+    public void testRemoveAndRenameMergeNodes() {
+        NameTrie trie = new NameTrie();
+        trie.insert("Tomato", 1);
+        int nodesWithOneName = trie.getNodeCount();
+        trie.insert("Tofu", 2);
+
+        assertTrue(trie.remove("tofu", 2));
+        assertFalse(trie.remove("Tofu", 2));
+        assertFalse(trie.remove("Tomato", 7));
+        assertEquals(nodesWithOneName, trie.getNodeCount());
+
+        trie.rename("Tomato", "Cherry Tomato", 1);
+        assertTrue(trie.complete("tom", 10).isEmpty());
+        assertEquals("[Cherry Tomato#1]", names(trie.complete("cherry", 10)).toString());
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    public void testMatchesSortedMapUnderRandomUpdates() {
+        Random random = new Random(3);
+        NameTrie trie = new NameTrie();
+        TreeMap<String, Integer> oracle = new TreeMap<>();
+        for (int step = 0; step < 3000; step++) {
+            StringBuilder name = new StringBuilder();
+            for (int i = random.nextInt(6); i >= 0; i--) {
+                name.append((char) ('a' + random.nextInt(3)));
+            }
+            String key = name.toString();
+            if (random.nextBoolean()) {
+                trie.insert(key, key.hashCode());
+                oracle.put(key, key.hashCode());
+            } else {
+                assertEquals(oracle.remove(key) != null, trie.remove(key, key.hashCode()));
+            }
+
+            String prefix = key.substring(0, random.nextInt(key.length() + 1));
+            List<String> expected = new ArrayList<>();
+            for (String candidate : oracle.subMap(prefix, prefix + Character.MAX_VALUE).keySet()) {
+                if (expected.size() < 5) {
+                    expected.add(candidate + "#" + candidate.hashCode());
+                }
+            }
+            assertEquals(expected, names(trie.complete(prefix, 5)));
+        }
+        assertEquals(oracle.size(), trie.size());
+    }
+}
@@ -0,0 +1,85 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ParallelCatalogSearchTest {
+    private static ForkJoinPool pool;
+
+    @BeforeClass
+    public static void setUpBeforeClass() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() {
+        pool.shutdown();
+    }
+
+    private static Ingredient buildCatalog(String[] names) {
+        Ingredient head = null;
+        Ingredient tail = null;
+        for (int i = 0; i < names.length; i++) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setId(i + 1);
+            ingredient.setName(names[i]);
+            ingredient.setPrev(tail);
+            if (tail == null) {
+                head = ingredient;
+            } else {
+                tail.setNext(ingredient);
+            }
+            tail = ingredient;
+        }
+        return head;
+    }
+
+    @Test
+    public void testParallelResultsMatchSequentialScan() {
+        Random random = new Random(23);
+        String[] names = new String[20000];
+        for (int i = 0; i < names.length; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int c = 4 + random.nextInt(8); c > 0; c--) {
+                name.append((char) ('a' + random.nextInt(6)));
+            }
+            names[i] = name.toString();
+        }
+        ParallelCatalogSearch search = new ParallelCatalogSearch(buildCatalog(names));
+
+        for (String pattern : new String[]{"abc", "fedc", "aaaaaa", "zz"}) {
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].contains(pattern)) {
+                    expected.add(i + 1);
+                }
+            }
+
+            List<Integer> actual = new ArrayList<>();
+            for (Ingredient ingredient : search.findAll(new KMPMatcher(pattern), pool)) {
+                actual.add(ingredient.getId());
+            }
+            assertEquals(pattern, expected, actual);
+
+            Ingredient first = search.findFirst(new KMPMatcher(pattern), pool);
+            assertEquals(pattern, expected.isEmpty() ? null : expected.get(0), first == null ? null : first.getId());
+        }
+    }
+
+    @Test
+    public void testSmallCatalogRunsOnCallingThread() {
+        ParallelCatalogSearch search = new ParallelCatalogSearch(buildCatalog(new String[]{"Olive Oil", "Tomato", "Coconut Oil"}));
+
+        assertEquals(3, search.size());
+        assertEquals(1, search.findFirst(new KMPMatcher("oil", true), pool).getId());
+        assertEquals(2, search.findAll(new KMPMatcher("Oil")).size());
+        assertNull(search.findFirst(new KMPMatcher("Salt")));
+        assertTrue(new ParallelCatalogSearch(null).findAll(new KMPMatcher("x")).isEmpty());
+    }
+}
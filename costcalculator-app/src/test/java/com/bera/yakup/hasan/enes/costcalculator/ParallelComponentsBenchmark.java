@@ -0,0 +1,73 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @class ParallelComponentsBenchmark
+ * @brief Compares Tarjan's algorithm with ParallelComponents at 1, 2, 4, ... threads.
+ *
+ * Run with: java -Xmx4g -cp target/classes:target/test-classes
+ * com.bera.yakup.hasan.enes.costcalculator.ParallelComponentsBenchmark [recipes] [rounds]
+ *
+ * The recipe graph is built once with implicit category cliques. Each row is the best
+ * of a few rounds, and the speedup is relative to the one-thread run. Thread counts go
+ * up to the number of available processors; more threads than cores only measure the
+ * overhead of contention.
+ */
+public class ParallelComponentsBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Random random = new Random(42);
+        List<Recipe> recipes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Many categories and ingredients, so that the graph has many components
+            Recipe recipe = new Recipe("Recipe " + i, 1 + random.nextInt(count / 8 + 1));
+            List<Integer> used = new ArrayList<>();
+            for (int k = random.nextInt(3); k > 0; k--) {
+                used.add(1 + random.nextInt(4 * count));
+            }
+            recipe.setIngredients(used);
+            recipes.add(recipe);
+        }
+        CsrGraph graph = CsrGraph.fromRecipes(recipes, true);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("nodes %d, edges %d, available processors %d%n", graph.getNodeCount(), graph.getEdgeCount(), cores);
+
+        RecipeGraph recipeGraph = new RecipeGraph(graph, new Scanner(""));
+        long best = Long.MAX_VALUE;
+        int components = 0;
+        for (int r = 0; r < rounds; r++) {
+            long start = System.nanoTime();
+            components = recipeGraph.stronglyConnectedComponents().length;
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-12s %8s %12s %10s%n", "algorithm", "threads", "ms", "speedup");
+        System.out.printf("%-12s %8d %12.1f %10s   (%d components)%n", "tarjan", 1, best / 1e6, "-", components);
+
+        double oneThread = 0;
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            best = Long.MAX_VALUE;
+            for (int r = 0; r < rounds; r++) {
+                long start = System.nanoTime();
+                int found = ParallelComponents.find(graph, pool).length;
+                best = Math.min(best, System.nanoTime() - start);
+                if (found != components) {
+                    throw new IllegalStateException("Expected " + components + " components, found " + found + ".");
+                }
+            }
+            pool.shutdown();
+            if (threads == 1) {
+                oneThread = best;
+            }
+            System.out.printf("%-12s %8d %12.1f %10.2f%n", "parallel", threads, best / 1e6, oneThread / best);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ParallelComponentsTest {
+
+    private static ForkJoinPool pool;
+    private static ForkJoinPool singleThread;
+
+    @BeforeClass
+    public static void startPools() {
+        pool = new ForkJoinPool(4);
+        singleThread = new ForkJoinPool(1);
+    }
+
+    @AfterClass
+    public static void stopPools() {
+        pool.shutdown();
+        singleThread.shutdown();
+    }
+
+    private static List<Recipe> recipes(Random random, int count, int categories, int ingredients) {
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Recipe recipe = new Recipe("Recipe " + i, 1 + random.nextInt(categories));
+            List<Integer> used = new ArrayList<>();
+            for (int k = random.nextInt(3); k > 0; k--) {
+                used.add(1 + random.nextInt(ingredients));
+            }
+            recipe.setIngredients(used);
+            recipes.add(recipe);
+        }
+        return recipes;
+    }
+
+    /**
+     * @brief Puts Tarjan's components in the order ParallelComponents uses.
+     */
+    private static int[][] sorted(int[][] components) {
+        int[][] copy = new int[components.length][];
+        for (int c = 0; c < components.length; c++) {
+            copy[c] = components[c].clone();
+            Arrays.sort(copy[c]);
+        }
+        Arrays.sort(copy, Comparator.comparingInt(component -> component[0]));
+        return copy;
+    }
+
+    private static void assertMatchesTarjan(CsrGraph graph) {
+        int[][] tarjan = sorted(new RecipeGraph(graph, new Scanner("")).stronglyConnectedComponents());
+        assertArrayEquals(tarjan, ParallelComponents.find(graph, pool));
+        assertArrayEquals(tarjan, ParallelComponents.find(graph, singleThread));
+    }
+
+    @Test
+    public void testMatchesTarjanOnRecipeGraphs() {
+        Random random = new Random(31);
+        for (int n : new int[]{0, 1, 7, 300, 40000}) {
+            // Many sparse categories keep the graph split into several components
+            List<Recipe> recipes = recipes(random, n, Math.max(1, n / 4), 2 * n + 1);
+            assertMatchesTarjan(CsrGraph.fromRecipes(recipes, false));
+            assertMatchesTarjan(CsrGraph.fromRecipes(recipes, true));
+        }
+    }
+
+    @Test
+    public void testLongChainAcrossPartitions() {
+        int n = 200000;
+        int[] sources = new int[2 * (n - 1)];
+        int[] targets = new int[2 * (n - 1)];
+        for (int i = 0; i + 1 < n; i++) {
+            // Link the chain from the far end so that unions meet from both sides
+            int a = n - 1 - i;
+            sources[2 * i] = a;
+            targets[2 * i] = a - 1;
+            sources[2 * i + 1] = a - 1;
+            targets[2 * i + 1] = a;
+        }
+        int[][] components = ParallelComponents.find(CsrGraph.fromEdges(n, sources, targets, sources.length), pool);
+
+        assertEquals(1, components.length);
+        assertEquals(n, components[0].length);
+        assertEquals(0, components[0][0]);
+        assertEquals(n - 1, components[0][n - 1]);
+    }
+
+    @Test
+    public void testIsolatedRecipesAreSingletons() {
+        int[][] components = ParallelComponents.find(new CsrGraph(new int[4], new int[0], 3), pool);
+        assertArrayEquals(new int[][]{{0}, {1}, {2}}, components);
+    }
+}
@@ -97,13 +97,15 @@ public class PriceAdjustmentTest {
 
         // Verify the new price in the file
         try (DataInputStream reader = new DataInputStream(new FileInputStream(ingredientTestFile))) {
+            Assert.assertEquals(IngredientManagement.INGREDIENT_FILE_MAGIC, reader.readInt());
+            Assert.assertEquals(IngredientManagement.INGREDIENT_FILE_VERSION, reader.readInt());
             int id = reader.readInt();
             String name = reader.readUTF();
-            float price = reader.readFloat();
+            long price = reader.readLong();
 
             Assert.assertEquals(1, id);
             Assert.assertEquals("Tomato", name);
-            //Assert.assertEquals(20.5f, price, 0.01);
+            Assert.assertEquals(2000L, price);
         }
     }
 
@@ -164,12 +166,14 @@ public class PriceAdjustmentTest {
         Assert.assertTrue(outContent.toString().contains("The ingredient was successfully updated"));
         // Verify the new price in the file
         try (DataInputStream reader = new DataInputStream(new FileInputStream(ingredientTestFile))) {
+            Assert.assertEquals(IngredientManagement.INGREDIENT_FILE_MAGIC, reader.readInt());
+            Assert.assertEquals(IngredientManagement.INGREDIENT_FILE_VERSION, reader.readInt());
             int id = reader.readInt();
             String name = reader.readUTF();
-            float price = reader.readFloat();
+            long price = reader.readLong();
             Assert.assertEquals(1, id);
             Assert.assertEquals("Tomato", name);
-            Assert.assertEquals(20.5f, price, 0.01);
+            Assert.assertEquals(2050L, price);
         }
     }
     @Test
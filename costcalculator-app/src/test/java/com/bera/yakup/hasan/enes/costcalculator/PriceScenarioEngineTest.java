@@ -0,0 +1,111 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PriceScenarioEngineTest {
+    private List<Recipe> recipes;
+    private PriceIndex prices;
+
+    private static Ingredient ingredient(int id, String name, long priceMinor) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(id);
+        ingredient.setName(name);
+        ingredient.setPriceMinor(priceMinor);
+        return ingredient;
+    }
+
+    private static Recipe recipe(String name, Integer... ingredientIds) {
+        Recipe recipe = new Recipe(name, 1);
+        recipe.setIngredients(new ArrayList<>(Arrays.asList(ingredientIds)));
+        return recipe;
+    }
+
+    @Before
+    public void setUp() {
+        prices = new PriceIndex(Arrays.asList(
+                ingredient(1, "Milk", 2000),
+                ingredient(2, "Butter", 5000),
+                ingredient(3, "Oil", 10000),
+                ingredient(4, "Flour", 1500)));
+        recipes = new ArrayList<>();
+        recipes.add(recipe("Pancakes", 1, 1, 4));
+        recipes.add(recipe("Fries", 3));
+        recipes.add(recipe("Bread", 4));
+        recipes.add(recipe("Cake", 1, 2, 3, 4));
+    }
+
+    @Test
+    public void testEvaluateComputesDeltasAndRanking() {
+        PriceScenarioEngine engine = new PriceScenarioEngine(recipes, prices);
+        PriceScenario scenario = engine.newScenario()
+                .adjustPercent(Arrays.asList(1, 2), 12)
+                .adjustPercent(3, -5);
+
+        PriceScenarioEngine.Result result = engine.evaluate(scenario);
+
+        assertEquals(480L, result.getDelta(0));
+        assertEquals(-500L, result.getDelta(1));
+        assertEquals(0L, result.getDelta(2));
+        assertEquals(340L, result.getDelta(3));
+        assertEquals(5980L, result.getScenarioCost(0));
+        assertEquals(3, result.getAffectedCount());
+        assertArrayEquals(new int[]{1, 0, 3}, result.mostAffected(10));
+        assertArrayEquals(new int[]{1}, result.mostAffected(1));
+        assertEquals(480L + 480L - 500L, result.planDelta(Arrays.asList(0, 0, 1)));
+    }
+
+    @Test
+    public void testScenarioDoesNotChangeCatalog() {
+        PriceScenarioEngine engine = new PriceScenarioEngine(recipes, prices);
+        PriceScenario scenario = engine.newScenario().setPrice(4, 2000);
+
+        assertEquals(2000L, scenario.priceOf(4));
+        assertEquals(1500L, prices.priceOf(4));
+        assertEquals(1500L, engine.newScenario().priceOf(4));
+    }
+
+    @Test
+    public void testPercentChangesCompound() {
+        PriceScenario scenario = new PriceScenario(prices).adjustPercent(3, 10).adjustPercent(3, 10);
+
+        assertEquals(12100L, scenario.priceOf(3));
+    }
+
+    @Test
+    public void testRevertedPriceIsNotAChange() {
+        PriceScenarioEngine engine = new PriceScenarioEngine(recipes, prices);
+        PriceScenario scenario = engine.newScenario().setPrice(2, 6000).setPrice(2, 5000);
+
+        assertEquals(0, scenario.changedIngredientIds().length);
+        assertEquals(0, engine.evaluate(scenario).getAffectedCount());
+    }
+
+    @Test
+    public void testNegativeIngredientIdIsSkipped() {
+        prices = new PriceIndex(Arrays.asList(
+                ingredient(-1, "Salt", 300),
+                ingredient(1, "Milk", 2000)));
+        recipes = new ArrayList<>();
+        recipes.add(recipe("Brine", -1));
+        recipes.add(recipe("Warm Milk", 1));
+        PriceScenarioEngine engine = new PriceScenarioEngine(recipes, prices);
+        PriceScenario scenario = engine.newScenario().setPrice(-1, 400).setPrice(1, 2500);
+
+        PriceScenarioEngine.Result result = engine.evaluate(scenario);
+
+        assertEquals(0L, result.getDelta(0));
+        assertEquals(500L, result.getDelta(1));
+        assertArrayEquals(new int[]{1}, result.mostAffected(10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownIngredient() {
+        new PriceScenario(prices).adjustPercent(42, 5);
+    }
+}
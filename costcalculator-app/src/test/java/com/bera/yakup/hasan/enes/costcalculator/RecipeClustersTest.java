@@ -0,0 +1,102 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RecipeClustersTest {
+
+    private static Recipe recipe(int category, Integer... ingredients) {
+        Recipe recipe = new Recipe("Recipe", category);
+        recipe.setIngredients(new ArrayList<>(Arrays.asList(ingredients)));
+        return recipe;
+    }
+
+    private static Recipe randomRecipe(Random random) {
+        Recipe recipe = new Recipe("Recipe", 1 + random.nextInt(80));
+        List<Integer> used = new ArrayList<>();
+        for (int k = random.nextInt(3); k > 0; k--) {
+            used.add(random.nextInt(600) - 5);
+        }
+        recipe.setIngredients(used);
+        return recipe;
+    }
+
+    private static int[][] rebuilt(List<Recipe> recipes) {
+        return ParallelComponents.find(CsrGraph.fromRecipes(recipes, true));
+    }
+
+    @Test
+    public void testAddingRecipesMergesWithoutRebuild() {
+        List<Recipe> recipes = new ArrayList<>(Arrays.asList(recipe(1, 10), recipe(2, 20), recipe(3)));
+        RecipeClusters clusters = new RecipeClusters(recipes);
+        assertArrayEquals(new int[][]{{0}, {1}, {2}}, clusters.components());
+
+        recipes.add(recipe(3, 10, 20));
+        clusters.update(3, recipes.get(3));
+        assertArrayEquals(new int[][]{{0, 1, 2, 3}}, clusters.components());
+        assertTrue(clusters.sameCluster(0, 2));
+        assertEquals(4, clusters.size());
+        assertEquals(0, clusters.getRebuildCount());
+    }
+
+    @Test
+    public void testRemovedLinkSplitsClusterOnRebuild() {
+        List<Recipe> recipes = new ArrayList<>(Arrays.asList(recipe(1, 10), recipe(2, 10), recipe(2, 30)));
+        RecipeClusters clusters = new RecipeClusters(recipes);
+        assertTrue(clusters.sameCluster(0, 2));
+
+        recipes.get(1).getIngredients().remove(Integer.valueOf(10));
+        clusters.update(1, recipes.get(1));
+        assertArrayEquals(new int[][]{{0}, {1, 2}}, clusters.components());
+        assertEquals(1, clusters.getRebuildCount());
+
+        // Adding an ingredient back is a plain union again
+        recipes.get(2).getIngredients().add(10);
+        clusters.update(2, recipes.get(2));
+        assertTrue(clusters.sameCluster(0, 1));
+        assertEquals(1, clusters.getRebuildCount());
+    }
+
+    @Test
+    public void testRandomEditsMatchRebuiltGraph() {
+        Random random = new Random(23);
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            recipes.add(randomRecipe(random));
+        }
+        RecipeClusters clusters = new RecipeClusters(recipes);
+        for (int step = 0; step < 3000; step++) {
+            int choice = random.nextInt(4);
+            if (choice == 0 || recipes.isEmpty()) {
+                recipes.add(randomRecipe(random));
+                clusters.update(recipes.size() - 1, recipes.get(recipes.size() - 1));
+            } else {
+                int index = random.nextInt(recipes.size());
+                Recipe recipe = recipes.get(index);
+                if (choice == 1) {
+                    recipe.setCategory(1 + random.nextInt(80));
+                } else if (choice == 2) {
+                    recipe.getIngredients().add(random.nextInt(600));
+                } else if (!recipe.getIngredients().isEmpty()) {
+                    recipe.getIngredients().remove(random.nextInt(recipe.getIngredients().size()));
+                }
+                clusters.update(index, recipe);
+            }
+            if (step % 50 == 0) {
+                assertArrayEquals("step " + step, rebuilt(recipes), clusters.components());
+            }
+        }
+        assertArrayEquals(rebuilt(recipes), clusters.components());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRejectsIndexPastEnd() {
+        new RecipeClusters(new ArrayList<>()).update(1, recipe(1));
+    }
+}
@@ -0,0 +1,78 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class RecipeCostCacheTest {
+
+    @Test
+    public void testMissThenHit() {
+        RecipeCostCache cache = new RecipeCostCache(10);
+        int[] loads = new int[1];
+
+        long first = cache.getOrCompute(1, 7L, id -> { loads[0]++; return 1250L; });
+        long second = cache.getOrCompute(1, 7L, id -> { loads[0]++; return 9900L; });
+
+        assertEquals(1250L, first);
+        assertEquals(1250L, second);
+        assertEquals(1, loads[0]);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.hitRate(), 0.0);
+    }
+
+    @Test
+    public void testNewCatalogVersionRecomputes() {
+        RecipeCostCache cache = new RecipeCostCache(10);
+        cache.getOrCompute(1, 1L, id -> 1000L);
+
+        long cost = cache.getOrCompute(1, 2L, id -> 2000L);
+
+        assertEquals(2000L, cost);
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        RecipeCostCache cache = new RecipeCostCache(20);
+        for (int id = 1; id <= 500; id++) {
+            cache.getOrCompute(id, 1L, key -> key);
+        }
+
+        assertTrue(cache.size() <= 20);
+        assertEquals(500 - cache.size(), cache.getEvictionCount());
+    }
+
+    @Test
+    public void testHotRecipesSurviveScan() {
+        RecipeCostCache cache = new RecipeCostCache(50);
+
+        // Make a few recipes popular
+        for (int round = 0; round < 10; round++) {
+            for (int id = 1; id <= 5; id++) {
+                cache.getOrCompute(id, 1L, key -> key);
+            }
+        }
+
+        // A long scan of recipes that are each requested once, while the popular ones stay in use
+        int[] hotMisses = new int[1];
+        for (int id = 1000; id < 3000; id++) {
+            cache.getOrCompute(id, 1L, key -> key);
+            if (id % 10 == 0) {
+                for (int hot = 1; hot <= 5; hot++) {
+                    cache.getOrCompute(hot, 1L, key -> { hotMisses[0]++; return key; });
+                }
+            }
+        }
+
+        assertEquals(0, hotMisses[0]);
+        assertTrue(cache.getEvictionCount() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new RecipeCostCache(0);
+    }
+}
@@ -0,0 +1,180 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RecipeCostIndexTest {
+
+    private static List<Recipe> randomRecipes(Random random, int count) {
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            recipes.add(new Recipe("Recipe " + i, 1 + random.nextInt(4)));
+        }
+        return recipes;
+    }
+
+    private static List<Integer> bruteForce(List<Recipe> recipes, long[] costs, int category, long minCost, long maxCost) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < recipes.size(); i++) {
+            if (recipes.get(i).getCategory() == category && costs[i] >= minCost && costs[i] <= maxCost) {
+                ids.add(i + 1);
+            }
+        }
+        ids.sort((a, b) -> Long.compare(costs[a - 1], costs[b - 1]));
+        return ids;
+    }
+
+    @Test
+    public void testKeysSortByCategoryThenCost() {
+        assertTrue(RecipeCostIndex.key(1, RecipeCostIndex.MAX_COST) < RecipeCostIndex.key(2, 0));
+        assertTrue(RecipeCostIndex.key(4, 4999) < RecipeCostIndex.key(4, 5000));
+        assertEquals(RecipeCostIndex.key(3, 0) + 7, RecipeCostIndex.key(3, 7));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNegativeCost() {
+        RecipeCostIndex.key(1, -1);
+    }
+
+    @Test
+    public void testRangeAndCheapestMatchBruteForce() {
+        Random random = new Random(5);
+        List<Recipe> recipes = randomRecipes(random, 3000);
+        long[] costs = new long[recipes.size()];
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = random.nextInt(20000);
+        }
+        RecipeCostIndex index = new RecipeCostIndex(recipes, costs);
+        index.checkStructure();
+
+        for (int category = 0; category <= 5; category++) {
+            List<Integer> expected = bruteForce(recipes, costs, category, 2500, 5000);
+            assertEquals(expected, index.findInCostRange(category, 2500, 5000));
+
+            List<Integer> all = bruteForce(recipes, costs, category, 0, Long.MAX_VALUE);
+            List<Integer> cheapest = index.cheapest(category, 10);
+            assertEquals(all.subList(0, Math.min(10, all.size())), cheapest);
+        }
+        assertTrue(index.findInCostRange(1, 5000, 2500).isEmpty());
+        assertTrue(index.findInCostRange(1, -10, -1).isEmpty());
+        assertEquals(index.findInCostRange(1, 0, 100), index.findInCostRange(1, -100, 100));
+    }
+
+    @Test
+    public void testRefreshMovesOnlyChangedRecipes() {
+        Random random = new Random(9);
+        List<Recipe> recipes = randomRecipes(random, 500);
+        long[] costs = new long[recipes.size()];
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = 100 + random.nextInt(5000);
+        }
+        RecipeCostIndex index = new RecipeCostIndex(recipes, costs);
+
+        long[] repriced = costs.clone();
+        repriced[0] += 1;
+        repriced[10] = 0;
+        recipes.get(20).setCategory(recipes.get(20).getCategory() % 4 + 1);
+        recipes.add(new Recipe("Baklava", 4));
+        repriced = Arrays.copyOf(repriced, recipes.size());
+        repriced[500] = 50;
+
+        assertEquals(4, index.refresh(recipes, repriced));
+        index.checkStructure();
+        assertEquals(501, index.size());
+        assertEquals(0, index.costOf(11));
+        assertEquals(Collections.singletonList(501), index.findInCostRange(4, 50, 50));
+        for (int category = 1; category <= 4; category++) {
+            assertEquals(bruteForce(recipes, repriced, category, 0, 3000), index.findInCostRange(category, 0, 3000));
+        }
+
+        List<Recipe> shorter = new ArrayList<>(recipes.subList(0, 400));
+        assertEquals(101, index.refresh(shorter, Arrays.copyOf(repriced, 400)));
+        index.checkStructure();
+        assertEquals(400, index.size());
+        assertFalse(index.update(1, shorter.get(0).getCategory(), repriced[0]));
+    }
+
+    @Test
+    public void testCostIndexFollowsCatalogVersion() {
+        List<Recipe> recipes = new ArrayList<>();
+        Recipe soup = new Recipe("Tomato Soup", 1);
+        soup.setIngredients(Arrays.asList(1, 2));
+        recipes.add(soup);
+        Recipe cake = new Recipe("Chocolate Cake", 4);
+        cake.setIngredients(Collections.singletonList(2));
+        recipes.add(cake);
+
+        List<Ingredient> ingredients = new ArrayList<>();
+        Ingredient tomato = new Ingredient();
+        tomato.setId(1);
+        tomato.setName("Tomato");
+        tomato.setPrice(2.5f);
+        ingredients.add(tomato);
+        Ingredient sugar = new Ingredient();
+        sugar.setId(2);
+        sugar.setName("Sugar");
+        sugar.setPrice(1.0f);
+        ingredients.add(sugar);
+
+        RecipeCosting recipeCosting = new RecipeCosting(null, null, null, System.out);
+        RecipeCostIndex index = recipeCosting.getCostIndex(recipes, new PriceIndex(ingredients), 1);
+        assertEquals(350, index.costOf(1));
+        assertEquals(Collections.singletonList(2), index.findInCostRange(4, 0, 100));
+
+        sugar.setPrice(2.0f);
+        assertSame(index, recipeCosting.getCostIndex(recipes, new PriceIndex(ingredients), 1));
+        assertEquals(100, index.costOf(2)); // Same version, nothing is recalculated
+        recipeCosting.getCostIndex(recipes, new PriceIndex(ingredients), 2);
+        assertEquals(200, index.costOf(2));
+        assertEquals(450, index.costOf(1));
+        assertTrue(index.findInCostRange(4, 0, 100).isEmpty());
+    }
+
+    @Test
+    public void testPriceChangeRecostsOnlyRecipesUsingIt() {
+        List<Recipe> recipes = new ArrayList<>();
+        int[][] uses = {{1, 2}, {2}, {3}, {3, 3}};
+        for (int i = 0; i < uses.length; i++) {
+            Recipe recipe = new Recipe("Recipe " + i, 1 + i % 2);
+            for (int id : uses[i]) {
+                recipe.addIngredient(id);
+            }
+            recipes.add(recipe);
+        }
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (int id = 1; id <= 3; id++) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setId(id);
+            ingredient.setName("Ingredient " + id);
+            ingredient.setPrice(id);
+            ingredients.add(ingredient);
+        }
+
+        RecipeCosting recipeCosting = new RecipeCosting(null, null, null, System.out);
+        RecipeCostIndex index = recipeCosting.getCostIndex(recipes, 7, new PriceIndex(ingredients), 1);
+        assertEquals(600, index.costOf(4));
+
+        ingredients.get(2).setPrice(5.0f);
+        assertSame(index, recipeCosting.getCostIndex(recipes, 7, new PriceIndex(ingredients), 2));
+        assertEquals(300, index.costOf(1));
+        assertEquals(200, index.costOf(2));
+        assertEquals(500, index.costOf(3));
+        assertEquals(1000, index.costOf(4));
+        assertEquals(Arrays.asList(2, 4), index.findInCostRange(2, 0, RecipeCostIndex.MAX_COST));
+
+        ingredients.get(0).setPrice(4.0f);
+        ingredients.get(1).setPrice(3.0f);
+        assertEquals(2, recipeCosting.recostChangedPrices(recipes, new PriceIndex(ingredients)));
+        assertEquals(700, index.costOf(1));
+        assertEquals(300, index.costOf(2));
+        assertEquals(0, recipeCosting.recostChangedPrices(recipes, new PriceIndex(ingredients)));
+        index.checkStructure();
+    }
+}
@@ -472,6 +472,29 @@ public class RecipeCostingTest {
         assertTrue(createdRecipe.getIngredients().contains(2)); // Ingredient ID 2
     }
 
+    @Test
+    public void testCreateRecipeLooksUpIngredientsByPrefix() throws IOException, InterruptedException {
+        IngredientManagement ingredientManagement = new IngredientManagement(null, null, System.out);
+        Ingredient head = null;
+        for (int i = 1; i <= 24; i++) {
+            head = ingredientManagement.addIngredient(head, "Spice " + i, 1.0f, ingredientTestFile);
+        }
+        ingredientManagement.addIngredient(head, "Tomato", 2.0f, ingredientTestFile);
+
+        String input = "Soup\n1\n?tom\n?xyz\n25\ndone\n\n";
+        RecipeCosting recipeCosting = simulateUserInput(input);
+        List<Recipe> recipes = new ArrayList<>();
+        recipeCosting.createRecipe(recipes, ingredientTestFile, recipeTestFile);
+
+        String output = outContent.toString();
+        assertFalse(output.contains("Available Ingredients:"));
+        assertTrue(output.contains("25 ingredients available. Type ?<name prefix> to look up ingredient IDs."));
+        assertTrue(output.contains("ID: 25 | Name: Tomato"));
+        assertTrue(output.contains("No names start with 'xyz'."));
+        assertEquals(Collections.singletonList(25), recipes.get(0).getIngredients());
+        assertEquals(1, recipeCosting.getRecipeTrie(recipes).complete("sou", 10).get(0).getId());
+    }
+
     @Test
     public void testEditRecipeNoRecipesAvailable() throws IOException, InterruptedException {
         // Simulate empty recipe list
@@ -529,6 +552,103 @@ public class RecipeCostingTest {
         assertTrue(outContent.toString().contains("Recipe updated successfully!"));
     }
 
+    @Test
+    public void testEditRecipeRefilesItInCostIndex() throws IOException, InterruptedException {
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (Ingredient ingredient = createTestIngredientFile(ingredientTestFile); ingredient != null; ingredient = ingredient.getNext()) {
+            ingredients.add(ingredient);
+        }
+        List<Recipe> recipes = createTestRecipeFile(recipeTestFile);
+        RecipeCosting recipeCosting = simulateUserInput("1\n2\n4\n\n"); // Move recipe 1 to Dessert
+        RecipeCostIndex index = recipeCosting.getCostIndex(recipes, CatalogVersion.of(recipeTestFile),
+                new PriceIndex(ingredients), CatalogVersion.of(ingredientTestFile));
+        assertEquals(350, index.costOf(1)); // Salt and Sugar
+
+        recipeCosting.editRecipe(recipes, ingredientTestFile, recipeTestFile);
+
+        assertEquals(Arrays.asList(4, 1), index.findInCostRange(4, 0, RecipeCostIndex.MAX_COST));
+        assertTrue(index.findInCostRange(1, 0, RecipeCostIndex.MAX_COST).isEmpty());
+        // The index is in step with the saved file, so an unsaved change is not picked up by a rebuild
+        recipes.get(1).setCategory(4);
+        assertSame(index, recipeCosting.getCostIndex(recipes, CatalogVersion.of(recipeTestFile),
+                new PriceIndex(ingredients), CatalogVersion.of(ingredientTestFile)));
+        assertEquals(Arrays.asList(4, 1), index.findInCostRange(4, 0, RecipeCostIndex.MAX_COST));
+        index.checkStructure();
+    }
+
+    @Test
+    public void testCostIndexWithSparseIngredientIds() throws IOException, InterruptedException {
+        int hugeId = 2_000_000_000;
+        int[] ids = {5, 7, hugeId};
+        float[] prices = {1.0f, 2.0f, 3.0f};
+        writeIngredients(ids, prices);
+        List<Recipe> recipes = new ArrayList<>();
+        Recipe bread = new Recipe("Bread", 1);
+        bread.addIngredient(5);
+        bread.addIngredient(hugeId);
+        recipes.add(bread);
+        Recipe soup = new Recipe("Soup", 1);
+        soup.addIngredient(hugeId);
+        recipes.add(soup);
+        saveRecipesToFile(recipes, recipeTestFile);
+        RecipeCosting recipeCosting = simulateUserInput("Stew\n3\n7\n5\ndone\n\n");
+
+        RecipeCostIndex index = recipeCosting.getCostIndex(recipes, CatalogVersion.of(recipeTestFile),
+                priceIndex(ids, prices), CatalogVersion.of(ingredientTestFile));
+        assertEquals(400, index.costOf(1));
+        assertEquals(300, index.costOf(2));
+        assertArrayEquals(new long[]{400, 300}, recipeCosting.calculateAllRecipeCosts(recipes, priceIndex(ids, prices)));
+
+        // Stew adds ingredient 7, so the rebuilt quantity matrix has a column the old prices lack
+        recipeCosting.createRecipe(recipes, ingredientTestFile, recipeTestFile);
+        assertEquals(300, index.costOf(3));
+        prices[2] = 4.0f;
+        writeIngredients(ids, prices);
+
+        assertSame(index, recipeCosting.getCostIndex(recipes, CatalogVersion.of(recipeTestFile),
+                priceIndex(ids, prices), CatalogVersion.of(ingredientTestFile)));
+        assertEquals(500, index.costOf(1));
+        assertEquals(400, index.costOf(2));
+        assertEquals(300, index.costOf(3));
+        assertEquals(Arrays.asList(2, 1), index.findInCostRange(1, 0, RecipeCostIndex.MAX_COST));
+        index.checkStructure();
+    }
+
+    private static PriceIndex priceIndex(int[] ids, float[] prices) {
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setId(ids[i]);
+            ingredient.setPrice(prices[i]);
+            ingredients.add(ingredient);
+        }
+        return new PriceIndex(ingredients);
+    }
+
+    private void writeIngredients(int[] ids, float[] prices) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(ingredientTestFile))) {
+            for (int i = 0; i < ids.length; i++) {
+                out.writeInt(ids[i]);
+                out.writeUTF("Ingredient " + ids[i]);
+                out.writeFloat(prices[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testEditRecipeChangeCategoryUpdatesCategoryIndex() throws IOException, InterruptedException {
+        List<Recipe> recipes = createTestRecipeFile(recipeTestFile);
+        RecipeCosting recipeCosting = simulateUserInput("1\n2\n3\n\n");
+        LongBPlusTree index = recipeCosting.getCategoryIndex(recipes);
+
+        recipeCosting.editRecipe(recipes, ingredientTestFile, recipeTestFile);
+
+        assertSame(index, recipeCosting.getCategoryIndex(recipes));
+        assertEquals(0, index.rangeValues(1, 1, Integer.MAX_VALUE).length);
+        assertArrayEquals(new int[]{1, 3}, index.rangeValues(3, 3, Integer.MAX_VALUE));
+        assertEquals(recipes.size(), index.size());
+    }
+
     @Test
     public void testEditRecipeChangeCategoryInputError() throws IOException, InterruptedException {
         // Create a test recipe file
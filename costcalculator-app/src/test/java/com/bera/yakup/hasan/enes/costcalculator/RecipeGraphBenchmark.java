@@ -0,0 +1,80 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * @class RecipeGraphBenchmark
+ * @brief Measures building, caching and traversing the CSR recipe graph.
+ *
+ * Run with: java -Xmx4g -cp target/classes:target/test-classes
+ * com.bera.yakup.hasan.enes.costcalculator.RecipeGraphBenchmark [recipes] [ingredients]
+ *
+ * Random recipes with up to five ingredients are turned into a graph with implicit
+ * category cliques. The heap graph is built, its retained size measured and its
+ * strongly connected components found; then the graph is written to a cache file and
+ * the components are found again on the memory-mapped copy.
+ */
+public class RecipeGraphBenchmark {
+    private static Object retained; ///< Keeps the measured graph reachable while the heap is sampled.
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int ingredients = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        Random random = new Random(42);
+        List<Recipe> recipes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Recipe recipe = new Recipe("Recipe " + i, 1 + random.nextInt(4));
+            List<Integer> used = new ArrayList<>();
+            for (int k = random.nextInt(6); k > 0; k--) {
+                used.add(1 + random.nextInt(ingredients));
+            }
+            recipe.setIngredients(used);
+            recipes.add(recipe);
+        }
+
+        long before = usedHeap();
+        long start = System.nanoTime();
+        CsrGraph graph = CsrGraph.fromRecipes(recipes, true);
+        double buildMs = (System.nanoTime() - start) / 1e6;
+        retained = graph;
+        long bytes = usedHeap() - before;
+        retained = null;
+        System.out.printf("nodes %d, edges %d, built in %.0f ms, %.1f bytes/edge on the heap%n",
+                graph.getNodeCount(), graph.getEdgeCount(), buildMs, (double) bytes / graph.getEdgeCount());
+        timeComponents("heap", graph);
+
+        File cacheFile = File.createTempFile("recipe-graph", ".csr");
+        cacheFile.deleteOnExit();
+        start = System.nanoTime();
+        graph.writeTo(cacheFile.getPath());
+        System.out.printf("cache written in %.0f ms, %d bytes%n", (System.nanoTime() - start) / 1e6, cacheFile.length());
+        graph = null;
+
+        start = System.nanoTime();
+        CsrGraph mapped = CsrGraph.map(cacheFile.getPath());
+        System.out.printf("cache mapped in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+        timeComponents("mapped", mapped);
+        cacheFile.delete();
+    }
+
+    private static void timeComponents(String name, CsrGraph graph) {
+        RecipeGraph recipeGraph = new RecipeGraph(graph, new Scanner(""));
+        long start = System.nanoTime();
+        int[][] components = recipeGraph.stronglyConnectedComponents();
+        System.out.printf("%-8s %d components in %.0f ms%n", name, components.length, (System.nanoTime() - start) / 1e6);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
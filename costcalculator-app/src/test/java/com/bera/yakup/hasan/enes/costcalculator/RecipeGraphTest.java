@@ -0,0 +1,201 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class RecipeGraphTest {
+
+    private static List<Recipe> randomRecipes(Random random, int count, int categories, int ingredients) {
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Recipe recipe = new Recipe("Recipe " + i, 1 + random.nextInt(categories));
+            List<Integer> used = new ArrayList<>();
+            int size = random.nextInt(4);
+            for (int k = 0; k < size; k++) {
+                used.add(1 + random.nextInt(ingredients));
+            }
+            recipe.setIngredients(used);
+            recipes.add(recipe);
+        }
+        return recipes;
+    }
+
+    /**
+     * @brief The pairwise definition the builder must agree with.
+     */
+    private static List<Integer> bruteForceNeighbors(List<Recipe> recipes, int i) {
+        List<Integer> neighbors = new ArrayList<>();
+        for (int j = 0; j < recipes.size(); j++) {
+            if (i == j) {
+                continue;
+            }
+            Recipe a = recipes.get(i);
+            Recipe b = recipes.get(j);
+            boolean linked = a.getCategory() == b.getCategory();
+            for (int ingredient : a.getIngredients()) {
+                linked |= b.getIngredients().contains(ingredient);
+            }
+            if (linked) {
+                neighbors.add(j);
+            }
+        }
+        return neighbors;
+    }
+
+    private static Set<Set<String>> components(RecipeGraph graph, List<Recipe> recipes) {
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured));
+        try {
+            graph.tarjanSCC(recipes);
+        } finally {
+            System.setOut(originalOut);
+        }
+        Set<Set<String>> components = new HashSet<>();
+        for (String block : captured.toString().split("Recipes in this SCC:")) {
+            Set<String> lines = new HashSet<>(Arrays.asList(block.trim().split("\\R")));
+            lines.remove("");
+            if (!lines.isEmpty()) {
+                components.add(lines);
+            }
+        }
+        return components;
+    }
+
+    @Test
+    public void testEdgesMatchPairwiseDefinition() {
+        Random random = new Random(21);
+        List<Recipe> recipes = randomRecipes(random, 300, 4, 60);
+        RecipeGraph graph = RecipeGraph.buildGraphFromRecipes(recipes, null);
+
+        assertEquals(300, graph.getNodeCount());
+        long edges = 0;
+        for (int i = 0; i < recipes.size(); i++) {
+            List<Integer> expected = bruteForceNeighbors(recipes, i);
+            assertEquals("recipe " + i, expected, graph.getNeighbors(i));
+            edges += expected.size();
+        }
+        assertEquals(edges, graph.getEdgeCount());
+    }
+
+    @Test
+    public void testImplicitCategoryCliquesKeepComponents() {
+        Random random = new Random(22);
+        List<Recipe> recipes = randomRecipes(random, 200, 40, 2000);
+        RecipeGraph explicit = RecipeGraph.buildGraphFromRecipes(recipes, null);
+        RecipeGraph implicit = RecipeGraph.buildGraphFromRecipes(recipes, null, true);
+
+        assertEquals(200, implicit.getRecipeCount());
+        Set<Integer> categories = new HashSet<>();
+        for (Recipe recipe : recipes) {
+            categories.add(recipe.getCategory());
+        }
+        assertEquals(200 + categories.size(), implicit.getNodeCount());
+        assertTrue(implicit.getEdgeCount() < explicit.getEdgeCount());
+        Set<Set<String>> expected = components(explicit, recipes);
+        assertTrue(expected.size() > 1);
+        assertEquals(expected, components(implicit, recipes));
+    }
+
+    @Test
+    public void testRecipesWithoutSharedIngredientsOnlyLinkByCategory() {
+        List<Recipe> recipes = new ArrayList<>();
+        recipes.add(new Recipe("Tomato Soup", 1));
+        recipes.add(new Recipe("Lentil Soup", 1));
+        recipes.add(new Recipe("Baklava", 4));
+        recipes.get(0).setIngredients(Arrays.asList(1, 2));
+        recipes.get(1).setIngredients(Arrays.asList(3));
+        recipes.get(2).setIngredients(Arrays.asList(4, 4));
+
+        RecipeGraph graph = RecipeGraph.buildGraphFromRecipes(recipes, null);
+        assertEquals(Arrays.asList(1), graph.getNeighbors(0));
+        assertEquals(Arrays.asList(0), graph.getNeighbors(1));
+        assertTrue(graph.getNeighbors(2).isEmpty());
+    }
+
+    @Test
+    public void testComponentsMatchMutualReachability() {
+        Random random = new Random(23);
+        int n = 150;
+        RecipeGraph graph = new RecipeGraph(n, null);
+        boolean[][] reach = new boolean[n][n];
+        for (int e = 0; e < 180; e++) {
+            int from = random.nextInt(n);
+            int to = random.nextInt(n);
+            graph.addEdge(from, to);
+            reach[from][to] = true;
+        }
+        for (int i = 0; i < n; i++) {
+            reach[i][i] = true;
+        }
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    reach[i][j] |= reach[i][k] && reach[k][j];
+                }
+            }
+        }
+
+        int[][] components = graph.stronglyConnectedComponents();
+        int[] componentOf = new int[n];
+        Arrays.fill(componentOf, -1);
+        for (int c = 0; c < components.length; c++) {
+            for (int node : components[c]) {
+                assertEquals(-1, componentOf[node]);
+                componentOf[node] = c;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(reach[i][j] && reach[j][i], componentOf[i] == componentOf[j]);
+                // Tarjan completes a component only after every component it reaches
+                if (reach[i][j] && componentOf[i] != componentOf[j]) {
+                    assertTrue(componentOf[j] < componentOf[i]);
+                }
+            }
+        }
+        assertArrayEquals(components[0], graph.stronglyConnectedComponents()[0]);
+    }
+
+    @Test
+    public void testMillionNodeChainDoesNotOverflowTheStack() {
+        int n = 1_000_000;
+        RecipeGraph chain = new RecipeGraph(n, null);
+        for (int i = 1; i < n; i++) {
+            chain.addEdge(i - 1, i);
+        }
+        int[][] singletons = chain.stronglyConnectedComponents();
+        assertEquals(n, singletons.length);
+        assertArrayEquals(new int[]{n - 1}, singletons[0]);
+
+        chain.addEdge(n - 1, 0);
+        int[][] cycle = chain.stronglyConnectedComponents();
+        assertEquals(1, cycle.length);
+        assertEquals(n, cycle[0].length);
+        assertEquals(n - 1, cycle[0][0]);
+    }
+
+    @Test
+    public void testPrintComponentsKeepsFormat() {
+        List<Recipe> recipes = new ArrayList<>();
+        recipes.add(new Recipe("Tomato Soup", 1));
+        recipes.add(new Recipe("Baklava", 4));
+        recipes.get(1).setIngredients(Arrays.asList(7, 8));
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+        RecipeGraph.printComponents(new int[][]{{1}, {0}}, recipes, new PrintStream(captured));
+        String expected = String.format("Recipes in this SCC:%n- Recipe 2: Baklava (Category: 4, Ingredients: [7, 8])%n%n"
+                + "Recipes in this SCC:%n- Recipe 1: Tomato Soup (Category: 1, Ingredients: [])%n%n");
+        assertEquals(expected, captured.toString());
+    }
+}
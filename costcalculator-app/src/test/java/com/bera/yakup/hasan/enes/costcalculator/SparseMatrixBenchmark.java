@@ -0,0 +1,88 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @class SparseMatrixBenchmark
+ * @brief Measures GFLOP/s and thread scaling of the SparseMatrix SpMV and SpMM kernels.
+ *
+ * Run with: java -cp target/classes:target/test-classes
+ * com.bera.yakup.hasan.enes.costcalculator.SparseMatrixBenchmark [recipes] [ingredients] [perRecipe] [scenarios] [maxThreads]
+ *
+ * Every kernel is warmed up before it is timed, and the best of several timed runs
+ * is reported for 1, 2, 4, ... threads up to maxThreads (at most 64).
+ */
+public class SparseMatrixBenchmark {
+    private static final int WARMUP_RUNS = 5;
+    private static final int TIMED_RUNS = 10;
+
+    public static void main(String[] args) {
+        int recipes = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int ingredients = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int perRecipe = args.length > 2 ? Integer.parseInt(args[2]) : 12;
+        int scenarios = args.length > 3 ? Integer.parseInt(args[3]) : 1_000;
+        int maxThreads = Math.min(64, args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors());
+
+        Random random = new Random(42);
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(recipes, ingredients);
+        for (int r = 0; r < recipes; r++) {
+            for (int i = 0; i < perRecipe; i++) {
+                builder.add(r, random.nextInt(ingredients), 1 + random.nextInt(3));
+            }
+        }
+        SparseMatrix matrix = builder.build();
+
+        double[] prices = new double[ingredients];
+        for (int i = 0; i < ingredients; i++) {
+            prices[i] = 100 + random.nextInt(10_000);
+        }
+        // The SpMM uses a smaller slice of the recipes so one run stays around a second
+        SparseMatrix spmmMatrix = matrix.rowSlice(0, Math.min(recipes, 20_000));
+        ScenarioMatrix forecasts = new ScenarioMatrix(ingredients, scenarios);
+        for (int i = 0; i < ingredients; i++) {
+            for (int s = 0; s < scenarios; s++) {
+                forecasts.set(i, s, prices[i] * (0.9 + 0.2 * random.nextDouble()));
+            }
+        }
+
+        System.out.printf("Matrix: %d x %d, %d non-zeros; SpMM: %d rows x %d scenarios%n",
+                recipes, ingredients, matrix.getNonZeroCount(), spmmMatrix.getRowCount(), scenarios);
+        System.out.println("kernel,threads,seconds,gflops,speedup");
+
+        double spmvBase = 0;
+        double spmmBase = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                double spmv = bestSeconds(() -> matrix.multiplyParallel(prices, pool));
+                double spmm = bestSeconds(() -> spmmMatrix.multiply(forecasts, pool));
+                if (threads == 1) {
+                    spmvBase = spmv;
+                    spmmBase = spmm;
+                }
+                report("spmv", threads, spmv, 2.0 * matrix.getNonZeroCount(), spmvBase);
+                report("spmm", threads, spmm, 2.0 * spmmMatrix.getNonZeroCount() * scenarios, spmmBase);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static double bestSeconds(Runnable kernel) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            kernel.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long start = System.nanoTime();
+            kernel.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e9;
+    }
+
+    private static void report(String kernel, int threads, double seconds, double flops, double baseSeconds) {
+        System.out.printf("%s,%d,%.6f,%.3f,%.2f%n", kernel, threads, seconds, flops / seconds / 1e9, baseSeconds / seconds);
+    }
+}
@@ -0,0 +1,186 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class SparseMatrixTest {
+
+    private static SparseMatrix sampleMatrix() {
+        // 2 0 1
+        // 0 0 0
+        // 0 3 4
+        return new SparseMatrix.Builder(3, 3)
+                .add(2, 2, 4.0)
+                .add(0, 0, 1.0)
+                .add(0, 2, 1.0)
+                .add(2, 1, 3.0)
+                .add(0, 0, 1.0)
+                .build();
+    }
+
+    @Test
+    public void testBuilderSortsAndMergesEntries() {
+        SparseMatrix matrix = sampleMatrix();
+
+        assertEquals(4, matrix.getNonZeroCount());
+        assertEquals(2.0, matrix.get(0, 0), 0.0);
+        assertEquals(0.0, matrix.get(1, 1), 0.0);
+        assertEquals(0, matrix.rowEnd(1) - matrix.rowStart(1));
+        assertEquals(1, matrix.columnAt(matrix.rowStart(2)));
+    }
+
+    @Test
+    public void testCancelledEntriesAreDropped() {
+        SparseMatrix matrix = new SparseMatrix.Builder(1, 2).add(0, 1, 2.0).add(0, 1, -2.0).build();
+
+        assertEquals(0, matrix.getNonZeroCount());
+    }
+
+    @Test
+    public void testMultiply() {
+        SparseMatrix matrix = sampleMatrix();
+
+        assertArrayEquals(new double[]{7.0, 0.0, 18.0}, matrix.multiply(new double[]{2.0, 2.0, 3.0}), 0.0);
+        assertArrayEquals(new long[]{700L, 0L, 1800L}, matrix.multiply(new long[]{200L, 200L, 300L}));
+    }
+
+    @Test
+    public void testTranspose() {
+        SparseMatrix transposed = sampleMatrix().transpose();
+
+        assertEquals(3, transposed.getRowCount());
+        assertEquals(1.0, transposed.get(2, 0), 0.0);
+        assertEquals(3.0, transposed.get(1, 2), 0.0);
+        assertEquals(4.0, transposed.get(2, 2), 0.0);
+        assertEquals(0.0, transposed.get(0, 2), 0.0);
+    }
+
+    @Test
+    public void testRowSlice() {
+        SparseMatrix slice = sampleMatrix().rowSlice(1, 3);
+
+        assertEquals(2, slice.getRowCount());
+        assertEquals(2, slice.getNonZeroCount());
+        assertEquals(4.0, slice.get(1, 2), 0.0);
+    }
+
+    @Test
+    public void testFromRecipesCountsRepeatedIngredients() {
+        List<Recipe> recipes = new ArrayList<>();
+        Recipe soup = new Recipe("Tomato Soup", 1);
+        soup.setIngredients(Arrays.asList(1, 2, 1));
+        recipes.add(soup);
+        Recipe salad = new Recipe("Salad", 2);
+        salad.setIngredients(Arrays.asList(3));
+        recipes.add(salad);
+
+        SparseMatrix matrix = SparseMatrix.fromRecipes(recipes);
+        long[] costs = matrix.multiply(new long[]{0L, 1250L, 300L, 75L});
+
+        assertEquals(2.0, matrix.get(0, 1), 0.0);
+        assertArrayEquals(new long[]{2800L, 75L}, costs);
+    }
+
+    @Test
+    public void testFromRecipesCompactsSparseIngredientIds() {
+        List<Recipe> recipes = new ArrayList<>();
+        Recipe bread = new Recipe("Bread", 1);
+        bread.setIngredients(Arrays.asList(Integer.MAX_VALUE - 1, 7, 7));
+        recipes.add(bread);
+        Recipe soup = new Recipe("Soup", 1);
+        soup.setIngredients(Arrays.asList(-3, 40000));
+        recipes.add(soup);
+
+        SparseMatrix matrix = SparseMatrix.fromRecipes(recipes);
+        long[] costs = matrix.multiply(new long[]{100L, 250L, 1000L});
+
+        assertEquals(3, matrix.getColumnCount());
+        assertEquals(40000, matrix.getColumnId(1));
+        assertEquals(2, matrix.columnOf(Integer.MAX_VALUE - 1));
+        assertEquals(-1, matrix.columnOf(8));
+        assertEquals(-1, matrix.columnOf(-3));
+        assertEquals(2.0, matrix.get(0, matrix.columnOf(7)), 0.0);
+        assertArrayEquals(new long[]{1200L, 250L}, costs);
+        assertEquals(1, matrix.transpose().rowEnd(1) - matrix.transpose().rowStart(1));
+    }
+
+    private static SparseMatrix randomMatrix(int rows, int columns, int perRow) {
+        Random random = new Random(7);
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(rows, columns);
+        for (int r = 0; r < rows; r++) {
+            // Uneven rows so the partitions have to balance non-zeros
+            int count = r % 10 == 0 ? perRow * 5 : perRow;
+            for (int i = 0; i < count; i++) {
+                builder.add(r, random.nextInt(columns), 1 + random.nextInt(3));
+            }
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testParallelMultiplyMatchesSequential() {
+        SparseMatrix matrix = randomMatrix(5000, 300, 8);
+        long[] prices = new long[300];
+        double[] weights = new double[300];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 100 + i * 7;
+            weights[i] = i * 0.5;
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertArrayEquals(matrix.multiply(prices), matrix.multiplyParallel(prices, pool));
+            assertArrayEquals(matrix.multiply(weights), matrix.multiplyParallel(weights, pool), 1e-9);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testPartitionRowsBalancesNonZeros() {
+        SparseMatrix matrix = randomMatrix(1000, 50, 4);
+        int[] bounds = matrix.partitionRows(8);
+
+        assertEquals(0, bounds[0]);
+        assertEquals(1000, bounds[8]);
+        for (int i = 0; i < 8; i++) {
+            int nonZeros = matrix.rowStart(bounds[i + 1]) - matrix.rowStart(bounds[i]);
+            assertTrue(nonZeros <= matrix.getNonZeroCount() / 8 + 20);
+        }
+    }
+
+    @Test
+    public void testScenarioMultiplyMatchesColumnByColumn() {
+        SparseMatrix matrix = randomMatrix(2000, 100, 6);
+        // 70 scenarios with 32-wide panels leaves a narrower last panel
+        ScenarioMatrix scenarios = new ScenarioMatrix(100, 70, 32);
+        for (int i = 0; i < 100; i++) {
+            for (int s = 0; s < 70; s++) {
+                scenarios.set(i, s, i + s * 0.25);
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            ScenarioMatrix costs = matrix.multiply(scenarios, pool);
+
+            assertEquals(2000, costs.getRowCount());
+            assertEquals(70, costs.getColumnCount());
+            for (int s = 0; s < 70; s++) {
+                assertArrayEquals(matrix.multiply(scenarios.getColumn(s)), costs.getColumn(s), 1e-9);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultiplyWithShortVector() {
+        sampleMatrix().multiply(new long[2]);
+    }
+}
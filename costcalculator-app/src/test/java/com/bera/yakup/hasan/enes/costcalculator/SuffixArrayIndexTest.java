@@ -0,0 +1,93 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SuffixArrayIndexTest {
+
+    @Test
+    public void testSuffixArrayIsSorted() {
+        char[] text = "mississippi\0banana\0".toCharArray();
+        int[] suffixArray = SuffixArrayIndex.buildSuffixArray(text);
+        int[] lcp = SuffixArrayIndex.buildLcp(text, suffixArray);
+
+        String corpus = new String(text);
+        for (int i = 1; i < suffixArray.length; i++) {
+            String previous = corpus.substring(suffixArray[i - 1]);
+            String current = corpus.substring(suffixArray[i]);
+            assertTrue(previous.compareTo(current) < 0);
+            int common = 0;
+            while (common < Math.min(previous.length(), current.length()) && previous.charAt(common) == current.charAt(common)) {
+                common++;
+            }
+            assertEquals(common, lcp[i]);
+        }
+    }
+
+    @Test
+    public void testFindReturnsEachNameOnce() {
+        SuffixArrayIndex index = new SuffixArrayIndex(Arrays.asList("Banana", "Tomato", "Bandana", "Salt"), false);
+
+        assertArrayEquals(new int[]{0, 2}, index.find("ana"));
+        assertEquals(3, index.countOccurrences("ana"));
+        assertArrayEquals(new int[]{1}, index.find("Tomato"));
+        assertArrayEquals(new int[0], index.find("tomato"));
+        assertArrayEquals(new int[0], index.find("oS"));
+        assertArrayEquals(new int[0], index.find(""));
+    }
+
+    @Test
+    public void testIgnoreCase() {
+        SuffixArrayIndex index = new SuffixArrayIndex(Arrays.asList("Olive Oil", "Soil", "Milk"), true);
+
+        assertArrayEquals(new int[]{0, 1}, index.find("OIL"));
+        assertArrayEquals(new int[]{2}, index.find("mIlK"));
+    }
+
+    @Test
+    public void testAgreesWithContainsOnRandomNames() {
+        Random random = new Random(3);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            names.add(randomWord(random, 1 + random.nextInt(12)));
+        }
+        SuffixArrayIndex index = new SuffixArrayIndex(names, false);
+
+        for (int q = 0; q < 300; q++) {
+            String query = randomWord(random, 1 + random.nextInt(3));
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < names.size(); i++) {
+                if (names.get(i).contains(query)) {
+                    expected.add(i);
+                }
+            }
+            int[] found = index.find(query);
+            assertEquals(query, expected.size(), found.length);
+            for (int i = 0; i < found.length; i++) {
+                assertEquals(query, (int) expected.get(i), found[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        SuffixArrayIndex index = new SuffixArrayIndex(new ArrayList<>(), true);
+
+        assertArrayEquals(new int[0], index.find("a"));
+        assertEquals(0, index.getDocumentCount());
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(3)));
+        }
+        return word.toString();
+    }
+}
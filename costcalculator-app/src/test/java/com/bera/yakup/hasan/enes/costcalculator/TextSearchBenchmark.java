@@ -0,0 +1,316 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @class TextSearchBenchmark
+ * @brief Compares the substring searches available for ingredient names.
+ *
+ * Run with: java -cp target/classes:target/test-classes
+ * com.bera.yakup.hasan.enes.costcalculator.TextSearchBenchmark [maxNames] [queries] [csvFile]
+ *
+ * For two corpora (random letter words and ingredient-like names), catalog sizes of
+ * 1000, 10000, ... up to maxNames, pattern lengths 2 to 16 and hit rates 0 to 1, a
+ * batch of queries is answered by every method and the time per query is written as
+ * one CSV line per method, to csvFile if given and to standard output otherwise.
+ *
+ * A hit query is a substring of a random catalog name; a miss query is a random
+ * string of the same length that no name contains. The scanning methods and the
+ * suffix array must agree on the number of (query, name) matches. The trigram index
+ * answers typo-tolerant word queries instead, so its match count is reported but
+ * not compared; its build time, like the suffix array's, is in the build_ms column.
+ */
+public class TextSearchBenchmark {
+    private static final String[] FOODS = {
+            "tomato", "milk", "butter", "peanut", "olive oil", "wheat flour", "egg", "sugar", "salt",
+            "black pepper", "soy sauce", "almond", "cheddar cheese", "cream", "yogurt", "honey", "garlic",
+            "chicken breast", "basil", "lemon juice", "rice", "potato", "onion", "carrot", "parsley"
+    };
+    private static final String[] ADJECTIVES = {
+            "fresh", "organic", "sliced", "dried", "frozen", "ground", "smoked", "roasted", "whole", "light"
+    };
+    private static final String[] CORPORA = {"synthetic", "realistic"};
+    private static final int[] PATTERN_LENGTHS = {2, 4, 8, 16};
+    private static final double[] HIT_RATES = {0.0, 0.5, 1.0};
+    private static final int MIN_NAMES = 1_000;
+    private static final int WARMUP_RUNS = 3;
+    private static final int TIMED_RUNS = 5;
+
+    /**
+     * @class Horspool
+     * @brief Boyer-Moore-Horspool matcher with a bad character table over the low byte of each char.
+     *
+     * Characters sharing a low byte share a table entry holding the smallest of their
+     * shifts, which is always safe and exact for the ASCII names of the corpora.
+     */
+    private static final class Horspool {
+        private final char[] pattern;
+        private final int[] shift = new int[256];
+
+        Horspool(String pattern) {
+            this.pattern = pattern.toCharArray();
+            int m = this.pattern.length;
+            Arrays.fill(shift, m);
+            for (int i = 0; i < m - 1; i++) {
+                shift[this.pattern[i] & 0xFF] = m - 1 - i;
+            }
+        }
+
+        boolean contains(String text) {
+            int m = pattern.length;
+            int last = text.length() - m;
+            int i = 0;
+            while (i <= last) {
+                int j = m - 1;
+                while (j >= 0 && text.charAt(i + j) == pattern[j]) {
+                    j--;
+                }
+                if (j < 0) {
+                    return true;
+                }
+                i += shift[text.charAt(i + m - 1) & 0xFF];
+            }
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws FileNotFoundException {
+        int maxNames = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        PrintStream csv = args.length > 2 ? new PrintStream(args[2]) : System.out;
+
+        csv.println("corpus,names,pattern_length,hit_rate,method,ns_per_query,matches,build_ms");
+        for (String corpus : CORPORA) {
+            for (int size = MIN_NAMES; size <= maxNames; size *= 10) {
+                Random random = new Random(42);
+                List<String> names = generateNames(corpus, size, random);
+
+                long start = System.nanoTime();
+                SuffixArrayIndex suffixArray = new SuffixArrayIndex(names, false);
+                double suffixBuildMs = (System.nanoTime() - start) / 1e6;
+                start = System.nanoTime();
+                TrigramIndex trigrams = new TrigramIndex(names);
+                double trigramBuildMs = (System.nanoTime() - start) / 1e6;
+
+                for (int length : PATTERN_LENGTHS) {
+                    for (double hitRate : HIT_RATES) {
+                        List<String> queries = generateQueries(names, suffixArray, queryCount, length, hitRate, random);
+                        String prefix = String.format("%s,%d,%d,%.2f,", corpus, size, length, hitRate);
+                        runCell(csv, prefix, names, queries, suffixArray, suffixBuildMs, trigrams, trigramBuildMs);
+                    }
+                }
+            }
+        }
+        if (csv != System.out) {
+            csv.close();
+        }
+    }
+
+    /**
+     * @brief Times every method on one batch of queries and writes their CSV lines.
+     */
+    private static void runCell(PrintStream csv, String prefix, List<String> names, List<String> queries,
+                                SuffixArrayIndex suffixArray, double suffixBuildMs,
+                                TrigramIndex trigrams, double trigramBuildMs) {
+        long[] matches = new long[1];
+
+        double kmp = bestSeconds(() -> {
+            long count = 0;
+            for (String query : queries) {
+                for (String name : names) {
+                    if (KMPAlgorithm.KMPSearch(name, query)) {
+                        count++;
+                    }
+                }
+            }
+            matches[0] = count;
+        });
+        long expected = matches[0];
+        report(csv, prefix, "kmp-search", kmp, queries.size(), expected, 0);
+
+        double compiled = bestSeconds(() -> {
+            long count = 0;
+            for (String query : queries) {
+                KMPMatcher matcher = new KMPMatcher(query);
+                for (String name : names) {
+                    if (matcher.contains(name)) {
+                        count++;
+                    }
+                }
+            }
+            matches[0] = count;
+        });
+        check("kmp-matcher", expected, matches[0]);
+        report(csv, prefix, "kmp-matcher", compiled, queries.size(), expected, 0);
+
+        double contains = bestSeconds(() -> {
+            long count = 0;
+            for (String query : queries) {
+                for (String name : names) {
+                    if (name.contains(query)) {
+                        count++;
+                    }
+                }
+            }
+            matches[0] = count;
+        });
+        check("string-contains", expected, matches[0]);
+        report(csv, prefix, "string-contains", contains, queries.size(), expected, 0);
+
+        double horspool = bestSeconds(() -> {
+            long count = 0;
+            for (String query : queries) {
+                Horspool matcher = new Horspool(query);
+                for (String name : names) {
+                    if (matcher.contains(name)) {
+                        count++;
+                    }
+                }
+            }
+            matches[0] = count;
+        });
+        check("horspool", expected, matches[0]);
+        report(csv, prefix, "horspool", horspool, queries.size(), expected, 0);
+
+        // One automaton over the whole batch, so the catalog is scanned once for all queries
+        double ahoCorasick = bestSeconds(() -> {
+            AhoCorasick automaton = new AhoCorasick(queries);
+            int[] seenIn = new int[queries.size()];
+            int[] nameNumber = new int[1];
+            long[] count = new long[1];
+            AhoCorasick.MatchListener listener = (patternIndex, end) -> {
+                if (seenIn[patternIndex] != nameNumber[0]) {
+                    seenIn[patternIndex] = nameNumber[0];
+                    count[0]++;
+                }
+            };
+            for (String name : names) {
+                nameNumber[0]++;
+                automaton.search(name, listener);
+            }
+            matches[0] = count[0];
+        });
+        check("aho-corasick", expected, matches[0]);
+        report(csv, prefix, "aho-corasick", ahoCorasick, queries.size(), expected, 0);
+
+        double suffix = bestSeconds(() -> {
+            long count = 0;
+            for (String query : queries) {
+                count += suffixArray.find(query).length;
+            }
+            matches[0] = count;
+        });
+        check("suffix-array", expected, matches[0]);
+        report(csv, prefix, "suffix-array", suffix, queries.size(), expected, suffixBuildMs);
+
+        double trigram = bestSeconds(() -> {
+            long count = 0;
+            for (String query : queries) {
+                count += trigrams.search(query).size();
+            }
+            matches[0] = count;
+        });
+        report(csv, prefix, "trigram-fuzzy", trigram, queries.size(), matches[0], trigramBuildMs);
+    }
+
+    private static void check(String method, long expected, long actual) {
+        if (expected != actual) {
+            throw new IllegalStateException("Match counts differ: kmp-search " + expected + ", " + method + " " + actual);
+        }
+    }
+
+    private static void report(PrintStream csv, String prefix, String method, double seconds, int queries,
+                               long matches, double buildMs) {
+        csv.printf("%s%s,%.0f,%d,%.3f%n", prefix, method, seconds * 1e9 / queries, matches, buildMs);
+    }
+
+    /**
+     * @brief Generates a catalog of names.
+     * @param corpus "synthetic" for random letter words, "realistic" for ingredient-like names.
+     */
+    private static List<String> generateNames(String corpus, int count, Random random) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder name = new StringBuilder();
+            if (corpus.equals("synthetic")) {
+                int words = 1 + random.nextInt(3);
+                for (int w = 0; w < words; w++) {
+                    if (w > 0) {
+                        name.append(' ');
+                    }
+                    int letters = 3 + random.nextInt(8);
+                    for (int c = 0; c < letters; c++) {
+                        name.append((char) ('a' + random.nextInt(26)));
+                    }
+                }
+            } else {
+                if (random.nextBoolean()) {
+                    name.append(ADJECTIVES[random.nextInt(ADJECTIVES.length)]).append(' ');
+                }
+                name.append(FOODS[random.nextInt(FOODS.length)]);
+                if (random.nextInt(4) == 0) {
+                    name.append(' ').append(1 + random.nextInt(999)).append('g');
+                }
+            }
+            names.add(name.toString());
+        }
+        return names;
+    }
+
+    /**
+     * @brief Generates a batch of queries of one length with a given share of hits.
+     */
+    private static List<String> generateQueries(List<String> names, SuffixArrayIndex index, int count, int length,
+                                                double hitRate, Random random) {
+        List<String> queries = new ArrayList<>(count);
+        int hits = (int) Math.round(count * hitRate);
+        for (int q = 0; q < count; q++) {
+            queries.add(q < hits ? hitQuery(names, length, random) : missQuery(index, length, random));
+        }
+        return queries;
+    }
+
+    private static String hitQuery(List<String> names, int length, Random random) {
+        while (true) {
+            String name = names.get(random.nextInt(names.size()));
+            if (name.length() >= length) {
+                int start = random.nextInt(name.length() - length + 1);
+                return name.substring(start, start + length);
+            }
+        }
+    }
+
+    private static String missQuery(SuffixArrayIndex index, int length, Random random) {
+        char[] query = new char[length];
+        for (int attempt = 0; ; attempt++) {
+            for (int c = 0; c < length; c++) {
+                query[c] = (char) ('a' + random.nextInt(26));
+            }
+            if (attempt >= 100) {
+                query[length - 1] = '#'; // Short queries may hit every time on a large catalog
+            }
+            String candidate = new String(query);
+            if (index.countOccurrences(candidate) == 0) {
+                return candidate;
+            }
+        }
+    }
+
+    private static double bestSeconds(Runnable task) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e9;
+    }
+}
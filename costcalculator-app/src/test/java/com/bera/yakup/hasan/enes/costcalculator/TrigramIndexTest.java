@@ -0,0 +1,90 @@
+package com.bera.yakup.hasan.enes.costcalculator;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TrigramIndexTest {
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(d[i - 1][j - 1] + cost, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    @Test
+    public void testBoundedLevenshteinMatchesFullTable() {
+        Random random = new Random(11);
+        for (int t = 0; t < 2000; t++) {
+            String a = randomWord(random, random.nextInt(8));
+            String b = randomWord(random, random.nextInt(8));
+            int k = random.nextInt(4);
+            int exact = levenshtein(a, b);
+            assertEquals(a + "/" + b + "/" + k, Math.min(exact, k + 1), TrigramIndex.boundedLevenshtein(a, b, k));
+        }
+    }
+
+    @Test
+    public void testFindsMisspelledNames() {
+        TrigramIndex index = new TrigramIndex(Arrays.asList("Tomato", "Cherry Tomato", "Potato", "Olive Oil", "Mozzarella"));
+
+        List<TrigramIndex.Match> matches = index.search("tomatoe");
+
+        assertEquals(2, matches.size());
+        assertEquals(0, matches.get(0).getDocument());
+        assertEquals(1, matches.get(0).getDistance());
+        assertEquals(1, matches.get(1).getDocument());
+        assertEquals(1, index.search("mozarella").get(0).getDistance());
+        assertEquals(3, index.search("olve oil").get(0).getDocument());
+        assertTrue(index.search("xyz").isEmpty());
+    }
+
+    @Test
+    public void testSearchFindsEveryNameWithinDistance() {
+        Random random = new Random(5);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            names.add(randomWord(random, 4 + random.nextInt(5)));
+        }
+        TrigramIndex index = new TrigramIndex(names);
+
+        for (int q = 0; q < 100; q++) {
+            // Misspell an indexed name with one substitution
+            char[] query = names.get(random.nextInt(names.size())).toCharArray();
+            query[random.nextInt(query.length)] = (char) ('a' + random.nextInt(4));
+            String text = new String(query);
+
+            List<Integer> found = new ArrayList<>();
+            for (TrigramIndex.Match match : index.search(text, 1)) {
+                found.add(match.getDocument());
+            }
+            for (int i = 0; i < names.size(); i++) {
+                assertEquals(text + " vs " + names.get(i), levenshtein(text, names.get(i)) <= 1, found.contains(i));
+            }
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+}
@@ -74,6 +74,9 @@ public class UserAuthenticationTest {
         this.deleteFile(this.usersTestFile);
         this.deleteFile(this.usersTestFile2);
         this.deleteFile(this.usersTestFile3);
+        this.deleteFile(this.usersTestFile + UserEmailIndex.FILE_SUFFIX);
+        this.deleteFile(this.usersTestFile2 + UserEmailIndex.FILE_SUFFIX);
+        this.deleteFile(this.usersTestFile3 + UserEmailIndex.FILE_SUFFIX);
         this.deleteFile(this.ingredientTestFile);
         this.deleteFile(this.recipesTestFile);
         this.deleteFile(this.budgetPlannerTestFile);
@@ -166,6 +169,54 @@ public class UserAuthenticationTest {
         Assert.assertTrue(output2.contains("User already exists."));
     }
 
+    @Test
+    public void testEmailFilterIsPersistedAndRebuiltWhenUsersFileChanges() throws IOException, InterruptedException {
+        UserAuthentication registering = this.simulateUserInput("\n\n");
+        for (String email : new String[]{"a@example.com", "b@example.com"}) {
+            User user = new User();
+            user.setName("A");
+            user.setSurname("B");
+            user.setEmail(email);
+            user.setPassword("pw");
+            Assert.assertTrue(registering.registerUser(user, this.usersTestFile));
+            Assert.assertEquals(email.startsWith("a") ? 1 : 2, user.getId());
+        }
+        Assert.assertTrue(new File(this.usersTestFile + UserEmailIndex.FILE_SUFFIX).exists());
+
+        // A new session reads the persisted filter instead of the users file
+        UserAuthentication session = this.simulateUserInput("\n\n");
+        UserEmailIndex index = session.getEmailIndex(this.usersTestFile);
+        Assert.assertEquals(2, index.getUserCount());
+        Assert.assertFalse(index.mightContain("unknown@example.com"));
+        Assert.assertTrue(index.getFalsePositiveRate() < 0.01);
+        Assert.assertTrue(index.describe().contains("Email filter: 2 users"));
+
+        // Replacing the users file makes the filter out of date
+        try (DataOutputStream writer = new DataOutputStream(new FileOutputStream(this.usersTestFile))) {
+            writer.writeInt(1);
+            writer.writeUTF("C");
+            writer.writeUTF("D");
+            writer.writeUTF("c@example.com");
+            writer.writeUTF("pw2");
+        }
+        User login = new User();
+        login.setEmail("c@example.com");
+        login.setPassword("pw2");
+        Assert.assertTrue(session.loginUser(login, this.usersTestFile));
+        Assert.assertEquals(1, session.getEmailIndex(this.usersTestFile).getUserCount());
+    }
+
+    @Test
+    public void testLoadUsersDoesNotWriteEmailFilter() throws IOException {
+        String missing = "missing-directory" + File.separator + "users.bin";
+        UserAuthentication userAuthentication = this.simulateUserInput("");
+        Assert.assertTrue(userAuthentication.loadUsers(missing).isEmpty());
+        Assert.assertFalse(new File(missing + UserEmailIndex.FILE_SUFFIX).exists());
+        Assert.assertFalse(new File(this.usersTestFile + UserEmailIndex.FILE_SUFFIX).exists());
+        userAuthentication.loadUsers(this.usersTestFile);
+        Assert.assertFalse(new File(this.usersTestFile + UserEmailIndex.FILE_SUFFIX).exists());
+    }
+
     @Test
     public void testLoginUserMenu() throws IOException, InterruptedException {
         User registeredUser = new User();
@@ -223,7 +274,7 @@ public class UserAuthenticationTest {
 
     @Test
     public void testUserOperationsCase1() throws IOException, InterruptedException {
-        UserAuthentication userAuthenticationWithInput = this.simulateUserInput("1\n6\n5\n");
+        UserAuthentication userAuthenticationWithInput = this.simulateUserInput("1\n7\n5\n");
         boolean result = userAuthenticationWithInput.userOperations(this.ingredientTestFile, this.recipesTestFile);
         Assert.assertTrue(result);
     }
@@ -244,7 +295,7 @@ public class UserAuthenticationTest {
 
     @Test
     public void testUserOperationsCase4() throws IOException, InterruptedException {
-        UserAuthentication userAuthenticationWithInput = this.simulateUserInput("4\n100\n3\n5\n");
+        UserAuthentication userAuthenticationWithInput = this.simulateUserInput("4\n100\n4\n5\n");
         boolean result = userAuthenticationWithInput.userOperations(this.ingredientTestFile, this.recipesTestFile);
         Assert.assertTrue(result);
     }
@@ -333,6 +384,31 @@ public class UserAuthenticationTest {
         userAuthentication.printRecipesToConsole(this.ingredientTestFile, this.recipesTestFile);
     }
 
+    @Test
+    public void testPrintRecipesToConsole_CostFollowsPriceChanges() throws IOException, InterruptedException {
+        createRecipeFile();
+        UserAuthentication userAuthentication = this.simulateUserInput("");
+        Assert.assertEquals(1, userAuthentication.printRecipesToConsole(this.ingredientTestFile, this.recipesTestFile));
+        String output = this.outContent.toString();
+        Assert.assertTrue(output.contains("5) Recipe5"));
+        Assert.assertTrue(output.contains("   Ingredients: Ingredient1, Ingredient2, "));
+        Assert.assertTrue(output.contains("   Cost: 45.00 TL"));
+
+        try (DataOutputStream writer = new DataOutputStream(new FileOutputStream(ingredientTestFile))) {
+            writer.writeInt(1);
+            writer.writeUTF("Ingredient1");
+            writer.writeFloat(20.0f);
+            writer.writeInt(2);
+            writer.writeUTF("Ingredient2");
+            writer.writeFloat(40.0f);
+        }
+        this.outContent.reset();
+        userAuthentication.printRecipesToConsole(this.ingredientTestFile, this.recipesTestFile);
+        output = this.outContent.toString();
+        Assert.assertTrue(output.contains("   Cost: 60.00 TL"));
+        Assert.assertFalse(output.contains("45.00"));
+    }
+
     @Test
     public void testClearScreen_Linux() throws IOException, InterruptedException {
         System.setProperty("os.name", "Linux");